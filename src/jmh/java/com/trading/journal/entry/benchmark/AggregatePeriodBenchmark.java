@@ -0,0 +1,88 @@
+package com.trading.journal.entry.benchmark;
+
+import com.trading.journal.entry.entries.trade.aggregate.AggregateService;
+import com.trading.journal.entry.entries.trade.aggregate.AggregateTrade;
+import com.trading.journal.entry.entries.trade.aggregate.AggregateType;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupRepository;
+import com.trading.journal.entry.entries.trade.aggregate.PeriodAggregated;
+import com.trading.journal.entry.entries.trade.aggregate.PeriodAggregatedQueryResult;
+import com.trading.journal.entry.entries.trade.aggregate.PeriodAggregatedResult;
+import com.trading.journal.entry.entries.trade.aggregate.PeriodItem;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Periods are grouped by the database, what is left on the service is building the pipeline, rendering it to the
+ * documents sent to the database and mapping the page of periods that comes back. The repository renders the pipeline
+ * as the driver would and returns a page of the given number of periods with a day item for each of their days
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AggregatePeriodBenchmark {
+
+    private static final int DAYS_IN_PERIOD = 31;
+
+    @Param({"DAY", "WEEK", "MONTH"})
+    private AggregateType aggregateType;
+
+    @Param({"10", "100"})
+    private int periods;
+
+    private AggregateService aggregateService;
+
+    private AggregateTrade aggregateTrade;
+
+    private List<Document> pipeline;
+
+    @Setup
+    public void setUp() {
+        List<PeriodAggregated> page = IntStream.range(0, periods)
+                .mapToObj(period -> new PeriodAggregated(String.valueOf(2022 - period), IntStream.range(0, DAYS_IN_PERIOD)
+                        .mapToObj(day -> new PeriodItem(BigDecimal.valueOf(day * 12_345L, 2), day + 1, "2022-01-%02d".formatted(day + 1)))
+                        .toList()))
+                .toList();
+        List<PeriodAggregatedQueryResult> result = List.of(new PeriodAggregatedQueryResult(page, periods * 10L));
+
+        DailyRollupRepository dailyRollupRepository = (DailyRollupRepository) Proxy.newProxyInstance(
+                DailyRollupRepository.class.getClassLoader(),
+                new Class<?>[]{DailyRollupRepository.class},
+                (proxy, method, args) -> {
+                    if (!"aggregate".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    pipeline = ((Aggregation) args[0]).toPipeline(Aggregation.DEFAULT_CONTEXT);
+                    return result;
+                });
+        aggregateService = new AggregateService(null, dailyRollupRepository, null);
+        aggregateTrade = new AggregateTrade(aggregateType, 0L, (long) periods);
+    }
+
+    @Benchmark
+    public void aggregatePeriod(Blackhole blackhole) {
+        PeriodAggregatedResult result = aggregateService.aggregatePeriod("6329c1f3a2c2e52e1c1a1b2c", aggregateTrade);
+        blackhole.consume(result);
+        blackhole.consume(pipeline);
+    }
+}
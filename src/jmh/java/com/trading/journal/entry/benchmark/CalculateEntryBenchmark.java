@@ -0,0 +1,88 @@
+package com.trading.journal.entry.benchmark;
+
+import com.trading.journal.entry.entries.CalculateEntry;
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryDirection;
+import com.trading.journal.entry.entries.EntryType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The calculation sets its values on the entry, so every invocation calculates a new one
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculateEntryBenchmark {
+
+    private static final BigDecimal BALANCE = new BigDecimal("10250.75");
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2022, 9, 1, 10, 30, 0);
+
+    @Benchmark
+    public Entry closedTrade() {
+        return new CalculateEntry(closedTradeEntry(), BALANCE).calculate();
+    }
+
+    @Benchmark
+    public Entry openTrade() {
+        return new CalculateEntry(openTradeEntry(), BALANCE).calculate();
+    }
+
+    @Benchmark
+    public Entry deposit() {
+        return new CalculateEntry(depositEntry(), BALANCE).calculate();
+    }
+
+    private static Entry closedTradeEntry() {
+        return Entry.builder()
+                .date(DATE)
+                .type(EntryType.TRADE)
+                .symbol("MSFT")
+                .direction(EntryDirection.LONG)
+                .price(new BigDecimal("245.67"))
+                .size(new BigDecimal("20"))
+                .profitPrice(new BigDecimal("260.10"))
+                .lossPrice(new BigDecimal("240.35"))
+                .costs(new BigDecimal("2.50"))
+                .exitDate(DATE.plusDays(3))
+                .exitPrice(new BigDecimal("257.89"))
+                .build();
+    }
+
+    private static Entry openTradeEntry() {
+        return Entry.builder()
+                .date(DATE)
+                .type(EntryType.TRADE)
+                .symbol("MSFT")
+                .direction(EntryDirection.SHORT)
+                .price(new BigDecimal("245.67"))
+                .size(new BigDecimal("20"))
+                .profitPrice(new BigDecimal("230.15"))
+                .lossPrice(new BigDecimal("250.00"))
+                .costs(new BigDecimal("2.50"))
+                .build();
+    }
+
+    private static Entry depositEntry() {
+        return Entry.builder()
+                .date(DATE)
+                .type(EntryType.DEPOSIT)
+                .price(new BigDecimal("1500.00"))
+                .build();
+    }
+}
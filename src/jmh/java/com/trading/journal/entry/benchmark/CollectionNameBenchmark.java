@@ -0,0 +1,67 @@
+package com.trading.journal.entry.benchmark;
+
+import com.allanweber.jwttoken.data.AccessTokenInfo;
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.queries.CollectionName;
+import com.trading.journal.entry.queries.impl.CollectionNameCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
+import org.springframework.data.mongodb.repository.support.MappingMongoEntityInformation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * The collection name is resolved on every repository call, built from the tenancy each time or read from the cache
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollectionNameBenchmark {
+
+    private final AccessTokenInfo accessToken = new AccessTokenInfo("subject", 1L, "Trading Journal-Tenancy", List.of("ROLE_USER"));
+
+    private MongoEntityInformation<?, ?> metadata;
+
+    private CollectionNameCache cache;
+
+    @Setup
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(emptyList()).getSimpleTypeHolder());
+        metadata = new MappingMongoEntityInformation<>(mappingContext.getRequiredPersistentEntity(Entry.class));
+        cache = new CollectionNameCache(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public String collectionName() {
+        return new CollectionName(accessToken).collectionName(metadata);
+    }
+
+    @Benchmark
+    public String middleName() {
+        return new CollectionName(accessToken, "journal entries").collectionName(metadata);
+    }
+
+    @Benchmark
+    public String cached() {
+        return cache.get(accessToken, metadata);
+    }
+}
@@ -0,0 +1,88 @@
+package com.trading.journal.entry.benchmark;
+
+import com.trading.journal.entry.entries.EntriesCursor;
+import com.trading.journal.entry.entries.EntriesQuery;
+import com.trading.journal.entry.entries.EntryDirection;
+import com.trading.journal.entry.entries.EntryResult;
+import com.trading.journal.entry.entries.EntryStatus;
+import com.trading.journal.entry.entries.EntryType;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The query is built on every request, rendering it to the document sent to the database is part of the cost
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntriesQueryBenchmark {
+
+    @Param({"JOURNAL", "SYMBOL_TYPE", "OPEN_FROM", "CLOSED_WIN_FROM", "ALL"})
+    private Filters filters;
+
+    private EntriesQuery entriesQuery;
+
+    @Setup
+    public void setUp() {
+        entriesQuery = filters.query();
+    }
+
+    @Benchmark
+    public Query buildQuery() {
+        return entriesQuery.buildQuery();
+    }
+
+    @Benchmark
+    public Document buildQueryObject() {
+        return entriesQuery.buildQuery().getQueryObject();
+    }
+
+    @Benchmark
+    public Document buildCursorQueryObject() {
+        return entriesQuery.buildCursorQuery().getQueryObject();
+    }
+
+    public enum Filters {
+        JOURNAL,
+        SYMBOL_TYPE,
+        OPEN_FROM,
+        CLOSED_WIN_FROM,
+        ALL;
+
+        EntriesQuery query() {
+            EntriesQuery.EntriesQueryBuilder builder = EntriesQuery.builder()
+                    .journalId("6329c1f3a2c2e52e1c1a1b2c")
+                    .pageable(PageRequest.of(0, 10))
+                    .cursor(new EntriesCursor(LocalDateTime.of(2022, 9, 1, 10, 30, 0), "6329c1f3a2c2e52e1c1a1b2d"));
+            switch (this) {
+                case SYMBOL_TYPE -> builder.symbol("MSFT").type(EntryType.TRADE);
+                case OPEN_FROM -> builder.status(EntryStatus.OPEN).from("2022-01-01 00:00:00");
+                case CLOSED_WIN_FROM -> builder.status(EntryStatus.CLOSED).result(EntryResult.WIN).from("2022-01-01 00:00:00");
+                case ALL -> builder.symbol("MSFT").type(EntryType.TRADE).status(EntryStatus.CLOSED).result(EntryResult.LOSE)
+                        .from("2022-01-01 00:00:00").direction(EntryDirection.LONG).strategyIds(List.of("1", "2", "3"));
+                default -> {
+                }
+            }
+            return builder.build();
+        }
+    }
+}
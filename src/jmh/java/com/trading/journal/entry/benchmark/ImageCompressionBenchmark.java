@@ -0,0 +1,73 @@
+package com.trading.journal.entry.benchmark;
+
+import com.trading.journal.entry.storage.ImageVariant;
+import com.trading.journal.entry.storage.impl.ImageSimpleCompression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Screenshots of charts are the usual upload, the image is a PNG gradient with seeded noise so it does not compress to nothing.
+ * Each compression takes from milliseconds to seconds, so it is measured as the average time of a single upload
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageCompressionBenchmark {
+
+    @Param({"1280x720", "1920x1080", "2560x1440"})
+    private String resolution;
+
+    private final ImageSimpleCompression imageCompression = new ImageSimpleCompression();
+
+    private byte[] image;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] size = resolution.split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+        BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(width * 31L + height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = x * 255 / width;
+                int green = y * 255 / height;
+                int blue = random.nextInt(256);
+                bufferedImage.setRGB(x, y, red << 16 | green << 8 | blue);
+            }
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(bufferedImage, "png", outputStream);
+        image = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] compressImage() {
+        return imageCompression.compressImage(image);
+    }
+
+    @Benchmark
+    public Map<ImageVariant, byte[]> compressVariants() {
+        return imageCompression.compressVariants(image);
+    }
+}
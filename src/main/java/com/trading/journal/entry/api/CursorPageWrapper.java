@@ -0,0 +1,23 @@
+package com.trading.journal.entry.api;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@NoArgsConstructor
+public class CursorPageWrapper<T> {
+
+    private List<T> content;
+    private String next;
+
+    public CursorPageWrapper(Slice<T> slice, Function<T, String> cursor) {
+        this.content = slice.getContent();
+        if (slice.hasNext()) {
+            this.next = cursor.apply(content.get(content.size() - 1));
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.trading.journal.entry.api;
 
 import com.trading.journal.entry.entries.*;
+import com.trading.journal.entry.entries.export.ExportFormat;
 import com.trading.journal.entry.entries.image.data.EntryImageResponse;
+import com.trading.journal.entry.entries.importing.ImportResult;
+import com.trading.journal.entry.entries.importing.ImportedEntry;
+import com.trading.journal.entry.storage.ImageVariant;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RequestMapping("/journals/{journal-id}/entries")
@@ -25,7 +33,47 @@ public interface EntryApi {
                                               @RequestParam(value = "from", required = false) String from,
                                               @RequestParam(value = "direction", required = false) EntryDirection direction,
                                               @RequestParam(value = "result", required = false) EntryResult result,
-                                              @RequestParam(value = "strategies", required = false) List<String> strategies);
+                                              @RequestParam(value = "strategies", required = false) List<String> strategies,
+                                              @RequestParam(value = "total", defaultValue = "true") boolean total);
+
+    // CPD-OFF same filters of the offset listing
+    @SuppressWarnings("PMD.UseObjectForClearerAPI")
+    @GetMapping(params = "cursor")
+    @ResponseStatus(HttpStatus.OK)
+    ResponseEntity<CursorPageWrapper<Entry>> getAllByCursor(@PathVariable(name = "journal-id") String journalId,
+                                                            @RequestParam("cursor") String cursor,
+                                                            Pageable pageable,
+                                                            @RequestParam(value = "symbol", required = false) String symbol,
+                                                            @RequestParam(value = "type", required = false) EntryType type,
+                                                            @RequestParam(value = "status", required = false) EntryStatus status,
+                                                            @RequestParam(value = "from", required = false) String from,
+                                                            @RequestParam(value = "direction", required = false) EntryDirection direction,
+                                                            @RequestParam(value = "result", required = false) EntryResult result,
+                                                            @RequestParam(value = "strategies", required = false) List<String> strategies);
+
+    @SuppressWarnings("PMD.UseObjectForClearerAPI")
+    @GetMapping("/export")
+    @ResponseStatus(HttpStatus.OK)
+    ResponseEntity<StreamingResponseBody> export(@PathVariable(name = "journal-id") String journalId,
+                                                 @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format,
+                                                 @RequestParam(value = "symbol", required = false) String symbol,
+                                                 @RequestParam(value = "type", required = false) EntryType type,
+                                                 @RequestParam(value = "status", required = false) EntryStatus status,
+                                                 @RequestParam(value = "from", required = false) String from,
+                                                 @RequestParam(value = "direction", required = false) EntryDirection direction,
+                                                 @RequestParam(value = "result", required = false) EntryResult result,
+                                                 @RequestParam(value = "strategies", required = false) List<String> strategies);
+    // CPD-ON
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    ResponseEntity<ImportResult> importEntries(@PathVariable(name = "journal-id") String journalId,
+                                               @RequestBody List<ImportedEntry> entries);
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @ResponseStatus(HttpStatus.OK)
+    ResponseEntity<ImportResult> importCsv(@PathVariable(name = "journal-id") String journalId,
+                                           InputStream body);
 
     @DeleteMapping("/{entry-id}")
     @ResponseStatus(HttpStatus.OK)
@@ -36,11 +84,23 @@ public interface EntryApi {
     ResponseEntity<Entry> get(@PathVariable(name = "entry-id") String entryId);
 
     @PostMapping("/{entry-id}/image")
+    @ResponseStatus(HttpStatus.ACCEPTED)
     ResponseEntity<EntryImageResponse> uploadImage(@PathVariable(name = "entry-id") String entryId,
                                                    @RequestParam("file") MultipartFile file);
 
+    @GetMapping("/{entry-id}/image/{image-id}/status")
+    @ResponseStatus(HttpStatus.OK)
+    ResponseEntity<EntryImageResponse> getImageStatus(@PathVariable(name = "entry-id") String entryId,
+                                                      @PathVariable(name = "image-id") String imageId);
+
+    @GetMapping("/{entry-id}/image/{image-id}")
+    ResponseEntity<Resource> getImage(@PathVariable(name = "entry-id") String entryId,
+                                      @PathVariable(name = "image-id") String imageId,
+                                      @RequestParam(value = "variant", defaultValue = "ORIGINAL") ImageVariant variant);
+
     @GetMapping("/{entry-id}/images")
-    ResponseEntity<List<EntryImageResponse>> getImages(@PathVariable(name = "entry-id") String entryId);
+    ResponseEntity<List<EntryImageResponse>> getImages(@PathVariable(name = "entry-id") String entryId,
+                                                       @RequestParam(value = "variant", defaultValue = "ORIGINAL") ImageVariant variant);
 
     @DeleteMapping("/{entry-id}/image/{image-id}")
     ResponseEntity<Void> deleteImage(@PathVariable(name = "entry-id") String entryId,
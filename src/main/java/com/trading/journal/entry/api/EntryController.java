@@ -1,17 +1,35 @@
 package com.trading.journal.entry.api;
 
 import com.trading.journal.entry.entries.*;
+import com.trading.journal.entry.entries.export.EntriesExporter;
+import com.trading.journal.entry.entries.export.ExportFormat;
 import com.trading.journal.entry.entries.image.EntryImageService;
 import com.trading.journal.entry.entries.image.data.EntryImageResponse;
+import com.trading.journal.entry.entries.importing.EntryImportService;
+import com.trading.journal.entry.entries.importing.ImportCsvReader;
+import com.trading.journal.entry.entries.importing.ImportResult;
+import com.trading.journal.entry.entries.importing.ImportedEntry;
+import com.trading.journal.entry.queries.TokenRequestScope;
+import com.trading.journal.entry.storage.ImageVariant;
+import com.trading.journal.entry.storage.StoredFile;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.springframework.http.ResponseEntity.accepted;
 import static org.springframework.http.ResponseEntity.ok;
 
 @RequiredArgsConstructor
@@ -22,27 +40,75 @@ public class EntryController implements EntryApi {
 
     private final EntryImageService entryImageService;
 
+    private final EntriesExporter entriesExporter;
+
+    private final EntryImportService entryImportService;
+
     @Override
     public ResponseEntity<PageWrapper<Entry>> getAll(
             String journalId, Pageable pageable,
             String symbol, EntryType type, EntryStatus status, String from,
-            EntryDirection direction, EntryResult result, List<String> strategies
+            EntryDirection direction, EntryResult result, List<String> strategies, boolean total
     ) {
-        EntriesQuery entriesQuery = EntriesQuery.builder()
-                .journalId(journalId)
-                .symbol(symbol)
-                .type(type)
-                .status(status)
-                .from(from)
-                .direction(direction)
-                .result(result)
-                .strategyIds(strategies)
+        EntriesQuery entriesQuery = filters(journalId, symbol, type, status, from, direction, result, strategies)
                 .pageable(pageable)
+                .countTotal(total)
                 .build();
-        Page<Entry> entries = entryService.getAll(entriesQuery);
+        Slice<Entry> entries = entryService.getAll(entriesQuery);
         return ok(new PageWrapper<>(entries));
     }
 
+    @SuppressWarnings("PMD.UseObjectForClearerAPI")
+    @Override
+    public ResponseEntity<CursorPageWrapper<Entry>> getAllByCursor(
+            String journalId, String cursor, Pageable pageable,
+            String symbol, EntryType type, EntryStatus status, String from,
+            EntryDirection direction, EntryResult result, List<String> strategies
+    ) {
+        EntriesQuery entriesQuery = filters(journalId, symbol, type, status, from, direction, result, strategies)
+                .pageable(pageable)
+                .cursor(EntriesCursor.decode(cursor))
+                .build();
+        Slice<Entry> entries = entryService.getAllByCursor(entriesQuery);
+        return ok(new CursorPageWrapper<>(entries, entry -> EntriesCursor.of(entry).encode()));
+    }
+
+    /**
+     * The cursor is opened and closed while the body is written, so it is not left open when the body never runs.
+     * The body may run on another thread, so it is written with the request tenancy
+     */
+    @SuppressWarnings("PMD.UseObjectForClearerAPI")
+    @Override
+    public ResponseEntity<StreamingResponseBody> export(
+            String journalId, ExportFormat format,
+            String symbol, EntryType type, EntryStatus status, String from,
+            EntryDirection direction, EntryResult result, List<String> strategies
+    ) {
+        EntriesQuery entriesQuery = filters(journalId, symbol, type, status, from, direction, result, strategies).build();
+        StreamingResponseBody body = TokenRequestScope.streaming(output -> {
+            try (Stream<Entry> entries = entryService.stream(entriesQuery)) {
+                entriesExporter.write(entries, format, output);
+            }
+        });
+        ContentDisposition attachment = ContentDisposition.attachment().filename("entries." + format.getExtension()).build();
+        return ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString())
+                .body(body);
+    }
+
+    @Override
+    public ResponseEntity<ImportResult> importEntries(String journalId, List<ImportedEntry> entries) {
+        ImportResult result = entryImportService.importEntries(journalId, entries);
+        return ok(result);
+    }
+
+    @Override
+    public ResponseEntity<ImportResult> importCsv(String journalId, InputStream body) {
+        ImportResult result = entryImportService.importEntries(journalId, ImportCsvReader.read(body));
+        return ok(result);
+    }
+
     @Override
     public ResponseEntity<Void> delete(String entryId) {
         entryService.delete(entryId);
@@ -58,12 +124,34 @@ public class EntryController implements EntryApi {
     @Override
     public ResponseEntity<EntryImageResponse> uploadImage(String entryId, MultipartFile file) {
         EntryImageResponse imageResponse = entryImageService.uploadImage(entryId, file);
+        return accepted().body(imageResponse);
+    }
+
+    @Override
+    public ResponseEntity<EntryImageResponse> getImageStatus(String entryId, String imageId) {
+        EntryImageResponse imageResponse = entryImageService.returnImageStatus(entryId, imageId);
         return ok(imageResponse);
     }
 
+    /**
+     * The image bytes as they are stored, without the base64 of the images listing. The stored files never change,
+     * so the stored name is the ETag, conditional requests are answered with not modified and range requests with
+     * the partial content, both by the resource handling of Spring MVC
+     */
+    @Override
+    public ResponseEntity<Resource> getImage(String entryId, String imageId, ImageVariant variant) {
+        StoredFile file = entryImageService.returnImageFile(entryId, imageId, variant);
+        return ok()
+                .contentType(MediaType.parseMediaType(file.getMediaType()))
+                .eTag(file.getFilename())
+                .lastModified(file.lastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(file);
+    }
+
     @Override
-    public ResponseEntity<List<EntryImageResponse>> getImages(String entryId) {
-        List<EntryImageResponse> images = entryImageService.returnImages(entryId);
+    public ResponseEntity<List<EntryImageResponse>> getImages(String entryId, ImageVariant variant) {
+        List<EntryImageResponse> images = entryImageService.returnImages(entryId, variant);
         return ok(images);
     }
 
@@ -72,4 +160,17 @@ public class EntryController implements EntryApi {
         entryImageService.deleteImage(entryId, imageId);
         return ok().build();
     }
+
+    private static EntriesQuery.EntriesQueryBuilder filters(String journalId, String symbol, EntryType type, EntryStatus status, String from,
+                                                            EntryDirection direction, EntryResult result, List<String> strategies) {
+        return EntriesQuery.builder()
+                .journalId(journalId)
+                .symbol(symbol)
+                .type(type)
+                .status(status)
+                .from(from)
+                .direction(direction)
+                .result(result)
+                .strategyIds(strategies);
+    }
 }
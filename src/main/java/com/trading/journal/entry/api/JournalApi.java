@@ -1,6 +1,7 @@
 package com.trading.journal.entry.api;
 
 import com.trading.journal.entry.balance.Balance;
+import com.trading.journal.entry.balance.EquityCurve;
 import com.trading.journal.entry.journal.Journal;
 import com.trading.journal.entry.journal.JournalData;
 import jakarta.validation.Valid;
@@ -32,4 +33,13 @@ public interface JournalApi {
     @GetMapping("/{journal-id}/balance")
     @ResponseStatus(HttpStatus.OK)
     ResponseEntity<Balance> balance(@PathVariable(name = "journal-id") String journalId);
+
+    @PostMapping("/{journal-id}/balance/recalculate")
+    @ResponseStatus(HttpStatus.OK)
+    ResponseEntity<Balance> recalculateBalance(@PathVariable(name = "journal-id") String journalId);
+
+    @GetMapping("/{journal-id}/balance/equity")
+    @ResponseStatus(HttpStatus.OK)
+    ResponseEntity<EquityCurve> equityCurve(@PathVariable(name = "journal-id") String journalId,
+                                            @RequestParam(value = "points", defaultValue = "500") int points);
 }
@@ -2,6 +2,7 @@ package com.trading.journal.entry.api;
 
 import com.trading.journal.entry.balance.Balance;
 import com.trading.journal.entry.balance.BalanceService;
+import com.trading.journal.entry.balance.EquityCurve;
 import com.trading.journal.entry.journal.Journal;
 import com.trading.journal.entry.journal.JournalData;
 import com.trading.journal.entry.journal.JournalService;
@@ -54,4 +55,16 @@ public class JournalController implements JournalApi {
         Balance balance = balanceService.getCurrentBalance(journalId);
         return ok(balance);
     }
+
+    @Override
+    public ResponseEntity<Balance> recalculateBalance(String journalId) {
+        Balance balance = balanceService.calculateCurrentBalance(journalId);
+        return ok(balance);
+    }
+
+    @Override
+    public ResponseEntity<EquityCurve> equityCurve(String journalId, int points) {
+        EquityCurve equityCurve = balanceService.equityCurve(journalId, points);
+        return ok(equityCurve);
+    }
 }
@@ -3,6 +3,7 @@ package com.trading.journal.entry.api;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -13,10 +14,23 @@ public class PageWrapper<T> {
     private int totalPages;
     private long total;
     private List<T> content;
+    private boolean exactTotal;
 
-    public PageWrapper(Page<T> page) {
-        this.content = page.getContent();
-        this.total = page.getTotalElements();
-        this.totalPages = page.getTotalPages();
+    /**
+     * A slice was not counted, total is what is known so far: the entries up to this page plus one when there is a next page.
+     * It is only exact on the last page
+     */
+    public PageWrapper(Slice<T> slice) {
+        this.content = slice.getContent();
+        if (slice instanceof Page<T> page) {
+            this.total = page.getTotalElements();
+            this.totalPages = page.getTotalPages();
+            this.exactTotal = true;
+        } else {
+            long offset = slice.getPageable().isPaged() ? slice.getPageable().getOffset() : 0;
+            this.total = offset + content.size() + (slice.hasNext() ? 1 : 0);
+            this.totalPages = slice.getNumber() + (slice.hasNext() ? 2 : 1);
+            this.exactTotal = !slice.hasNext() && (!content.isEmpty() || offset == 0);
+        }
     }
 }
@@ -2,17 +2,21 @@ package com.trading.journal.entry.api;
 
 import com.trading.journal.entry.entries.Entry;
 import com.trading.journal.entry.entries.trade.CloseTrade;
+import com.trading.journal.entry.entries.trade.CloseTrades;
 import com.trading.journal.entry.entries.trade.OpenTrades;
 import com.trading.journal.entry.entries.trade.Symbol;
 import com.trading.journal.entry.entries.trade.Trade;
 import com.trading.journal.entry.entries.trade.aggregate.AggregateType;
 import com.trading.journal.entry.entries.trade.aggregate.PeriodAggregatedResult;
+import com.trading.journal.entry.entries.trade.aggregate.TradeStatistics;
 import com.trading.journal.entry.entries.trade.aggregate.TradesAggregated;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RequestMapping("/journals/{journal-id}/entries/trade")
@@ -27,6 +31,9 @@ public interface TradeApi {
     @PatchMapping("/{trade-id}/close")
     ResponseEntity<Entry> close(@PathVariable(name = "trade-id") String tradeId, @RequestBody @Valid CloseTrade trade);
 
+    @PatchMapping("/close")
+    ResponseEntity<List<Entry>> closeAll(@PathVariable(name = "journal-id") String journalId, @RequestBody @Valid CloseTrades trades);
+
     @ResponseStatus(HttpStatus.OK)
     @GetMapping("/open")
     ResponseEntity<OpenTrades> countOpen(@PathVariable(name = "journal-id") String journalId);
@@ -47,4 +54,10 @@ public interface TradeApi {
     ResponseEntity<List<TradesAggregated>> trades(@PathVariable(name = "journal-id") String journalId,
                                                   @RequestParam("from") String from,
                                                   @RequestParam("until") String until);
+
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/stats")
+    ResponseEntity<TradeStatistics> stats(@PathVariable(name = "journal-id") String journalId,
+                                          @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(value = "until", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate until);
 }
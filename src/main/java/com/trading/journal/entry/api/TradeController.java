@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.springframework.http.ResponseEntity.created;
@@ -41,6 +42,12 @@ public class TradeController implements TradeApi {
         return ok(closed);
     }
 
+    @Override
+    public ResponseEntity<List<Entry>> closeAll(String journalId, CloseTrades trades) {
+        List<Entry> closed = tradeService.closeAll(journalId, trades);
+        return ok(closed);
+    }
+
     @Override
     public ResponseEntity<OpenTrades> countOpen(String journalId) {
         long open = tradeService.countOpen(journalId);
@@ -66,4 +73,10 @@ public class TradeController implements TradeApi {
         List<TradesAggregated> trades = aggregateService.aggregateTrades(journalId, aggregateTrade);
         return ok(trades);
     }
+
+    @Override
+    public ResponseEntity<TradeStatistics> stats(String journalId, LocalDate from, LocalDate until) {
+        TradeStatistics statistics = aggregateService.statistics(journalId, from, until);
+        return ok(statistics);
+    }
 }
@@ -0,0 +1,141 @@
+package com.trading.journal.entry.balance;
+
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryType;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.math.BigDecimal.ZERO;
+import static java.util.Optional.ofNullable;
+
+/**
+ * What a single entry adds to the journal balance, used to keep the balance up to date without reading every entry again
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BalanceDelta {
+
+    private static final BalanceDelta NONE = new BalanceDelta(ZERO, ZERO, ZERO, ZERO, ZERO);
+
+    private final BigDecimal closedPositions;
+
+    private final BigDecimal openedPositions;
+
+    private final BigDecimal deposits;
+
+    private final BigDecimal withdrawals;
+
+    private final BigDecimal taxes;
+
+    /**
+     * Change on the balance when an entry goes from previous to current
+     * Previous is null when the entry is created, current is null when the entry is deleted
+     */
+    public static BalanceDelta between(Entry previous, Entry current) {
+        BalanceDelta before = of(previous);
+        BalanceDelta after = of(current);
+        return new BalanceDelta(
+                after.closedPositions.subtract(before.closedPositions),
+                after.openedPositions.subtract(before.openedPositions),
+                after.deposits.subtract(before.deposits),
+                after.withdrawals.subtract(before.withdrawals),
+                after.taxes.subtract(before.taxes)
+        );
+    }
+
+    /**
+     * Change on the balance when many entries change at once, previous and current are the same entries in the same order
+     */
+    public static BalanceDelta betweenAll(List<Entry> previous, List<Entry> current) {
+        return IntStream.range(0, current.size())
+                .mapToObj(index -> between(previous.get(index), current.get(index)))
+                .reduce(NONE, BalanceDelta::plus);
+    }
+
+    /**
+     * Same rules of the full balance calculation:
+     * Not finished entry: Price * Size as opened position
+     * Finished entry: Net Result for trades and Price for deposits, withdrawals and taxes
+     */
+    public static BalanceDelta of(Entry entry) {
+        BalanceDelta delta = NONE;
+        if (Objects.nonNull(entry)) {
+            delta = entry.isFinished() ? finished(entry) : opened(entry);
+        }
+        return delta;
+    }
+
+    public boolean isEmpty() {
+        return Stream.of(closedPositions, openedPositions, deposits, withdrawals, taxes)
+                .allMatch(value -> value.compareTo(ZERO) == 0);
+    }
+
+    public BalanceDelta plus(BalanceDelta other) {
+        return new BalanceDelta(
+                closedPositions.add(other.closedPositions),
+                openedPositions.add(other.openedPositions),
+                deposits.add(other.deposits),
+                withdrawals.add(other.withdrawals),
+                taxes.add(other.taxes)
+        );
+    }
+
+    /**
+     * Account Balance + Closed Positions + Deposits - Withdrawals - Taxes
+     * Available = Account Balance - Opened Positions
+     */
+    public Balance applyTo(Balance balance) {
+        BigDecimal accountBalance = value(balance.getAccountBalance())
+                .add(closedPositions)
+                .add(deposits)
+                .subtract(withdrawals)
+                .subtract(taxes);
+        BigDecimal opened = value(balance.getOpenedPositions()).add(openedPositions);
+
+        return Balance.builder()
+                .accountBalance(scale(accountBalance))
+                .closedPositions(scale(value(balance.getClosedPositions()).add(closedPositions)))
+                .openedPositions(scale(opened))
+                .available(scale(accountBalance.subtract(opened)))
+                .deposits(scale(value(balance.getDeposits()).add(deposits)))
+                .withdrawals(scale(value(balance.getWithdrawals()).add(withdrawals)))
+                .taxes(scale(value(balance.getTaxes()).add(taxes)))
+                .build();
+    }
+
+    private static BalanceDelta opened(Entry entry) {
+        BigDecimal opened = value(entry.getPrice()).multiply(value(entry.getSize()));
+        return new BalanceDelta(ZERO, opened, ZERO, ZERO, ZERO);
+    }
+
+    private static BalanceDelta finished(Entry entry) {
+        BigDecimal price = value(entry.getPrice());
+        BalanceDelta delta = NONE;
+        if (EntryType.TRADE.equals(entry.getType())) {
+            delta = new BalanceDelta(entry.getNetResult(), ZERO, ZERO, ZERO, ZERO);
+        } else if (EntryType.DEPOSIT.equals(entry.getType())) {
+            delta = new BalanceDelta(ZERO, ZERO, price, ZERO, ZERO);
+        } else if (EntryType.WITHDRAWAL.equals(entry.getType())) {
+            delta = new BalanceDelta(ZERO, ZERO, ZERO, price, ZERO);
+        } else if (EntryType.TAXES.equals(entry.getType())) {
+            delta = new BalanceDelta(ZERO, ZERO, ZERO, ZERO, price);
+        }
+        return delta;
+    }
+
+    private static BigDecimal value(BigDecimal value) {
+        return ofNullable(value).orElse(ZERO);
+    }
+
+    private static BigDecimal scale(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_EVEN);
+    }
+}
@@ -1,10 +1,23 @@
 package com.trading.journal.entry.balance;
 
+import com.trading.journal.entry.entries.Entry;
+
+import java.util.List;
+
 public interface BalanceService {
 
     Balance calculateCurrentBalance(String journalId);
 
+    /**
+     * Read from the database and not from the journal cache, the balance is the start of entry calculations
+     */
     Balance getCurrentBalance(String journalId);
 
     Balance calculateAvailableBalance(String journalId);
+
+    Balance applyEntryChange(String journalId, Entry previous, Entry current);
+
+    Balance applyEntryChanges(String journalId, List<Entry> previous, List<Entry> current);
+
+    EquityCurve equityCurve(String journalId, int points);
 }
@@ -0,0 +1,49 @@
+package com.trading.journal.entry.balance;
+
+import com.allanweber.jwttoken.helper.DateHelper;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.NumberFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Start balance plus the trading result after each closed trade, deposits, withdrawals and taxes are left out.
+ * Peak and drawdown are computed over every trade, the points may be downsampled
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Builder
+public class EquityCurve {
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal startBalance;
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal endBalance;
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal peak;
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal maxDrawdown;
+
+    /**
+     * Max drawdown as a percentage of the peak it fell from
+     */
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal maxDrawdownPercentage;
+
+    @JsonFormat(pattern = DateHelper.DATE_FORMAT)
+    private LocalDateTime maxDrawdownDate;
+
+    private long entries;
+
+    private List<EquityPoint> points;
+}
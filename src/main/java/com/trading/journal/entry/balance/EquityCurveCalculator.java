@@ -0,0 +1,126 @@
+package com.trading.journal.entry.balance;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the equity curve in a single pass over the closed trades in the order they changed the balance.
+ * Only the running balance, the peak and the kept points are held, the trades are not.
+ * The trades are split in buckets of the same size, the last balance of each bucket is the point. The number of trades is not
+ * known up front, so the buckets start with one trade and double whenever the points are full, keeping the last point of each pair
+ */
+public class EquityCurveCalculator {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final BigDecimal startBalance;
+
+    private final int maxPoints;
+
+    private final List<EquityPoint> points = new ArrayList<>();
+
+    private long bucket = 1;
+
+    private long inBucket;
+
+    private BigDecimal balance;
+
+    private BigDecimal peak;
+
+    private BigDecimal maxDrawdown = BigDecimal.ZERO;
+
+    private BigDecimal maxDrawdownPercentage = BigDecimal.ZERO;
+
+    private LocalDateTime maxDrawdownDate;
+
+    private long entries;
+
+    private LocalDateTime lastDate;
+
+    private BigDecimal lastDrawdown;
+
+    /**
+     * @param maxPoints how many points the curve can have at most
+     */
+    public EquityCurveCalculator(BigDecimal startBalance, int maxPoints) {
+        this.startBalance = startBalance;
+        this.maxPoints = maxPoints;
+        this.balance = startBalance;
+        this.peak = startBalance;
+    }
+
+    public void add(LocalDateTime date, BigDecimal netResult) {
+        balance = balance.add(netResult);
+        if (balance.compareTo(peak) > 0) {
+            peak = balance;
+        }
+        BigDecimal drawdown = peak.subtract(balance);
+        if (drawdown.compareTo(maxDrawdown) > 0) {
+            maxDrawdown = drawdown;
+            maxDrawdownDate = date;
+            maxDrawdownPercentage = peak.signum() > 0 ? drawdown.multiply(HUNDRED).divide(peak, 2, RoundingMode.HALF_EVEN) : BigDecimal.ZERO;
+        }
+        entries++;
+        lastDate = date;
+        lastDrawdown = drawdown;
+        inBucket++;
+        if (inBucket == bucket) {
+            closeBucket();
+        }
+    }
+
+    /**
+     * A last bucket not full yet is a point as well, when the points are full it is merged into the last one
+     */
+    public EquityCurve result() {
+        if (inBucket > 0) {
+            if (points.size() == maxPoints) {
+                points.remove(points.size() - 1);
+            }
+            points.add(point());
+        }
+        return EquityCurve.builder()
+                .startBalance(scale(startBalance))
+                .endBalance(scale(balance))
+                .peak(scale(peak))
+                .maxDrawdown(scale(maxDrawdown))
+                .maxDrawdownPercentage(maxDrawdownPercentage.setScale(2, RoundingMode.HALF_EVEN))
+                .maxDrawdownDate(maxDrawdownDate)
+                .entries(entries)
+                .points(points)
+                .build();
+    }
+
+    /**
+     * With the points full, each pair of points becomes one point of a bucket twice the size, the later of the pair.
+     * An odd point left is paired with the bucket just closed, otherwise the bucket just closed is the first half of the next one
+     */
+    private void closeBucket() {
+        boolean full = points.size() == maxPoints;
+        boolean oddLeft = points.size() % 2 != 0;
+        if (full) {
+            List<EquityPoint> pairs = IntStream.range(0, points.size() / 2).mapToObj(pair -> points.get(pair * 2 + 1)).toList();
+            points.clear();
+            points.addAll(pairs);
+            bucket *= 2;
+        }
+        if (full && !oddLeft) {
+            inBucket = bucket / 2;
+        } else {
+            points.add(point());
+            inBucket = 0;
+        }
+    }
+
+    private EquityPoint point() {
+        return new EquityPoint(lastDate, scale(balance), scale(lastDrawdown));
+    }
+
+    private static BigDecimal scale(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,29 @@
+package com.trading.journal.entry.balance;
+
+import com.allanweber.jwttoken.helper.DateHelper;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.NumberFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class EquityPoint {
+
+    @JsonFormat(pattern = DateHelper.DATE_FORMAT)
+    private LocalDateTime date;
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal balance;
+
+    /**
+     * How far the balance is below the highest balance reached until this point
+     */
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal drawdown;
+}
@@ -1,7 +1,11 @@
 package com.trading.journal.entry.balance.impl;
 
+import com.trading.journal.entry.ApplicationException;
 import com.trading.journal.entry.balance.Balance;
+import com.trading.journal.entry.balance.BalanceDelta;
 import com.trading.journal.entry.balance.BalanceService;
+import com.trading.journal.entry.balance.EquityCurve;
+import com.trading.journal.entry.balance.EquityCurveCalculator;
 import com.trading.journal.entry.entries.Entry;
 import com.trading.journal.entry.entries.EntryRepository;
 import com.trading.journal.entry.entries.EntryType;
@@ -11,6 +15,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
@@ -19,6 +26,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static java.util.Optional.ofNullable;
 import static org.springframework.data.util.Lazy.of;
@@ -47,6 +55,42 @@ public class BalanceServiceImpl implements BalanceService {
         return calculateAvailable(journalId);
     }
 
+    @Override
+    public Balance applyEntryChange(String journalId, Entry previous, Entry current) {
+        BalanceDelta delta = BalanceDelta.between(previous, current);
+        return delta.isEmpty() ? getCurrentBalance(journalId) : journalService.changeBalance(journalId, delta::applyTo);
+    }
+
+    @Override
+    public Balance applyEntryChanges(String journalId, List<Entry> previous, List<Entry> current) {
+        BalanceDelta delta = BalanceDelta.betweenAll(previous, current);
+        return delta.isEmpty() ? getCurrentBalance(journalId) : journalService.changeBalance(journalId, delta::applyTo);
+    }
+
+    /**
+     * Closed trades are streamed from a cursor in the order they changed the balance, by their exit date.
+     * Deposits, withdrawals and taxes move the balance without being a result of the trading, so the curve leaves them out
+     */
+    @Override
+    public EquityCurve equityCurve(String journalId, int points) {
+        if (points <= 0) {
+            throw new ApplicationException("Points must be positive");
+        }
+        Journal journal = journalService.get(journalId);
+        Criteria closedTrades = Criteria.where("journalId").is(journalId).and("type").is(EntryType.TRADE.name()).and("netResult").ne(null);
+        EquityCurveCalculator calculator = new EquityCurveCalculator(journal.getStartBalance(), points);
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(closedTrades),
+                Aggregation.project("_id", "netResult").and(ConditionalOperators.ifNull("exitDate").thenValueOf("date")).as("date"),
+                Aggregation.sort(Sort.by("date", "_id").ascending())
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        try (Stream<Entry> moves = entryRepository.aggregateStream(aggregation, Entry.class)) {
+            moves.forEach(entry -> calculator.add(entry.getDate(), entry.getNetResult()));
+        }
+        return calculator.result();
+    }
+
     private Balance calculateBalance(String journalId) {
         Journal journal = journalService.get(journalId);
         Pageable page = PageRequest.of(0, Integer.MAX_VALUE, Sort.by("date").ascending());
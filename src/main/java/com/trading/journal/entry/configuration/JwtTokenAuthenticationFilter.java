@@ -29,4 +29,12 @@ public class JwtTokenAuthenticationFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(authentication);
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Streamed responses finish on an async dispatch, which is authorized again and needs the authentication as well
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
 }
@@ -21,4 +21,6 @@ public class StorageProperties {
     private String location;
 
     private String cdn;
+
+    private String directory;
 }
@@ -15,7 +15,70 @@ public class CalculateEntry {
 
     private final BigDecimal balance;
 
+    /**
+     * Calculated with longs, only when a value does not fit in them it is calculated again with BigDecimal.
+     * Both give the same values with the same scale
+     */
     public Entry calculate() {
+        Entry calculated;
+        try {
+            calculated = calculateScaled();
+        } catch (ArithmeticException exception) {
+            calculated = calculateDecimal();
+        }
+        return calculated;
+    }
+
+    /**
+     * Same rules of calculateDecimal without a BigDecimal for each intermediate value,
+     * nothing is set on the entry until every value is calculated
+     */
+    /* default */ Entry calculateScaled() {
+        ScaledMoney balanceValue = ScaledMoney.of(balance);
+        boolean trade = EntryType.TRADE.equals(entry.getType());
+        ScaledMoney accountRisked = null;
+        ScaledMoney plannedRR = null;
+        ScaledMoney grossResult;
+        if (trade) {
+            ScaledMoney price = ScaledMoney.of(entry.getPrice());
+            ScaledMoney size = ScaledMoney.of(entry.getSize());
+            if (balanceValue.signum() > 0) {
+                accountRisked = scaledAccountRisked(price, size, balanceValue);
+            }
+            plannedRR = scaledPlannedRR(price, size);
+            grossResult = scaledGrossResult(price, size);
+        } else {
+            entry.clearNonTrade();
+            grossResult = ScaledMoney.of(entry.getPrice());
+            if (grossResult.signum() > 0 && isNegative()) {
+                grossResult = grossResult.negate();
+            }
+        }
+
+        ScaledMoney netResult = null;
+        ScaledMoney accountChanged = null;
+        ScaledMoney accountBalance = null;
+        if (Objects.nonNull(grossResult)) {
+            netResult = grossResult.subtract(ScaledMoney.orZero(entry.getCosts())).withScale(2);
+            accountChanged = scaledAccountChanged(netResult, balanceValue);
+            accountBalance = balanceValue.add(netResult);
+        }
+
+        if (trade) {
+            entry.setAccountRisked(decimal(accountRisked));
+            entry.setPlannedRR(decimal(plannedRR));
+            entry.setGrossResult(decimal(grossResult));
+        }
+        entry.setNetResult(decimal(netResult));
+        entry.setAccountChange(decimal(accountChanged));
+        entry.setAccountBalance(decimal(accountBalance));
+        return entry;
+    }
+
+    /**
+     * Reference calculation with BigDecimal, used when a value does not fit in a long
+     */
+    /* default */ Entry calculateDecimal() {
         BigDecimal grossResult;
         if (EntryType.TRADE.equals(entry.getType())) {
             BigDecimal accountRisked = accountRisked();
@@ -46,6 +109,49 @@ public class CalculateEntry {
         return entry;
     }
 
+    private ScaledMoney scaledAccountRisked(ScaledMoney price, ScaledMoney size, ScaledMoney balanceValue) {
+        ScaledMoney loss = ScaledMoney.orZero(entry.getLossPrice());
+        ScaledMoney risk = EntryDirection.LONG.equals(entry.getDirection()) ? price.subtract(loss) : loss.subtract(price);
+        ScaledMoney accountRisked = risk.multiply(size).divide(balanceValue, 4);
+        return accountRisked.signum() < 0 ? accountRisked.negate() : accountRisked;
+    }
+
+    private ScaledMoney scaledPlannedRR(ScaledMoney price, ScaledMoney size) {
+        ScaledMoney profit = ScaledMoney.orZero(entry.getProfitPrice());
+        ScaledMoney loss = ScaledMoney.orZero(entry.getLossPrice());
+        boolean isLong = EntryDirection.LONG.equals(entry.getDirection());
+        ScaledMoney reward = isLong ? profit.subtract(price) : price.subtract(profit);
+        ScaledMoney risk = isLong ? price.subtract(loss) : loss.subtract(price);
+        return reward.multiply(size).divide(risk.multiply(size), 2);
+    }
+
+    private ScaledMoney scaledGrossResult(ScaledMoney price, ScaledMoney size) {
+        ScaledMoney grossResult = null;
+        if (Objects.nonNull(entry.getExitPrice())) {
+            ScaledMoney exitPrice = ScaledMoney.of(entry.getExitPrice());
+            ScaledMoney difference = EntryDirection.LONG.equals(entry.getDirection()) ? exitPrice.subtract(price) : price.subtract(exitPrice);
+            grossResult = difference.multiply(size).withScale(2);
+        }
+        return grossResult;
+    }
+
+    private static ScaledMoney scaledAccountChanged(ScaledMoney netResult, ScaledMoney balanceValue) {
+        ScaledMoney accountChanged;
+        if (balanceValue.signum() == 0) {
+            accountChanged = ScaledMoney.of(1, 0).withScale(4);
+        } else {
+            accountChanged = netResult.divide(balanceValue, 4);
+            if (accountChanged.signum() > 0 && netResult.signum() < 0) {
+                accountChanged = accountChanged.negate();
+            }
+        }
+        return accountChanged;
+    }
+
+    private static BigDecimal decimal(ScaledMoney value) {
+        return Objects.isNull(value) ? null : value.toBigDecimal();
+    }
+
     /**
      * Long: ((Price - Loss) * Size) / Balance
      * Long: ((Loss - Price) * Size) / Balance
@@ -149,6 +255,10 @@ public class CalculateEntry {
     }
 
     private boolean shouldNegative(BigDecimal grossResult) {
-        return grossResult.compareTo(BigDecimal.ZERO) > 0 && (EntryType.WITHDRAWAL.equals(entry.getType()) || EntryType.TAXES.equals(entry.getType()));
+        return grossResult.compareTo(BigDecimal.ZERO) > 0 && isNegative();
+    }
+
+    private boolean isNegative() {
+        return EntryType.WITHDRAWAL.equals(entry.getType()) || EntryType.TAXES.equals(entry.getType());
     }
 }
@@ -0,0 +1,61 @@
+package com.trading.journal.entry.entries;
+
+import com.trading.journal.entry.ApplicationException;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Position of the last entry of a page, the next page starts right after it in the date descending, id descending order.
+ * Clients only see it as an opaque token
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class EntriesCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime date;
+
+    private final String id;
+
+    public static EntriesCursor of(Entry entry) {
+        return new EntriesCursor(entry.getDate(), entry.getId());
+    }
+
+    /**
+     * Empty token means the first page
+     */
+    public static EntriesCursor decode(String token) {
+        EntriesCursor cursor = null;
+        if (StringUtils.hasText(token)) {
+            cursor = parse(token).orElseThrow(() -> new ApplicationException("Invalid cursor"));
+        }
+        return cursor;
+    }
+
+    public String encode() {
+        String value = date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Optional<EntriesCursor> parse(String token) {
+        Optional<EntriesCursor> cursor;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            cursor = Optional.of(new EntriesCursor(LocalDateTime.parse(decoded.substring(0, separator)), decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException exception) {
+            cursor = Optional.empty();
+        }
+        return cursor;
+    }
+}
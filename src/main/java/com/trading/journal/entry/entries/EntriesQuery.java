@@ -1,9 +1,12 @@
 package com.trading.journal.entry.entries;
 
+import com.trading.journal.entry.ApplicationException;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.util.StringUtils;
@@ -35,9 +38,15 @@ public class EntriesQuery {
     public static final String NET_RESULT = "netResult";
     public static final String DIRECTION = "direction";
 
+    private static final String ID = "_id";
     private static final String STRATEGIES = "strategies.id";
+    private static final String AND = "$and";
+    private static final Sort CURSOR_SORT = Sort.by(Sort.Direction.DESC, DATE, ID);
+    private static final List<Sort> CURSOR_SORTS = List.of(Sort.unsorted(), Sort.by(Sort.Direction.DESC, DATE), CURSOR_SORT);
     public static final String JOURNAL_ID = "journalId";
 
+    private static final int EXPORT_BATCH_SIZE = 500;
+
     @NotEmpty(message = "Journal Id is required")
     private String journalId;
 
@@ -57,6 +66,14 @@ public class EntriesQuery {
 
     private Pageable pageable;
 
+    private EntriesCursor cursor;
+
+    /**
+     * Counting every matching entry costs as much as reading them, clients that only page forward can skip it
+     */
+    @Builder.Default
+    private boolean countTotal = true;
+
     public Query buildQuery() {
         Query query = new Query(Criteria.where(JOURNAL_ID).is(journalId));
 
@@ -100,6 +117,34 @@ public class EntriesQuery {
         return query;
     }
 
+    /**
+     * Same filters of the offset query, but the page starts after the cursor instead of skipping the previous pages.
+     * Sorted by date and id descending, one more entry than the page size is read to know if there is a next page.
+     * The cursor only follows that order, any other sort requested is refused instead of being ignored
+     */
+    public Query buildCursorQuery() {
+        if (!CURSOR_SORTS.contains(pageable.getSort())) {
+            throw new ApplicationException("Cursor pagination is sorted by date descending, sort %s is not supported".formatted(pageable.getSort()));
+        }
+        Query query = buildQuery();
+        if (Objects.nonNull(cursor)) {
+            // The closed from filter is an $or without a key as well, a query takes only one criteria without a key
+            Criteria afterCursor = new Criteria().orOperator(
+                    Criteria.where(DATE).lt(cursor.getDate()),
+                    Criteria.where(DATE).is(cursor.getDate()).and(ID).lt(cursor.getId())
+            );
+            query = new BasicQuery(query.getQueryObject().append(AND, List.of(afterCursor.getCriteriaObject())));
+        }
+        return query.with(CURSOR_SORT).limit(pageable.getPageSize() + 1);
+    }
+
+    /**
+     * Same filters of the offset query without pagination, in the order of the listing and read from the cursor in batches
+     */
+    public Query buildExportQuery() {
+        return buildQuery().with(Sort.by(Sort.Direction.DESC, DATE, ID)).cursorBatchSize(EXPORT_BATCH_SIZE);
+    }
+
     private void queryAppend(Query query, boolean predicate, Supplier<Criteria> criteria) {
         if (predicate) {
             query.addCriteria(criteria.get());
@@ -7,6 +7,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.trading.journal.entry.strategy.Strategy;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.format.annotation.NumberFormat;
 
@@ -18,6 +19,11 @@ import java.util.List;
 import java.util.Objects;
 
 @Document(collection = "entries")
+@CompoundIndex(name = "journal_date", def = "{'journalId': 1, 'date': -1}")
+@CompoundIndex(name = "journal_type_date", def = "{'journalId': 1, 'type': 1, 'date': -1}")
+@CompoundIndex(name = "journal_symbol_date", def = "{'journalId': 1, 'symbol': 1, 'date': -1}")
+@CompoundIndex(name = "journal_net_result", def = "{'journalId': 1, 'netResult': 1}")
+@CompoundIndex(name = "strategies", def = "{'strategies._id': 1}")
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
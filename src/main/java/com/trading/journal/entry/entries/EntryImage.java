@@ -1,7 +1,10 @@
 package com.trading.journal.entry.entries;
 
+import com.trading.journal.entry.storage.ImageVariant;
 import lombok.*;
 
+import java.util.List;
+
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -15,4 +18,11 @@ public class EntryImage {
     private String name;
 
     private String storedName;
+
+    private ImageStatus status;
+
+    /**
+     * Variants stored next to the original, images uploaded before the variants have only the original
+     */
+    private List<ImageVariant> variants;
 }
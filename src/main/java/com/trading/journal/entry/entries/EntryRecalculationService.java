@@ -0,0 +1,23 @@
+package com.trading.journal.entry.entries;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fields calculated with the account balance depend on every finished entry before them,
+ * so an entry edited, deleted or created in the past changes the calculation of the entries after it
+ */
+public interface EntryRecalculationService {
+
+    boolean hasEntriesAfter(String journalId, LocalDateTime date);
+
+    /**
+     * Start balance of the journal plus the result of the finished entries before the date, the balance the entry of the date starts from
+     */
+    BigDecimal balanceBefore(String journalId, LocalDateTime date);
+
+    /**
+     * Calculates again the entries from the date on, returns how many changed
+     */
+    long recalculateFrom(String journalId, LocalDateTime from);
+}
@@ -1,12 +1,19 @@
 package com.trading.journal.entry.entries;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
-import java.util.List;
+import java.util.stream.Stream;
 
 public interface EntryService {
 
-    Page<Entry> getAll(EntriesQuery all);
+    Slice<Entry> getAll(EntriesQuery all);
+
+    Slice<Entry> getAllByCursor(EntriesQuery all);
+
+    /**
+     * Every entry matching the filters read from a cursor, the stream must be closed to release the cursor
+     */
+    Stream<Entry> stream(EntriesQuery all);
 
     Entry getById(String entryId);
 
@@ -14,7 +21,20 @@ public interface EntryService {
 
     void delete(String entryId);
 
-    void updateImages(String entryId, List<EntryImage> entryImages);
+    /**
+     * Pushed to the images of the entry, without rewriting the images being processed
+     */
+    void addImage(String entryId, EntryImage entryImage);
+
+    /**
+     * Pulled from the images of the entry, the images are removed when it was the last one
+     */
+    void removeImage(String entryId, String imageId);
+
+    /**
+     * Returns false when the entry no longer has the image
+     */
+    boolean updateImageStatus(String entryId, String imageId, ImageStatus status);
 
     Long countByStrategy(String strategyId);
 }
@@ -0,0 +1,11 @@
+package com.trading.journal.entry.entries;
+
+/**
+ * Images are stored out of the upload request, they are processing until compressed and stored.
+ * Images stored before the processing had a status have none and are ready
+ */
+public enum ImageStatus {
+    PROCESSING,
+    READY,
+    FAILED
+}
@@ -0,0 +1,131 @@
+package com.trading.journal.entry.entries;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Fixed point decimal with its unscaled value in a long, the scale of each result follows the BigDecimal rules,
+ * so toBigDecimal gives the same value and scale BigDecimal would. Rounding is always HALF_EVEN.
+ * Anything that does not fit in a long, or a scale above 18, throws ArithmeticException
+ */
+public final class ScaledMoney {
+
+    public static final ScaledMoney ZERO = new ScaledMoney(0, 0);
+
+    private static final int MAX_SCALE = 18;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private final long unscaled;
+
+    private final int scale;
+
+    private ScaledMoney(long unscaled, int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new ArithmeticException("Scale out of range: " + scale);
+        }
+        this.unscaled = unscaled;
+        this.scale = scale;
+    }
+
+    /**
+     * The scaled BigDecimal does not escape and is not allocated once compiled, only the ScaledMoney is.
+     * Reading it from unscaledValue allocates a BigInteger that does escape, twice the bytes and a slower calculation
+     */
+    public static ScaledMoney of(BigDecimal value) {
+        return new ScaledMoney(value.scaleByPowerOfTen(value.scale()).longValueExact(), value.scale());
+    }
+
+    public static ScaledMoney of(long unscaled, int scale) {
+        return new ScaledMoney(unscaled, scale);
+    }
+
+    /**
+     * Null is zero, as ofNullable(value).orElse(BigDecimal.ZERO)
+     */
+    public static ScaledMoney orZero(BigDecimal value) {
+        return Objects.isNull(value) ? ZERO : of(value);
+    }
+
+    public ScaledMoney add(ScaledMoney other) {
+        int resultScale = Math.max(scale, other.scale);
+        return new ScaledMoney(Math.addExact(unscaledAt(resultScale), other.unscaledAt(resultScale)), resultScale);
+    }
+
+    public ScaledMoney subtract(ScaledMoney other) {
+        int resultScale = Math.max(scale, other.scale);
+        return new ScaledMoney(Math.subtractExact(unscaledAt(resultScale), other.unscaledAt(resultScale)), resultScale);
+    }
+
+    public ScaledMoney multiply(ScaledMoney other) {
+        return new ScaledMoney(Math.multiplyExact(unscaled, other.unscaled), scale + other.scale);
+    }
+
+    public ScaledMoney negate() {
+        return new ScaledMoney(Math.negateExact(unscaled), scale);
+    }
+
+    /**
+     * this / divisor = (unscaled * 10^(resultScale + divisor scale - scale)) / divisor unscaled
+     */
+    public ScaledMoney divide(ScaledMoney divisor, int resultScale) {
+        if (divisor.unscaled == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        int exponent = resultScale + divisor.scale - scale;
+        long dividend = unscaled;
+        long quotientDivisor = divisor.unscaled;
+        if (exponent >= 0) {
+            dividend = Math.multiplyExact(dividend, powerOfTen(exponent));
+        } else {
+            quotientDivisor = Math.multiplyExact(quotientDivisor, powerOfTen(-exponent));
+        }
+        return new ScaledMoney(divideHalfEven(dividend, quotientDivisor), resultScale);
+    }
+
+    public ScaledMoney withScale(int newScale) {
+        ScaledMoney scaled;
+        if (newScale >= scale) {
+            scaled = new ScaledMoney(unscaledAt(newScale), newScale);
+        } else {
+            scaled = new ScaledMoney(divideHalfEven(unscaled, powerOfTen(scale - newScale)), newScale);
+        }
+        return scaled;
+    }
+
+    public int signum() {
+        return Long.signum(unscaled);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private long unscaledAt(int targetScale) {
+        return Math.multiplyExact(unscaled, powerOfTen(targetScale - scale));
+    }
+
+    private static long powerOfTen(int exponent) {
+        if (exponent > MAX_SCALE) {
+            throw new ArithmeticException("Power of ten out of range: " + exponent);
+        }
+        return POWERS_OF_TEN[exponent];
+    }
+
+    /**
+     * Truncated quotient moved away from zero when the remainder is above half of the divisor, or exactly half and the quotient is odd
+     */
+    private static long divideHalfEven(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.absExact(dividend % divisor);
+        long rest = Math.absExact(divisor) - remainder;
+        if (remainder > rest || remainder == rest && remainder != 0 && (quotient & 1) != 0) {
+            quotient += (dividend ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
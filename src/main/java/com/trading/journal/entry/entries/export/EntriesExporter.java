@@ -0,0 +1,129 @@
+package com.trading.journal.entry.entries.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.trading.journal.entry.entries.EntriesQuery;
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.strategy.Strategy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes the entries to the output as they come from the cursor, only one entry is held at a time
+ */
+@Component
+@RequiredArgsConstructor
+public class EntriesExporter {
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("id", Entry::getId),
+            new Column("date", entry -> date(entry.getDate())),
+            new Column("type", Entry::getType),
+            new Column("symbol", Entry::getSymbol, true),
+            new Column("direction", Entry::getDirection),
+            new Column("price", Entry::getPrice),
+            new Column("size", Entry::getSize),
+            new Column("profitPrice", Entry::getProfitPrice),
+            new Column("lossPrice", Entry::getLossPrice),
+            new Column("costs", Entry::getCosts),
+            new Column("exitPrice", Entry::getExitPrice),
+            new Column("exitDate", entry -> date(entry.getExitDate())),
+            new Column("accountRisked", Entry::getAccountRisked),
+            new Column("plannedRR", Entry::getPlannedRR),
+            new Column("grossResult", Entry::getGrossResult),
+            new Column("netResult", Entry::getNetResult),
+            new Column("accountChange", Entry::getAccountChange),
+            new Column("accountBalance", Entry::getAccountBalance),
+            new Column("strategies", EntriesExporter::strategies, true),
+            new Column("notes", Entry::getNotes, true)
+    );
+
+    private static final String FORMULA_START = "=+-@\t\r";
+
+    private final ObjectMapper objectMapper;
+
+    public void write(Stream<Entry> entries, ExportFormat format, OutputStream output) throws IOException {
+        if (ExportFormat.CSV.equals(format)) {
+            writeCsv(entries, output);
+        } else {
+            writeNdjson(entries, output);
+        }
+    }
+
+    private void writeNdjson(Stream<Entry> entries, OutputStream output) throws IOException {
+        try (SequenceWriter sequence = objectMapper.writerFor(Entry.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(output)) {
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                sequence.write(iterator.next());
+            }
+        }
+        output.write('\n');
+        output.flush();
+    }
+
+    private void writeCsv(Stream<Entry> entries, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(COLUMNS.stream().map(Column::name).collect(Collectors.joining(",")));
+        writer.write('\n');
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            for (int index = 0; index < COLUMNS.size(); index++) {
+                if (index > 0) {
+                    writer.write(',');
+                }
+                Column column = COLUMNS.get(index);
+                writer.write(csvValue(column.value().apply(entry), column.userText()));
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Values with a comma, a quote or a line break are quoted and their quotes doubled.
+     * Text typed by the user that a spreadsheet would read as a formula starts with a quote, so it is shown as text
+     */
+    private static String csvValue(Object value, boolean userText) {
+        String text = Objects.toString(value, "");
+        if (userText && !text.isEmpty() && FORMULA_START.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        boolean quoted = text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        return quoted ? '"' + text.replace("\"", "\"\"") + '"' : text;
+    }
+
+    private static String date(LocalDateTime date) {
+        return Objects.isNull(date) ? null : date.format(EntriesQuery.DATE_FORMATTER);
+    }
+
+    private static String strategies(Entry entry) {
+        return Objects.isNull(entry.getStrategies()) ? null
+                : entry.getStrategies().stream().map(Strategy::getName).collect(Collectors.joining("|"));
+    }
+
+    private record Column(String name, Function<Entry, Object> value, boolean userText) {
+
+        Column(String name, Function<Entry, Object> value) {
+            this(name, value, false);
+        }
+    }
+}
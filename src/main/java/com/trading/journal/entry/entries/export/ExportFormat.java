@@ -0,0 +1,18 @@
+package com.trading.journal.entry.entries.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public enum ExportFormat {
+    /**
+     * One JSON entry per line, the same JSON of the entries listing
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+
+    private final String extension;
+}
@@ -1,6 +1,8 @@
 package com.trading.journal.entry.entries.image;
 
 import com.trading.journal.entry.entries.image.data.EntryImageResponse;
+import com.trading.journal.entry.storage.ImageVariant;
+import com.trading.journal.entry.storage.StoredFile;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -9,7 +11,20 @@ public interface EntryImageService {
 
     EntryImageResponse uploadImage(String entryId, MultipartFile file);
 
-    List<EntryImageResponse> returnImages(String entryId);
+    /**
+     * Images that do not have the variant come as the original
+     */
+    List<EntryImageResponse> returnImages(String entryId, ImageVariant variant);
+
+    /**
+     * Status of an uploaded image without the image, to know when its processing has finished
+     */
+    EntryImageResponse returnImageStatus(String entryId, String imageId);
+
+    /**
+     * The image file to be streamed as it is stored, images that do not have the variant come as the original
+     */
+    StoredFile returnImageFile(String entryId, String imageId, ImageVariant variant);
 
     void deleteImage(String entryId, String imageId);
 }
@@ -0,0 +1,90 @@
+package com.trading.journal.entry.entries.image;
+
+import com.trading.journal.entry.queries.TokenRequestScope;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Compresses and stores uploaded images out of the request threads, on a pool sized to the cores since the work is CPU bound.
+ * The queue is bounded, when it is full the image is processed on the request thread, which holds back clients uploading faster than the pool keeps up.
+ * The queue depth and the busy workers are gauges on images.processing.queue and images.processing.active,
+ * the wait in the queue and the processing of each outcome are timed on images.processing
+ */
+@Component
+public class ImageProcessor implements DisposableBean {
+
+    private static final String TIMER = "images.processing";
+
+    private static final String PHASE = "phase";
+
+    /**
+     * Accepted images are still processed when the application stops, for up to this long
+     */
+    private static final int SHUTDOWN_SECONDS = 30;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Timer waitTimer;
+
+    private final Timer processedTimer;
+
+    private final Timer failedTimer;
+
+    public ImageProcessor(MeterRegistry meterRegistry,
+                          @Value("${journal.images.threads:0}") int threads,
+                          @Value("${journal.images.queue:20}") int queue) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(poolSize);
+        this.executor.setMaxPoolSize(poolSize);
+        this.executor.setQueueCapacity(queue);
+        this.executor.setThreadNamePrefix("image-processing-");
+        this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.setTaskDecorator(TokenRequestScope.taskDecorator());
+        this.executor.setWaitForTasksToCompleteOnShutdown(true);
+        this.executor.setAwaitTerminationSeconds(SHUTDOWN_SECONDS);
+        this.executor.initialize();
+        Gauge.builder("images.processing.queue", executor, pool -> pool.getThreadPoolExecutor().getQueue().size())
+                .description("Images waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("images.processing.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Images being processed")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder(TIMER).tag(PHASE, "wait").register(meterRegistry);
+        this.processedTimer = Timer.builder(TIMER).tag(PHASE, "process").tag("outcome", "success").register(meterRegistry);
+        this.failedTimer = Timer.builder(TIMER).tag(PHASE, "process").tag("outcome", "failure").register(meterRegistry);
+    }
+
+    /**
+     * The processing runs with the tenancy of the request, when it fails the failure is given the exception instead of it being lost in the pool
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public void process(Runnable processing, Consumer<RuntimeException> failure) {
+        long submitted = System.nanoTime();
+        executor.execute(() -> {
+            long started = System.nanoTime();
+            waitTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+            try {
+                processing.run();
+                processedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException exception) {
+                failedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                failure.accept(exception);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -1,6 +1,7 @@
 package com.trading.journal.entry.entries.image.data;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.trading.journal.entry.entries.ImageStatus;
 import lombok.*;
 
 @AllArgsConstructor
@@ -16,4 +17,6 @@ public class EntryImageResponse {
     private String image;
 
     private String imageName;
+
+    private ImageStatus status;
 }
@@ -1,15 +1,22 @@
 package com.trading.journal.entry.entries.image.impl;
 
+import com.trading.journal.entry.ApplicationException;
 import com.trading.journal.entry.entries.Entry;
 import com.trading.journal.entry.entries.EntryImage;
 import com.trading.journal.entry.entries.EntryService;
+import com.trading.journal.entry.entries.ImageStatus;
 import com.trading.journal.entry.entries.image.EntryImageService;
+import com.trading.journal.entry.entries.image.ImageProcessor;
 import com.trading.journal.entry.entries.image.data.EntryImageResponse;
 import com.trading.journal.entry.queries.TokenRequestScope;
 import com.trading.journal.entry.storage.FileStorage;
 import com.trading.journal.entry.storage.ImageCompression;
+import com.trading.journal.entry.storage.ImageVariant;
+import com.trading.journal.entry.storage.StoredFile;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -19,16 +26,27 @@ import java.util.stream.Collectors;
 import static java.util.Collections.emptyList;
 import static java.util.Optional.ofNullable;
 
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class EntryImageServiceImpl implements EntryImageService {
 
+    private static final List<ImageVariant> SCALED_VARIANTS = Arrays.stream(ImageVariant.values())
+            .filter(variant -> !ImageVariant.ORIGINAL.equals(variant))
+            .toList();
+
     private final FileStorage fileStorage;
 
     private final EntryService entryService;
 
     private final ImageCompression imageCompression;
 
+    private final ImageProcessor imageProcessor;
+
+    /**
+     * The image is added to the entry as processing and the upload returns, it is compressed and stored by the image processor.
+     * The multipart file is gone when the request ends, so its bytes are read before
+     */
     @SneakyThrows
     @Override
     public EntryImageResponse uploadImage(String entryId, MultipartFile file) {
@@ -36,45 +54,114 @@ public class EntryImageServiceImpl implements EntryImageService {
         String imageName = "image-%s".formatted(entryImages.size() + 1);
         String imageId = UUID.randomUUID().toString();
         String storedName = "%s.jpg".formatted(imageId);
-        entryImages.add(EntryImage.builder().imageId(imageId).name(imageName).storedName(storedName).build());
+        byte[] bytes = file.getBytes();
+        EntryImage entryImage = EntryImage.builder()
+                .imageId(imageId)
+                .name(imageName)
+                .storedName(storedName)
+                .status(ImageStatus.PROCESSING)
+                .variants(SCALED_VARIANTS)
+                .build();
+        entryService.addImage(entryId, entryImage);
 
         String folder = getFolder();
-        if (!fileStorage.folderExists(folder)) {
-            fileStorage.createFolder(folder);
-        }
-
-        byte[] compressedImage = imageCompression.compressImage(file.getBytes());
-        fileStorage.uploadFile(folder, entryId, storedName, compressedImage);
-
-        entryService.updateImages(entryId, entryImages);
-        return EntryImageResponse.builder().id(imageId).imageName(imageName).build();
+        imageProcessor.process(() -> storeImage(folder, entryId, imageId, storedName, bytes), exception -> {
+            log.error("Image {} of entry {} failed to be processed", imageId, entryId, exception);
+            entryService.updateImageStatus(entryId, imageId, ImageStatus.FAILED);
+            deleteFiles(folder, entryId, storedName);
+        });
+        return EntryImageResponse.builder().id(imageId).imageName(imageName).status(ImageStatus.PROCESSING).build();
     }
 
+    /**
+     * Only ready images are read from the storage, the ones processing or failed come with their status only
+     */
     @Override
-    public List<EntryImageResponse> returnImages(String entryId) {
+    public List<EntryImageResponse> returnImages(String entryId, ImageVariant variant) {
         String folder = getFolder();
         return ofNullable(entryService.getById(entryId).getImages()).orElse(emptyList())
                 .stream()
-                .map(image -> fileStorage.getFile(folder, entryId, image.getStoredName())
-                        .map(file -> new EntryImageResponse(image.getImageId(), file, image.getName()))
+                .map(image -> isReady(image)
+                        ? fileStorage.getFile(folder, entryId, storedName(image, variant))
+                        .map(file -> response(image).image(file).build())
                         .orElse(null)
+                        : response(image).build()
                 )
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public EntryImageResponse returnImageStatus(String entryId, String imageId) {
+        return response(getEntryImage(entryId, imageId)).build();
+    }
+
+    /**
+     * Images still processing or failed have no file to stream
+     */
+    @Override
+    public StoredFile returnImageFile(String entryId, String imageId, ImageVariant variant) {
+        EntryImage image = getEntryImage(entryId, imageId);
+        if (!isReady(image)) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "Image is not ready");
+        }
+        return fileStorage.readFile(getFolder(), entryId, storedName(image, variant))
+                .orElseThrow(() -> new ApplicationException(HttpStatus.NOT_FOUND, "Image not found"));
+    }
+
     @Override
     public void deleteImage(String entryId, String imageId) {
-        List<EntryImage> entryImages = getEntryImages(entryId);
-        List<EntryImage> updatedImages = entryImages.stream().filter(image -> !imageId.equals(image.getImageId())).toList();
-        fileStorage.deleteFile(getFolder(), entryId, "%s.jpg".formatted(imageId));
-        entryService.updateImages(entryId, updatedImages);
+        deleteFiles(getFolder(), entryId, "%s.jpg".formatted(imageId));
+        entryService.removeImage(entryId, imageId);
+    }
+
+    /**
+     * The original and its variants are stored, when the image was deleted while it was processing they are deleted as well
+     */
+    private void storeImage(String folder, String entryId, String imageId, String storedName, byte[] bytes) {
+        if (!fileStorage.folderExists(folder)) {
+            fileStorage.createFolder(folder);
+        }
+
+        Map<ImageVariant, byte[]> variants = imageCompression.compressVariants(bytes);
+        variants.forEach((variant, image) -> fileStorage.uploadFile(folder, entryId, variant.storedName(storedName), image));
+
+        if (!entryService.updateImageStatus(entryId, imageId, ImageStatus.READY)) {
+            deleteFiles(folder, entryId, storedName);
+        }
+    }
+
+    private void deleteFiles(String folder, String entryId, String storedName) {
+        Arrays.stream(ImageVariant.values()).forEach(variant -> fileStorage.deleteFile(folder, entryId, variant.storedName(storedName)));
+    }
+
+    private static String storedName(EntryImage image, ImageVariant variant) {
+        boolean hasVariant = ofNullable(image.getVariants()).orElse(emptyList()).contains(variant);
+        return (hasVariant ? variant : ImageVariant.ORIGINAL).storedName(image.getStoredName());
+    }
+
+    private static boolean isReady(EntryImage image) {
+        return Objects.isNull(image.getStatus()) || ImageStatus.READY.equals(image.getStatus());
+    }
+
+    private static EntryImageResponse.EntryImageResponseBuilder response(EntryImage image) {
+        return EntryImageResponse.builder()
+                .id(image.getImageId())
+                .imageName(image.getName())
+                .status(ofNullable(image.getStatus()).orElse(ImageStatus.READY));
     }
 
     private String getFolder() {
         return TokenRequestScope.get().tenancyName().toLowerCase(Locale.getDefault()).replaceAll("[^A-Za-z0-9]", "");
     }
 
+    private EntryImage getEntryImage(String entryId, String imageId) {
+        return getEntryImages(entryId).stream()
+                .filter(image -> imageId.equals(image.getImageId()))
+                .findFirst()
+                .orElseThrow(() -> new ApplicationException(HttpStatus.NOT_FOUND, "Image not found"));
+    }
+
     private List<EntryImage> getEntryImages(String entryId) {
         return ofNullable(entryService.getById(entryId))
                 .map(Entry::getImages)
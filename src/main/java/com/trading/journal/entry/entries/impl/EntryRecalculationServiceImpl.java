@@ -0,0 +1,145 @@
+package com.trading.journal.entry.entries.impl;
+
+import com.trading.journal.entry.entries.CalculateEntry;
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryRecalculationService;
+import com.trading.journal.entry.entries.EntryRepository;
+import com.trading.journal.entry.journal.JournalService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Replays the entries in date order with a running balance that starts with the start balance of the journal
+ * plus the result of the finished entries before the date. The entries are read from a cursor and only the calculated fields
+ * that changed are written, in bulk writes of a chunk, so the memory is bounded by the chunk whatever the number of entries
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class EntryRecalculationServiceImpl implements EntryRecalculationService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String ID = "_id";
+
+    private static final String JOURNAL_ID = "journalId";
+
+    private static final String DATE = "date";
+
+    private static final String NET_RESULT = "netResult";
+
+    private final EntryRepository repository;
+
+    private final JournalService journalService;
+
+    @Override
+    public boolean hasEntriesAfter(String journalId, LocalDateTime date) {
+        Query query = new Query(Criteria.where(JOURNAL_ID).is(journalId).and(DATE).gt(date)).limit(1);
+        return repository.count(query) > 0;
+    }
+
+    @Override
+    public long recalculateFrom(String journalId, LocalDateTime from) {
+        BigDecimal balance = balanceBefore(journalId, from);
+        Query query = new Query(Criteria.where(JOURNAL_ID).is(journalId).and(DATE).gte(from))
+                .with(Sort.by(DATE, ID).ascending())
+                .cursorBatchSize(CHUNK_SIZE);
+        List<Pair<Query, UpdateDefinition>> updates = new ArrayList<>(CHUNK_SIZE);
+        long changed = 0;
+        try (Stream<Entry> entries = repository.stream(query)) {
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                Calculated before = Calculated.of(entry);
+                new CalculateEntry(entry, balance).calculate();
+                Calculated after = Calculated.of(entry);
+                if (!after.isSameAs(before)) {
+                    updates.add(Pair.of(new Query(Criteria.where(ID).is(entry.getId())), after.toUpdate()));
+                }
+                if (entry.isFinished()) {
+                    balance = entry.getAccountBalance();
+                }
+                if (updates.size() == CHUNK_SIZE) {
+                    changed += write(updates);
+                }
+            }
+        }
+        changed += write(updates);
+        log.debug("Journal {} recalculated from {}, {} entries changed", journalId, from, changed);
+        return changed;
+    }
+
+    @Override
+    public BigDecimal balanceBefore(String journalId, LocalDateTime from) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(JOURNAL_ID).is(journalId).and(DATE).lt(from).and(NET_RESULT).ne(null)),
+                Aggregation.group().sum(NET_RESULT).as(NET_RESULT)
+        );
+        BigDecimal finished = repository.aggregate(aggregation, Entry.class).stream()
+                .findFirst()
+                .map(Entry::getNetResult)
+                .orElse(BigDecimal.ZERO);
+        return journalService.load(journalId).getStartBalance().add(finished);
+    }
+
+    private long write(List<Pair<Query, UpdateDefinition>> updates) {
+        long written = 0;
+        if (!updates.isEmpty()) {
+            written = repository.bulkUpdate(updates);
+            updates.clear();
+        }
+        return written;
+    }
+
+    private record Calculated(BigDecimal accountRisked, BigDecimal plannedRR, BigDecimal grossResult,
+                              BigDecimal netResult, BigDecimal accountChange, BigDecimal accountBalance) {
+
+        public static Calculated of(Entry entry) {
+            return new Calculated(entry.getAccountRisked(), entry.getPlannedRR(), entry.getGrossResult(),
+                    entry.getNetResult(), entry.getAccountChange(), entry.getAccountBalance());
+        }
+
+        public boolean isSameAs(Calculated other) {
+            return same(accountRisked, other.accountRisked) && same(plannedRR, other.plannedRR)
+                    && same(grossResult, other.grossResult) && same(netResult, other.netResult)
+                    && same(accountChange, other.accountChange) && same(accountBalance, other.accountBalance);
+        }
+
+        public UpdateDefinition toUpdate() {
+            Update update = new Update();
+            set(update, "accountRisked", accountRisked);
+            set(update, "plannedRR", plannedRR);
+            set(update, "grossResult", grossResult);
+            set(update, NET_RESULT, netResult);
+            set(update, "accountChange", accountChange);
+            set(update, "accountBalance", accountBalance);
+            return update;
+        }
+
+        private static boolean same(BigDecimal value, BigDecimal other) {
+            return Objects.isNull(value) ? Objects.isNull(other) : Objects.nonNull(other) && value.compareTo(other) == 0;
+        }
+
+        private static void set(Update update, String field, BigDecimal value) {
+            ofNullable(value).ifPresentOrElse(present -> update.set(field, present), () -> update.unset(field));
+        }
+    }
+}
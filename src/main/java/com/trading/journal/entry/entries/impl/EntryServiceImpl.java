@@ -4,33 +4,69 @@ import com.trading.journal.entry.ApplicationException;
 import com.trading.journal.entry.balance.Balance;
 import com.trading.journal.entry.balance.BalanceService;
 import com.trading.journal.entry.entries.*;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupService;
+import com.trading.journal.entry.queries.ConcurrentPageQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.bson.types.ObjectId;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static java.util.Optional.ofNullable;
 
 @RequiredArgsConstructor
 @Service
 @Slf4j
 public class EntryServiceImpl implements EntryService {
 
+    private static final String ID = "_id";
+    private static final String IMAGES = "images";
+    private static final String IMAGE_ID = "imageId";
+
     private final EntryRepository repository;
 
     private final BalanceService balanceService;
 
+    private final ConcurrentPageQuery concurrentPageQuery;
+
+    private final DailyRollupService dailyRollupService;
+
+    private final EntryRecalculationService entryRecalculationService;
+
     @Override
-    public Page<Entry> getAll(EntriesQuery entriesQuery) {
+    public Slice<Entry> getAll(EntriesQuery entriesQuery) {
         Query query = entriesQuery.buildQuery();
-        Page<Entry> page = repository.findAll(entriesQuery.getPageable(), query);
-        return new PageImpl<>(page.toList(), entriesQuery.getPageable(), page.getTotalElements());
+        Slice<Entry> entries;
+        if (entriesQuery.isCountTotal()) {
+            entries = concurrentPageQuery.findAll(repository, entriesQuery.getPageable(), query);
+        } else {
+            entries = repository.findSlice(entriesQuery.getPageable(), query);
+        }
+        return entries;
+    }
+
+    @Override
+    public Slice<Entry> getAllByCursor(EntriesQuery entriesQuery) {
+        int size = entriesQuery.getPageable().getPageSize();
+        List<Entry> entries = repository.find(entriesQuery.buildCursorQuery());
+        boolean hasNext = entries.size() > size;
+        return new SliceImpl<>(hasNext ? entries.subList(0, size) : entries, entriesQuery.getPageable(), hasNext);
+    }
+
+    @Override
+    public Stream<Entry> stream(EntriesQuery entriesQuery) {
+        return repository.stream(entriesQuery.buildExportQuery());
     }
 
     @Override
@@ -38,37 +74,58 @@ public class EntryServiceImpl implements EntryService {
         return get(entryId);
     }
 
+    /**
+     * The current balance is only right for an entry created after all the others,
+     * an edited entry or one created in the past is calculated again with the entries after it.
+     * An edited entry is written without its images, they are changed by the image processing while the entry is edited
+     */
     @Override
     public Entry save(Entry entry) {
+        Entry previous = ofNullable(entry.getId()).flatMap(repository::getById).orElse(null);
         Balance balance = balanceService.getCurrentBalance(entry.getJournalId());
         CalculateEntry calculateEntry = new CalculateEntry(entry, balance.getAccountBalance());
         Entry calculated = calculateEntry.calculate();
-        Entry saved = repository.save(calculated);
-        if (saved.isFinished()) {
-            balanceService.calculateCurrentBalance(entry.getJournalId());
-        } else {
-            balanceService.calculateAvailableBalance(entry.getJournalId());
+        Entry saved = Objects.isNull(previous) ? repository.save(calculated) : update(calculated);
+        balanceService.applyEntryChange(entry.getJournalId(), previous, saved);
+        dailyRollupService.applyEntryChange(previous, saved);
+        Entry result = saved;
+        if (Objects.nonNull(previous) || entryRecalculationService.hasEntriesAfter(saved.getJournalId(), saved.getDate())) {
+            LocalDateTime from = ofNullable(previous).map(Entry::getDate).filter(date -> date.isBefore(saved.getDate())).orElse(saved.getDate());
+            entryRecalculationService.recalculateFrom(saved.getJournalId(), from);
+            result = get(saved.getId());
         }
-        return saved;
+        return result;
     }
 
     @Override
     public void delete(String entryId) {
         Entry entry = get(entryId);
         repository.delete(entry);
-        if (entry.isFinished()) {
-            balanceService.calculateCurrentBalance(entry.getJournalId());
+        balanceService.applyEntryChange(entry.getJournalId(), entry, null);
+        dailyRollupService.applyEntryChange(entry, null);
+        if (entryRecalculationService.hasEntriesAfter(entry.getJournalId(), entry.getDate())) {
+            entryRecalculationService.recalculateFrom(entry.getJournalId(), entry.getDate());
         }
     }
 
     @Override
-    public void updateImages(String entryId, List<EntryImage> entryImages) {
-        Query query = new Query(Criteria.where("_id").is(entryId));
-        Update update = new Update().set("images", entryImages);
-        if (entryImages == null || entryImages.isEmpty()) {
-            update = new Update().unset("images");
-        }
-        repository.update(query, update);
+    public void addImage(String entryId, EntryImage entryImage) {
+        Query query = new Query(Criteria.where(ID).is(entryId));
+        repository.update(query, new Update().push(IMAGES, entryImage));
+    }
+
+    @Override
+    public void removeImage(String entryId, String imageId) {
+        Query query = new Query(Criteria.where(ID).is(entryId));
+        repository.update(query, new Update().pull(IMAGES, new Document(IMAGE_ID, imageId)));
+        Query withoutImages = new Query(Criteria.where(ID).is(entryId).and(IMAGES).size(0));
+        repository.update(withoutImages, new Update().unset(IMAGES));
+    }
+
+    @Override
+    public boolean updateImageStatus(String entryId, String imageId, ImageStatus status) {
+        Query query = new Query(Criteria.where(ID).is(entryId).and(IMAGES + "." + IMAGE_ID).is(imageId));
+        return repository.update(query, new Update().set(IMAGES + ".$.status", status)) > 0;
     }
 
     @Override
@@ -77,6 +134,13 @@ public class EntryServiceImpl implements EntryService {
         return repository.count(Query.query(criteria));
     }
 
+    private Entry update(Entry entry) {
+        if (repository.updateExcept(entry, IMAGES) == 0) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "Entry not found");
+        }
+        return entry;
+    }
+
     private Entry get(String entryId) {
         return repository.getById(entryId)
                 .orElseThrow(() -> new ApplicationException(HttpStatus.NOT_FOUND, "Entry not found"));
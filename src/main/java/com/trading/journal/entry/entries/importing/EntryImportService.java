@@ -0,0 +1,8 @@
+package com.trading.journal.entry.entries.importing;
+
+import java.util.List;
+
+public interface EntryImportService {
+
+    ImportResult importEntries(String journalId, List<ImportedEntry> entries);
+}
@@ -0,0 +1,164 @@
+package com.trading.journal.entry.entries.importing;
+
+import com.trading.journal.entry.ApplicationException;
+import com.trading.journal.entry.entries.EntriesQuery;
+import com.trading.journal.entry.entries.EntryDirection;
+import com.trading.journal.entry.entries.EntryType;
+import com.trading.journal.entry.entries.GraphType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads the entries to import from a CSV with a header, the columns are the same of the export and unknown ones are ignored,
+ * so an exported file can be imported again. Quoted values may have commas, doubled quotes and line breaks
+ */
+public final class ImportCsvReader {
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("type", (builder, value) -> builder.type(EntryType.valueOf(value))),
+            new Column("date", (builder, value) -> builder.date(date(value))),
+            new Column("symbol", ImportedEntry.ImportedEntryBuilder::symbol),
+            new Column("direction", (builder, value) -> builder.direction(EntryDirection.valueOf(value))),
+            new Column("price", (builder, value) -> builder.price(new BigDecimal(value))),
+            new Column("size", (builder, value) -> builder.size(new BigDecimal(value))),
+            new Column("graphType", (builder, value) -> builder.graphType(GraphType.valueOf(value))),
+            new Column("graphMeasure", ImportedEntry.ImportedEntryBuilder::graphMeasure),
+            new Column("profitPrice", (builder, value) -> builder.profitPrice(new BigDecimal(value))),
+            new Column("lossPrice", (builder, value) -> builder.lossPrice(new BigDecimal(value))),
+            new Column("costs", (builder, value) -> builder.costs(new BigDecimal(value))),
+            new Column("exitPrice", (builder, value) -> builder.exitPrice(new BigDecimal(value))),
+            new Column("exitDate", (builder, value) -> builder.exitDate(date(value))),
+            new Column("notes", ImportedEntry.ImportedEntryBuilder::notes)
+    );
+
+    private static final int END = -1;
+
+    private static final char QUOTE = '"';
+
+    private static final char SEPARATOR = ',';
+
+    private static final char LINE_BREAK = '\n';
+
+    private static final char CARRIAGE_RETURN = '\r';
+
+    private ImportCsvReader() {
+    }
+
+    public static List<ImportedEntry> read(InputStream input) {
+        try (Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return read(reader);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static List<ImportedEntry> read(Reader reader) throws IOException {
+        List<String> header = readRecord(reader);
+        if (Objects.isNull(header)) {
+            throw new ApplicationException("The file has no header");
+        }
+        List<Column> columns = header.stream()
+                .map(name -> COLUMNS.stream().filter(column -> column.name().equals(name.trim())).findFirst().orElse(null))
+                .toList();
+        List<ImportedEntry> entries = new ArrayList<>();
+        int line = 1;
+        List<String> values = readRecord(reader);
+        while (Objects.nonNull(values)) {
+            line++;
+            if (!isBlank(values)) {
+                entries.add(toEntry(columns, values, line));
+            }
+            values = readRecord(reader);
+        }
+        return entries;
+    }
+
+    /**
+     * ApplicationException has no cause, the line and the value are what the user needs to fix the file
+     */
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private static ImportedEntry toEntry(List<Column> columns, List<String> values, int line) {
+        ImportedEntry.ImportedEntryBuilder builder = ImportedEntry.builder();
+        for (int index = 0; index < Math.min(columns.size(), values.size()); index++) {
+            Column column = columns.get(index);
+            String value = values.get(index).trim();
+            if (Objects.nonNull(column) && !value.isEmpty()) {
+                try {
+                    column.setter().accept(builder, value);
+                } catch (IllegalArgumentException | DateTimeParseException exception) {
+                    throw new ApplicationException(String.format("Line %s: invalid %s '%s'", line, column.name(), value));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads the values of the next record, null when there is none
+     */
+    private static List<String> readRecord(Reader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int character = reader.read();
+        boolean empty = character == END;
+        while (!isEndOfRecord(character, quoted)) {
+            if (character == QUOTE) {
+                quoted = readQuote(reader, value, quoted);
+            } else if (character == SEPARATOR && !quoted) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (quoted || character != CARRIAGE_RETURN) {
+                value.append((char) character);
+            }
+            character = reader.read();
+        }
+        values.add(value.toString());
+        return empty ? null : values;
+    }
+
+    private static boolean isEndOfRecord(int character, boolean quoted) {
+        return character == END || !quoted && character == LINE_BREAK;
+    }
+
+    /**
+     * A quote opens or closes the quoted value, a doubled quote inside it is a quote of the value
+     */
+    private static boolean readQuote(Reader reader, StringBuilder value, boolean quoted) throws IOException {
+        boolean stillQuoted = !quoted;
+        if (quoted) {
+            reader.mark(1);
+            if (reader.read() == QUOTE) {
+                value.append(QUOTE);
+                stillQuoted = true;
+            } else {
+                reader.reset();
+            }
+        }
+        return stillQuoted;
+    }
+
+    private static boolean isBlank(List<String> values) {
+        return values.stream().allMatch(String::isBlank);
+    }
+
+    private static LocalDateTime date(String value) {
+        return LocalDateTime.parse(value, EntriesQuery.DATE_FORMATTER);
+    }
+
+    private record Column(String name, BiConsumer<ImportedEntry.ImportedEntryBuilder, String> setter) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.trading.journal.entry.entries.importing;
+
+import com.trading.journal.entry.balance.Balance;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class ImportResult {
+
+    private long imported;
+
+    /**
+     * Balance of the journal recalculated after the import
+     */
+    private Balance balance;
+}
@@ -0,0 +1,64 @@
+package com.trading.journal.entry.entries.importing;
+
+import com.allanweber.jwttoken.helper.DateHelper;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.trading.journal.entry.entries.EntryDirection;
+import com.trading.journal.entry.entries.EntryType;
+import com.trading.journal.entry.entries.GraphType;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.springframework.format.annotation.NumberFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An entry of any type to import, validated as the trade, deposit, withdrawal or taxes of its type.
+ * A trade with exit price and exit date is imported closed
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Builder
+@EqualsAndHashCode
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportedEntry {
+
+    @NotNull(message = "Entry type is required")
+    private EntryType type;
+
+    @JsonFormat(pattern = DateHelper.DATE_FORMAT)
+    private LocalDateTime date;
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal price;
+
+    private String symbol;
+
+    private EntryDirection direction;
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal size;
+
+    private GraphType graphType;
+
+    private String graphMeasure;
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal profitPrice;
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal lossPrice;
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal costs;
+
+    @NumberFormat(pattern = "#0.00")
+    private BigDecimal exitPrice;
+
+    @JsonFormat(pattern = DateHelper.DATE_FORMAT)
+    private LocalDateTime exitDate;
+
+    private String notes;
+}
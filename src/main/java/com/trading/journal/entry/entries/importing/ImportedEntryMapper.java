@@ -0,0 +1,26 @@
+package com.trading.journal.entry.entries.importing;
+
+import com.trading.journal.entry.entries.deposit.Deposit;
+import com.trading.journal.entry.entries.taxes.Taxes;
+import com.trading.journal.entry.entries.trade.CloseTrade;
+import com.trading.journal.entry.entries.trade.Trade;
+import com.trading.journal.entry.entries.withdrawal.Withdrawal;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+import org.mapstruct.factory.Mappers;
+
+@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface ImportedEntryMapper {
+
+    ImportedEntryMapper INSTANCE = Mappers.getMapper(ImportedEntryMapper.class);
+
+    Trade toTrade(ImportedEntry entry);
+
+    CloseTrade toCloseTrade(ImportedEntry entry);
+
+    Deposit toDeposit(ImportedEntry entry);
+
+    Withdrawal toWithdrawal(ImportedEntry entry);
+
+    Taxes toTaxes(ImportedEntry entry);
+}
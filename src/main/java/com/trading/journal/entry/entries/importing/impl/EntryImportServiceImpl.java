@@ -0,0 +1,165 @@
+package com.trading.journal.entry.entries.importing.impl;
+
+import com.trading.journal.entry.ApplicationException;
+import com.trading.journal.entry.balance.Balance;
+import com.trading.journal.entry.balance.BalanceService;
+import com.trading.journal.entry.entries.CalculateEntry;
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryRecalculationService;
+import com.trading.journal.entry.entries.EntryRepository;
+import com.trading.journal.entry.entries.deposit.DepositMapper;
+import com.trading.journal.entry.entries.importing.EntryImportService;
+import com.trading.journal.entry.entries.importing.ImportResult;
+import com.trading.journal.entry.entries.importing.ImportedEntry;
+import com.trading.journal.entry.entries.importing.ImportedEntryMapper;
+import com.trading.journal.entry.entries.taxes.TaxesMapper;
+import com.trading.journal.entry.entries.trade.CloseTrade;
+import com.trading.journal.entry.entries.trade.Trade;
+import com.trading.journal.entry.entries.trade.TradeMapper;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupService;
+import com.trading.journal.entry.entries.withdrawal.WithdrawalMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Imports many entries with one bulk write per chunk instead of saving them one by one.
+ * Entries are calculated in chronological order with a running balance that starts at the balance before the earliest imported entry,
+ * then the journal is calculated again once from that date, for the entries already there that the import was placed before or between.
+ * The balance is recalculated once at the end. Nothing is written when any entry is invalid,
+ * but a failure while writing keeps the chunks already written
+ */
+@RequiredArgsConstructor
+@Service
+public class EntryImportServiceImpl implements EntryImportService {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final int MAX_ERRORS = 20;
+
+    private final EntryRepository repository;
+
+    private final BalanceService balanceService;
+
+    private final DailyRollupService dailyRollupService;
+
+    private final EntryRecalculationService entryRecalculationService;
+
+    private final Validator validator;
+
+    @Override
+    public ImportResult importEntries(String journalId, List<ImportedEntry> importedEntries) {
+        if (Objects.isNull(importedEntries) || importedEntries.isEmpty()) {
+            throw new ApplicationException("There are no entries to import");
+        }
+        if (importedEntries.size() > MAX_ENTRIES) {
+            throw new ApplicationException("At most " + MAX_ENTRIES + " entries can be imported at once");
+        }
+        List<Entry> entries = toEntries(journalId, importedEntries);
+        entries.sort(Comparator.comparing(Entry::getDate));
+
+        LocalDateTime earliest = entries.get(0).getDate();
+        BigDecimal balance = entryRecalculationService.balanceBefore(journalId, earliest);
+        for (Entry entry : entries) {
+            new CalculateEntry(entry, balance).calculate();
+            if (entry.isFinished()) {
+                balance = entry.getAccountBalance();
+            }
+        }
+
+        long imported = 0;
+        for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+            imported += repository.bulkInsert(entries.subList(from, Math.min(from + CHUNK_SIZE, entries.size())));
+        }
+        dailyRollupService.applyNewEntries(entries);
+        entryRecalculationService.recalculateFrom(journalId, earliest);
+        Balance current = balanceService.calculateCurrentBalance(journalId);
+        return new ImportResult(imported, current);
+    }
+
+    private List<Entry> toEntries(String journalId, List<ImportedEntry> importedEntries) {
+        List<String> errors = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>(importedEntries.size());
+        for (int index = 0; index < importedEntries.size(); index++) {
+            ImportedEntry imported = importedEntries.get(index);
+            List<String> violations = violations(imported);
+            if (violations.isEmpty()) {
+                entries.add(toEntry(journalId, imported));
+            } else {
+                int row = index + 1;
+                violations.forEach(violation -> errors.add("Entry " + row + ": " + violation));
+            }
+        }
+        if (!errors.isEmpty()) {
+            String message = errors.stream().limit(MAX_ERRORS).collect(Collectors.joining("; "));
+            if (errors.size() > MAX_ERRORS) {
+                message = message + "; and " + (errors.size() - MAX_ERRORS) + " more";
+            }
+            throw new ApplicationException(message);
+        }
+        return entries;
+    }
+
+    /**
+     * Each type is validated as it is when created by its own endpoint
+     */
+    private List<String> violations(ImportedEntry imported) {
+        List<String> violations = messages(imported);
+        if (violations.isEmpty()) {
+            ImportedEntryMapper mapper = ImportedEntryMapper.INSTANCE;
+            switch (imported.getType()) {
+                case TRADE -> {
+                    violations.addAll(messages(mapper.toTrade(imported)));
+                    if (isClosed(imported)) {
+                        violations.addAll(messages(mapper.toCloseTrade(imported)));
+                    }
+                }
+                case DEPOSIT -> violations.addAll(messages(mapper.toDeposit(imported)));
+                case WITHDRAWAL -> violations.addAll(messages(mapper.toWithdrawal(imported)));
+                case TAXES -> violations.addAll(messages(mapper.toTaxes(imported)));
+            }
+        }
+        return violations;
+    }
+
+    private List<String> messages(Object value) {
+        return validator.validate(value).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static Entry toEntry(String journalId, ImportedEntry imported) {
+        ImportedEntryMapper mapper = ImportedEntryMapper.INSTANCE;
+        return switch (imported.getType()) {
+            case TRADE -> trade(journalId, imported, mapper.toTrade(imported));
+            case DEPOSIT -> DepositMapper.INSTANCE.toEntry(mapper.toDeposit(imported), journalId);
+            case WITHDRAWAL -> WithdrawalMapper.INSTANCE.toEntry(mapper.toWithdrawal(imported), journalId);
+            case TAXES -> TaxesMapper.INSTANCE.toEntry(mapper.toTaxes(imported), journalId);
+        };
+    }
+
+    private static Entry trade(String journalId, ImportedEntry imported, Trade trade) {
+        Entry entry = TradeMapper.INSTANCE.toEntry(trade, journalId);
+        if (isClosed(imported)) {
+            CloseTrade closeTrade = ImportedEntryMapper.INSTANCE.toCloseTrade(imported);
+            entry = TradeMapper.INSTANCE.toEntryFromClose(entry, closeTrade);
+        }
+        return entry;
+    }
+
+    private static boolean isClosed(ImportedEntry imported) {
+        return Objects.nonNull(imported.getExitPrice()) || Objects.nonNull(imported.getExitDate());
+    }
+}
@@ -0,0 +1,24 @@
+package com.trading.journal.entry.entries.trade;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Builder
+public class CloseTrades {
+
+    public static final int MAX_TRADES = 1000;
+
+    @NotEmpty(message = "Trades to close are required")
+    @Size(max = MAX_TRADES, message = "At most " + MAX_TRADES + " trades can be closed at once")
+    private List<@Valid ClosingTrade> trades;
+}
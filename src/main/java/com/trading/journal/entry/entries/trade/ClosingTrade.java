@@ -0,0 +1,39 @@
+package com.trading.journal.entry.entries.trade;
+
+import com.allanweber.jwttoken.helper.DateHelper;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.springframework.format.annotation.NumberFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One of the trades closed by a batch close
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Builder
+@EqualsAndHashCode
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClosingTrade {
+
+    @NotBlank(message = "Trade id is required")
+    private String tradeId;
+
+    @NumberFormat(pattern = "#0.00")
+    @NotNull(message = "Exit price is required")
+    private BigDecimal exitPrice;
+
+    @JsonFormat(pattern = DateHelper.DATE_FORMAT)
+    @NotNull(message = "Exit date is required")
+    private LocalDateTime exitDate;
+
+    public CloseTrade toCloseTrade() {
+        return new CloseTrade(exitPrice, exitDate);
+    }
+}
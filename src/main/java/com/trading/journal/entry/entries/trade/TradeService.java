@@ -11,6 +11,8 @@ public interface TradeService {
 
     Entry close(String tradeId, CloseTrade trade);
 
+    List<Entry> closeAll(String journalId, CloseTrades trades);
+
     long countOpen(String journalId);
 
     List<Symbol> symbols(String journalId);
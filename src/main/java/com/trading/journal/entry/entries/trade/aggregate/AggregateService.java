@@ -1,6 +1,5 @@
 package com.trading.journal.entry.entries.trade.aggregate;
 
-import com.mongodb.BasicDBObject;
 import com.trading.journal.entry.entries.EntryRepository;
 import com.trading.journal.entry.entries.EntryType;
 import lombok.RequiredArgsConstructor;
@@ -8,118 +7,190 @@ import org.bson.Document;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
-import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.IsoFields;
-import java.time.temporal.TemporalAdjusters;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collector;
+import java.util.Objects;
+import java.util.Optional;
 
 import static java.util.Collections.emptyList;
-import static java.util.stream.Collectors.groupingBy;
 
 @Service
 @RequiredArgsConstructor
 public class AggregateService {
 
-    private final EntryRepository repository;
-
-    public PeriodAggregatedResult aggregatePeriod(String journalId, AggregateTrade aggregateTrade) {
-        String groupQuery = "{ _id: { $dateToString: { format: '" + aggregateTrade.getAggregateType().getGroupBy() + "', date: '$date'} }, " +
-                "result:{'$sum': {'$toDouble': '$netResult'}}, count: { $sum: 1 }}";
-
-        String facetQuery = "{ result: [{ $skip: " + aggregateTrade.getSkip() + " }, { $limit: " + aggregateTrade.getSize() + " }], totalCount: [ {$count: 'count'}]}";
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String DATE_TO_STRING = "$dateToString";
+    private static final String FORMAT = "format";
+    private static final String DATE = "date";
+    private static final String SUM = "$sum";
+    private static final String RESULT = "result";
+    private static final String COUNT = "count";
+    private static final String DAY = "day";
+
+    private static final String GROUP = "group";
+    private static final String YEAR = "year";
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private static final Document ROLLUP_DATE = new Document("$addFields",
+            new Document(DATE, new Document("$dateFromString", new Document("dateString", "$day").append(FORMAT, "%Y-%m-%d"))));
+
+    /**
+     * Each trade as a rollup of one trade, grouped by the same stages of the rollups
+     */
+    private static final Document TRADE_ROLLUP = new Document("$addFields", new Document()
+            .append(RESULT, new Document("$ifNull", List.of("$netResult", 0)))
+            .append(COUNT, 1));
+
+    /**
+     * A week belongs to the month of its Wednesday, where most of its days are, kept inside the year of the week
+     */
+    private static final Document WEEK_DATE = new Document("$min", List.of(
+            new Document("$max", List.of(
+                    new Document("$add", List.of("$date", new Document("$multiply", List.of(new Document("$subtract", List.of(4, new Document("$dayOfWeek", "$date"))), DAY_MILLIS)))),
+                    new Document("$dateFromParts", new Document(YEAR, new Document("$year", "$date"))))),
+            new Document("$dateFromParts", new Document(YEAR, new Document("$year", "$date")).append("month", 12).append("day", 31))));
+
+    /**
+     * Group stage of each aggregation type by its ordinal, the days of the rollups summed by period and group of the type
+     */
+    private static final List<Document> PERIOD_GROUPS = Arrays.stream(AggregateType.values())
+            .map(aggregateType -> new Document("$group", new Document()
+                    .append("_id", new Document()
+                            .append("period", new Document(DATE_TO_STRING, new Document(FORMAT, aggregateType.getPeriodBy())
+                                    .append(DATE, AggregateType.WEEK.equals(aggregateType) ? WEEK_DATE : "$date")))
+                            .append(GROUP, new Document(DATE_TO_STRING, new Document(FORMAT, aggregateType.getGroupBy()).append(DATE, "$date"))))
+                    .append(RESULT, new Document(SUM, "$result"))
+                    .append(COUNT, new Document(SUM, "$count"))))
+            .toList();
+
+    private static final Document PERIOD_ITEMS = new Document("$group", new Document()
+            .append("_id", "$_id.period")
+            .append("items", new Document("$push", new Document()
+                    .append(GROUP, "$_id.group")
+                    .append(RESULT, new Document("$round", List.of("$result", 2)))
+                    .append(COUNT, "$count"))));
+
+    private static final Document TRADES_GROUP = new Document("$group", new Document()
+            .append("_id", new Document(DATE_TO_STRING, new Document(FORMAT, "%Y-%m-%d").append(DATE, "$date")))
+            .append("items", new Document("$push", new Document()
+                    .append("tradeId", new Document("$convert", new Document("input", "$_id").append("to", "string")))
+                    .append("symbol", "$symbol")
+                    .append("order", new Document(DATE_TO_STRING, new Document(FORMAT, "%Y-%m-%d %H:%M:%S").append(DATE, "$date")))
+                    .append(DATE, "$date")
+                    .append("exitDate", "$exitDate")
+                    .append("netResult", "$netResult"))));
 
-        AggregationOperation group = aggregationOperationContext -> new Document("$group", BasicDBObject.parse(groupQuery));
-        AggregationOperation facet = aggregationOperationContext -> new Document("$facet", BasicDBObject.parse(facetQuery));
+    private final EntryRepository repository;
 
-        Aggregation aggregation = Aggregation.newAggregation(
-                Aggregation.match(new Criteria("journalId").is(journalId).and("type").is(EntryType.TRADE.name())),
-                group,
-                Aggregation.sort(Sort.Direction.DESC, "_id"),
-                Aggregation.project().andExclude("_id")
-                        .and("$_id").as("group")
-                        .and(ArithmeticOperators.Round.roundValueOf("$result").place(2)).as("result")
-                        .andInclude("count"),
-                facet,
-                Aggregation.unwind("$totalCount"),
-                Aggregation.project("result").and("$totalCount.count").as("total")
-        );
+    private final DailyRollupRepository dailyRollupRepository;
 
-        List<PeriodAggregatedQueryResult> queryResult = repository.aggregate(aggregation, PeriodAggregatedQueryResult.class);
+    private final TradeStatsRepository tradeStatsRepository;
 
-        return queryResult.stream().findFirst()
-                .map(firstItem -> {
-                    List<PeriodAggregated> items = firstItem.getResult()
-                            .stream()
-                            .collect(getGroupingBy(aggregateTrade.getAggregateType()))
-                            .entrySet()
-                            .stream()
-                            .sorted(Map.Entry.comparingByKey(Comparator.reverseOrder()))
-                            .map(entry -> new PeriodAggregated(entry.getKey(), entry.getValue()))
-                            .toList();
-                    return new PeriodAggregatedResult(items, firstItem.getTotal());
-                }).orElse(new PeriodAggregatedResult(emptyList(), 0L));
+    /**
+     * Periods are grouped from the daily rollups of the journal instead of every trade.
+     * The groups come nested in their outer period (month for days and weeks, year for months) and the page is of outer periods.
+     * A journal without rollups yet, before its tenancy is backfilled, is grouped from its trades
+     */
+    public PeriodAggregatedResult aggregatePeriod(String journalId, AggregateTrade aggregateTrade) {
+        AggregationOperation date = aggregationOperationContext -> ROLLUP_DATE;
+        Aggregation rollups = periodAggregation(aggregateTrade, Aggregation.match(new Criteria("journalId").is(journalId)), date);
+        PeriodAggregatedResult result = periodResult(dailyRollupRepository.aggregate(rollups, PeriodAggregatedQueryResult.class));
+
+        if (result.getTotal() == 0) {
+            AggregationOperation trade = aggregationOperationContext -> TRADE_ROLLUP;
+            Aggregation trades = periodAggregation(aggregateTrade,
+                    Aggregation.match(new Criteria("journalId").is(journalId).and("type").is(EntryType.TRADE.name())), trade);
+            result = periodResult(repository.aggregate(trades, PeriodAggregatedQueryResult.class));
+        }
+        return result;
+    }
+    /**
+     * Without a range the stats of the whole journal are read from its stats document, with a range (either side can be open)
+     * they are summed from the daily rollups of the days in it
+     */
+    public TradeStatistics statistics(String journalId, LocalDate from, LocalDate until) {
+        TradeStats stats;
+        if (Objects.isNull(from) && Objects.isNull(until)) {
+            stats = tradeStatsRepository.getById(journalId).orElse(new TradeStats());
+        } else {
+            Criteria days = new Criteria(DAY);
+            Optional.ofNullable(from).ifPresent(day -> days.gte(day.toString()));
+            Optional.ofNullable(until).ifPresent(day -> days.lte(day.toString()));
+            Aggregation aggregation = Aggregation.newAggregation(
+                    Aggregation.match(new Criteria("journalId").is(journalId).andOperator(days)),
+                    Aggregation.group()
+                            .sum(RESULT).as(RESULT)
+                            .sum(COUNT).as(COUNT)
+                            .sum("wins").as("wins")
+                            .sum("losses").as("losses")
+                            .sum("grossProfit").as("grossProfit")
+                            .sum("grossLoss").as("grossLoss")
+            );
+            stats = dailyRollupRepository.aggregate(aggregation, TradeStats.class).stream().findFirst().orElse(new TradeStats());
+        }
+        return TradeStatistics.of(stats);
     }
 
     public List<TradesAggregated> aggregateTrades(String journalId, AggregateTrade aggregateTrade) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        LocalDateTime from = LocalDateTime.parse(aggregateTrade.getFrom(), formatter);
-        LocalDateTime until = LocalDateTime.parse(aggregateTrade.getUntil(), formatter);
+        LocalDateTime from = LocalDateTime.parse(aggregateTrade.getFrom(), DATE_FORMATTER);
+        LocalDateTime until = LocalDateTime.parse(aggregateTrade.getUntil(), DATE_FORMATTER);
 
-        String groupQuery = "{ _id: { $dateToString: { format: '%Y-%m-%d', date: '$date'} }, " +
-                "items: { $push: {'tradeId':{ $convert: { input: '$_id', to: 'string' } }, 'symbol' : '$symbol', " +
-                "order: { $dateToString: { format: '%Y-%m-%d %H:%M:%S', date: '$date'} } , " +
-                "'date':'$date', 'exitDate':'$exitDate', 'netResult':'$netResult'} } }";
-
-        AggregationOperation group = aggregationOperationContext -> new Document("$group", BasicDBObject.parse(groupQuery));
+        AggregationOperation group = aggregationOperationContext -> TRADES_GROUP;
 
         Aggregation aggregation = Aggregation.newAggregation(
                 Aggregation.match(new Criteria("journalId").is(journalId).and("type").is(EntryType.TRADE.name())),
-                Aggregation.match(new Criteria("date").gte(from).lte(until)),
+                Aggregation.match(new Criteria(DATE).gte(from).lte(until)),
                 group,
                 Aggregation.unwind("$items"),
                 Aggregation.sort(Sort.Direction.DESC, "items.order"),
-                Aggregation.group("$_id").push("$items").as("items").count().as("count"),
+                Aggregation.group("$_id").push("$items").as("items").count().as(COUNT),
                 Aggregation.sort(Sort.Direction.DESC, "_id"),
 
                 Aggregation.project().andExclude("_id")
                         .and("$_id").as("group")
-                        .andInclude("items", "count")
+                        .andInclude("items", COUNT)
         );
         return repository.aggregate(aggregation, TradesAggregated.class);
     }
 
-    private static Collector<PeriodItem, ?, Map<String, List<PeriodItem>>> getGroupingBy(AggregateType aggregateType) {
-        Collector<PeriodItem, ?, Map<String, List<PeriodItem>>> group;
-        if (AggregateType.DAY.equals(aggregateType)) {
-            // Group by Month => Day
-            // Grab the correspondent Year and Month to group
-            group = groupingBy(item -> item.getGroup().substring(0, 7));
-        } else if (AggregateType.WEEK.equals(aggregateType)) {
-            // Group by Month => Week
-            // Grab the Year and Week number, transform in a date and get the Year and Month number to group
-            group = groupingBy(item -> {
-                String[] groupParts = item.getGroup().split("-");
-                int year = Integer.parseInt(groupParts[0]);
-                int week = Integer.parseInt(groupParts[1]);
-                LocalDate date = LocalDate.ofYearDay(year, 1)
-                        .with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, week)
-                        .with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
-                return year + "-" + (date.getMonthValue() < 10 ? "0" + date.getMonthValue() : date.getMonthValue());
-            });
-        } else {
-            //Group by Year => Month
-            group = groupingBy(item -> item.getGroup().substring(0, 4));
-        }
-        return group;
+    /**
+     * The days, with their date, result and count, are grouped by period and group of the type
+     */
+    private static Aggregation periodAggregation(AggregateTrade aggregateTrade, AggregationOperation match, AggregationOperation days) {
+        Document facetQuery = new Document()
+                .append(RESULT, List.of(new Document("$skip", aggregateTrade.getSkip()), new Document("$limit", aggregateTrade.getSize())))
+                .append("totalCount", List.of(new Document("$count", COUNT)));
+
+        AggregationOperation group = aggregationOperationContext -> PERIOD_GROUPS.get(aggregateTrade.getAggregateType().ordinal());
+        AggregationOperation items = aggregationOperationContext -> PERIOD_ITEMS;
+        AggregationOperation facet = aggregationOperationContext -> new Document("$facet", facetQuery);
+
+        return Aggregation.newAggregation(
+                match,
+                days,
+                group,
+                Aggregation.sort(Sort.Direction.DESC, "_id.group"),
+                items,
+                Aggregation.sort(Sort.Direction.DESC, "_id"),
+                Aggregation.project().andExclude("_id")
+                        .and("$_id").as(GROUP)
+                        .andInclude("items"),
+                facet,
+                Aggregation.unwind("$totalCount"),
+                Aggregation.project(RESULT).and("$totalCount.count").as("total")
+        );
+    }
+
+    private static PeriodAggregatedResult periodResult(List<PeriodAggregatedQueryResult> queryResult) {
+        return queryResult.stream().findFirst()
+                .map(firstItem -> new PeriodAggregatedResult(firstItem.getResult(), firstItem.getTotal()))
+                .orElse(new PeriodAggregatedResult(emptyList(), 0L));
     }
 }
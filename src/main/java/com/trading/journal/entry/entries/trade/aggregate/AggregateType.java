@@ -6,11 +6,16 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 @Getter
 public enum AggregateType {
-    DAY("%Y-%m-%d", "%Y-%m-%d %H:%M:%S"),
-    WEEK("%Y-%U", "%Y-%m-%d"),
-    MONTH("%Y-%m", "%Y-%m-%d");
+    DAY("%Y-%m-%d", "%Y-%m-%d %H:%M:%S", "%Y-%m"),
+    WEEK("%Y-%U", "%Y-%m-%d", "%Y-%m"),
+    MONTH("%Y-%m", "%Y-%m-%d", "%Y");
 
     private final String groupBy;
 
     private final String orderBy;
+
+    /**
+     * Format of the outer period the groups are nested in: month for days and weeks, year for months
+     */
+    private final String periodBy;
 }
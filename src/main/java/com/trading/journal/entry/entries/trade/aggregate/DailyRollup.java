@@ -0,0 +1,51 @@
+package com.trading.journal.entry.entries.trade.aggregate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+
+/**
+ * Trades of a journal summed by the day they were opened, the id is the journal id and the day joined by a colon
+ */
+@Document(collection = "daily_rollups")
+@CompoundIndex(name = "journal_day", def = "{'journalId': 1, 'day': -1}")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Builder
+public class DailyRollup {
+
+    @Id
+    private String id;
+
+    private String journalId;
+
+    /**
+     * ISO date (yyyy-MM-dd) in UTC, the same day $dateToString gives for the entry date
+     */
+    private String day;
+
+    private BigDecimal result;
+
+    private long count;
+
+    private long wins;
+
+    private long losses;
+
+    /**
+     * Sum of the winning trades results
+     */
+    private BigDecimal grossProfit;
+
+    /**
+     * Sum of the losing trades results, zero or negative
+     */
+    private BigDecimal grossLoss;
+}
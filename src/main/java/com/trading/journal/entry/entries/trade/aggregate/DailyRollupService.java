@@ -0,0 +1,254 @@
+package com.trading.journal.entry.entries.trade.aggregate;
+
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryType;
+import com.trading.journal.entry.queries.impl.CollectionIndexes;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.RenameCollectionOptions;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Keeps the daily rollups and the journal stats of the trades up to date. Every entry change removes the old trade from its day and adds the new one,
+ * rebuild recreates them from the entries for the backfill or after a failed update
+ */
+@Service
+@RequiredArgsConstructor
+public class DailyRollupService {
+
+    private static final String ENTRIES = "entries";
+    private static final String REBUILD_SUFFIX = "_rebuild";
+    private static final String ID = "_id";
+    private static final String JOURNAL_ID = "journalId";
+    private static final String DAY = "day";
+    private static final String COUNT = "count";
+    private static final String RESULT = "result";
+    private static final String WINS = "wins";
+    private static final String LOSSES = "losses";
+    private static final String GROSS_PROFIT = "grossProfit";
+    private static final String GROSS_LOSS = "grossLoss";
+
+    private static final String NET = "$net";
+    private static final String COND = "$cond";
+    private static final String AND = "$and";
+    private static final String SUM = "$sum";
+
+    private static final Document REBUILD_NET = new Document("$addFields", new Document("net", new Document("$toDecimal", "$netResult")));
+
+    private static final Document REBUILD_GROUP = new Document("$group", new Document()
+            .append(ID, new Document(JOURNAL_ID, "$journalId").append(DAY, new Document("$dateToString", new Document("format", "%Y-%m-%d").append("date", "$date"))))
+            .append(RESULT, new Document(SUM, new Document("$ifNull", List.of(NET, new Document("$toDecimal", 0)))))
+            .append(COUNT, new Document(SUM, 1))
+            .append(WINS, new Document(SUM, new Document(COND, List.of(win(), 1, 0))))
+            .append(LOSSES, new Document(SUM, new Document(COND, List.of(loss(), 1, 0))))
+            .append(GROSS_PROFIT, new Document(SUM, new Document(COND, List.of(win(), NET, new Document("$toDecimal", 0)))))
+            .append(GROSS_LOSS, new Document(SUM, new Document(COND, List.of(loss(), NET, new Document("$toDecimal", 0))))));
+
+    private static final Document REBUILD_PROJECT = new Document("$project", new Document()
+            .append(ID, new Document("$concat", List.of("$_id.journalId", ":", "$_id.day")))
+            .append(JOURNAL_ID, "$_id.journalId")
+            .append(DAY, "$_id.day")
+            .append(RESULT, 1)
+            .append(COUNT, 1)
+            .append(WINS, 1)
+            .append(LOSSES, 1)
+            .append(GROSS_PROFIT, 1)
+            .append(GROSS_LOSS, 1));
+
+    private static final Document STATS_GROUP = new Document("$group", new Document()
+            .append(ID, "$journalId")
+            .append(RESULT, new Document(SUM, "$result"))
+            .append(COUNT, new Document(SUM, "$count"))
+            .append(WINS, new Document(SUM, "$wins"))
+            .append(LOSSES, new Document(SUM, "$losses"))
+            .append(GROSS_PROFIT, new Document(SUM, "$grossProfit"))
+            .append(GROSS_LOSS, new Document(SUM, "$grossLoss")));
+
+    private static final Document STATS_JOURNAL = new Document("$addFields", new Document(JOURNAL_ID, "$_id"));
+
+    private final DailyRollupRepository repository;
+
+    private final TradeStatsRepository tradeStatsRepository;
+
+    private final MongoOperations mongoOperations;
+
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    public void applyEntryChange(Entry previous, Entry current) {
+        apply(Stream.concat(Change.of(previous, -1).stream(), Change.of(current, 1).stream()));
+    }
+
+    /**
+     * Entries of a journal changed at once, previous and current are the same entries in the same order
+     */
+    public void applyEntryChanges(List<Entry> previous, List<Entry> current) {
+        apply(Stream.concat(
+                previous.stream().flatMap(entry -> Change.of(entry, -1).stream()),
+                current.stream().flatMap(entry -> Change.of(entry, 1).stream())));
+    }
+
+    /**
+     * New entries of a journal added at once, the entries of the same day are summed so each day is written only once
+     */
+    public void applyNewEntries(List<Entry> entries) {
+        apply(entries.stream().flatMap(entry -> Change.of(entry, 1).stream()));
+    }
+
+    /**
+     * Changes wait for a rebuild in progress, the rebuild replaces the collections and would lose them
+     */
+    private void apply(Stream<Change> entryChanges) {
+        List<Change> changes = entryChanges
+                .collect(toMap(Change::id, identity(), Change::plus, LinkedHashMap::new))
+                .values().stream()
+                .filter(change -> !change.isEmpty())
+                .toList();
+        rebuildLock.readLock().lock();
+        try {
+            changes.forEach(this::apply);
+            changes.stream().reduce(Change::plus).filter(change -> !change.isEmpty()).ifPresent(this::applyStats);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the rollups collection of the tenancy with the trades of the entries collection grouped by journal and day,
+     * then the stats collection with the rollups grouped by journal. Each one is aggregated into a temporary collection
+     * renamed over the live one, so the live collections are complete until they are replaced.
+     * The changes of this node are paused until both are replaced
+     */
+    public void rebuild(String entriesCollection) {
+        String prefix = entriesCollection.substring(0, entriesCollection.length() - ENTRIES.length());
+        String rollups = prefix + mongoOperations.getCollectionName(DailyRollup.class);
+        String stats = prefix + mongoOperations.getCollectionName(TradeStats.class);
+
+        AggregationOperation net = aggregationOperationContext -> REBUILD_NET;
+        AggregationOperation group = aggregationOperationContext -> REBUILD_GROUP;
+        AggregationOperation project = aggregationOperationContext -> REBUILD_PROJECT;
+        AggregationOperation statsGroup = aggregationOperationContext -> STATS_GROUP;
+        AggregationOperation journal = aggregationOperationContext -> STATS_JOURNAL;
+
+        rebuildLock.writeLock().lock();
+        try {
+            replace(entriesCollection, rollups, DailyRollup.class, Aggregation.match(new Criteria("type").is(EntryType.TRADE.name())), net, group, project);
+            replace(rollups, stats, TradeStats.class, statsGroup, journal);
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private void replace(String source, String target, Class<?> type, AggregationOperation... stages) {
+        String temporary = target + REBUILD_SUFFIX;
+        mongoOperations.dropCollection(temporary);
+        new CollectionIndexes(mongoOperations).ensure(temporary, type);
+
+        List<AggregationOperation> pipeline = new ArrayList<>(Arrays.asList(stages));
+        pipeline.add(Aggregation.out(temporary));
+        mongoOperations.aggregate(Aggregation.newAggregation(pipeline), source, Document.class);
+
+        if (mongoOperations.collectionExists(temporary)) {
+            MongoCollection<Document> rebuilt = mongoOperations.getCollection(temporary);
+            MongoNamespace namespace = new MongoNamespace(rebuilt.getNamespace().getDatabaseName(), target);
+            rebuilt.renameCollection(namespace, new RenameCollectionOptions().dropTarget(true));
+        } else {
+            mongoOperations.dropCollection(target);
+        }
+    }
+
+    private void apply(Change change) {
+        Query query = new Query(Criteria.where(ID).is(change.id()));
+        Update update = increment(change).setOnInsert(JOURNAL_ID, change.journalId()).setOnInsert(DAY, change.day());
+        repository.upsert(query, update);
+        if (change.count() < 0) {
+            repository.delete(new Query(Criteria.where(ID).is(change.id()).and(COUNT).lte(0)));
+        }
+    }
+
+    /**
+     * The stats of the journal are the sum of all its days, so they change by the sum of the changes of the days
+     */
+    private void applyStats(Change change) {
+        Query query = new Query(Criteria.where(ID).is(change.journalId()));
+        tradeStatsRepository.upsert(query, increment(change).setOnInsert(JOURNAL_ID, change.journalId()));
+        if (change.count() < 0) {
+            tradeStatsRepository.delete(new Query(Criteria.where(ID).is(change.journalId()).and(COUNT).lte(0)));
+        }
+    }
+
+    private static Update increment(Change change) {
+        return new Update()
+                .inc(RESULT, change.result())
+                .inc(COUNT, change.count())
+                .inc(WINS, change.wins())
+                .inc(LOSSES, change.losses())
+                .inc(GROSS_PROFIT, change.grossProfit())
+                .inc(GROSS_LOSS, change.grossLoss());
+    }
+
+    private static Document win() {
+        return new Document(AND, List.of(new Document("$ne", Arrays.asList(NET, null)), new Document("$gte", List.of(NET, 0))));
+    }
+
+    private static Document loss() {
+        return new Document(AND, List.of(new Document("$ne", Arrays.asList(NET, null)), new Document("$lt", List.of(NET, 0))));
+    }
+
+    private record Change(String journalId, String day, BigDecimal result, long count, long wins, long losses,
+                          BigDecimal grossProfit, BigDecimal grossLoss) {
+
+        /**
+         * Only trades are rolled up, the day is the UTC date of the entry date as it is stored
+         */
+        public static Optional<Change> of(Entry entry, int sign) {
+            return Optional.ofNullable(entry)
+                    .filter(trade -> EntryType.TRADE.equals(trade.getType()) && Objects.nonNull(trade.getDate()))
+                    .map(trade -> {
+                        BigDecimal netResult = trade.getNetResult();
+                        boolean win = Objects.nonNull(netResult) && netResult.signum() >= 0;
+                        boolean loss = Objects.nonNull(netResult) && netResult.signum() < 0;
+                        BigDecimal result = Objects.nonNull(netResult) ? netResult.multiply(BigDecimal.valueOf(sign)) : BigDecimal.ZERO;
+                        String day = trade.getDate().atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).toLocalDate().toString();
+                        return new Change(trade.getJournalId(), day, result, sign, win ? sign : 0, loss ? sign : 0,
+                                win ? result : BigDecimal.ZERO,
+                                loss ? result : BigDecimal.ZERO);
+                    });
+        }
+
+        public String id() {
+            return journalId + ":" + day;
+        }
+
+        public Change plus(Change other) {
+            return new Change(journalId, day, result.add(other.result), count + other.count, wins + other.wins, losses + other.losses,
+                    grossProfit.add(other.grossProfit), grossLoss.add(other.grossLoss));
+        }
+
+        public boolean isEmpty() {
+            return result.signum() == 0 && count == 0 && wins == 0 && losses == 0 && grossProfit.signum() == 0 && grossLoss.signum() == 0;
+        }
+    }
+}
@@ -12,7 +12,7 @@ import java.util.List;
 @Getter
 @Builder
 public class PeriodAggregatedQueryResult {
-    private List<PeriodItem> result;
+    private List<PeriodAggregated> result;
 
     private Long total;
 }
@@ -0,0 +1,82 @@
+package com.trading.journal.entry.entries.trade.aggregate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Performance of the closed trades, the averages and ratios are null while there is no trade to compute them from
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Builder
+public class TradeStatistics {
+
+    private long trades;
+
+    private long closed;
+
+    private long wins;
+
+    private long losses;
+
+    private BigDecimal netResult;
+
+    private BigDecimal grossProfit;
+
+    private BigDecimal grossLoss;
+
+    /**
+     * Percentage of the closed trades that won
+     */
+    private BigDecimal winRate;
+
+    private BigDecimal averageWin;
+
+    private BigDecimal averageLoss;
+
+    /**
+     * Average result of a closed trade
+     */
+    private BigDecimal expectancy;
+
+    /**
+     * Gross profit divided by the gross loss, null without losses
+     */
+    private BigDecimal profitFactor;
+
+    public static TradeStatistics of(TradeStats stats) {
+        BigDecimal netResult = orZero(stats.getResult());
+        BigDecimal grossProfit = orZero(stats.getGrossProfit());
+        BigDecimal grossLoss = orZero(stats.getGrossLoss());
+        long closed = stats.getWins() + stats.getLosses();
+        return TradeStatistics.builder()
+                .trades(stats.getCount())
+                .closed(closed)
+                .wins(stats.getWins())
+                .losses(stats.getLosses())
+                .netResult(netResult.setScale(2, RoundingMode.HALF_EVEN))
+                .grossProfit(grossProfit.setScale(2, RoundingMode.HALF_EVEN))
+                .grossLoss(grossLoss.setScale(2, RoundingMode.HALF_EVEN))
+                .winRate(divide(BigDecimal.valueOf(stats.getWins() * 100), closed))
+                .averageWin(divide(grossProfit, stats.getWins()))
+                .averageLoss(divide(grossLoss, stats.getLosses()))
+                .expectancy(divide(netResult, closed))
+                .profitFactor(grossLoss.signum() == 0 ? null : grossProfit.divide(grossLoss.abs(), 2, RoundingMode.HALF_EVEN))
+                .build();
+    }
+
+    private static BigDecimal divide(BigDecimal value, long count) {
+        return count == 0 ? null : value.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_EVEN);
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return Objects.requireNonNullElse(value, BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,38 @@
+package com.trading.journal.entry.entries.trade.aggregate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+
+/**
+ * Trades of a journal summed over its whole life, kept with the daily rollups, the id is the journal id
+ */
+@Document(collection = "trade_stats")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Builder
+public class TradeStats {
+
+    @Id
+    private String id;
+
+    private String journalId;
+
+    private BigDecimal result;
+
+    private long count;
+
+    private long wins;
+
+    private long losses;
+
+    private BigDecimal grossProfit;
+
+    private BigDecimal grossLoss;
+}
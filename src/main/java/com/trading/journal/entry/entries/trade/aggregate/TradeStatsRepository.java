@@ -0,0 +1,8 @@
+package com.trading.journal.entry.entries.trade.aggregate;
+
+import com.trading.journal.entry.queries.WithFilterPageableRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TradeStatsRepository extends WithFilterPageableRepository<TradeStats, String> {
+}
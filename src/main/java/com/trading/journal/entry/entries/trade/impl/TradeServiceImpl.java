@@ -1,25 +1,53 @@
 package com.trading.journal.entry.entries.trade.impl;
 
+import com.trading.journal.entry.ApplicationException;
+import com.trading.journal.entry.balance.BalanceService;
+import com.trading.journal.entry.entries.CalculateEntry;
 import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryRecalculationService;
 import com.trading.journal.entry.entries.EntryRepository;
 import com.trading.journal.entry.entries.EntryService;
 import com.trading.journal.entry.entries.EntryType;
 import com.trading.journal.entry.entries.trade.*;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Optional.ofNullable;
 
 @RequiredArgsConstructor
 @Service
 public class TradeServiceImpl implements TradeService {
 
+    private static final String ID = "_id";
+
+    private static final String NET_RESULT = "netResult";
+
     private final EntryService entryService;
 
     private final EntryRepository repository;
 
+    private final BalanceService balanceService;
+
+    private final DailyRollupService dailyRollupService;
+
+    private final EntryRecalculationService entryRecalculationService;
 
     @Override
     public Entry open(String journalId, Trade trade) {
@@ -41,11 +69,47 @@ public class TradeServiceImpl implements TradeService {
         return entryService.save(closeTrade);
     }
 
+    /**
+     * Trades are read with a single query and calculated in the order of their exit date with a running balance,
+     * then closed with one bulk write and the balance and the rollups are changed once.
+     * Each trade is only closed if it is still open, only the close fields are set so the rest of the trade written in the meantime
+     * (as the status of its images) is kept. When another request closed some of them first, the balance and the rollups
+     * are changed only with the trades closed here and the request fails with the trades closed by the other one.
+     * The entries after the earliest trade closed are calculated again once for all of them, as a trade closed with an entry date
+     * in the past changes the balance of the entries after it
+     */
+    @Override
+    public List<Entry> closeAll(String journalId, CloseTrades trades) {
+        List<String> ids = trades.getTrades().stream().map(ClosingTrade::getTradeId).distinct().toList();
+        if (ids.size() != trades.getTrades().size()) {
+            throw new ApplicationException("A trade can be closed only once in the same request");
+        }
+        Map<String, Entry> opened = findOpenTrades(journalId, ids);
+
+        List<Entry> previous = new ArrayList<>(ids.size());
+        List<Entry> current = new ArrayList<>(ids.size());
+        BigDecimal balance = balanceService.getCurrentBalance(journalId).getAccountBalance();
+        List<ClosingTrade> closing = trades.getTrades().stream().sorted(Comparator.comparing(ClosingTrade::getExitDate)).toList();
+        for (ClosingTrade trade : closing) {
+            Entry entry = opened.get(trade.getTradeId());
+            Entry closeTrade = new CalculateEntry(TradeMapper.INSTANCE.toEntryFromClose(entry, trade.toCloseTrade()), balance).calculate();
+            balance = closeTrade.getAccountBalance();
+            previous.add(entry);
+            current.add(closeTrade);
+        }
+        int closedNow = repository.bulkUpdate(current.stream().map(TradeServiceImpl::closeUpdate).toList());
+        if (closedNow != current.size()) {
+            throw closedByOther(journalId, ids, previous, current);
+        }
+        applyClosed(journalId, previous, current);
+        return recalculated(journalId, current);
+    }
+
     @Override
     public long countOpen(String journalId) {
         Criteria criteria = new Criteria("journalId").is(journalId)
                 .and("type").is(EntryType.TRADE)
-                .and("netResult").exists(false);
+                .and(NET_RESULT).exists(false);
         return repository.count(Query.query(criteria));
     }
 
@@ -54,4 +118,89 @@ public class TradeServiceImpl implements TradeService {
         Query query = new Query(new Criteria("journalId").is(journalId));
         return repository.distinct("symbol", query).stream().map(Symbol::new).toList();
     }
+
+    private Map<String, Entry> findOpenTrades(String journalId, List<String> ids) {
+        Map<String, Entry> opened = findTrades(journalId, ids);
+        List<String> missing = ids.stream().filter(id -> !opened.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "Trades not found: " + String.join(", ", missing));
+        }
+        List<String> closed = ids.stream().filter(id -> opened.get(id).isFinished()).toList();
+        if (!closed.isEmpty()) {
+            throw new ApplicationException("Trades already closed: " + String.join(", ", closed));
+        }
+        return opened;
+    }
+
+    private Map<String, Entry> findTrades(String journalId, List<String> ids) {
+        Criteria criteria = Criteria.where(ID).in(ids).and("journalId").is(journalId).and("type").is(EntryType.TRADE);
+        return repository.find(Query.query(criteria)).stream()
+                .collect(Collectors.toMap(Entry::getId, Function.identity()));
+    }
+
+    /**
+     * Changes the balance and the rollups with the trades closed here, the others were changed by the request that closed them
+     */
+    private ApplicationException closedByOther(String journalId, List<String> ids, List<Entry> previous, List<Entry> current) {
+        Map<String, Entry> stored = findTrades(journalId, ids);
+        Map<Boolean, List<Integer>> closedHere = IntStream.range(0, current.size()).boxed()
+                .collect(Collectors.partitioningBy(index -> isClosedAs(stored.get(current.get(index).getId()), current.get(index))));
+        List<Integer> here = closedHere.get(true);
+        List<Entry> closed = here.stream().map(current::get).toList();
+        applyClosed(journalId, here.stream().map(previous::get).toList(), closed);
+        recalculated(journalId, closed);
+        String other = closedHere.get(false).stream().map(index -> current.get(index).getId()).collect(Collectors.joining(", "));
+        return new ApplicationException(HttpStatus.CONFLICT, "Trades closed by another request: " + other);
+    }
+
+    private void applyClosed(String journalId, List<Entry> previous, List<Entry> current) {
+        balanceService.applyEntryChanges(journalId, previous, current);
+        dailyRollupService.applyEntryChanges(previous, current);
+    }
+
+    /**
+     * Replays the journal from the earliest date of the closed trades, the trades are read again only when the replay changed entries
+     */
+    private List<Entry> recalculated(String journalId, List<Entry> closed) {
+        long changed = closed.stream().map(Entry::getDate).min(Comparator.naturalOrder())
+                .map(from -> entryRecalculationService.recalculateFrom(journalId, from))
+                .orElse(0L);
+        List<Entry> result = closed;
+        if (changed > 0) {
+            Map<String, Entry> stored = findTrades(journalId, closed.stream().map(Entry::getId).toList());
+            result = closed.stream().map(trade -> stored.getOrDefault(trade.getId(), trade)).toList();
+        }
+        return result;
+    }
+
+    /**
+     * Sets the exit and the calculated fields of the trade, matching it only while it is still open
+     */
+    private static Pair<Query, UpdateDefinition> closeUpdate(Entry closeTrade) {
+        Query stillOpen = new Query(Criteria.where(ID).is(closeTrade.getId()).and(NET_RESULT).exists(false));
+        Update update = new Update()
+                .set("exitPrice", closeTrade.getExitPrice())
+                .set("exitDate", closeTrade.getExitDate());
+        setOrUnset(update, "accountRisked", closeTrade.getAccountRisked());
+        setOrUnset(update, "plannedRR", closeTrade.getPlannedRR());
+        setOrUnset(update, "grossResult", closeTrade.getGrossResult());
+        setOrUnset(update, NET_RESULT, closeTrade.getNetResult());
+        setOrUnset(update, "accountChange", closeTrade.getAccountChange());
+        setOrUnset(update, "accountBalance", closeTrade.getAccountBalance());
+        return Pair.of(stillOpen, update);
+    }
+
+    private static void setOrUnset(Update update, String field, BigDecimal value) {
+        ofNullable(value).ifPresentOrElse(present -> update.set(field, present), () -> update.unset(field));
+    }
+
+    /**
+     * A trade closed by this request has the exit and the balance calculated here
+     */
+    private static boolean isClosedAs(Entry stored, Entry closeTrade) {
+        return Objects.nonNull(stored) && stored.isFinished()
+                && closeTrade.getExitDate().equals(stored.getExitDate())
+                && closeTrade.getExitPrice().compareTo(stored.getExitPrice()) == 0
+                && closeTrade.getAccountBalance().compareTo(stored.getAccountBalance()) == 0;
+    }
 }
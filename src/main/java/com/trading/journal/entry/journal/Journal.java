@@ -2,9 +2,11 @@ package com.trading.journal.entry.journal;
 
 import com.allanweber.jwttoken.helper.DateHelper;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.trading.journal.entry.balance.Balance;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.format.annotation.NumberFormat;
 
@@ -17,13 +19,14 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
-@Builder
+@Builder(toBuilder = true)
 public class Journal {
 
     @Id
     private String id;
 
     @NotBlank(message = "Journal name is required")
+    @Indexed(name = "name")
     private String name;
 
     @JsonFormat(pattern = DateHelper.DATE_FORMAT)
@@ -43,4 +46,10 @@ public class Journal {
     @JsonFormat(pattern = DateHelper.DATE_FORMAT)
     @Setter
     private LocalDateTime lastBalance;
+
+    /**
+     * Incremented on every balance update, concurrent balance changes are only written over the version they were read from
+     */
+    @JsonIgnore
+    private Long version;
 }
@@ -3,6 +3,7 @@ package com.trading.journal.entry.journal;
 import com.trading.journal.entry.balance.Balance;
 
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 public interface JournalService {
 
@@ -10,9 +11,16 @@ public interface JournalService {
 
     Journal get(String journalId);
 
+    /**
+     * The journal read from the database, skipping the cache, for the balance values that feed calculations
+     */
+    Journal load(String journalId);
+
     Journal save(Journal journal);
 
     void delete(String journalId);
 
     void updateBalance(String journalId, Balance balance);
+
+    Balance changeBalance(String journalId, UnaryOperator<Balance> change);
 }
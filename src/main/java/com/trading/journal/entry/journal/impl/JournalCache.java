@@ -0,0 +1,122 @@
+package com.trading.journal.entry.journal.impl;
+
+import com.allanweber.jwttoken.data.AccessTokenInfo;
+import com.trading.journal.entry.journal.Journal;
+import com.trading.journal.entry.queries.TokenRequestScope;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Short lived journal cache keyed by tenancy and journal id, so the same journal is read once for all the balance
+ * steps of a single request. Entries expire after the configured ttl, a balance change replaces the entry with the journal
+ * it wrote and the other journal writes evict it. Both are local to the node, other nodes see a write once their entry expires,
+ * a balance change over a stale version there only costs one retry
+ */
+@Component
+public class JournalCache {
+
+    private static final int MAX_SIZE = 10_000;
+
+    private final Map<String, Cached> journals = new ConcurrentHashMap<>();
+
+    private final Duration ttl;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public JournalCache(MeterRegistry meterRegistry, @Value("${journal.cache.ttl:PT2S}") Duration ttl) {
+        this.ttl = ttl;
+        this.hits = Counter.builder("journal.cache").tag("result", "hit").description("Journal reads served from the cache").register(meterRegistry);
+        this.misses = Counter.builder("journal.cache").tag("result", "miss").description("Journal reads that went to the database").register(meterRegistry);
+    }
+
+    /**
+     * The cached journal or the loaded one, which is only cached when the journal was not written while it was loaded.
+     * Each caller gets its own copy, so changes to it never reach the cache
+     */
+    public Journal get(String journalId, Supplier<Journal> loader) {
+        String key = key(journalId);
+        Cached cached = journals.get(key);
+        Journal journal;
+        if (Objects.nonNull(cached) && Objects.nonNull(cached.journal()) && cached.expiresAt().isAfter(Instant.now())) {
+            hits.increment();
+            journal = cached.journal().toBuilder().build();
+        } else {
+            misses.increment();
+            long stamp = generation(cached);
+            journal = loader.get();
+            put(key, journal.toBuilder().build(), stamp);
+        }
+        return journal;
+    }
+
+    /**
+     * Caches the journal just written, unless a later version of it is already cached
+     */
+    public void update(String journalId, Journal journal) {
+        Journal written = journal.toBuilder().build();
+        Instant now = Instant.now();
+        String key = key(journalId);
+        if (hasRoom(key, now)) {
+            journals.compute(key, (cacheKey, cached) -> isLater(written, cached)
+                    ? new Cached(written, now.plus(ttl), generation(cached) + 1)
+                    : cached);
+        }
+    }
+
+    /**
+     * The generation of the journal is incremented, a load that started before it is not cached after it
+     */
+    public void evict(String journalId) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        journals.compute(key(journalId), (cacheKey, cached) -> new Cached(null, expiresAt, generation(cached) + 1));
+    }
+
+    private void put(String key, Journal journal, long stamp) {
+        Instant now = Instant.now();
+        if (hasRoom(key, now)) {
+            journals.compute(key, (cacheKey, cached) -> generation(cached) == stamp ? new Cached(journal, now.plus(ttl), stamp) : cached);
+        }
+    }
+
+    /**
+     * Expired entries are only removed when the cache is full, an evicted journal keeps its generation until then
+     */
+    private boolean hasRoom(String key, Instant now) {
+        if (journals.size() >= MAX_SIZE) {
+            journals.values().removeIf(cached -> !cached.expiresAt().isAfter(now));
+        }
+        return journals.size() < MAX_SIZE || journals.containsKey(key);
+    }
+
+    private String key(String journalId) {
+        AccessTokenInfo accessTokenInfo = TokenRequestScope.get();
+        String tenancy = Objects.isNull(accessTokenInfo) ? "" : accessTokenInfo.tenancyName();
+        return tenancy + ":" + journalId;
+    }
+
+    private static long generation(Cached cached) {
+        return Objects.isNull(cached) ? 0 : cached.generation();
+    }
+
+    private static boolean isLater(Journal written, Cached cached) {
+        return Objects.isNull(cached) || Objects.isNull(cached.journal()) || Objects.isNull(cached.journal().getVersion())
+                || Objects.nonNull(written.getVersion()) && written.getVersion() > cached.journal().getVersion();
+    }
+
+    /**
+     * The journal is null once it was evicted, the entry only keeps its generation
+     */
+    private record Cached(Journal journal, Instant expiresAt, long generation) {
+    }
+}
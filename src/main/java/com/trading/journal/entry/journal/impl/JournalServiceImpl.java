@@ -3,12 +3,16 @@ package com.trading.journal.entry.journal.impl;
 import com.trading.journal.entry.ApplicationException;
 import com.trading.journal.entry.balance.Balance;
 import com.trading.journal.entry.entries.EntryRepository;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupRepository;
+import com.trading.journal.entry.entries.trade.aggregate.TradeStatsRepository;
 import com.trading.journal.entry.journal.Journal;
 import com.trading.journal.entry.journal.JournalRepository;
 import com.trading.journal.entry.journal.JournalService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -17,15 +21,28 @@ import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+import static java.util.Optional.ofNullable;
 
 @RequiredArgsConstructor
 @Service
+@Slf4j
 public class JournalServiceImpl implements JournalService {
 
+    private static final int BALANCE_UPDATE_ATTEMPTS = 5;
+    private static final String JOURNAL_NOT_FOUND = "Journal not found";
+
     private final JournalRepository journalRepository;
 
     private final EntryRepository entryRepository;
 
+    private final DailyRollupRepository dailyRollupRepository;
+
+    private final TradeStatsRepository tradeStatsRepository;
+
+    private final JournalCache journalCache;
+
     @Override
     public List<Journal> getAll() {
         return journalRepository.getAll();
@@ -33,8 +50,13 @@ public class JournalServiceImpl implements JournalService {
 
     @Override
     public Journal get(String journalId) {
+        return journalCache.get(journalId, () -> load(journalId));
+    }
+
+    @Override
+    public Journal load(String journalId) {
         return journalRepository.getById(journalId)
-                .orElseThrow(() -> new ApplicationException(HttpStatus.NOT_FOUND, "Journal not found"));
+                .orElseThrow(() -> new ApplicationException(HttpStatus.NOT_FOUND, JOURNAL_NOT_FOUND));
     }
 
     @Override
@@ -43,20 +65,16 @@ public class JournalServiceImpl implements JournalService {
             throw new ApplicationException(HttpStatus.CONFLICT, "There is already another journal with the same name");
         }
         Journal saved;
-        if (Objects.isNull(journal.getCurrentBalance())) {
-            Balance balance = Balance.builder()
-                    .accountBalance(journal.getStartBalance().setScale(2, RoundingMode.HALF_EVEN))
-                    .taxes(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
-                    .withdrawals(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
-                    .deposits(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
-                    .closedPositions(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
-                    .openedPositions(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
-                    .available(journal.getStartBalance().setScale(2, RoundingMode.HALF_EVEN))
-                    .build();
-            journal.setLastBalance(LocalDateTime.now());
-            journal.setCurrentBalance(balance);
+        if (Objects.isNull(journal.getId())) {
+            if (Objects.isNull(journal.getCurrentBalance())) {
+                journal.setLastBalance(LocalDateTime.now());
+                journal.setCurrentBalance(startBalance(journal));
+            }
+            saved = journalRepository.save(journal);
+        } else {
+            saved = update(journal);
         }
-        saved = journalRepository.save(journal);
+        journalCache.evict(saved.getId());
         return saved;
     }
 
@@ -65,20 +83,123 @@ public class JournalServiceImpl implements JournalService {
         Journal journal = get(journalId);
         Query query = new Query(Criteria.where("journalId").is(journalId));
         entryRepository.delete(query);
+        dailyRollupRepository.delete(query);
+        tradeStatsRepository.delete(query);
         journalRepository.delete(journal);
+        journalCache.evict(journalId);
 
         long count = journalRepository.count();
         if (count == 0) {
             entryRepository.drop();
+            dailyRollupRepository.drop();
+            tradeStatsRepository.drop();
             journalRepository.drop();
         }
     }
 
     @Override
     public void updateBalance(String journalId, Balance balance) {
-        Journal journal = get(journalId);
-        journal.setCurrentBalance(balance);
-        journalRepository.save(journal);
+        Query query = new Query(Criteria.where("_id").is(journalId));
+        long updated = journalRepository.update(query, balanceUpdate(balance, LocalDateTime.now()));
+        journalCache.evict(journalId);
+        if (updated == 0) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, JOURNAL_NOT_FOUND);
+        }
+    }
+
+    /**
+     * Apply the change over the current balance and write it only if no other balance update happened in between,
+     * otherwise read the journal again and retry with the new balance.
+     * The first attempt may use the cached journal, a stale version only costs one retry. The written journal is cached,
+     * so the next balance step of the request does not read it again
+     */
+    @Override
+    public Balance changeBalance(String journalId, UnaryOperator<Balance> change) {
+        Balance changed = null;
+        int attempt = 0;
+        while (Objects.isNull(changed) && attempt < BALANCE_UPDATE_ATTEMPTS) {
+            attempt++;
+            Journal journal = get(journalId);
+            Balance balance = change.apply(ofNullable(journal.getCurrentBalance()).orElseGet(() -> startBalance(journal)));
+            Query query = new Query(Criteria.where("_id").is(journalId).and("version").is(journal.getVersion()));
+            LocalDateTime lastBalance = LocalDateTime.now();
+            if (journalRepository.update(query, balanceUpdate(balance, lastBalance)) > 0) {
+                changed = balance;
+                journalCache.update(journalId, journal.toBuilder()
+                        .currentBalance(balance)
+                        .lastBalance(lastBalance)
+                        .version(ofNullable(journal.getVersion()).orElse(0L) + 1)
+                        .build());
+            } else {
+                journalCache.evict(journalId);
+                log.warn("Balance of journal {} changed concurrently, attempt {} of {}", journalId, attempt, BALANCE_UPDATE_ATTEMPTS);
+            }
+        }
+        if (Objects.isNull(changed)) {
+            throw new ApplicationException(HttpStatus.CONFLICT, "Journal balance is being updated, try again");
+        }
+        return changed;
+    }
+
+    /**
+     * Only the fields edited through the api are written. The current balance and its version are kept as they are,
+     * they are maintained by the balance changes and a client copy of them would overwrite concurrent changes.
+     * A changed start balance moves the current balance by the difference as a balance change, so the start balance
+     * is only written over the one the difference was taken from
+     */
+    private Journal update(Journal journal) {
+        Journal stored = load(journal.getId());
+        Query query = new Query(Criteria.where("_id").is(journal.getId()).and("startBalance").is(stored.getStartBalance()));
+        Update update = new Update()
+                .set("name", journal.getName())
+                .set("startJournal", journal.getStartJournal())
+                .set("startBalance", journal.getStartBalance())
+                .set("currency", journal.getCurrency());
+        if (journalRepository.update(query, update) == 0) {
+            throw journalRepository.getById(journal.getId()).isPresent()
+                    ? new ApplicationException(HttpStatus.CONFLICT, "Journal start balance was changed by another request, try again")
+                    : new ApplicationException(HttpStatus.NOT_FOUND, JOURNAL_NOT_FOUND);
+        }
+        BigDecimal shift = journal.getStartBalance().subtract(stored.getStartBalance());
+        if (shift.signum() != 0 && Objects.nonNull(stored.getCurrentBalance())) {
+            journalCache.evict(journal.getId());
+            changeBalance(journal.getId(), balance -> shifted(balance, shift));
+        }
+        return load(journal.getId());
+    }
+
+    /**
+     * The start balance is part of the account balance and of the available, the positions and the totals stay the same
+     */
+    private static Balance shifted(Balance balance, BigDecimal shift) {
+        return Balance.builder()
+                .accountBalance(balance.getAccountBalance().add(shift).setScale(2, RoundingMode.HALF_EVEN))
+                .available(balance.getAvailable().add(shift).setScale(2, RoundingMode.HALF_EVEN))
+                .closedPositions(balance.getClosedPositions())
+                .openedPositions(balance.getOpenedPositions())
+                .deposits(balance.getDeposits())
+                .taxes(balance.getTaxes())
+                .withdrawals(balance.getWithdrawals())
+                .build();
+    }
+
+    private Update balanceUpdate(Balance balance, LocalDateTime lastBalance) {
+        return new Update()
+                .set("currentBalance", balance)
+                .set("lastBalance", lastBalance)
+                .inc("version", 1);
+    }
+
+    private Balance startBalance(Journal journal) {
+        return Balance.builder()
+                .accountBalance(journal.getStartBalance().setScale(2, RoundingMode.HALF_EVEN))
+                .taxes(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
+                .withdrawals(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
+                .deposits(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
+                .closedPositions(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
+                .openedPositions(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
+                .available(journal.getStartBalance().setScale(2, RoundingMode.HALF_EVEN))
+                .build();
     }
 
     private boolean hasSameName(Journal journal) {
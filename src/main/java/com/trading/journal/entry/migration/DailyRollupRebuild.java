@@ -0,0 +1,91 @@
+package com.trading.journal.entry.migration;
+
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupService;
+import com.trading.journal.entry.queries.CollectionName;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Backfills the daily rollups of every tenancy from its entries once the beans are created and before the web server starts,
+ * the period aggregations read the rollups and a tenancy with trades saved before the rollups existed would miss them.
+ * The backfill of each tenancy is saved in the migrations collection, so it only runs once for each of them.
+ * Rebuild existing runs it again for every tenancy, to fix the rollups after a failed update
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(prefix = "journal.migration", name = "daily-rollups", havingValue = "true", matchIfMissing = true)
+public class DailyRollupRebuild implements SmartInitializingSingleton {
+
+    private static final String MIGRATION = "daily-rollups";
+
+    private static final String ENTRIES = "entries";
+
+    private final DailyRollupService dailyRollupService;
+
+    private final MongoOperations mongoOperations;
+
+    private final boolean rebuildExisting;
+
+    public DailyRollupRebuild(DailyRollupService dailyRollupService, MongoOperations mongoOperations,
+                              @Value("${journal.migration.daily-rollups-rebuild:false}") boolean rebuildExisting) {
+        this.dailyRollupService = dailyRollupService;
+        this.mongoOperations = mongoOperations;
+        this.rebuildExisting = rebuildExisting;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * A failing tenancy does not stop the others, the application only fails to start after all of them were tried
+     */
+    public void rebuild() {
+        List<String> failed = new ArrayList<>();
+        for (String collection : mongoOperations.getCollectionNames()) {
+            if (collection.endsWith(CollectionName.SEPARATOR + ENTRIES) && (rebuildExisting || !isBackfilled(collection))) {
+                try {
+                    dailyRollupService.rebuild(collection);
+                    saveProgress(collection);
+                    log.info("Daily rollups rebuilt from {}", collection);
+                } catch (DataAccessException exception) {
+                    log.error("Daily rollups could not be rebuilt from {}, it continues on the next run", collection, exception);
+                    failed.add(collection);
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException("Daily rollups of %s could not be rebuilt".formatted(failed));
+        }
+    }
+
+    private boolean isBackfilled(String collection) {
+        return Objects.nonNull(mongoOperations.findById(progressId(collection), Document.class, Decimal128Migration.PROGRESS_COLLECTION));
+    }
+
+    private void saveProgress(String collection) {
+        Update update = new Update()
+                .set("finished", true)
+                .set("updatedAt", LocalDateTime.now());
+        mongoOperations.upsert(new Query(Criteria.where("_id").is(progressId(collection))), update, Decimal128Migration.PROGRESS_COLLECTION);
+    }
+
+    private static String progressId(String collection) {
+        return MIGRATION + ":" + collection;
+    }
+}
@@ -0,0 +1,156 @@
+package com.trading.journal.entry.migration;
+
+import com.trading.journal.entry.queries.CollectionName;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Rewrites money values stored as strings into Decimal128 for every tenancy entries and journals collection.
+ * Runs in batches ordered by id once the beans are created and before the web server starts, queries compare money
+ * values as Decimal128 and Mongo does not match a number with a string, so the application does not serve requests over
+ * documents still holding strings. The last migrated id is saved after every batch, so a restart continues from where it stopped.
+ * Each document is only updated if the values are still the strings read, a document saved in the meantime already has
+ * Decimal128 values and is left as it is
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "journal.migration", name = "decimal128", havingValue = "true", matchIfMissing = true)
+public class Decimal128Migration implements SmartInitializingSingleton {
+
+    public static final String PROGRESS_COLLECTION = "migrations";
+
+    private static final String MIGRATION = "decimal128";
+
+    private static final String ID = "_id";
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final Map<String, List<String>> MONEY_FIELDS = Map.of(
+            "entries", List.of("price", "size", "profitPrice", "lossPrice", "costs", "exitPrice", "accountRisked", "plannedRR",
+                    "grossResult", "netResult", "accountChange", "accountBalance"),
+            "journals", List.of("startBalance", "currentBalance.accountBalance", "currentBalance.closedPositions",
+                    "currentBalance.openedPositions", "currentBalance.available", "currentBalance.deposits",
+                    "currentBalance.taxes", "currentBalance.withdrawals")
+    );
+
+    private final MongoOperations mongoOperations;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    /**
+     * A failing collection does not stop the others, the application only fails to start after all of them were tried
+     */
+    public void migrate() {
+        List<String> failed = new ArrayList<>();
+        for (String collection : mongoOperations.getCollectionNames()) {
+            moneyFields(collection).ifPresent(fields -> {
+                try {
+                    long migrated = migrate(collection, fields);
+                    log.info("Collection {} migrated {} documents to Decimal128", collection, migrated);
+                } catch (DataAccessException exception) {
+                    log.error("Collection {} failed to migrate to Decimal128, it continues on the next run", collection, exception);
+                    failed.add(collection);
+                }
+            });
+        }
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException("Collections %s still hold money values as strings".formatted(failed));
+        }
+    }
+
+    public long migrate(String collection, List<String> fields) {
+        Document progress = ofNullable(mongoOperations.findById(progressId(collection), Document.class, PROGRESS_COLLECTION))
+                .orElseGet(Document::new);
+        long migrated = 0;
+        if (!progress.getBoolean("finished", false)) {
+            Object lastId = progress.get("lastId");
+            List<Document> batch;
+            do {
+                batch = nextBatch(collection, fields, lastId);
+                migrated += convert(collection, fields, batch);
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).get(ID);
+                }
+                saveProgress(collection, lastId, batch.size() < BATCH_SIZE);
+            } while (batch.size() == BATCH_SIZE);
+        }
+        return migrated;
+    }
+
+    private List<Document> nextBatch(String collection, List<String> fields, Object lastId) {
+        Query query = Objects.isNull(lastId) ? new Query() : new Query(Criteria.where(ID).gt(lastId));
+        query.with(Sort.by(ID)).limit(BATCH_SIZE);
+        query.fields().include(fields.toArray(String[]::new));
+        return mongoOperations.find(query, Document.class, collection);
+    }
+
+    private long convert(String collection, List<String> fields, List<Document> documents) {
+        BulkOperations bulk = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        long converted = 0;
+        for (Document document : documents) {
+            Criteria criteria = Criteria.where(ID).is(document.get(ID));
+            Update update = new Update();
+            for (String field : fields) {
+                Object value = document.getEmbedded(Arrays.asList(field.split("\\.")), Object.class);
+                if (value instanceof String text) {
+                    criteria.and(field).is(text);
+                    update.set(field, new Decimal128(new BigDecimal(text)));
+                }
+            }
+            if (!update.getUpdateObject().isEmpty()) {
+                bulk.updateOne(new Query(criteria), update);
+                converted++;
+            }
+        }
+        if (converted > 0) {
+            bulk.execute();
+        }
+        return converted;
+    }
+
+    private void saveProgress(String collection, Object lastId, boolean finished) {
+        Update update = new Update()
+                .set("lastId", lastId)
+                .set("finished", finished)
+                .set("updatedAt", LocalDateTime.now());
+        mongoOperations.upsert(new Query(Criteria.where(ID).is(progressId(collection))), update, PROGRESS_COLLECTION);
+    }
+
+    private static Optional<List<String>> moneyFields(String collection) {
+        return MONEY_FIELDS.entrySet().stream()
+                .filter(entry -> collection.endsWith(CollectionName.SEPARATOR + entry.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst();
+    }
+
+    private static String progressId(String collection) {
+        return MIGRATION + ":" + collection;
+    }
+}
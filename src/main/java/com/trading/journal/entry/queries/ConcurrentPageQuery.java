@@ -0,0 +1,103 @@
+package com.trading.journal.entry.queries;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Reads a page with its exact total, counting only when the page does not tell the total. The find reads one more than the page size,
+ * when nothing comes after the page it is the last one and the total is its offset plus its size, without a count.
+ * The first page is often the last one as well, so it is read first and counted only when there is a next page.
+ * A later page needs the count unless it is the last one, so the count starts at the same time as the find and the latency is the slowest of them
+ * instead of their sum. It is cancelled when the page turns out to be the last one, if it did not start yet.
+ * The count goes to a bounded pool while the find runs on the request thread, when the pool is full the count runs on the request thread as well.
+ * Each phase is timed on repository.page.query
+ */
+@Component
+public class ConcurrentPageQuery implements DisposableBean {
+
+    private static final String TIMER = "repository.page.query";
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Timer countTimer;
+
+    private final Timer findTimer;
+
+    private final Timer pageTimer;
+
+    public ConcurrentPageQuery(MeterRegistry meterRegistry,
+                               @Value("${journal.queries.threads:8}") int threads,
+                               @Value("${journal.queries.queue:100}") int queue) {
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setQueueCapacity(queue);
+        this.executor.setThreadNamePrefix("page-query-");
+        this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.setTaskDecorator(TokenRequestScope.taskDecorator());
+        this.executor.initialize();
+        this.countTimer = Timer.builder(TIMER).tag("phase", "count").register(meterRegistry);
+        this.findTimer = Timer.builder(TIMER).tag("phase", "find").register(meterRegistry);
+        this.pageTimer = Timer.builder(TIMER).tag("phase", "page").register(meterRegistry);
+    }
+
+    public <T> Page<T> findAll(WithFilterPageableRepository<T, ?> repository, Pageable pageable, Query query) {
+        Assert.notNull(pageable, "Page request is required!");
+        int size = pageable.getPageSize();
+        Query countQuery = Query.of(query);
+        Query findQuery = Query.of(query).with(pageable).limit(size + 1);
+        return pageTimer.record(() -> {
+            Supplier<Long> count = () -> countTimer.record(() -> repository.count(countQuery));
+            Optional<CompletableFuture<Long>> concurrentCount = Optional.of(pageable)
+                    .filter(Pageable::hasPrevious)
+                    .map(previous -> CompletableFuture.supplyAsync(count, executor));
+            List<T> found = findTimer.record(() -> repository.find(findQuery));
+            boolean hasNext = found.size() > size;
+            List<T> content = hasNext ? found.subList(0, size) : found;
+            long total;
+            if (isLastPage(pageable, content, hasNext)) {
+                concurrentCount.ifPresent(future -> future.cancel(false));
+                total = pageable.getOffset() + content.size();
+            } else {
+                total = concurrentCount.map(ConcurrentPageQuery::join).orElseGet(count);
+            }
+            return new PageImpl<>(content, pageable, total);
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * An empty page after the first one may be past the end, only the count tells the total then
+     */
+    private static boolean isLastPage(Pageable pageable, List<?> content, boolean hasNext) {
+        return !hasNext && (!content.isEmpty() || !pageable.hasPrevious());
+    }
+
+    private static long join(CompletableFuture<Long> total) {
+        try {
+            return total.join();
+        } catch (CompletionException exception) {
+            throw exception.getCause() instanceof RuntimeException cause ? cause : exception;
+        }
+    }
+}
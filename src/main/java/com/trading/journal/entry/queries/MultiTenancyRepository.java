@@ -5,16 +5,23 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.util.Pair;
 
 import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @NoRepositoryBean
 public interface MultiTenancyRepository<T, I extends Serializable> extends MongoRepository<T, I> {
 
     List<T> find(Query query);
 
+    /**
+     * Documents read from a cursor as they are consumed, the stream must be closed to release the cursor
+     */
+    Stream<T> stream(Query query);
+
     List<T> getAll();
 
     Optional<T> getById(I id);
@@ -31,5 +38,31 @@ public interface MultiTenancyRepository<T, I extends Serializable> extends Mongo
 
     <U> List<U> aggregate(Aggregation aggregation, Class<U> clazz);
 
+    /**
+     * Results read from a cursor as they are consumed, the stream must be closed to release the cursor
+     */
+    <U> Stream<U> aggregateStream(Aggregation aggregation, Class<U> clazz);
+
+    /**
+     * Applies the update to the first document of the query, returns how many were matched, also when the update changed nothing
+     */
     long update(Query query, UpdateDefinition update);
+
+    void upsert(Query query, UpdateDefinition update);
+
+    /**
+     * Sets every field of the document by its id except the excluded ones, the fields it does not have are removed.
+     * The excluded fields written by another request in the meantime are kept, returns how many were matched
+     */
+    long updateExcept(T data, String... excluded);
+
+    /**
+     * Inserts all the documents with a single bulk write, returns how many were inserted
+     */
+    int bulkInsert(List<T> data);
+
+    /**
+     * Applies each update to the first document of its query with a single bulk write, returns how many were modified
+     */
+    int bulkUpdate(List<Pair<Query, UpdateDefinition>> updates);
 }
@@ -1,6 +1,8 @@
 package com.trading.journal.entry.queries;
 
 import com.allanweber.jwttoken.data.AccessTokenInfo;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public class TokenRequestScope {
 
@@ -17,4 +19,40 @@ public class TokenRequestScope {
     public static void clear() {
         REQUEST_THREAD_LOCAL.remove();
     }
+
+    /**
+     * Pool threads are reused across requests and only inherit the tenancy of the request that created them.
+     * The tenancy of the request submitting the task is set while it runs, then the previous one is put back, which keeps the request tenancy when the task runs on the request thread
+     */
+    public static TaskDecorator taskDecorator() {
+        return task -> {
+            AccessTokenInfo tenancy = get();
+            return () -> {
+                AccessTokenInfo previous = get();
+                set(tenancy);
+                try {
+                    task.run();
+                } finally {
+                    set(previous);
+                }
+            };
+        };
+    }
+
+    /**
+     * A streaming body is written after the request method returned, on a thread of the async executor.
+     * The tenancy of the request is set while it is written, then the previous one is put back
+     */
+    public static StreamingResponseBody streaming(StreamingResponseBody body) {
+        AccessTokenInfo tenancy = get();
+        return output -> {
+            AccessTokenInfo previous = get();
+            set(tenancy);
+            try {
+                body.writeTo(output);
+            } finally {
+                set(previous);
+            }
+        };
+    }
 }
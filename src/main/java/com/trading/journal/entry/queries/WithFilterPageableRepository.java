@@ -2,6 +2,7 @@ package com.trading.journal.entry.queries;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.repository.NoRepositoryBean;
 
@@ -11,4 +12,9 @@ import java.io.Serializable;
 public interface WithFilterPageableRepository<T, I extends Serializable> extends MultiTenancyRepository<T, I> {
 
     Page<T> findAll(Pageable pageable, Query query);
+
+    /**
+     * Page without the total count, it only knows if there is a next page
+     */
+    Slice<T> findSlice(Pageable pageable, Query query);
 }
@@ -0,0 +1,91 @@
+package com.trading.journal.entry.queries.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.util.Streamable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Creates the indexes declared on an entity (@CompoundIndex, @Indexed) on the tenancy collections of that entity.
+ * Spring only creates them on the default collection name, which is never used because every tenancy has its own collection.
+ * Collections already provisioned are remembered, so it only hits the database the first time a collection is used.
+ * A collection dropped by another node is not seen here, so the provisioning is also repeated once the recheck interval passed
+ */
+@Slf4j
+public class CollectionIndexes {
+
+    private static final Duration RECHECK = Duration.ofMinutes(5);
+
+    private final MongoOperations mongoOperations;
+
+    private final Duration recheck;
+
+    private final Map<String, Instant> provisioned = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, List<IndexDefinition>> declared = new ConcurrentHashMap<>();
+
+    public CollectionIndexes(MongoOperations mongoOperations) {
+        this(mongoOperations, RECHECK);
+    }
+
+    public CollectionIndexes(MongoOperations mongoOperations, Duration recheck) {
+        this.mongoOperations = mongoOperations;
+        this.recheck = recheck;
+    }
+
+    public void ensure(String collection, Class<?> type) {
+        Instant now = Instant.now();
+        Instant due = provisioned.get(collection);
+        if ((Objects.isNull(due) || !due.isAfter(now)) && claim(collection, due, now.plus(recheck))) {
+            try {
+                List<IndexDefinition> indexes = declared.computeIfAbsent(type, this::resolve);
+                if (!indexes.isEmpty()) {
+                    IndexOperations indexOperations = mongoOperations.indexOps(collection);
+                    indexes.forEach(indexOperations::ensureIndex);
+                    log.info("Collection {} provisioned with {} indexes", collection, indexes.size());
+                }
+            } catch (DataAccessException exception) {
+                provisioned.remove(collection);
+                log.warn("Collection {} indexes could not be provisioned, it will be tried again on the next use", collection, exception);
+            }
+        }
+    }
+
+    public void forget(String collection) {
+        provisioned.remove(collection);
+    }
+
+    /**
+     * Only the caller that moves the due time provisions the collection, concurrent first uses do not all create the indexes
+     */
+    private boolean claim(String collection, Instant due, Instant next) {
+        return Objects.isNull(due)
+                ? Objects.isNull(provisioned.putIfAbsent(collection, next))
+                : provisioned.replace(collection, due, next);
+    }
+
+    private List<IndexDefinition> resolve(Class<?> type) {
+        List<IndexDefinition> indexes = emptyList();
+        if (AnnotatedElementUtils.hasAnnotation(type, Document.class)) {
+            MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoOperations.getConverter().getMappingContext());
+            indexes = Streamable.of(resolver.resolveIndexFor(type)).stream()
+                    .map(IndexDefinition.class::cast)
+                    .toList();
+        }
+        return indexes;
+    }
+}
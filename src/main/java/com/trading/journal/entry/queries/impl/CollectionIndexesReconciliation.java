@@ -0,0 +1,36 @@
+package com.trading.journal.entry.queries.impl;
+
+import com.trading.journal.entry.queries.CollectionName;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Goes over the existing tenancy collections when the application starts and creates the indexes missing on them,
+ * collections created before the indexes were declared would otherwise only get them on the next use
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "journal.indexes", name = "reconcile", havingValue = "true", matchIfMissing = true)
+public class CollectionIndexesReconciliation {
+
+    private final MongoOperations mongoOperations;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        CollectionIndexes collectionIndexes = new CollectionIndexes(mongoOperations);
+        Collection<? extends MongoPersistentEntity<?>> entities = mongoOperations.getConverter().getMappingContext().getPersistentEntities();
+        for (String collection : mongoOperations.getCollectionNames()) {
+            entities.stream()
+                    .filter(entity -> collection.endsWith(CollectionName.SEPARATOR + entity.getCollection()))
+                    .findFirst()
+                    .ifPresent(entity -> collectionIndexes.ensure(collection, entity.getType()));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.trading.journal.entry.queries.impl;
+
+import com.allanweber.jwttoken.data.AccessTokenInfo;
+import com.trading.journal.entry.queries.CollectionName;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tenancy collection names keyed by tenancy and entity type, so the name is built once instead of on every repository call.
+ * When it is full new names are built every time without being kept
+ */
+public class CollectionNameCache {
+
+    private static final int MAX_SIZE = 10_000;
+
+    private final Map<Key, String> names = new ConcurrentHashMap<>();
+
+    public CollectionNameCache(MeterRegistry meterRegistry) {
+        Gauge.builder("collection.names.cache.size", names, Map::size)
+                .description("Tenancy collection names kept in the cache")
+                .register(meterRegistry);
+    }
+
+    public String get(AccessTokenInfo accessToken, MongoEntityInformation<?, ?> metadata) {
+        Key key = new Key(accessToken.tenancyName(), metadata.getJavaType());
+        String name = names.get(key);
+        if (Objects.isNull(name)) {
+            name = new CollectionName(accessToken).collectionName(metadata);
+            if (names.size() < MAX_SIZE) {
+                names.putIfAbsent(key, name);
+            }
+        }
+        return name;
+    }
+
+    private record Key(String tenancyName, Class<?> type) {
+    }
+}
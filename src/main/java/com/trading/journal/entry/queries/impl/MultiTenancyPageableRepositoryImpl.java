@@ -1,36 +1,53 @@
 package com.trading.journal.entry.queries.impl;
 
 import com.allanweber.jwttoken.data.AccessTokenInfo;
-import com.trading.journal.entry.queries.CollectionName;
 import com.trading.journal.entry.queries.TokenRequestScope;
 import com.trading.journal.entry.queries.WithFilterPageableRepository;
+import io.micrometer.core.instrument.Metrics;
+import org.bson.Document;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
 import org.springframework.data.mongodb.repository.support.SimpleMongoRepository;
+import org.springframework.data.util.Pair;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+@SuppressWarnings("PMD.TooManyMethods")
 public class MultiTenancyPageableRepositoryImpl<T, I extends Serializable> extends SimpleMongoRepository<T, I> implements WithFilterPageableRepository<T, I> {
     public static final String PAGE_REQUEST_IS_REQUIRED = "Page request is required!";
     public static final String QUERY_IS_REQUIRED = "Query is required!";
+    private static final String ID = "_id";
+
+    private static final CollectionNameCache COLLECTION_NAMES = new CollectionNameCache(Metrics.globalRegistry);
 
     private final MongoEntityInformation<T, I> metadata;
     private final MongoOperations mongoOperations;
+    private final CollectionIndexes collectionIndexes;
 
     public MultiTenancyPageableRepositoryImpl(MongoEntityInformation<T, I> metadata, MongoOperations mongoOperations) {
         super(metadata, mongoOperations);
         this.metadata = metadata;
         this.mongoOperations = mongoOperations;
+        this.collectionIndexes = new CollectionIndexes(mongoOperations);
     }
 
     @NonNull
@@ -44,10 +61,21 @@ public class MultiTenancyPageableRepositoryImpl<T, I extends Serializable> exten
         Assert.notNull(pageable, PAGE_REQUEST_IS_REQUIRED);
 
         String collection = getCollectionName();
-        long total = mongoOperations.count(query, metadata.getJavaType(), collection);
         List<T> content = mongoOperations.find(query.with(pageable), metadata.getJavaType(), collection);
 
-        return new PageImpl<T>(content, pageable, total);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoOperations.count(Query.of(query).skip(-1).limit(-1), metadata.getJavaType(), collection));
+    }
+
+    @Override
+    public Slice<T> findSlice(Pageable pageable, Query query) {
+        Assert.notNull(pageable, PAGE_REQUEST_IS_REQUIRED);
+
+        int size = pageable.getPageSize();
+        List<T> content = mongoOperations.find(query.with(pageable).limit(size + 1), metadata.getJavaType(), getCollectionName());
+        boolean hasNext = content.size() > size;
+
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, pageable, hasNext);
     }
 
     @Override
@@ -56,6 +84,12 @@ public class MultiTenancyPageableRepositoryImpl<T, I extends Serializable> exten
         return mongoOperations.find(query, metadata.getJavaType(), getCollectionName());
     }
 
+    @Override
+    public Stream<T> stream(Query query) {
+        Assert.notNull(query, QUERY_IS_REQUIRED);
+        return mongoOperations.stream(query, metadata.getJavaType(), getCollectionName());
+    }
+
     @Override
     public List<T> getAll() {
         return mongoOperations.findAll(metadata.getJavaType(), getCollectionName());
@@ -90,13 +124,15 @@ public class MultiTenancyPageableRepositoryImpl<T, I extends Serializable> exten
 
     @Override
     public void drop() {
-        mongoOperations.dropCollection(getCollectionName());
+        String collection = resolveCollectionName();
+        mongoOperations.dropCollection(collection);
+        collectionIndexes.forget(collection);
     }
 
 
     @Override
     public long count(Query query) {
-        return mongoOperations.count(query, getCollectionName());
+        return mongoOperations.count(query, metadata.getJavaType(), getCollectionName());
     }
 
     @Override
@@ -114,14 +150,67 @@ public class MultiTenancyPageableRepositoryImpl<T, I extends Serializable> exten
         return mongoOperations.aggregate(aggregation, getCollectionName(), clazz).getMappedResults();
     }
 
+    @Override
+    public <U> Stream<U> aggregateStream(Aggregation aggregation, Class<U> clazz) {
+        return mongoOperations.aggregateStream(aggregation, getCollectionName(), clazz);
+    }
+
     @Override
     public long update(Query query, UpdateDefinition update) {
-        return mongoOperations.updateFirst(query, update, getCollectionName()).getModifiedCount();
+        return mongoOperations.updateFirst(query, update, getCollectionName()).getMatchedCount();
+    }
+
+    @Override
+    public void upsert(Query query, UpdateDefinition update) {
+        mongoOperations.upsert(query, update, metadata.getJavaType(), getCollectionName());
+    }
+
+    @Override
+    public long updateExcept(T data, String... excluded) {
+        Document document = new Document();
+        mongoOperations.getConverter().write(data, document);
+        Set<String> kept = new HashSet<>(Arrays.asList(excluded));
+        kept.add(ID);
+        Update update = new Update();
+        document.entrySet().stream()
+                .filter(field -> !kept.contains(field.getKey()))
+                .forEach(field -> update.set(field.getKey(), field.getValue()));
+        mongoOperations.getConverter().getMappingContext().getRequiredPersistentEntity(metadata.getJavaType()).forEach(property -> {
+            if (!document.containsKey(property.getFieldName()) && !kept.contains(property.getFieldName())) {
+                update.unset(property.getFieldName());
+            }
+        });
+        Query query = new Query(Criteria.where(ID).is(metadata.getRequiredId(data)));
+        return mongoOperations.updateFirst(query, update, getCollectionName()).getMatchedCount();
+    }
+
+    @Override
+    public int bulkInsert(List<T> data) {
+        return mongoOperations.bulkOps(BulkOperations.BulkMode.ORDERED, metadata.getJavaType(), getCollectionName())
+                .insert(data)
+                .execute()
+                .getInsertedCount();
+    }
+
+    @Override
+    public int bulkUpdate(List<Pair<Query, UpdateDefinition>> updates) {
+        return mongoOperations.bulkOps(BulkOperations.BulkMode.ORDERED, metadata.getJavaType(), getCollectionName())
+                .updateOne(updates)
+                .execute()
+                .getModifiedCount();
     }
 
     private String getCollectionName() {
+        String collection = resolveCollectionName();
+        collectionIndexes.ensure(collection, metadata.getJavaType());
+        return collection;
+    }
+
+    /**
+     * Tenancy collection name without provisioning its indexes, for the operations that remove the collection
+     */
+    private String resolveCollectionName() {
         AccessTokenInfo accessTokenInfo = TokenRequestScope.get();
-        CollectionName collectionName = new CollectionName(accessTokenInfo);
-        return collectionName.collectionName(metadata);
+        return COLLECTION_NAMES.get(accessTokenInfo, metadata);
     }
 }
@@ -12,5 +12,10 @@ public interface FileStorage {
 
     Optional<String> getFile(String rootFolder, String folder, String storedName);
 
+    /**
+     * The file to be streamed, without reading its content in memory
+     */
+    Optional<StoredFile> readFile(String rootFolder, String folder, String storedName);
+
     void deleteFile(String rootFolder, String folder, String storedName);
 }
@@ -1,6 +1,14 @@
 package com.trading.journal.entry.storage;
 
+import java.util.Map;
+
 public interface ImageCompression {
 
     byte[] compressImage(byte[] bytes);
+
+    /**
+     * Every variant of the image, decoded only once. The original is compressed as compressImage does,
+     * the others are scaled down to fit their size
+     */
+    Map<ImageVariant, byte[]> compressVariants(byte[] bytes);
 }
@@ -0,0 +1,31 @@
+package com.trading.journal.entry.storage;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Renditions stored for each image, the smaller ones for screens listing many images.
+ * The size is the longest side the image is scaled down to, the original keeps its own size
+ */
+@RequiredArgsConstructor
+@Getter
+public enum ImageVariant {
+
+    ORIGINAL(0, ""),
+    MEDIUM(1280, "-medium"),
+    THUMBNAIL(320, "-thumbnail");
+
+    private final int size;
+
+    private final String suffix;
+
+    /**
+     * Stored next to the original, with the suffix of the variant before the extension. The original keeps its name
+     */
+    public String storedName(String originalStoredName) {
+        int extension = originalStoredName.lastIndexOf('.');
+        return extension < 0
+                ? originalStoredName + suffix
+                : originalStoredName.substring(0, extension) + suffix + originalStoredName.substring(extension);
+    }
+}
@@ -0,0 +1,76 @@
+package com.trading.journal.entry.storage;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.util.Optional;
+
+/**
+ * A stored file read as a stream, its content is only opened when it is written to the response, once for each range
+ * of a range request. Length and last modified come from the storage, so they are known without reading the content
+ */
+@Builder
+public class StoredFile extends AbstractResource {
+
+    private final String name;
+
+    @Getter
+    private final String mediaType;
+
+    private final long length;
+
+    private final long lastModifiedTime;
+
+    private final Content content;
+
+    /**
+     * Content type of the file bytes, the original of small uploads is kept in its own format
+     */
+    @SneakyThrows
+    public static String detectMediaType(byte[] file) {
+        return Optional.ofNullable(URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(file)))
+                .orElse(MediaType.IMAGE_JPEG_VALUE);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return content.open();
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public long lastModified() {
+        return lastModifiedTime;
+    }
+
+    @Override
+    public String getFilename() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Stored file [%s]".formatted(name);
+    }
+
+    @FunctionalInterface
+    public interface Content {
+        InputStream open() throws IOException;
+    }
+}
@@ -0,0 +1,145 @@
+package com.trading.journal.entry.storage.impl;
+
+import com.trading.journal.entry.configuration.properties.StorageProperties;
+import com.trading.journal.entry.storage.FileStorage;
+import com.trading.journal.entry.storage.StoredFile;
+import lombok.SneakyThrows;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Stores the files on the disk under the storage directory, as directory/tenancy/shard/entry/stored name.
+ * The shard is a hash of the entry, so a tenancy with many entries does not end up with all of them in one directory
+ */
+@ConditionalOnProperty(prefix = "journal.entries.storage", name = "option", havingValue = "disk")
+@Service
+public class DiskFileStorage implements FileStorage {
+
+    private static final int SHARDS = 256;
+
+    /**
+     * Enough bytes for the content type of the image formats
+     */
+    private static final int HEADER_SIZE = 16;
+
+    private final Path directory;
+
+    public DiskFileStorage(StorageProperties properties) {
+        String storageDirectory = Objects.requireNonNull(properties.getDirectory(), "Storage directory is required for the disk storage");
+        this.directory = Path.of(storageDirectory).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public boolean folderExists(String rootFolder) {
+        return Files.isDirectory(resolve(rootFolder));
+    }
+
+    @SneakyThrows
+    @Override
+    public void createFolder(String rootFolder) {
+        Files.createDirectories(resolve(rootFolder));
+    }
+
+    /**
+     * Written to a temporary file on the same directory and renamed to the stored name, so a file is never read half written
+     * and a failed upload leaves no file behind. The content is forced to the disk before the rename publishes it
+     */
+    @SneakyThrows
+    @Override
+    public void uploadFile(String rootFolder, String folder, String storedName, byte[] file) {
+        Path target = resolve(rootFolder, folder, storedName);
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), ".%s".formatted(storedName), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(file);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @SneakyThrows
+    @Override
+    public Optional<String> getFile(String rootFolder, String folder, String storedName) {
+        Path path = resolve(rootFolder, folder, storedName);
+        return Files.isRegularFile(path)
+                ? Optional.of(Base64.getEncoder().encodeToString(Files.readAllBytes(path)))
+                : Optional.empty();
+    }
+
+    /**
+     * Only the attributes and the first bytes are read here. The content is read from a file channel when the file is written,
+     * a range request skips to its start by positioning the channel instead of reading up to it
+     */
+    @Override
+    public Optional<StoredFile> readFile(String rootFolder, String folder, String storedName) {
+        return Optional.of(resolve(rootFolder, folder, storedName))
+                .filter(Files::isRegularFile)
+                .map(path -> storedFile(path, storedName));
+    }
+
+    @SneakyThrows
+    @Override
+    public void deleteFile(String rootFolder, String folder, String storedName) {
+        Files.deleteIfExists(resolve(rootFolder, folder, storedName));
+    }
+
+    @SneakyThrows
+    private StoredFile storedFile(Path path, String storedName) {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return StoredFile.builder()
+                .name(storedName)
+                .mediaType(StoredFile.detectMediaType(header(path)))
+                .length(attributes.size())
+                .lastModifiedTime(attributes.lastModifiedTime().toMillis())
+                .content(() -> Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ)))
+                .build();
+    }
+
+    private byte[] header(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header);
+            return header.array();
+        }
+    }
+
+    private Path resolve(String rootFolder) {
+        return inside(directory.resolve(rootFolder));
+    }
+
+    private Path resolve(String rootFolder, String folder, String storedName) {
+        String shard = "%02x".formatted(Math.floorMod(folder.hashCode(), SHARDS));
+        return inside(directory.resolve(rootFolder).resolve(shard).resolve(folder).resolve(storedName));
+    }
+
+    /**
+     * Folders and names come from the request, a path resolved out of the storage directory is refused
+     */
+    private Path inside(Path path) {
+        Path normalized = path.normalize();
+        if (!normalized.startsWith(directory) || normalized.equals(directory)) {
+            throw new IllegalArgumentException("Invalid file path");
+        }
+        return normalized;
+    }
+}
@@ -1,6 +1,7 @@
 package com.trading.journal.entry.storage.impl;
 
 import com.trading.journal.entry.storage.ImageCompression;
+import com.trading.journal.entry.storage.ImageVariant;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import org.springframework.stereotype.Service;
@@ -10,65 +11,163 @@ import javax.imageio.ImageIO;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @NoArgsConstructor
 public class ImageSimpleCompression implements ImageCompression {
 
-    private static final float MAX_COMPRESSION_SIZE = 500; //500 kb
+    private static final int MAX_COMPRESSION_SIZE = 500 * 1024; //500 kb
 
-    @Override
-    public byte[] compressImage(byte[] bytes) {
-        return compressImage(bytes, 1);
-    }
+    /**
+     * Qualities go from 0.05 to 1 in steps of 0.05
+     */
+    private static final int QUALITY_STEPS = 20;
 
+    /**
+     * Scaled variants are small enough with a fixed quality
+     */
+    private static final float VARIANT_QUALITY = 0.8f;
+
+    @Override
     @SneakyThrows
-    private byte[] compressImage(byte[] bytes, float imageQuality) {
-        float kbSize = bytes.length / 1024f;
-        if (kbSize <= MAX_COMPRESSION_SIZE || imageQuality <= 0) {
+    public byte[] compressImage(byte[] bytes) {
+        if (bytes.length <= MAX_COMPRESSION_SIZE) {
             return bytes;
-        } else {
-            Iterator<ImageWriter> imageWriters = ImageIO.getImageWritersByFormatName("jpg");
+        }
+        ImageWriter imageWriter = jpegWriter();
+        try {
+            return compress(imageWriter, read(bytes), new ByteArrayOutputStream(MAX_COMPRESSION_SIZE));
+        } finally {
+            imageWriter.dispose();
+        }
+    }
 
-            if (!imageWriters.hasNext()) {
-                throw new IllegalStateException("Writers Not Found!!");
-            }
-            ImageWriter imageWriter = imageWriters.next();
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream);
-            imageWriter.setOutput(imageOutputStream);
+    /**
+     * Each variant is scaled from the previous one, the smaller variants come after the larger ones
+     */
+    @Override
+    public Map<ImageVariant, byte[]> compressVariants(byte[] bytes) {
+        BufferedImage image = read(bytes);
+        ImageWriter imageWriter = jpegWriter();
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(MAX_COMPRESSION_SIZE);
+            Map<ImageVariant, byte[]> variants = new EnumMap<>(ImageVariant.class);
+            variants.put(ImageVariant.ORIGINAL, bytes.length <= MAX_COMPRESSION_SIZE ? bytes : compress(imageWriter, image, outputStream));
 
             ImageWriteParam imageWriteParam = imageWriter.getDefaultWriteParam();
-
-            // Set the compress quality metrics
             imageWriteParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-            imageWriteParam.setCompressionQuality(imageQuality);
-
-            // Create the buffered image
-            InputStream inputStream = new ByteArrayInputStream(bytes);
-            BufferedImage bufferedImage = ImageIO.read(inputStream);
+            imageWriteParam.setCompressionQuality(VARIANT_QUALITY);
+            BufferedImage scaled = image;
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (!ImageVariant.ORIGINAL.equals(variant)) {
+                    scaled = scale(scaled, variant.getSize());
+                    variants.put(variant, write(imageWriter, new IIOImage(scaled, null, null), imageWriteParam, outputStream));
+                }
+            }
+            return variants;
+        } finally {
+            imageWriter.dispose();
+        }
+    }
 
-            //Remove alpha channel to avoid (bogus input errors)
-            bufferedImage = removeAlphaChannel(bufferedImage);
+    /**
+     * The highest quality under the maximum size is found with a binary search over the quality steps, five encodings
+     * instead of one decode and encode for each step. When not even the lowest quality is under the maximum size the
+     * image of the lowest quality is returned
+     */
+    private byte[] compress(ImageWriter imageWriter, BufferedImage bufferedImage, ByteArrayOutputStream outputStream) {
+        IIOImage image = new IIOImage(bufferedImage, null, null);
+        ImageWriteParam imageWriteParam = imageWriter.getDefaultWriteParam();
+        imageWriteParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+
+        byte[] compressed = null;
+        int lowest = 1;
+        int highest = QUALITY_STEPS;
+        while (lowest <= highest) {
+            int step = (lowest + highest) >>> 1;
+            imageWriteParam.setCompressionQuality(step / (float) QUALITY_STEPS);
+            byte[] encoded = write(imageWriter, image, imageWriteParam, outputStream);
+            if (encoded.length <= MAX_COMPRESSION_SIZE) {
+                compressed = encoded;
+                lowest = step + 1;
+            } else {
+                highest = step - 1;
+                compressed = step == 1 ? encoded : compressed;
+            }
+        }
+        return compressed;
+    }
 
-            // Compress and insert the image into the byte array.
-            imageWriter.write(null, new IIOImage(bufferedImage, null, null), imageWriteParam);
+    /**
+     * Decoded without the alpha channel, to avoid (bogus input errors) when encoding
+     */
+    @SneakyThrows
+    private BufferedImage read(byte[] bytes) {
+        BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(bytes));
+        if (Objects.isNull(bufferedImage)) {
+            throw new IllegalArgumentException("Image format not supported");
+        }
+        return removeAlphaChannel(bufferedImage);
+    }
 
-            inputStream.close();
-            outputStream.close();
-            imageWriter.dispose();
-            imageOutputStream.close();
+    private ImageWriter jpegWriter() {
+        Iterator<ImageWriter> imageWriters = ImageIO.getImageWritersByFormatName("jpg");
+        if (!imageWriters.hasNext()) {
+            throw new IllegalStateException("Writers Not Found!!");
+        }
+        return imageWriters.next();
+    }
 
-            bytes = outputStream.toByteArray();
+    /**
+     * Written to memory, ImageIO.createImageOutputStream would cache the whole image in a temporary file
+     */
+    @SneakyThrows
+    private byte[] write(ImageWriter imageWriter, IIOImage image, ImageWriteParam imageWriteParam, ByteArrayOutputStream outputStream) {
+        outputStream.reset();
+        try (ImageOutputStream imageOutputStream = new MemoryCacheImageOutputStream(outputStream)) {
+            imageWriter.setOutput(imageOutputStream);
+            imageWriter.write(null, image, imageWriteParam);
+        }
+        return outputStream.toByteArray();
+    }
 
-            return compressImage(bytes, imageQuality - .05f);
+    /**
+     * Scaled down to fit the size keeping its proportion, halving it at each step until the size is reached,
+     * a single bilinear step from a large image to a thumbnail skips most of the pixels. Smaller images are kept as they are
+     */
+    private BufferedImage scale(BufferedImage img, int size) {
+        int longest = Math.max(img.getWidth(), img.getHeight());
+        BufferedImage scaled = img;
+        if (longest > size) {
+            int targetWidth = Math.max(1, Math.round(img.getWidth() * size / (float) longest));
+            int targetHeight = Math.max(1, Math.round(img.getHeight() * size / (float) longest));
+            int width = img.getWidth();
+            int height = img.getHeight();
+            while (width != targetWidth || height != targetHeight) {
+                width = Math.max(targetWidth, width / 2);
+                height = Math.max(targetHeight, height / 2);
+                scaled = draw(scaled, width, height);
+            }
         }
+        return scaled;
+    }
+
+    private BufferedImage draw(BufferedImage img, int width, int height) {
+        BufferedImage target = createImage(width, height);
+        Graphics2D g = target.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(img, 0, 0, width, height, null);
+        g.dispose();
+        return target;
     }
 
     private BufferedImage removeAlphaChannel(BufferedImage img) {
@@ -88,4 +187,4 @@ public class ImageSimpleCompression implements ImageCompression {
     }
 
 
-}
\ No newline at end of file
+}
@@ -1,10 +1,12 @@
 package com.trading.journal.entry.storage.impl;
 
 import com.trading.journal.entry.storage.FileStorage;
+import com.trading.journal.entry.storage.StoredFile;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.util.Base64;
 import java.util.Map;
 import java.util.Optional;
@@ -16,7 +18,7 @@ import java.util.concurrent.ConcurrentHashMap;
 @SuppressWarnings("PMD")
 public class LocalFileStorage implements FileStorage {
 
-    private static final Map<String, Map<String, byte[]>> files = new ConcurrentHashMap<>();
+    private static final Map<String, Map<String, LocalFile>> files = new ConcurrentHashMap<>();
 
     @Override
     public boolean folderExists(String rootFolder) {
@@ -32,18 +34,26 @@ public class LocalFileStorage implements FileStorage {
     public void uploadFile(String rootFolder, String folder, String storedName, byte[] file) {
         if (files.containsKey(rootFolder)) {
             String fileName = "%s/%s".formatted(folder, storedName);
-            files.get(rootFolder).put(fileName, file);
+            files.get(rootFolder).put(fileName, new LocalFile(file, System.currentTimeMillis()));
         }
     }
 
     @Override
     public Optional<String> getFile(String rootFolder, String folder, String storedName) {
-        if (files.containsKey(rootFolder)) {
-            String fileName = "%s/%s".formatted(folder, storedName);
-            byte[] bytes = files.get(rootFolder).get(fileName);
-            return Optional.of(Base64.getEncoder().encodeToString(bytes));
-        }
-        return Optional.empty();
+        return find(rootFolder, folder, storedName)
+                .map(file -> Base64.getEncoder().encodeToString(file.content()));
+    }
+
+    @Override
+    public Optional<StoredFile> readFile(String rootFolder, String folder, String storedName) {
+        return find(rootFolder, folder, storedName)
+                .map(file -> StoredFile.builder()
+                        .name(storedName)
+                        .mediaType(StoredFile.detectMediaType(file.content()))
+                        .length(file.content().length)
+                        .lastModifiedTime(file.lastModified())
+                        .content(() -> new ByteArrayInputStream(file.content()))
+                        .build());
     }
 
     @Override
@@ -53,4 +63,12 @@ public class LocalFileStorage implements FileStorage {
             files.get(rootFolder).remove(fileName);
         }
     }
+
+    private Optional<LocalFile> find(String rootFolder, String folder, String storedName) {
+        String fileName = "%s/%s".formatted(folder, storedName);
+        return Optional.ofNullable(files.get(rootFolder)).map(folderFiles -> folderFiles.get(fileName));
+    }
+
+    private record LocalFile(byte[] content, long lastModified) {
+    }
 }
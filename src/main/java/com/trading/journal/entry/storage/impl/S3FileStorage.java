@@ -1,15 +1,18 @@
 package com.trading.journal.entry.storage.impl;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.trading.journal.entry.configuration.properties.StorageProperties;
 import com.trading.journal.entry.storage.FileStorage;
+import com.trading.journal.entry.storage.StoredFile;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -41,7 +44,7 @@ public class S3FileStorage implements FileStorage {
     public void uploadFile(String rootFolder, String folder, String storedName, byte[] file) {
         InputStream input = new ByteArrayInputStream(file);
         ObjectMetadata metadata = new ObjectMetadata();
-        metadata.setContentType("image/jpg");
+        metadata.setContentType(StoredFile.detectMediaType(file));
         metadata.setContentLength(file.length);
         String fileName = "%s/%s".formatted(folder, storedName);
         PutObjectRequest request = new PutObjectRequest(rootFolder, fileName, input, metadata)
@@ -60,6 +63,31 @@ public class S3FileStorage implements FileStorage {
                 .toString());
     }
 
+    /**
+     * Only the metadata is read here, the object content is streamed from the bucket when the file is written
+     */
+    @Override
+    public Optional<StoredFile> readFile(String rootFolder, String folder, String storedName) {
+        String fileName = "%s/%s".formatted(folder, storedName);
+        Optional<StoredFile> storedFile;
+        try {
+            ObjectMetadata metadata = client.getObjectMetadata(rootFolder, fileName);
+            storedFile = Optional.of(StoredFile.builder()
+                    .name(storedName)
+                    .mediaType(metadata.getContentType())
+                    .length(metadata.getContentLength())
+                    .lastModifiedTime(metadata.getLastModified().getTime())
+                    .content(() -> client.getObject(rootFolder, fileName).getObjectContent())
+                    .build());
+        } catch (AmazonS3Exception exception) {
+            if (HttpStatus.NOT_FOUND.value() != exception.getStatusCode()) {
+                throw exception;
+            }
+            storedFile = Optional.empty();
+        }
+        return storedFile;
+    }
+
     @Override
     public void deleteFile(String rootFolder, String folder, String storedName) {
         String fileName = "%s/%s".formatted(folder, storedName);
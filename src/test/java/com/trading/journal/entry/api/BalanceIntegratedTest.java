@@ -1,6 +1,8 @@
 package com.trading.journal.entry.api;
 
 import com.trading.journal.entry.balance.Balance;
+import com.trading.journal.entry.balance.EquityCurve;
+import com.trading.journal.entry.balance.EquityPoint;
 import com.trading.journal.entry.entries.Entry;
 import com.trading.journal.entry.entries.EntryDirection;
 import com.trading.journal.entry.entries.EntryType;
@@ -846,4 +848,39 @@ class BalanceIntegratedTest extends IntegratedTestWithJournal {
                     assertThat(deposits).hasSize(1);
                 });
     }
-}
\ No newline at end of file
+
+    @DisplayName("Equity curve of the finished entries ordered by exit date with the max drawdown")
+    @Test
+    void equityCurve() {
+        mongoTemplate.save(Entry.builder().journalId(journalId).type(EntryType.DEPOSIT).price(BigDecimal.valueOf(1000))
+                .netResult(BigDecimal.valueOf(1000)).date(LocalDateTime.of(2022, 1, 1, 10, 0, 0)).build(), "TestTenancy_entries");
+        mongoTemplate.save(Entry.builder().journalId(journalId).type(EntryType.TRADE).price(BigDecimal.TEN).size(BigDecimal.ONE)
+                .netResult(BigDecimal.valueOf(-3000)).date(LocalDateTime.of(2022, 1, 2, 10, 0, 0)).exitDate(LocalDateTime.of(2022, 1, 10, 10, 0, 0)).build(), "TestTenancy_entries");
+        mongoTemplate.save(Entry.builder().journalId(journalId).type(EntryType.TRADE).price(BigDecimal.TEN).size(BigDecimal.ONE)
+                .netResult(BigDecimal.valueOf(500)).date(LocalDateTime.of(2022, 1, 3, 10, 0, 0)).exitDate(LocalDateTime.of(2022, 1, 4, 10, 0, 0)).build(), "TestTenancy_entries");
+        mongoTemplate.save(Entry.builder().journalId(journalId).type(EntryType.TRADE).price(BigDecimal.TEN).size(BigDecimal.ONE)
+                .date(LocalDateTime.of(2022, 1, 5, 10, 0, 0)).build(), "TestTenancy_entries");
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/balance/equity")
+                        .build(journalId))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(EquityCurve.class)
+                .value(response -> {
+                    assertThat(response.getEntries()).isEqualTo(3);
+                    assertThat(response.getStartBalance()).isEqualByComparingTo(BigDecimal.valueOf(10000));
+                    assertThat(response.getEndBalance()).isEqualByComparingTo(BigDecimal.valueOf(8500));
+                    assertThat(response.getPeak()).isEqualByComparingTo(BigDecimal.valueOf(11500));
+                    assertThat(response.getMaxDrawdown()).isEqualByComparingTo(BigDecimal.valueOf(3000));
+                    assertThat(response.getMaxDrawdownDate()).isEqualTo(LocalDateTime.of(2022, 1, 10, 10, 0, 0));
+                    assertThat(response.getPoints()).extracting(EquityPoint::getBalance)
+                            .usingElementComparator(BigDecimal::compareTo)
+                            .containsExactly(BigDecimal.valueOf(11000), BigDecimal.valueOf(11500), BigDecimal.valueOf(8500));
+                });
+    }
+}
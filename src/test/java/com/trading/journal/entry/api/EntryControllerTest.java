@@ -2,6 +2,7 @@ package com.trading.journal.entry.api;
 
 import com.trading.journal.entry.entries.*;
 import com.trading.journal.entry.entries.image.data.EntryImageResponse;
+import com.trading.journal.entry.entries.importing.ImportResult;
 import com.trading.journal.entry.entries.trade.Trade;
 import com.trading.journal.entry.strategy.Strategy;
 import org.bson.types.ObjectId;
@@ -19,6 +20,8 @@ import tooling.IntegratedTestWithJournal;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -333,6 +336,224 @@ class EntryControllerTest extends IntegratedTestWithJournal {
                 });
     }
 
+    @DisplayName("Get Entries paginating with cursor")
+    @Test
+    void cursorPagination() {
+        for (int i = 1; i <= 25; i++) {
+            mongoTemplate.save(
+                    Entry.builder()
+                            .journalId(journalId)
+                            .price(BigDecimal.valueOf(10.00))
+                            .symbol("ENTRY" + i)
+                            .type(EntryType.TRADE)
+                            .date(LocalDateTime.of(2022, 1, i % 5 + 1, 1, 1, 0))
+                            .build(),
+                    entryCollection);
+        }
+
+        AtomicReference<String> cursor = new AtomicReference<>("");
+        List<Entry> entries = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            webTestClient
+                    .get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/journals/{journal-id}/entries")
+                            .queryParam("cursor", cursor.get())
+                            .build(journalId))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody(new ParameterizedTypeReference<CursorPageWrapper<Entry>>() {
+                    })
+                    .value(response -> {
+                        entries.addAll(response.getContent());
+                        cursor.set(response.getNext());
+                    });
+        }
+
+        assertThat(cursor.get()).isNull();
+        assertThat(entries).hasSize(25);
+        assertThat(entries).extracting(Entry::getId).doesNotHaveDuplicates();
+        assertThat(entries).extracting(Entry::getDate).isSortedAccordingTo(Comparator.reverseOrder());
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/entries")
+                        .queryParam("cursor", "not a cursor")
+                        .build(journalId))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @DisplayName("Get Entries without counting the total")
+    @Test
+    void paginationWithoutTotal() {
+        for (int i = 1; i <= 5; i++) {
+            mongoTemplate.save(
+                    Entry.builder()
+                            .journalId(journalId)
+                            .price(BigDecimal.valueOf(10.00))
+                            .symbol("ENTRY" + i)
+                            .type(EntryType.TRADE)
+                            .date(LocalDateTime.of(2022, 1, i, 1, 1, 0))
+                            .build(),
+                    entryCollection);
+        }
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/entries")
+                        .queryParam("total", false)
+                        .queryParam("size", 2)
+                        .build(journalId))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(new ParameterizedTypeReference<PageWrapper<Entry>>() {
+                })
+                .value(response -> {
+                    assertThat(response.getContent()).hasSize(2);
+                    assertThat(response.getTotal()).isEqualTo(3L);
+                    assertThat(response.getTotalPages()).isEqualTo(2);
+                    assertThat(response.isExactTotal()).isFalse();
+                });
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/entries")
+                        .queryParam("total", false)
+                        .queryParam("size", 2)
+                        .queryParam("page", 2)
+                        .build(journalId))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(new ParameterizedTypeReference<PageWrapper<Entry>>() {
+                })
+                .value(response -> {
+                    assertThat(response.getContent()).hasSize(1);
+                    assertThat(response.getTotal()).isEqualTo(5L);
+                    assertThat(response.getTotalPages()).isEqualTo(3);
+                    assertThat(response.isExactTotal()).isTrue();
+                });
+    }
+
+    @DisplayName("Export the filtered entries as NDJSON and CSV")
+    @Test
+    void export() {
+        for (int i = 1; i <= 5; i++) {
+            mongoTemplate.save(
+                    Entry.builder()
+                            .journalId(journalId)
+                            .price(BigDecimal.valueOf(10.00))
+                            .symbol(i % 2 == 0 ? "EVEN" : "ODD")
+                            .type(EntryType.TRADE)
+                            .date(LocalDateTime.of(2022, 1, i, 1, 1, 0))
+                            .build(),
+                    entryCollection);
+        }
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/entries/export")
+                        .queryParam("symbol", "ODD")
+                        .build(journalId))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType("application/x-ndjson")
+                .expectHeader()
+                .valueEquals("Content-Disposition", "attachment; filename=\"entries.ndjson\"")
+                .expectBody(String.class)
+                .value(response -> {
+                    String[] lines = response.split("\n");
+                    assertThat(lines).hasSize(3);
+                    assertThat(lines[0]).contains("\"date\":\"2022-01-05 01:01:00\"");
+                    assertThat(lines[2]).contains("\"date\":\"2022-01-01 01:01:00\"");
+                });
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/entries/export")
+                        .queryParam("format", "CSV")
+                        .queryParam("symbol", "EVEN")
+                        .build(journalId))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType("text/csv")
+                .expectBody(String.class)
+                .value(response -> {
+                    String[] lines = response.split("\n");
+                    assertThat(lines).hasSize(3);
+                    assertThat(lines[0]).startsWith("id,date,type,symbol");
+                    assertThat(lines[1]).contains(",2022-01-04 01:01:00,TRADE,EVEN,");
+                    assertThat(lines[2]).contains(",2022-01-02 01:01:00,TRADE,EVEN,");
+                });
+    }
+
+    @DisplayName("Import entries from JSON and CSV calculating them with the balance of the journal")
+    @Test
+    void importEntries() {
+        List<Map<String, Object>> entries = List.of(
+                Map.of("type", "DEPOSIT", "date", "2022-01-01 10:00:00", "price", 1000),
+                Map.of("type", "TRADE", "date", "2022-01-02 10:00:00", "symbol", "MSFT", "direction", "LONG",
+                        "price", 100, "size", 10, "exitPrice", 110, "exitDate", "2022-01-02 11:00:00")
+        );
+
+        webTestClient
+                .post()
+                .uri("/journals/{journal-id}/entries/import", journalId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(entries)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(ImportResult.class)
+                .value(response -> {
+                    assertThat(response.getImported()).isEqualTo(2);
+                    assertThat(response.getBalance().getAccountBalance()).isEqualByComparingTo(BigDecimal.valueOf(11100));
+                });
+
+        String csv = "type,date,price\nWITHDRAWAL,2022-01-03 10:00:00,100\n";
+        webTestClient
+                .post()
+                .uri("/journals/{journal-id}/entries/import", journalId)
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .bodyValue(csv)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(ImportResult.class)
+                .value(response -> {
+                    assertThat(response.getImported()).isEqualTo(1);
+                    assertThat(response.getBalance().getAccountBalance()).isEqualByComparingTo(BigDecimal.valueOf(11000));
+                });
+
+        webTestClient
+                .post()
+                .uri("/journals/{journal-id}/entries/import", journalId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(Map.of("type", "DEPOSIT")))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+
+        assertThat(mongoTemplate.findAll(Entry.class, entryCollection)).hasSize(3);
+    }
+
     @DisplayName("Get Entries paginating and filtering")
     @Test
     void paginationFilter() {
@@ -653,13 +874,29 @@ class EntryControllerTest extends IntegratedTestWithJournal {
                 .body(BodyInserters.fromMultipartData(bodyBuilder.build()))
                 .exchange()
                 .expectStatus()
-                .isOk()
+                .isAccepted()
                 .expectBody(EntryImageResponse.class)
                 .value(response -> {
                     assertThat(response.getImageName()).isEqualTo("image-1");
                     msftImageId.set(response.getId());
                 });
 
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/entries/{entry-id}/image/{image-id}/status")
+                        .build(journalId, msft.getId(), msftImageId.get()))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(EntryImageResponse.class)
+                .value(response -> {
+                    assertThat(response.getImageName()).isEqualTo("image-1");
+                    assertThat(response.getStatus()).isIn(ImageStatus.PROCESSING, ImageStatus.READY);
+                    assertThat(response.getImage()).isNull();
+                });
+
         Entry entry = mongoTemplate.findById(new ObjectId(msft.getId()), Entry.class, entryCollection);
         assertThat(entry).isNotNull();
         assertThat(entry.getSymbol()).isEqualTo("MSFT");
@@ -676,7 +913,7 @@ class EntryControllerTest extends IntegratedTestWithJournal {
                 .body(BodyInserters.fromMultipartData(bodyBuilder.build()))
                 .exchange()
                 .expectStatus()
-                .isOk()
+                .isAccepted()
                 .expectBody(EntryImageResponse.class)
                 .value(response -> {
                     assertThat(response.getImageName()).isEqualTo("image-1");
@@ -694,7 +931,7 @@ class EntryControllerTest extends IntegratedTestWithJournal {
                 .body(BodyInserters.fromMultipartData(bodyBuilder.build()))
                 .exchange()
                 .expectStatus()
-                .isOk()
+                .isAccepted()
                 .expectBody(EntryImageResponse.class)
                 .value(response -> {
                     assertThat(response.getImageName()).isEqualTo("image-2");
@@ -738,6 +975,20 @@ class EntryControllerTest extends IntegratedTestWithJournal {
                     assertThat(images).extracting(EntryImageResponse::getImageName).containsExactlyInAnyOrder("image-1", "image-2");
                 });
 
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/entries/{entry-id}/images")
+                        .queryParam("variant", "THUMBNAIL")
+                        .build(journalId, appl.getId()))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(new ParameterizedTypeReference<List<EntryImageResponse>>() {
+                })
+                .value(images -> assertThat(images).extracting(EntryImageResponse::getImageName).containsExactlyInAnyOrder("image-1", "image-2"));
+
         webTestClient
                 .delete()
                 .uri(uriBuilder -> uriBuilder
@@ -465,6 +465,50 @@ class JournalControllerTest extends IntegratedTest {
                 );
     }
 
+    @DisplayName("Recalculate balance from all journal entries")
+    @Test
+    void recalculateBalance() {
+        Journal journal = mongoTemplate.save(buildJournal("journal-1"), journalCollection);
+
+        LocalDateTime now = LocalDateTime.now();
+
+        mongoTemplate.save(Entry.builder().journalId(journal.getId()).type(EntryType.TRADE).date(now.minusDays(10)).netResult(BigDecimal.valueOf(123.45)).build(), entryCollection);
+        mongoTemplate.save(Entry.builder().journalId(journal.getId()).type(EntryType.WITHDRAWAL).price(BigDecimal.valueOf(234.56)).date(now.minusDays(9)).netResult(BigDecimal.valueOf(-234.56)).build(), entryCollection);
+        mongoTemplate.save(Entry.builder().journalId(journal.getId()).type(EntryType.DEPOSIT).price(BigDecimal.valueOf(456.78)).date(now.minusDays(7)).netResult(BigDecimal.valueOf(456.78)).build(), entryCollection);
+        mongoTemplate.save(Entry.builder().journalId(journal.getId()).type(EntryType.TRADE).price(BigDecimal.valueOf(912.34)).date(now.plusMinutes(1)).size(BigDecimal.valueOf(1)).build(), entryCollection);
+
+        webTestClient
+                .post()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/balance/recalculate")
+                        .build(journal.getId()))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Balance.class)
+                .value(response -> {
+                    assertThat(response.getAccountBalance()).isEqualTo(BigDecimal.valueOf(345.67));
+                    assertThat(response.getClosedPositions()).isEqualTo(BigDecimal.valueOf(123.45));
+                    assertThat(response.getDeposits()).isEqualTo(BigDecimal.valueOf(456.78));
+                    assertThat(response.getWithdrawals()).isEqualTo(BigDecimal.valueOf(234.56));
+                    assertThat(response.getOpenedPositions()).isEqualTo(BigDecimal.valueOf(912.34));
+                    assertThat(response.getAvailable()).isEqualTo(BigDecimal.valueOf(-566.67));
+                });
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/balance")
+                        .build(journal.getId()))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Balance.class)
+                .value(response -> assertThat(response.getAccountBalance()).isEqualTo(BigDecimal.valueOf(345.67)));
+    }
+
     private static Journal buildJournal(String name) {
         return Journal.builder().name(name)
                 .currency(Currency.DOLLAR)
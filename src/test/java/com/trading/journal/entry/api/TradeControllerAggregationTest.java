@@ -4,14 +4,17 @@ import com.trading.journal.entry.entries.Entry;
 import com.trading.journal.entry.entries.EntryDirection;
 import com.trading.journal.entry.entries.EntryType;
 import com.trading.journal.entry.entries.trade.aggregate.AggregateType;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupService;
 import com.trading.journal.entry.entries.trade.aggregate.PeriodAggregatedResult;
 import com.trading.journal.entry.entries.trade.aggregate.PeriodItem;
+import com.trading.journal.entry.entries.trade.aggregate.TradeStatistics;
 import com.trading.journal.entry.entries.trade.aggregate.TradesAggregated;
 import com.trading.journal.entry.journal.Currency;
 import com.trading.journal.entry.journal.Journal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
@@ -28,6 +31,9 @@ class TradeControllerAggregationTest extends IntegratedTestWithJournal {
 
     private static final String entryCollection = "TestTenancy_entries";
 
+    @Autowired
+    DailyRollupService dailyRollupService;
+
     @BeforeEach
     public void beforeEach() {
         mongoTemplate.dropCollection(entryCollection);
@@ -251,6 +257,8 @@ class TradeControllerAggregationTest extends IntegratedTestWithJournal {
 
 
         //Asserts for main JOURNAL
+        dailyRollupService.rebuild(entryCollection);
+
         webTestClient
                 .get()
                 .uri(uriBuilder -> uriBuilder
@@ -263,7 +271,7 @@ class TradeControllerAggregationTest extends IntegratedTestWithJournal {
                 .isOk()
                 .expectBody(PeriodAggregatedResult.class)
                 .value(response -> {
-                    assertThat(response.getTotal()).isEqualTo(5);
+                    assertThat(response.getTotal()).isEqualTo(3);
                     assertThat(response.getItems()).hasSize(3);
 
                     assertThat(response.getItems().get(0).getGroup()).isEqualTo("2022-03");
@@ -320,7 +328,7 @@ class TradeControllerAggregationTest extends IntegratedTestWithJournal {
                 .isOk()
                 .expectBody(PeriodAggregatedResult.class)
                 .value(response -> {
-                    assertThat(response.getTotal()).isEqualTo(5);
+                    assertThat(response.getTotal()).isEqualTo(3);
                     assertThat(response.getItems()).hasSize(3);
 
                     assertThat(response.getItems().get(0).getGroup()).isEqualTo("2022-03");
@@ -472,6 +480,8 @@ class TradeControllerAggregationTest extends IntegratedTestWithJournal {
                         .build(),
                 entryCollection);
 
+        dailyRollupService.rebuild(entryCollection);
+
         webTestClient
                 .get()
                 .uri(uriBuilder -> uriBuilder
@@ -645,6 +655,8 @@ class TradeControllerAggregationTest extends IntegratedTestWithJournal {
                         .build(),
                 entryCollection);
 
+        dailyRollupService.rebuild(entryCollection);
+
         webTestClient
                 .get()
                 .uri(uriBuilder -> uriBuilder
@@ -657,7 +669,7 @@ class TradeControllerAggregationTest extends IntegratedTestWithJournal {
                 .isOk()
                 .expectBody(PeriodAggregatedResult.class)
                 .value(response -> {
-                    assertThat(response.getTotal()).isEqualTo(4);
+                    assertThat(response.getTotal()).isEqualTo(2);
                     assertThat(response.getItems()).hasSize(2);
 
                     assertThat(response.getItems().get(0).getGroup()).isEqualTo("2023");
@@ -701,4 +713,101 @@ class TradeControllerAggregationTest extends IntegratedTestWithJournal {
                     assertThat(response.get(1).getItems().get(0).getNetResult()).isEqualTo(BigDecimal.valueOf(100));
                 });
     }
-}
\ No newline at end of file
+
+    @DisplayName("Trade statistics of the whole journal and of a date range")
+    @Test
+    void stats() {
+        mongoTemplate.save(
+                Entry.builder()
+                        .journalId(journalId)
+                        .price(BigDecimal.valueOf(10.00))
+                        .symbol("MSFT")
+                        .direction(EntryDirection.LONG)
+                        .type(EntryType.TRADE)
+                        .netResult(BigDecimal.valueOf(100))
+                        .date(LocalDateTime.of(2022, 1, 3, 1, 1, 0))
+                        .build(),
+                entryCollection);
+
+        mongoTemplate.save(
+                Entry.builder()
+                        .journalId(journalId)
+                        .price(BigDecimal.valueOf(10.00))
+                        .symbol("AAPL")
+                        .direction(EntryDirection.LONG)
+                        .type(EntryType.TRADE)
+                        .netResult(BigDecimal.valueOf(200))
+                        .date(LocalDateTime.of(2022, 1, 10, 1, 1, 0))
+                        .build(),
+                entryCollection);
+
+        mongoTemplate.save(
+                Entry.builder()
+                        .journalId(journalId)
+                        .price(BigDecimal.valueOf(10.00))
+                        .symbol("PPE")
+                        .direction(EntryDirection.LONG)
+                        .type(EntryType.TRADE)
+                        .netResult(BigDecimal.valueOf(-100))
+                        .date(LocalDateTime.of(2022, 2, 2, 1, 1, 0))
+                        .build(),
+                entryCollection);
+
+        mongoTemplate.save(
+                Entry.builder()
+                        .journalId(journalId)
+                        .price(BigDecimal.valueOf(10.00))
+                        .symbol("BMY")
+                        .direction(EntryDirection.LONG)
+                        .type(EntryType.TRADE)
+                        .date(LocalDateTime.of(2022, 2, 3, 1, 1, 0))
+                        .build(),
+                entryCollection);
+
+        dailyRollupService.rebuild(entryCollection);
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/entries/trade/stats")
+                        .build(journalId))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(TradeStatistics.class)
+                .value(response -> {
+                    assertThat(response.getTrades()).isEqualTo(4);
+                    assertThat(response.getClosed()).isEqualTo(3);
+                    assertThat(response.getWins()).isEqualTo(2);
+                    assertThat(response.getLosses()).isEqualTo(1);
+                    assertThat(response.getNetResult()).isEqualByComparingTo(BigDecimal.valueOf(200));
+                    assertThat(response.getWinRate()).isEqualByComparingTo(BigDecimal.valueOf(66.67));
+                    assertThat(response.getAverageWin()).isEqualByComparingTo(BigDecimal.valueOf(150));
+                    assertThat(response.getAverageLoss()).isEqualByComparingTo(BigDecimal.valueOf(-100));
+                    assertThat(response.getExpectancy()).isEqualByComparingTo(BigDecimal.valueOf(66.67));
+                    assertThat(response.getProfitFactor()).isEqualByComparingTo(BigDecimal.valueOf(3));
+                });
+
+        webTestClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/journals/{journal-id}/entries/trade/stats")
+                        .queryParam("from", "2022-01-01")
+                        .queryParam("until", "2022-01-31")
+                        .build(journalId))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(TradeStatistics.class)
+                .value(response -> {
+                    assertThat(response.getTrades()).isEqualTo(2);
+                    assertThat(response.getWins()).isEqualTo(2);
+                    assertThat(response.getLosses()).isZero();
+                    assertThat(response.getNetResult()).isEqualByComparingTo(BigDecimal.valueOf(300));
+                    assertThat(response.getWinRate()).isEqualByComparingTo(BigDecimal.valueOf(100));
+                    assertThat(response.getProfitFactor()).isNull();
+                });
+    }
+}
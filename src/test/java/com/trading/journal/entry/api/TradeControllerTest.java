@@ -5,6 +5,8 @@ import com.trading.journal.entry.entries.EntryDirection;
 import com.trading.journal.entry.entries.EntryType;
 import com.trading.journal.entry.entries.GraphType;
 import com.trading.journal.entry.entries.trade.CloseTrade;
+import com.trading.journal.entry.entries.trade.CloseTrades;
+import com.trading.journal.entry.entries.trade.ClosingTrade;
 import com.trading.journal.entry.entries.trade.OpenTrades;
 import com.trading.journal.entry.entries.trade.Symbol;
 import com.trading.journal.entry.entries.trade.Trade;
@@ -469,6 +471,51 @@ class TradeControllerTest extends IntegratedTestWithJournal {
                 );
     }
 
+    @DisplayName("Close many trades at once")
+    @Test
+    void closeAll() {
+        Entry msft = Entry.builder().journalId(journalId).price(BigDecimal.valueOf(100)).size(BigDecimal.ONE).symbol("MSFT")
+                .direction(EntryDirection.LONG).type(EntryType.TRADE).date(LocalDateTime.of(2022, 1, 1, 1, 1, 0)).build();
+        Entry aapl = Entry.builder().journalId(journalId).price(BigDecimal.valueOf(100)).size(BigDecimal.ONE).symbol("AAPL")
+                .direction(EntryDirection.LONG).type(EntryType.TRADE).date(LocalDateTime.of(2022, 1, 1, 1, 1, 0)).build();
+        String msftId = mongoTemplate.save(msft, entryCollection).getId();
+        String aaplId = mongoTemplate.save(aapl, entryCollection).getId();
+
+        CloseTrades trades = new CloseTrades(List.of(
+                new ClosingTrade(msftId, BigDecimal.valueOf(110), LocalDateTime.of(2022, 1, 3, 1, 1, 0)),
+                new ClosingTrade(aaplId, BigDecimal.valueOf(95), LocalDateTime.of(2022, 1, 2, 1, 1, 0))
+        ));
+
+        webTestClient
+                .patch()
+                .uri("/journals/{journal-id}/entries/trade/close", journalId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(trades)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(new ParameterizedTypeReference<List<Entry>>() {
+                })
+                .value(response -> {
+                    assertThat(response).extracting(Entry::getId).containsExactly(aaplId, msftId);
+                    assertThat(response.get(0).getNetResult()).isEqualByComparingTo(BigDecimal.valueOf(-5));
+                    assertThat(response.get(0).getAccountBalance()).isEqualByComparingTo(BigDecimal.valueOf(9995));
+                    assertThat(response.get(1).getNetResult()).isEqualByComparingTo(BigDecimal.valueOf(10));
+                    assertThat(response.get(1).getAccountBalance()).isEqualByComparingTo(BigDecimal.valueOf(10005));
+                });
+
+        assertThat(mongoTemplate.findAll(Entry.class, entryCollection)).allMatch(Entry::isFinished);
+
+        webTestClient
+                .patch()
+                .uri("/journals/{journal-id}/entries/trade/close", journalId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(trades)
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
     @DisplayName("Get symbols")
     @Test
     void symbols() {
@@ -0,0 +1,95 @@
+package com.trading.journal.entry.balance;
+
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BalanceDeltaTest {
+
+    @DisplayName("Opened trade is added to opened positions")
+    @Test
+    void openTrade() {
+        Entry current = Entry.builder().type(EntryType.TRADE).price(BigDecimal.valueOf(123.45)).size(BigDecimal.valueOf(2)).build();
+
+        BalanceDelta delta = BalanceDelta.between(null, current);
+
+        assertThat(delta.getOpenedPositions()).isEqualByComparingTo(BigDecimal.valueOf(246.90));
+        assertThat(delta.getClosedPositions()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @DisplayName("Closed trade moves from opened positions to closed positions")
+    @Test
+    void closeTrade() {
+        Entry previous = Entry.builder().type(EntryType.TRADE).price(BigDecimal.valueOf(100)).size(BigDecimal.valueOf(2)).build();
+        Entry current = Entry.builder().type(EntryType.TRADE).price(BigDecimal.valueOf(100)).size(BigDecimal.valueOf(2))
+                .netResult(BigDecimal.valueOf(-35.59)).build();
+
+        BalanceDelta delta = BalanceDelta.between(previous, current);
+
+        assertThat(delta.getOpenedPositions()).isEqualByComparingTo(BigDecimal.valueOf(-200));
+        assertThat(delta.getClosedPositions()).isEqualByComparingTo(BigDecimal.valueOf(-35.59));
+    }
+
+    @DisplayName("Entries changed at once add up their changes")
+    @Test
+    void manyEntries() {
+        Entry first = Entry.builder().type(EntryType.TRADE).price(BigDecimal.valueOf(100)).size(BigDecimal.valueOf(2)).build();
+        Entry second = Entry.builder().type(EntryType.TRADE).price(BigDecimal.valueOf(50)).size(BigDecimal.ONE).build();
+        Entry firstClosed = Entry.builder().type(EntryType.TRADE).price(BigDecimal.valueOf(100)).size(BigDecimal.valueOf(2))
+                .netResult(BigDecimal.valueOf(20)).build();
+        Entry secondClosed = Entry.builder().type(EntryType.TRADE).price(BigDecimal.valueOf(50)).size(BigDecimal.ONE)
+                .netResult(BigDecimal.valueOf(-5.5)).build();
+
+        BalanceDelta delta = BalanceDelta.betweenAll(List.of(first, second), List.of(firstClosed, secondClosed));
+
+        assertThat(delta.getOpenedPositions()).isEqualByComparingTo(BigDecimal.valueOf(-250));
+        assertThat(delta.getClosedPositions()).isEqualByComparingTo(BigDecimal.valueOf(14.5));
+        assertThat(delta.getDeposits()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @DisplayName("Deposits, withdrawals and taxes use the entry price")
+    @Test
+    void nonTrade() {
+        Entry deposit = Entry.builder().type(EntryType.DEPOSIT).price(BigDecimal.valueOf(71.23)).netResult(BigDecimal.valueOf(71.23)).build();
+        Entry withdrawal = Entry.builder().type(EntryType.WITHDRAWAL).price(BigDecimal.valueOf(12.67)).netResult(BigDecimal.valueOf(-12.67)).build();
+        Entry taxes = Entry.builder().type(EntryType.TAXES).price(BigDecimal.valueOf(55.99)).netResult(BigDecimal.valueOf(-55.99)).build();
+
+        assertThat(BalanceDelta.of(deposit).getDeposits()).isEqualByComparingTo(BigDecimal.valueOf(71.23));
+        assertThat(BalanceDelta.of(withdrawal).getWithdrawals()).isEqualByComparingTo(BigDecimal.valueOf(12.67));
+        assertThat(BalanceDelta.of(taxes).getTaxes()).isEqualByComparingTo(BigDecimal.valueOf(55.99));
+    }
+
+    @DisplayName("Same entry on both sides has no change")
+    @Test
+    void empty() {
+        Entry entry = Entry.builder().type(EntryType.TRADE).netResult(BigDecimal.valueOf(50.31)).build();
+
+        assertThat(BalanceDelta.between(entry, entry).isEmpty()).isTrue();
+        assertThat(BalanceDelta.between(null, null).isEmpty()).isTrue();
+        assertThat(BalanceDelta.between(null, entry).isEmpty()).isFalse();
+    }
+
+    @DisplayName("Apply change on a balance with missing values")
+    @Test
+    void applyTo() {
+        Balance balance = Balance.builder()
+                .accountBalance(BigDecimal.valueOf(1000))
+                .build();
+        Entry withdrawal = Entry.builder().type(EntryType.WITHDRAWAL).price(BigDecimal.valueOf(12.67)).netResult(BigDecimal.valueOf(-12.67)).build();
+
+        Balance applied = BalanceDelta.of(withdrawal).applyTo(balance);
+
+        assertThat(applied.getAccountBalance()).isEqualTo(BigDecimal.valueOf(987.33));
+        assertThat(applied.getWithdrawals()).isEqualTo(BigDecimal.valueOf(12.67));
+        assertThat(applied.getAvailable()).isEqualTo(BigDecimal.valueOf(987.33));
+        assertThat(applied.getOpenedPositions()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN));
+        assertThat(applied.getDeposits()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN));
+    }
+}
@@ -0,0 +1,98 @@
+package com.trading.journal.entry.balance;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EquityCurveCalculatorTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2022, 1, 1, 10, 0, 0);
+
+    @DisplayName("Every entry is a point when there are less entries than points, the max drawdown is measured from the peak before it")
+    @Test
+    void allPoints() {
+        EquityCurveCalculator calculator = new EquityCurveCalculator(BigDecimal.valueOf(1000), 10);
+        calculator.add(DATE, BigDecimal.valueOf(200));
+        calculator.add(DATE.plusDays(1), BigDecimal.valueOf(-300));
+        calculator.add(DATE.plusDays(2), BigDecimal.valueOf(100));
+        calculator.add(DATE.plusDays(3), BigDecimal.valueOf(500));
+        calculator.add(DATE.plusDays(4), BigDecimal.valueOf(-400));
+
+        EquityCurve curve = calculator.result();
+
+        assertThat(curve.getEntries()).isEqualTo(5);
+        assertThat(curve.getStartBalance()).isEqualTo(new BigDecimal("1000.00"));
+        assertThat(curve.getEndBalance()).isEqualTo(new BigDecimal("1100.00"));
+        assertThat(curve.getPeak()).isEqualTo(new BigDecimal("1500.00"));
+        assertThat(curve.getMaxDrawdown()).isEqualTo(new BigDecimal("400.00"));
+        assertThat(curve.getMaxDrawdownPercentage()).isEqualTo(new BigDecimal("26.67"));
+        assertThat(curve.getMaxDrawdownDate()).isEqualTo(DATE.plusDays(4));
+        assertThat(curve.getPoints()).extracting(EquityPoint::getBalance).containsExactly(
+                new BigDecimal("1200.00"), new BigDecimal("900.00"), new BigDecimal("1000.00"), new BigDecimal("1500.00"), new BigDecimal("1100.00"));
+        assertThat(curve.getPoints()).extracting(EquityPoint::getDrawdown).containsExactly(
+                new BigDecimal("0.00"), new BigDecimal("300.00"), new BigDecimal("200.00"), new BigDecimal("0.00"), new BigDecimal("400.00"));
+    }
+
+    @DisplayName("Long curves are downsampled to the last balance of each bucket, always ending with the last balance")
+    @Test
+    void downsampled() {
+        EquityCurveCalculator calculator = new EquityCurveCalculator(BigDecimal.ZERO, 10);
+        for (int entry = 1; entry <= 1001; entry++) {
+            calculator.add(DATE.plusMinutes(entry), BigDecimal.ONE);
+        }
+
+        EquityCurve curve = calculator.result();
+
+        assertThat(curve.getEntries()).isEqualTo(1001);
+        assertThat(curve.getPoints()).extracting(EquityPoint::getBalance).containsExactly(
+                new BigDecimal("128.00"), new BigDecimal("256.00"), new BigDecimal("384.00"), new BigDecimal("512.00"),
+                new BigDecimal("640.00"), new BigDecimal("768.00"), new BigDecimal("896.00"), new BigDecimal("1001.00"));
+        assertThat(curve.getPoints().get(curve.getPoints().size() - 1).getBalance()).isEqualTo(new BigDecimal("1001.00"));
+        assertThat(curve.getPoints().get(curve.getPoints().size() - 1).getDate()).isEqualTo(DATE.plusMinutes(1001));
+        assertThat(curve.getMaxDrawdown()).isEqualTo(new BigDecimal("0.00"));
+    }
+
+    @DisplayName("Buckets double as the points fill up, with an odd number of points the odd one is paired with the bucket just closed")
+    @Test
+    void downsampledOddPoints() {
+        EquityCurveCalculator calculator = new EquityCurveCalculator(BigDecimal.ZERO, 3);
+        for (int entry = 1; entry <= 8; entry++) {
+            calculator.add(DATE.plusMinutes(entry), BigDecimal.ONE);
+        }
+
+        EquityCurve curve = calculator.result();
+
+        assertThat(curve.getPoints()).extracting(EquityPoint::getBalance).containsExactly(new BigDecimal("4.00"), new BigDecimal("8.00"));
+    }
+
+    @DisplayName("A last bucket not full is merged into the last point when the points are full")
+    @Test
+    void downsampledLastBucket() {
+        EquityCurveCalculator calculator = new EquityCurveCalculator(BigDecimal.ZERO, 2);
+        for (int entry = 1; entry <= 5; entry++) {
+            calculator.add(DATE.plusMinutes(entry), BigDecimal.ONE);
+        }
+
+        EquityCurve curve = calculator.result();
+
+        assertThat(curve.getPoints()).extracting(EquityPoint::getBalance).containsExactly(new BigDecimal("2.00"), new BigDecimal("5.00"));
+        assertThat(curve.getPoints().get(1).getDate()).isEqualTo(DATE.plusMinutes(5));
+    }
+
+    @DisplayName("A journal without finished entries is only its start balance")
+    @Test
+    void empty() {
+        EquityCurve curve = new EquityCurveCalculator(BigDecimal.valueOf(500), 10).result();
+
+        assertThat(curve.getEntries()).isZero();
+        assertThat(curve.getPoints()).isEmpty();
+        assertThat(curve.getEndBalance()).isEqualTo(new BigDecimal("500.00"));
+        assertThat(curve.getPeak()).isEqualTo(new BigDecimal("500.00"));
+        assertThat(curve.getMaxDrawdown()).isEqualTo(new BigDecimal("0.00"));
+        assertThat(curve.getMaxDrawdownDate()).isNull();
+    }
+}
@@ -1,20 +1,27 @@
 package com.trading.journal.entry.balance.impl;
 
+import com.trading.journal.entry.ApplicationException;
 import com.trading.journal.entry.balance.Balance;
+import com.trading.journal.entry.balance.EquityCurve;
+import com.trading.journal.entry.balance.EquityPoint;
 import com.trading.journal.entry.entries.Entry;
 import com.trading.journal.entry.entries.EntryRepository;
 import com.trading.journal.entry.entries.EntryType;
 import com.trading.journal.entry.journal.Journal;
 import com.trading.journal.entry.journal.JournalService;
+import org.bson.Document;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -23,10 +30,16 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
 class BalanceServiceImplTest {
@@ -288,7 +301,7 @@ class BalanceServiceImplTest {
         assertThat(balance.getWithdrawals()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN));
     }
 
-    @DisplayName("Get current balance from journal")
+    @DisplayName("Get current balance from the journal read through the cache")
     @Test
     void getCurrentBalance() {
         String journalId = "123456";
@@ -312,5 +325,113 @@ class BalanceServiceImplTest {
 
         Balance currentBalance = balanceService.getCurrentBalance(journalId);
         assertThat(currentBalance).isEqualTo(balance);
+        verify(journalService, never()).load(journalId);
     }
-}
\ No newline at end of file
+
+    @DisplayName("Apply a closed trade on the current balance without reading the entries")
+    @Test
+    void applyClosedTrade() {
+        String journalId = "123456";
+        Balance current = Balance.builder()
+                .accountBalance(BigDecimal.valueOf(1000).setScale(2, RoundingMode.HALF_EVEN))
+                .closedPositions(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
+                .deposits(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
+                .withdrawals(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
+                .taxes(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN))
+                .openedPositions(BigDecimal.valueOf(400).setScale(2, RoundingMode.HALF_EVEN))
+                .available(BigDecimal.valueOf(600).setScale(2, RoundingMode.HALF_EVEN))
+                .build();
+        when(journalService.changeBalance(eq(journalId), any())).thenAnswer(invocation -> invocation.<UnaryOperator<Balance>>getArgument(1).apply(current));
+
+        Entry previous = Entry.builder().type(EntryType.TRADE).price(BigDecimal.valueOf(200)).size(BigDecimal.valueOf(2)).build();
+        Entry closed = Entry.builder().type(EntryType.TRADE).price(BigDecimal.valueOf(200)).size(BigDecimal.valueOf(2))
+                .netResult(BigDecimal.valueOf(74.41)).build();
+
+        Balance balance = balanceService.applyEntryChange(journalId, previous, closed);
+
+        assertThat(balance.getAccountBalance()).isEqualTo(BigDecimal.valueOf(1074.41));
+        assertThat(balance.getClosedPositions()).isEqualTo(BigDecimal.valueOf(74.41));
+        assertThat(balance.getOpenedPositions()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN));
+        assertThat(balance.getAvailable()).isEqualTo(BigDecimal.valueOf(1074.41));
+        assertThat(balance.getDeposits()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN));
+
+        verify(journalService, never()).get(anyString());
+        verify(journalService, never()).load(anyString());
+        verify(journalService, never()).updateBalance(anyString(), any());
+        verify(entryRepository, never()).findAll(any(Pageable.class), any(Query.class));
+    }
+
+    @DisplayName("Apply a deleted withdrawal on the current balance")
+    @Test
+    void applyDeletedWithdrawal() {
+        String journalId = "123456";
+        Balance current = Balance.builder()
+                .accountBalance(BigDecimal.valueOf(900).setScale(2, RoundingMode.HALF_EVEN))
+                .withdrawals(BigDecimal.valueOf(100).setScale(2, RoundingMode.HALF_EVEN))
+                .build();
+        when(journalService.changeBalance(eq(journalId), any())).thenAnswer(invocation -> invocation.<UnaryOperator<Balance>>getArgument(1).apply(current));
+
+        Entry previous = Entry.builder().type(EntryType.WITHDRAWAL).price(BigDecimal.valueOf(100)).netResult(BigDecimal.valueOf(-100)).build();
+
+        Balance balance = balanceService.applyEntryChange(journalId, previous, null);
+
+        assertThat(balance.getAccountBalance()).isEqualTo(BigDecimal.valueOf(1000).setScale(2, RoundingMode.HALF_EVEN));
+        assertThat(balance.getWithdrawals()).isEqualTo(BigDecimal.ZERO.setScale(2, RoundingMode.HALF_EVEN));
+        assertThat(balance.getAvailable()).isEqualTo(BigDecimal.valueOf(1000).setScale(2, RoundingMode.HALF_EVEN));
+    }
+
+    @DisplayName("Apply a change that does not affect the balance does not update the journal")
+    @Test
+    void applyNoChange() {
+        String journalId = "123456";
+        Balance current = Balance.builder().accountBalance(BigDecimal.valueOf(1000)).build();
+        when(journalService.get(journalId)).thenReturn(Journal.builder().name("journal").currentBalance(current).build());
+
+        Entry entry = Entry.builder().type(EntryType.TRADE).price(BigDecimal.valueOf(200)).size(BigDecimal.valueOf(2)).build();
+
+        Balance balance = balanceService.applyEntryChange(journalId, entry, entry);
+
+        assertThat(balance).isEqualTo(current);
+        verify(journalService, never()).changeBalance(anyString(), any());
+        verify(journalService, never()).updateBalance(anyString(), any());
+    }
+
+    @DisplayName("Equity curve streams the closed trades ordered by exit date, without counting them first")
+    @Test
+    void equityCurve() {
+        String journalId = "123456";
+        when(journalService.get(journalId)).thenReturn(Journal.builder().name("journal").startBalance(BigDecimal.valueOf(100)).build());
+        when(entryRepository.aggregateStream(any(Aggregation.class), eq(Entry.class))).thenReturn(Stream.of(
+                Entry.builder().date(LocalDateTime.of(2022, 1, 1, 10, 0)).netResult(BigDecimal.valueOf(50)).build(),
+                Entry.builder().date(LocalDateTime.of(2022, 1, 2, 10, 0)).netResult(BigDecimal.valueOf(-75)).build(),
+                Entry.builder().date(LocalDateTime.of(2022, 1, 3, 10, 0)).netResult(BigDecimal.valueOf(10)).build()
+        ));
+
+        EquityCurve curve = balanceService.equityCurve(journalId, 2);
+
+        assertThat(curve.getEntries()).isEqualTo(3);
+        assertThat(curve.getEndBalance()).isEqualTo(new BigDecimal("85.00"));
+        assertThat(curve.getMaxDrawdown()).isEqualTo(new BigDecimal("75.00"));
+        assertThat(curve.getMaxDrawdownPercentage()).isEqualTo(new BigDecimal("50.00"));
+        assertThat(curve.getPoints()).extracting(EquityPoint::getBalance).containsExactly(new BigDecimal("75.00"), new BigDecimal("85.00"));
+
+        Query finished = new Query(Criteria.where("journalId").is(journalId).and("type").is("TRADE").and("netResult").ne(null));
+        verify(entryRepository, never()).count(any(Query.class));
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(entryRepository).aggregateStream(aggregation.capture(), eq(Entry.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(pipeline.get(0)).isEqualTo(new Document("$match", finished.getQueryObject()));
+        assertThat(pipeline.get(1)).isEqualTo(Document.parse("{ $project: { _id: 1, netResult: 1, date: { $ifNull: ['$exitDate', '$date'] } } }"));
+        assertThat(pipeline.get(2)).isEqualTo(Document.parse("{ $sort: { date: 1, _id: 1 } }"));
+        assertThat(aggregation.getValue().getOptions().isAllowDiskUse()).isTrue();
+    }
+
+    @DisplayName("Equity curve needs at least one point")
+    @Test
+    void equityCurveWithoutPoints() {
+        assertThatThrownBy(() -> balanceService.equityCurve("123456", 0))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Points must be positive");
+        verify(entryRepository, never()).aggregateStream(any(), any());
+    }
+}
@@ -17,6 +17,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -58,4 +59,10 @@ public class JwtTokenAuthenticationFilterTest {
         when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn(null);
         jwtTokenAuthenticationFilter.doFilterInternal(request, response, chain);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Async dispatches of streamed responses are authenticated again")
+    void asyncDispatch() {
+        assertThat(jwtTokenAuthenticationFilter.shouldNotFilterAsyncDispatch()).isFalse();
+    }
+}
@@ -0,0 +1,71 @@
+package com.trading.journal.entry.configuration;
+
+import com.trading.journal.entry.balance.Balance;
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryType;
+import com.trading.journal.entry.journal.Journal;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoConfigurationTest {
+
+    MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoConfiguration().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @DisplayName("Entry money values are written as Decimal128")
+    @Test
+    void writeEntry() {
+        Entry entry = Entry.builder().type(EntryType.TRADE).price(new BigDecimal("1.25")).netResult(new BigDecimal("-10.50")).build();
+
+        Document document = new Document();
+        converter.write(entry, document);
+
+        assertThat(document.get("price")).isEqualTo(new Decimal128(new BigDecimal("1.25")));
+        assertThat(document.get("netResult")).isEqualTo(new Decimal128(new BigDecimal("-10.50")));
+    }
+
+    @DisplayName("Journal balance money values are written as Decimal128")
+    @Test
+    void writeJournal() {
+        Journal journal = Journal.builder().name("journal").startBalance(BigDecimal.TEN)
+                .currentBalance(Balance.builder().accountBalance(new BigDecimal("100.10")).build())
+                .build();
+
+        Document document = new Document();
+        converter.write(journal, document);
+
+        assertThat(document.get("startBalance")).isEqualTo(new Decimal128(BigDecimal.TEN));
+        assertThat(document.get("currentBalance", Document.class).get("accountBalance")).isEqualTo(new Decimal128(new BigDecimal("100.10")));
+    }
+
+    @DisplayName("Money values stored as Decimal128 or as string are both read")
+    @Test
+    void read() {
+        Entry decimal = converter.read(Entry.class, new Document("price", new Decimal128(new BigDecimal("1.25"))));
+        Entry text = converter.read(Entry.class, new Document("price", "1.25"));
+
+        assertThat(decimal.getPrice()).isEqualTo(new BigDecimal("1.25"));
+        assertThat(text.getPrice()).isEqualTo(new BigDecimal("1.25"));
+    }
+}
@@ -11,7 +11,7 @@ class StorageClientTest {
 
     @Test
     void s3Client() {
-        StorageProperties properties = new StorageProperties("key", "secret", "http://localhost:9000", "us-east-1", "http://localhost:9000");
+        StorageProperties properties = new StorageProperties("key", "secret", "http://localhost:9000", "us-east-1", "http://localhost:9000", null);
         StorageClient storageClient = new StorageClient(properties);
 
         AmazonS3 client = storageClient.s3Client();
@@ -0,0 +1,131 @@
+package com.trading.journal.entry.entries;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CalculateEntryDifferentialTest {
+
+    private static final EntryType[] TYPES = {EntryType.TRADE, EntryType.TRADE, EntryType.TRADE, EntryType.DEPOSIT, EntryType.WITHDRAWAL, EntryType.TAXES};
+
+    private static final EntryDirection[] DIRECTIONS = {EntryDirection.LONG, EntryDirection.SHORT, null};
+
+    @DisplayName("Calculation with longs gives the same values and scales of the calculation with BigDecimal")
+    @Test
+    void sameAsDecimal() {
+        Random random = new Random(20_221_018L);
+        int scaled = 0;
+        for (int index = 0; index < 20_000; index++) {
+            long seed = random.nextLong();
+            BigDecimal balance = balance(new Random(seed));
+            Supplier<Entry> entry = () -> entry(new Random(seed));
+            scaled += compare(entry, balance);
+        }
+        assertThat(scaled).isGreaterThan(19_000);
+    }
+
+    @DisplayName("Values that do not fit in a long are calculated with BigDecimal")
+    @Test
+    void overflow() {
+        Supplier<Entry> entry = () -> Entry.builder()
+                .type(EntryType.TRADE)
+                .direction(EntryDirection.LONG)
+                .price(new BigDecimal("98765432109876.1234"))
+                .size(new BigDecimal("12345678.123"))
+                .exitPrice(new BigDecimal("98765432119876.5678"))
+                .lossPrice(new BigDecimal("1.5"))
+                .profitPrice(new BigDecimal("99999999999999.99"))
+                .build();
+        BigDecimal balance = new BigDecimal("1234567.89");
+
+        assertThatThrownBy(() -> new CalculateEntry(entry.get(), balance).calculateScaled()).isInstanceOf(ArithmeticException.class);
+        assertSame(new CalculateEntry(entry.get(), balance).calculate(), new CalculateEntry(entry.get(), balance).calculateDecimal());
+
+        Supplier<Entry> deposit = () -> Entry.builder().type(EntryType.DEPOSIT).price(new BigDecimal("1E+3")).build();
+        assertSame(new CalculateEntry(deposit.get(), balance).calculate(), new CalculateEntry(deposit.get(), balance).calculateDecimal());
+    }
+
+    @DisplayName("A trade without risk still fails as it did with BigDecimal")
+    @Test
+    void withoutRisk() {
+        Entry entry = Entry.builder().type(EntryType.TRADE).direction(EntryDirection.LONG)
+                .price(BigDecimal.TEN).size(BigDecimal.ONE).lossPrice(BigDecimal.TEN).build();
+
+        assertThatThrownBy(() -> new CalculateEntry(entry, BigDecimal.valueOf(1000)).calculate())
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    /**
+     * Returns 1 when the calculation with longs was used, 0 when it fell back to BigDecimal
+     */
+    private static int compare(Supplier<Entry> entry, BigDecimal balance) {
+        Entry decimal;
+        try {
+            decimal = new CalculateEntry(entry.get(), balance).calculateDecimal();
+        } catch (ArithmeticException exception) {
+            assertThatThrownBy(() -> new CalculateEntry(entry.get(), balance).calculate()).isInstanceOf(ArithmeticException.class);
+            return 0;
+        }
+        assertSame(new CalculateEntry(entry.get(), balance).calculate(), decimal);
+        try {
+            assertSame(new CalculateEntry(entry.get(), balance).calculateScaled(), decimal);
+            return 1;
+        } catch (ArithmeticException exception) {
+            return 0;
+        }
+    }
+
+    private static void assertSame(Entry actual, Entry expected) {
+        assertThat(actual.getAccountRisked()).isEqualTo(expected.getAccountRisked());
+        assertThat(actual.getPlannedRR()).isEqualTo(expected.getPlannedRR());
+        assertThat(actual.getGrossResult()).isEqualTo(expected.getGrossResult());
+        assertThat(actual.getNetResult()).isEqualTo(expected.getNetResult());
+        assertThat(actual.getAccountChange()).isEqualTo(expected.getAccountChange());
+        assertThat(actual.getAccountBalance()).isEqualTo(expected.getAccountBalance());
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private static Entry entry(Random random) {
+        balance(random);
+        return Entry.builder()
+                .date(LocalDateTime.of(2022, 10, 18, 10, 0, 0))
+                .type(TYPES[random.nextInt(TYPES.length)])
+                .direction(DIRECTIONS[random.nextInt(DIRECTIONS.length)])
+                .price(decimal(random, 100_000, 4))
+                .size(decimal(random, 10_000, 3))
+                .profitPrice(random.nextInt(4) == 0 ? null : decimal(random, 100_000, 4))
+                .lossPrice(random.nextInt(4) == 0 ? null : decimal(random, 100_000, 4))
+                .costs(random.nextInt(3) == 0 ? null : decimal(random, 100, 2))
+                .exitPrice(random.nextInt(3) == 0 ? null : decimal(random, 100_000, 4))
+                .build();
+    }
+
+    private static BigDecimal balance(Random random) {
+        int kind = random.nextInt(10);
+        BigDecimal balance;
+        if (kind == 0) {
+            balance = BigDecimal.ZERO;
+        } else if (kind == 1) {
+            balance = decimal(random, 10_000, 2).negate();
+        } else {
+            balance = decimal(random, 10_000_000, 4);
+        }
+        return balance;
+    }
+
+    /**
+     * Positive value up to the bound with a random scale up to the max scale, trailing zeros are kept
+     */
+    private static BigDecimal decimal(Random random, long bound, int maxScale) {
+        int scale = random.nextInt(maxScale + 1);
+        long unscaled = (long) (random.nextDouble() * bound * Math.pow(10, scale)) + 1;
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+}
@@ -0,0 +1,43 @@
+package com.trading.journal.entry.entries;
+
+import com.trading.journal.entry.ApplicationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EntriesCursorTest {
+
+    @DisplayName("Encoded cursor is decoded back to the same date and id")
+    @Test
+    void encodeDecode() {
+        Entry entry = Entry.builder().id("64a1f0c2e4b0a1b2c3d4e5f6").date(LocalDateTime.of(2022, 1, 1, 10, 30, 15)).build();
+
+        String token = EntriesCursor.of(entry).encode();
+        EntriesCursor cursor = EntriesCursor.decode(token);
+
+        assertThat(cursor.getDate()).isEqualTo(LocalDateTime.of(2022, 1, 1, 10, 30, 15));
+        assertThat(cursor.getId()).isEqualTo("64a1f0c2e4b0a1b2c3d4e5f6");
+    }
+
+    @DisplayName("Empty cursor is the first page")
+    @Test
+    void empty() {
+        assertThat(EntriesCursor.decode("")).isNull();
+        assertThat(EntriesCursor.decode(null)).isNull();
+    }
+
+    @DisplayName("Invalid cursor is a bad request")
+    @Test
+    void invalid() {
+        ApplicationException notBase64 = assertThrows(ApplicationException.class, () -> EntriesCursor.decode("not a cursor"));
+        ApplicationException noSeparator = assertThrows(ApplicationException.class, () -> EntriesCursor.decode("MjAyMi0wMS0wMQ"));
+
+        assertThat(notBase64.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(noSeparator.getStatusText()).isEqualTo("Invalid cursor");
+    }
+}
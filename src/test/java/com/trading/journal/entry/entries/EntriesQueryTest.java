@@ -1,18 +1,23 @@
 package com.trading.journal.entry.entries;
 
+import com.trading.journal.entry.ApplicationException;
+import org.bson.Document;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class EntriesQueryTest {
 
@@ -212,4 +217,85 @@ class EntriesQueryTest {
         EntriesQuery entriesQuery = EntriesQuery.builder().pageable(pageable).build();
         assertThat(entriesQuery.getPageable()).isEqualTo(pageable);
     }
-}
\ No newline at end of file
+
+    @DisplayName("Cursor query for the first page sorts by date and id and reads one more than the page size")
+    @Test
+    void cursorFirstPage() {
+        EntriesQuery entriesQuery = EntriesQuery.builder().journalId("123").pageable(PageRequest.of(0, 10)).build();
+        Query query = entriesQuery.buildCursorQuery();
+        assertThat(query.getQueryObject()).isEqualTo(new Document("journalId", "123"));
+        assertThat(query.getSortObject()).isEqualTo(new Document("date", -1).append("_id", -1));
+        assertThat(query.getLimit()).isEqualTo(11);
+        assertThat(query.getSkip()).isZero();
+    }
+
+    @DisplayName("Cursor query starts after the cursor keeping the filters")
+    @Test
+    void cursorNextPage() {
+        LocalDateTime date = LocalDateTime.of(2022, 1, 1, 10, 0, 0);
+        EntriesQuery entriesQuery = EntriesQuery.builder()
+                .journalId("123")
+                .type(EntryType.TRADE)
+                .pageable(PageRequest.of(0, 10))
+                .cursor(new EntriesCursor(date, "64a1f0c2e4b0a1b2c3d4e5f6"))
+                .build();
+        Query query = entriesQuery.buildCursorQuery();
+        assertThat(query.getQueryObject()).isEqualTo(new Document("journalId", "123")
+                .append("type", "TRADE")
+                .append("$and", List.of(new Document("$or", List.of(
+                        new Document("date", new Document("$lt", date)),
+                        new Document("date", date).append("_id", new Document("$lt", "64a1f0c2e4b0a1b2c3d4e5f6"))
+                )))));
+    }
+
+    @DisplayName("Cursor query of closed entries from a date keeps both the date and the cursor conditions")
+    @Test
+    void cursorClosedFrom() {
+        LocalDateTime date = LocalDateTime.of(2022, 1, 1, 10, 0, 0);
+        EntriesQuery entriesQuery = EntriesQuery.builder()
+                .journalId("123")
+                .status(EntryStatus.CLOSED)
+                .from("2022-01-01 00:00:00")
+                .pageable(PageRequest.of(0, 10))
+                .cursor(new EntriesCursor(date, "64a1f0c2e4b0a1b2c3d4e5f6"))
+                .build();
+        Query query = entriesQuery.buildCursorQuery();
+        assertThat(query.getQueryObject()).containsKeys("journalId", "$or", "netResult", "$and");
+        assertThat(query.getQueryObject().getList("$and", Document.class)).containsExactly(new Document("$or", List.of(
+                new Document("date", new Document("$lt", date)),
+                new Document("date", date).append("_id", new Document("$lt", "64a1f0c2e4b0a1b2c3d4e5f6"))
+        )));
+        assertThat(query.getSortObject()).isEqualTo(new Document("date", -1).append("_id", -1));
+        assertThat(query.getLimit()).isEqualTo(11);
+    }
+
+    @DisplayName("Cursor query accepts the sort of the cursor order")
+    @Test
+    void cursorDefaultSort() {
+        EntriesQuery byDate = EntriesQuery.builder().journalId("123").pageable(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "date"))).build();
+        EntriesQuery byDateAndId = EntriesQuery.builder().journalId("123").pageable(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "date", "_id"))).build();
+        assertThat(byDate.buildCursorQuery().getSortObject()).isEqualTo(new Document("date", -1).append("_id", -1));
+        assertThat(byDateAndId.buildCursorQuery().getSortObject()).isEqualTo(new Document("date", -1).append("_id", -1));
+    }
+
+    @DisplayName("Cursor query refuses any other sort instead of ignoring it")
+    @Test
+    void cursorOtherSort() {
+        EntriesQuery entriesQuery = EntriesQuery.builder().journalId("123").pageable(PageRequest.of(0, 10, Sort.by("symbol"))).build();
+        assertThatThrownBy(entriesQuery::buildCursorQuery)
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Cursor pagination is sorted by date descending, sort symbol: ASC is not supported")
+                .extracting("statusCode").isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @DisplayName("Export query keeps the filters without pagination, sorted as the listing and read in batches")
+    @Test
+    void exportQuery() {
+        EntriesQuery entriesQuery = EntriesQuery.builder().journalId("123").type(EntryType.TRADE).build();
+        Query query = entriesQuery.buildExportQuery();
+        assertThat(query.getQueryObject()).isEqualTo(new Document("journalId", "123").append("type", "TRADE"));
+        assertThat(query.getSortObject()).isEqualTo(new Document("date", -1).append("_id", -1));
+        assertThat(query.isLimited()).isFalse();
+        assertThat(query.getMeta().getCursorBatchSize()).isEqualTo(500);
+    }
+}
@@ -0,0 +1,55 @@
+package com.trading.journal.entry.entries;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScaledMoneyTest {
+
+    @DisplayName("Results keep the scale BigDecimal gives them")
+    @Test
+    void scale() {
+        ScaledMoney price = ScaledMoney.of(new BigDecimal("12.50"));
+        ScaledMoney size = ScaledMoney.of(new BigDecimal("3.125"));
+
+        assertThat(price.add(size).toBigDecimal()).isEqualTo(new BigDecimal("12.50").add(new BigDecimal("3.125")));
+        assertThat(price.subtract(size).toBigDecimal()).isEqualTo(new BigDecimal("9.375"));
+        assertThat(price.multiply(size).toBigDecimal()).isEqualTo(new BigDecimal("39.06250"));
+        assertThat(price.negate().toBigDecimal()).isEqualTo(new BigDecimal("-12.50"));
+        assertThat(price.withScale(4).toBigDecimal()).isEqualTo(new BigDecimal("12.5000"));
+    }
+
+    @DisplayName("Division and scale reduction round half to even on both signs")
+    @Test
+    void halfEven() {
+        String[] values = {"0.125", "0.135", "-0.125", "-0.135", "0.1251", "-0.1249", "2.5", "-3.5", "0.005"};
+        for (String value : values) {
+            BigDecimal decimal = new BigDecimal(value);
+            assertThat(ScaledMoney.of(decimal).withScale(2).toBigDecimal()).isEqualTo(decimal.setScale(2, RoundingMode.HALF_EVEN));
+            assertThat(ScaledMoney.of(decimal).withScale(0).toBigDecimal()).isEqualTo(decimal.setScale(0, RoundingMode.HALF_EVEN));
+        }
+        BigDecimal dividend = new BigDecimal("-123.45");
+        BigDecimal divisor = new BigDecimal("1000");
+        assertThat(ScaledMoney.of(dividend).divide(ScaledMoney.of(divisor), 4).toBigDecimal())
+                .isEqualTo(dividend.divide(divisor, 4, RoundingMode.HALF_EVEN));
+        assertThat(ScaledMoney.of(new BigDecimal("10")).divide(ScaledMoney.of(new BigDecimal("0.0003")), 2).toBigDecimal())
+                .isEqualTo(new BigDecimal("10").divide(new BigDecimal("0.0003"), 2, RoundingMode.HALF_EVEN));
+    }
+
+    @DisplayName("Values out of the range of a long fail")
+    @Test
+    void outOfRange() {
+        ScaledMoney large = ScaledMoney.of(new BigDecimal("9223372036854775.807"));
+
+        assertThatThrownBy(() -> large.multiply(large)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> large.add(ScaledMoney.of(new BigDecimal("0.0001")))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> ScaledMoney.of(new BigDecimal("1E+2"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> ScaledMoney.of(new BigDecimal("92233720368547758070"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> large.divide(ScaledMoney.ZERO, 2)).isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,119 @@
+package com.trading.journal.entry.entries.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryDirection;
+import com.trading.journal.entry.entries.EntryType;
+import com.trading.journal.entry.strategy.Strategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntriesExporterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final EntriesExporter entriesExporter = new EntriesExporter(objectMapper);
+
+    @DisplayName("NDJSON has one entry per line with the JSON of the listing")
+    @Test
+    void ndjson() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        entriesExporter.write(Stream.of(trade(), deposit()), ExportFormat.NDJSON, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        Map<?, ?> trade = objectMapper.readValue(lines[0], Map.class);
+        assertThat(trade.get("id")).isEqualTo("1");
+        assertThat(trade.get("date")).isEqualTo("2022-09-01 17:35:59");
+        assertThat(trade.get("symbol")).isEqualTo("MSFT");
+        assertThat(trade.containsKey("journalId")).isFalse();
+        Map<?, ?> deposit = objectMapper.readValue(lines[1], Map.class);
+        assertThat(deposit.get("type")).isEqualTo("DEPOSIT");
+    }
+
+    @DisplayName("NDJSON without entries is an empty line")
+    @Test
+    void ndjsonEmpty() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        entriesExporter.write(Stream.empty(), ExportFormat.NDJSON, output);
+
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("\n");
+    }
+
+    @DisplayName("CSV has a header and one row per entry, quoting values with separators")
+    @Test
+    void csv() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        entriesExporter.write(Stream.of(trade(), deposit()), ExportFormat.CSV, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo("id,date,type,symbol,direction,price,size,profitPrice,lossPrice,costs,exitPrice,exitDate,"
+                + "accountRisked,plannedRR,grossResult,netResult,accountChange,accountBalance,strategies,notes");
+        assertThat(lines[1]).isEqualTo("1,2022-09-01 17:35:59,TRADE,MSFT,LONG,1.12,500,,,,,,,,,,,,Breakout|Trend,\"Entered late, \"\"FOMO\"\"");
+        assertThat(lines[2]).isEqualTo("second line\"");
+        assertThat(lines[3]).isEqualTo("2,2022-09-02 10:00:00,DEPOSIT,,,100,,,,,,,,,,100,,,,");
+    }
+
+    @DisplayName("CSV text typed by the user that starts as a formula is written as text, negative numbers are kept")
+    @Test
+    void csvFormula() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Entry entry = Entry.builder()
+                .id("1")
+                .type(EntryType.TRADE)
+                .date(LocalDateTime.of(2022, 9, 1, 17, 35, 59))
+                .symbol("=HYPERLINK(\"http://evil\")")
+                .price(BigDecimal.valueOf(1.12))
+                .netResult(BigDecimal.valueOf(-5))
+                .strategies(List.of(Strategy.builder().name("@SUM(A1)").build()))
+                .notes("-2+3")
+                .build();
+
+        entriesExporter.write(Stream.of(entry), ExportFormat.CSV, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines[1]).isEqualTo("1,2022-09-01 17:35:59,TRADE,\"'=HYPERLINK(\"\"http://evil\"\")\",,1.12,,,,,,,,,,-5,,,'@SUM(A1),'-2+3");
+    }
+
+    private static Entry trade() {
+        return Entry.builder()
+                .id("1")
+                .journalId("journal")
+                .type(EntryType.TRADE)
+                .date(LocalDateTime.of(2022, 9, 1, 17, 35, 59))
+                .symbol("MSFT")
+                .direction(EntryDirection.LONG)
+                .price(BigDecimal.valueOf(1.12))
+                .size(BigDecimal.valueOf(500))
+                .strategies(List.of(Strategy.builder().name("Breakout").build(), Strategy.builder().name("Trend").build()))
+                .notes("Entered late, \"FOMO\"\nsecond line")
+                .build();
+    }
+
+    private static Entry deposit() {
+        return Entry.builder()
+                .id("2")
+                .journalId("journal")
+                .type(EntryType.DEPOSIT)
+                .date(LocalDateTime.of(2022, 9, 2, 10, 0, 0))
+                .price(BigDecimal.valueOf(100))
+                .netResult(BigDecimal.valueOf(100))
+                .build();
+    }
+}
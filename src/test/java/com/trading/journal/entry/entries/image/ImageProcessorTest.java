@@ -0,0 +1,113 @@
+package com.trading.journal.entry.entries.image;
+
+import com.allanweber.jwttoken.data.AccessTokenInfo;
+import com.trading.journal.entry.queries.TokenRequestScope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageProcessorTest {
+
+    private static final AccessTokenInfo TENANCY = new AccessTokenInfo("user", 1L, "Test-Tenancy", singletonList("ROLE_USER"));
+
+    SimpleMeterRegistry meterRegistry;
+
+    ImageProcessor imageProcessor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        imageProcessor = new ImageProcessor(meterRegistry, 1, 1);
+        TokenRequestScope.set(TENANCY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageProcessor.destroy();
+        TokenRequestScope.clear();
+    }
+
+    @DisplayName("Images are processed on a pool thread with the tenancy of the request, the wait and the processing are timed")
+    @Test
+    void process() throws InterruptedException {
+        CountDownLatch processed = new CountDownLatch(1);
+        AtomicReference<String> thread = new AtomicReference<>();
+        AtomicReference<AccessTokenInfo> tenancy = new AtomicReference<>();
+
+        imageProcessor.process(() -> {
+            thread.set(Thread.currentThread().getName());
+            tenancy.set(TokenRequestScope.get());
+            processed.countDown();
+        }, exception -> {
+        });
+
+        assertThat(processed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(thread.get()).startsWith("image-processing-");
+        assertThat(tenancy.get()).isEqualTo(TENANCY);
+        imageProcessor.destroy();
+        assertThat(meterRegistry.get("images.processing").tag("phase", "wait").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("images.processing").tag("phase", "process").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @DisplayName("A processing failure is given to the failure and timed as a failure")
+    @Test
+    void failure() throws InterruptedException {
+        CountDownLatch failed = new CountDownLatch(1);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        imageProcessor.process(() -> {
+            throw new IllegalStateException("storage down");
+        }, exception -> {
+            failure.set(exception);
+            failed.countDown();
+        });
+
+        assertThat(failed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(failure.get()).isInstanceOf(IllegalStateException.class).hasMessage("storage down");
+        imageProcessor.destroy();
+        assertThat(meterRegistry.get("images.processing").tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("images.processing").tag("outcome", "success").timer().count()).isZero();
+    }
+
+    @DisplayName("When the workers are busy and the queue is full the image is processed on the request thread")
+    @Test
+    void queueFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        imageProcessor.process(() -> {
+            started.countDown();
+            await(release);
+        }, exception -> {
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        imageProcessor.process(() -> {
+        }, exception -> {
+        });
+        assertThat(meterRegistry.get("images.processing.queue").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("images.processing.active").gauge().value()).isEqualTo(1);
+
+        AtomicReference<String> thread = new AtomicReference<>();
+        imageProcessor.process(() -> thread.set(Thread.currentThread().getName()), exception -> {
+        });
+
+        assertThat(thread.get()).isEqualTo(Thread.currentThread().getName());
+        release.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.trading.journal.entry.entries.image.impl;
 
 import com.allanweber.jwttoken.data.AccessTokenInfo;
+import com.trading.journal.entry.ApplicationException;
 import com.trading.journal.entry.entries.Entry;
 import com.trading.journal.entry.entries.EntryImage;
 import com.trading.journal.entry.entries.EntryService;
+import com.trading.journal.entry.entries.ImageStatus;
+import com.trading.journal.entry.entries.image.ImageProcessor;
 import com.trading.journal.entry.entries.image.data.EntryImageResponse;
 import com.trading.journal.entry.queries.TokenRequestScope;
 import com.trading.journal.entry.storage.FileStorage;
 import com.trading.journal.entry.storage.ImageCompression;
+import com.trading.journal.entry.storage.ImageVariant;
+import com.trading.journal.entry.storage.StoredFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,14 +22,21 @@ import org.mockito.Mock;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static java.util.Optional.of;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
@@ -39,12 +51,24 @@ class EntryImageServiceImplTest {
     @Mock
     ImageCompression imageCompression;
 
+    @Mock
+    ImageProcessor imageProcessor;
+
     @InjectMocks
     EntryImageServiceImpl entryImage;
 
     @BeforeEach
     void setUp() {
         TokenRequestScope.set(new AccessTokenInfo("user", 1L, "Test-Tenancy", singletonList("ROLE_USER")));
+        doAnswer(invocation -> {
+            try {
+                invocation.<Runnable>getArgument(0).run();
+            } catch (RuntimeException exception) {
+                invocation.<Consumer<RuntimeException>>getArgument(1).accept(exception);
+            }
+            return null;
+        }).when(imageProcessor).process(any(), any());
+        when(entryService.updateImageStatus(anyString(), anyString(), eq(ImageStatus.READY))).thenReturn(true);
     }
 
     @DisplayName("Upload one image when tenancy name has special chars, replace it")
@@ -61,16 +85,43 @@ class EntryImageServiceImplTest {
         MultipartFile file = mock(MultipartFile.class);
         when(file.getBytes()).thenReturn(new byte[]{0});
 
-        when(imageCompression.compressImage(any())).thenReturn(new byte[]{0});
+        when(imageCompression.compressVariants(any())).thenReturn(variants());
         doNothing().when(fileStorage).uploadFile(eq("testtenancy123"), eq(entryId), anyString(), any());
 
         EntryImageResponse response = entryImage.uploadImage(entryId, file);
         assertThat(response.getImageName()).isEqualTo("image-1");
+        assertThat(response.getStatus()).isEqualTo(ImageStatus.PROCESSING);
 
-        verify(entryService).updateImages(eq(entryId), argThat(images -> images.size() == 1));
+        verify(entryService).addImage(eq(entryId), argThat(image -> "image-1".equals(image.getName()) && ImageStatus.PROCESSING.equals(image.getStatus())));
+        verify(entryService).updateImageStatus(entryId, response.getId(), ImageStatus.READY);
         verify(fileStorage, never()).createFolder(anyString());
     }
 
+    @DisplayName("Upload one image stores the original, the medium and the thumbnail next to each other")
+    @Test
+    void uploadImageVariants() throws IOException {
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).build());
+        when(fileStorage.folderExists("testtenancy")).thenReturn(true);
+
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getBytes()).thenReturn(new byte[]{0});
+        Map<ImageVariant, byte[]> variants = new EnumMap<>(ImageVariant.class);
+        variants.put(ImageVariant.ORIGINAL, new byte[]{1});
+        variants.put(ImageVariant.MEDIUM, new byte[]{2});
+        variants.put(ImageVariant.THUMBNAIL, new byte[]{3});
+        when(imageCompression.compressVariants(new byte[]{0})).thenReturn(variants);
+
+        EntryImageResponse response = entryImage.uploadImage(entryId, file);
+
+        verify(entryService).addImage(eq(entryId), argThat(image -> "%s.jpg".formatted(response.getId()).equals(image.getStoredName())
+                && List.of(ImageVariant.MEDIUM, ImageVariant.THUMBNAIL).equals(image.getVariants())));
+        verify(fileStorage).uploadFile("testtenancy", entryId, "%s.jpg".formatted(response.getId()), new byte[]{1});
+        verify(fileStorage).uploadFile("testtenancy", entryId, "%s-medium.jpg".formatted(response.getId()), new byte[]{2});
+        verify(fileStorage).uploadFile("testtenancy", entryId, "%s-thumbnail.jpg".formatted(response.getId()), new byte[]{3});
+    }
+
     @DisplayName("Upload one image")
     @Test
     void uploadImage() throws IOException {
@@ -84,13 +135,15 @@ class EntryImageServiceImplTest {
         MultipartFile file = mock(MultipartFile.class);
         when(file.getBytes()).thenReturn(new byte[]{0});
 
-        when(imageCompression.compressImage(any())).thenReturn(new byte[]{0});
+        when(imageCompression.compressVariants(any())).thenReturn(variants());
         doNothing().when(fileStorage).uploadFile(eq(rootFolder), eq(entryId), anyString(), any());
 
         EntryImageResponse response = entryImage.uploadImage(entryId, file);
         assertThat(response.getImageName()).isEqualTo("image-1");
+        assertThat(response.getStatus()).isEqualTo(ImageStatus.PROCESSING);
 
-        verify(entryService).updateImages(eq(entryId), argThat(images -> images.size() == 1));
+        verify(entryService).addImage(eq(entryId), argThat(image -> "image-1".equals(image.getName()) && ImageStatus.PROCESSING.equals(image.getStatus())));
+        verify(entryService).updateImageStatus(entryId, response.getId(), ImageStatus.READY);
         verify(fileStorage, never()).createFolder(anyString());
     }
 
@@ -106,13 +159,14 @@ class EntryImageServiceImplTest {
         MultipartFile file = mock(MultipartFile.class);
         when(file.getBytes()).thenReturn(new byte[]{0});
 
-        when(imageCompression.compressImage(any())).thenReturn(new byte[]{0});
+        when(imageCompression.compressVariants(any())).thenReturn(variants());
         doNothing().when(fileStorage).uploadFile(eq(rootFolder), eq(entryId), anyString(), any());
 
         EntryImageResponse response = entryImage.uploadImage(entryId, file);
         assertThat(response.getImageName()).isEqualTo("image-1");
 
-        verify(entryService).updateImages(eq(entryId), argThat(images -> images.size() == 1));
+        verify(entryService).addImage(eq(entryId), argThat(image -> "image-1".equals(image.getName())));
+        verify(entryService).updateImageStatus(entryId, response.getId(), ImageStatus.READY);
         verify(fileStorage).createFolder(anyString());
     }
 
@@ -123,20 +177,149 @@ class EntryImageServiceImplTest {
         String entryId = UUID.randomUUID().toString();
 
         when(entryService.getById(entryId))
-                .thenReturn(Entry.builder().id(entryId).images(singletonList(new EntryImage("1", "image-1", "1.jpg"))).build());
+                .thenReturn(Entry.builder().id(entryId).images(singletonList(new EntryImage("1", "image-1", "1.jpg", null, null))).build());
 
         when(fileStorage.folderExists(rootFolder)).thenReturn(true);
 
         MultipartFile file = mock(MultipartFile.class);
         when(file.getBytes()).thenReturn(new byte[]{0});
 
-        when(imageCompression.compressImage(any())).thenReturn(new byte[]{0});
+        when(imageCompression.compressVariants(any())).thenReturn(variants());
         doNothing().when(fileStorage).uploadFile(eq(rootFolder), eq(entryId), anyString(), any());
 
         EntryImageResponse response = entryImage.uploadImage(entryId, file);
         assertThat(response.getImageName()).isEqualTo("image-2");
 
-        verify(entryService).updateImages(eq(entryId), argThat(images -> images.size() == 2));
+        verify(entryService).addImage(eq(entryId), argThat(image -> "image-2".equals(image.getName())));
+    }
+
+    @DisplayName("Upload an image deleted while it was processing deletes the stored file")
+    @Test
+    void uploadImageDeletedWhileProcessing() throws IOException {
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).build());
+        when(fileStorage.folderExists("testtenancy")).thenReturn(true);
+
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getBytes()).thenReturn(new byte[]{0});
+        when(imageCompression.compressVariants(any())).thenReturn(variants());
+        when(entryService.updateImageStatus(eq(entryId), anyString(), eq(ImageStatus.READY))).thenReturn(false);
+
+        EntryImageResponse response = entryImage.uploadImage(entryId, file);
+
+        verify(fileStorage).uploadFile("testtenancy", entryId, "%s.jpg".formatted(response.getId()), new byte[]{0});
+        verify(fileStorage).deleteFile("testtenancy", entryId, "%s.jpg".formatted(response.getId()));
+        verify(fileStorage).deleteFile("testtenancy", entryId, "%s-medium.jpg".formatted(response.getId()));
+        verify(fileStorage).deleteFile("testtenancy", entryId, "%s-thumbnail.jpg".formatted(response.getId()));
+    }
+
+    @DisplayName("Upload an image that fails to be processed marks it as failed")
+    @Test
+    void uploadImageFailed() throws IOException {
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).build());
+        when(fileStorage.folderExists("testtenancy")).thenReturn(true);
+
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getBytes()).thenReturn(new byte[]{0});
+        when(imageCompression.compressVariants(any())).thenThrow(new IllegalArgumentException("Image format not supported"));
+
+        EntryImageResponse response = entryImage.uploadImage(entryId, file);
+        assertThat(response.getStatus()).isEqualTo(ImageStatus.PROCESSING);
+
+        verify(fileStorage, never()).uploadFile(anyString(), anyString(), anyString(), any());
+        verify(entryService).updateImageStatus(entryId, response.getId(), ImageStatus.FAILED);
+        verify(entryService, never()).updateImageStatus(entryId, response.getId(), ImageStatus.READY);
+    }
+
+    @DisplayName("Upload an image that fails after some of its files were stored deletes them")
+    @Test
+    void uploadImageFailedStored() throws IOException {
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).build());
+        when(fileStorage.folderExists("testtenancy")).thenReturn(true);
+
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getBytes()).thenReturn(new byte[]{0});
+        when(imageCompression.compressVariants(any())).thenReturn(variants());
+        doNothing().doThrow(new IllegalStateException("Disk full")).when(fileStorage).uploadFile(anyString(), anyString(), anyString(), any());
+
+        EntryImageResponse response = entryImage.uploadImage(entryId, file);
+
+        verify(entryService).updateImageStatus(entryId, response.getId(), ImageStatus.FAILED);
+        verify(fileStorage).deleteFile("testtenancy", entryId, "%s.jpg".formatted(response.getId()));
+        verify(fileStorage).deleteFile("testtenancy", entryId, "%s-medium.jpg".formatted(response.getId()));
+        verify(fileStorage).deleteFile("testtenancy", entryId, "%s-thumbnail.jpg".formatted(response.getId()));
+    }
+
+    @DisplayName("Return images processing and failed with their status only, without reading them from the storage")
+    @Test
+    void returnImagesProcessing() {
+        String rootFolder = "testtenancy";
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).images(asList(
+                new EntryImage("1", "image-1", "1.jpg", ImageStatus.READY, null),
+                new EntryImage("2", "image-2", "2.jpg", ImageStatus.PROCESSING, null),
+                new EntryImage("3", "image-3", "3.jpg", ImageStatus.FAILED, null))).build());
+        when(fileStorage.getFile(rootFolder, entryId, "1.jpg")).thenReturn(of("https://cdn.trading-jounal.com/%s/%s/1.jpg".formatted(rootFolder, entryId)));
+
+        List<EntryImageResponse> images = entryImage.returnImages(entryId, ImageVariant.ORIGINAL);
+        assertThat(images).extracting(EntryImageResponse::getStatus).containsExactly(ImageStatus.READY, ImageStatus.PROCESSING, ImageStatus.FAILED);
+        assertThat(images).extracting(EntryImageResponse::getImage).containsExactly("https://cdn.trading-jounal.com/%s/%s/1.jpg".formatted(rootFolder, entryId), null, null);
+        verify(fileStorage, never()).getFile(rootFolder, entryId, "2.jpg");
+        verify(fileStorage, never()).getFile(rootFolder, entryId, "3.jpg");
+    }
+
+    @DisplayName("Return the thumbnails of the images, images uploaded before the variants come as the original")
+    @Test
+    void returnImagesThumbnail() {
+        String rootFolder = "testtenancy";
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).images(asList(
+                new EntryImage("1", "image-1", "1.jpg", null, null),
+                new EntryImage("2", "image-2", "2.jpg", ImageStatus.READY, List.of(ImageVariant.MEDIUM, ImageVariant.THUMBNAIL)))).build());
+        when(fileStorage.getFile(rootFolder, entryId, "1.jpg")).thenReturn(of("1"));
+        when(fileStorage.getFile(rootFolder, entryId, "2-thumbnail.jpg")).thenReturn(of("2"));
+
+        List<EntryImageResponse> images = entryImage.returnImages(entryId, ImageVariant.THUMBNAIL);
+        assertThat(images).extracting(EntryImageResponse::getImage).containsExactly("1", "2");
+        verify(fileStorage, never()).getFile(rootFolder, entryId, "2.jpg");
+    }
+
+    @DisplayName("Return the status of an image, images without a status are ready")
+    @Test
+    void returnImageStatus() {
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).images(asList(
+                new EntryImage("1", "image-1", "1.jpg", null, null),
+                new EntryImage("2", "image-2", "2.jpg", ImageStatus.PROCESSING, null))).build());
+
+        EntryImageResponse first = entryImage.returnImageStatus(entryId, "1");
+        assertThat(first.getStatus()).isEqualTo(ImageStatus.READY);
+        assertThat(first.getImage()).isNull();
+
+        EntryImageResponse second = entryImage.returnImageStatus(entryId, "2");
+        assertThat(second.getImageName()).isEqualTo("image-2");
+        assertThat(second.getStatus()).isEqualTo(ImageStatus.PROCESSING);
+        verify(fileStorage, never()).getFile(anyString(), anyString(), anyString());
+    }
+
+    @DisplayName("Return the status of an image the entry does not have")
+    @Test
+    void returnImageStatusNotFound() {
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).build());
+
+        assertThatThrownBy(() -> entryImage.returnImageStatus(entryId, "1"))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Image not found");
     }
 
     @DisplayName("Return one image")
@@ -146,11 +329,11 @@ class EntryImageServiceImplTest {
         String entryId = UUID.randomUUID().toString();
 
         when(entryService.getById(entryId))
-                .thenReturn(Entry.builder().id(entryId).images(singletonList(new EntryImage("1", "image-1", "1.jpg"))).build());
+                .thenReturn(Entry.builder().id(entryId).images(singletonList(new EntryImage("1", "image-1", "1.jpg", null, null))).build());
 
         when(fileStorage.getFile(rootFolder, entryId, "1.jpg")).thenReturn(of("https://cdn.trading-jounal.com/%s/%s/1.jpg".formatted(rootFolder, entryId)));
 
-        List<EntryImageResponse> images = entryImage.returnImages(entryId);
+        List<EntryImageResponse> images = entryImage.returnImages(entryId, ImageVariant.ORIGINAL);
         assertThat(images).hasSize(1);
         assertThat(images).extracting(EntryImageResponse::getImageName).containsExactly("image-1");
     }
@@ -162,12 +345,12 @@ class EntryImageServiceImplTest {
         String entryId = UUID.randomUUID().toString();
 
         when(entryService.getById(entryId))
-                .thenReturn(Entry.builder().id(entryId).images(asList(new EntryImage("1", "image-1", "1.jpg"), new EntryImage("2", "image-2", "2.jpg"))).build());
+                .thenReturn(Entry.builder().id(entryId).images(asList(new EntryImage("1", "image-1", "1.jpg", null, null), new EntryImage("2", "image-2", "2.jpg", null, null))).build());
 
         when(fileStorage.getFile(rootFolder, entryId, "1.jpg")).thenReturn(of("https://cdn.trading-jounal.com/%s/%s/1.jpg".formatted(rootFolder, entryId)));
         when(fileStorage.getFile(rootFolder, entryId, "2.jpg")).thenReturn(of("https://cdn.trading-jounal.com/%s/%s/2.jpg".formatted(rootFolder, entryId)));
 
-        List<EntryImageResponse> images = entryImage.returnImages(entryId);
+        List<EntryImageResponse> images = entryImage.returnImages(entryId, ImageVariant.ORIGINAL);
         assertThat(images).hasSize(2);
         assertThat(images).extracting(EntryImageResponse::getImageName).containsExactly("image-1", "image-2");
     }
@@ -179,23 +362,77 @@ class EntryImageServiceImplTest {
 
         when(entryService.getById(entryId)).thenReturn(Entry.builder().build());
 
-        List<EntryImageResponse> images = entryImage.returnImages(entryId);
+        List<EntryImageResponse> images = entryImage.returnImages(entryId, ImageVariant.ORIGINAL);
         assertThat(images).isEmpty();
         verify(fileStorage, never()).getFile(anyString(), anyString(), anyString());
     }
 
+    @DisplayName("Return the file of the image thumbnail, images uploaded before the variants come as the original")
+    @Test
+    void returnImageFile() {
+        String rootFolder = "testtenancy";
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).images(asList(
+                new EntryImage("1", "image-1", "1.jpg", null, null),
+                new EntryImage("2", "image-2", "2.jpg", ImageStatus.READY, List.of(ImageVariant.MEDIUM, ImageVariant.THUMBNAIL)))).build());
+        StoredFile original = storedFile("1.jpg");
+        StoredFile thumbnail = storedFile("2-thumbnail.jpg");
+        when(fileStorage.readFile(rootFolder, entryId, "1.jpg")).thenReturn(of(original));
+        when(fileStorage.readFile(rootFolder, entryId, "2-thumbnail.jpg")).thenReturn(of(thumbnail));
+
+        assertThat(entryImage.returnImageFile(entryId, "1", ImageVariant.THUMBNAIL)).isSameAs(original);
+        assertThat(entryImage.returnImageFile(entryId, "2", ImageVariant.THUMBNAIL)).isSameAs(thumbnail);
+        verify(fileStorage, never()).getFile(anyString(), anyString(), anyString());
+    }
+
+    @DisplayName("Return the file of an image still processing is not found, without reading the storage")
+    @Test
+    void returnImageFileProcessing() {
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).images(singletonList(
+                new EntryImage("1", "image-1", "1.jpg", ImageStatus.PROCESSING, null))).build());
+
+        assertThatThrownBy(() -> entryImage.returnImageFile(entryId, "1", ImageVariant.ORIGINAL))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Image is not ready");
+        verify(fileStorage, never()).readFile(anyString(), anyString(), anyString());
+    }
+
+    @DisplayName("Return the file of an image missing on the storage or on the entry")
+    @Test
+    void returnImageFileNotFound() {
+        String rootFolder = "testtenancy";
+        String entryId = UUID.randomUUID().toString();
+
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).images(singletonList(
+                new EntryImage("1", "image-1", "1.jpg", ImageStatus.READY, null))).build());
+        when(fileStorage.readFile(rootFolder, entryId, "1.jpg")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> entryImage.returnImageFile(entryId, "1", ImageVariant.ORIGINAL))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Image not found");
+        assertThatThrownBy(() -> entryImage.returnImageFile(entryId, "2", ImageVariant.ORIGINAL))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Image not found");
+    }
+
     @DisplayName("Delete a image")
     @Test
     void deleteImage() {
         String rootFolder = "Test-Tenancy";
         String entryId = UUID.randomUUID().toString();
 
-        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).images(singletonList(new EntryImage("1", "image-1", "1.jpg"))).build());
+        when(entryService.getById(entryId)).thenReturn(Entry.builder().id(entryId).images(singletonList(new EntryImage("1", "image-1", "1.jpg", null, null))).build());
         doNothing().when(fileStorage).deleteFile(rootFolder, entryId, "1.jpg");
 
         entryImage.deleteImage(entryId, "1");
 
-        verify(entryService).updateImages(eq(entryId), argThat(images -> images.size() == 0));
+        verify(fileStorage).deleteFile("testtenancy", entryId, "1.jpg");
+        verify(fileStorage).deleteFile("testtenancy", entryId, "1-medium.jpg");
+        verify(fileStorage).deleteFile("testtenancy", entryId, "1-thumbnail.jpg");
+        verify(entryService).removeImage(entryId, "1");
     }
 
     @DisplayName("Delete a image but there are more images for this entry")
@@ -205,12 +442,28 @@ class EntryImageServiceImplTest {
         String entryId = UUID.randomUUID().toString();
 
         when(entryService.getById(entryId))
-                .thenReturn(Entry.builder().id(entryId).images(asList(new EntryImage("1", "image-1", "1.jpg"), new EntryImage("2", "image-2", "2.jpg"))).build());
+                .thenReturn(Entry.builder().id(entryId).images(asList(new EntryImage("1", "image-1", "1.jpg", null, null), new EntryImage("2", "image-2", "2.jpg", null, null))).build());
 
         doNothing().when(fileStorage).deleteFile(rootFolder, entryId, "2.jpg");
 
         entryImage.deleteImage(entryId, "2");
 
-        verify(entryService).updateImages(eq(entryId), argThat(images -> images.size() == 1));
+        verify(entryService).removeImage(entryId, "2");
+    }
+
+    private static StoredFile storedFile(String name) {
+        return StoredFile.builder()
+                .name(name)
+                .mediaType("image/jpeg")
+                .length(1)
+                .lastModifiedTime(1L)
+                .content(() -> new ByteArrayInputStream(new byte[]{0}))
+                .build();
+    }
+
+    private static Map<ImageVariant, byte[]> variants() {
+        Map<ImageVariant, byte[]> variants = new EnumMap<>(ImageVariant.class);
+        Arrays.stream(ImageVariant.values()).forEach(variant -> variants.put(variant, new byte[]{0}));
+        return variants;
     }
-}
\ No newline at end of file
+}
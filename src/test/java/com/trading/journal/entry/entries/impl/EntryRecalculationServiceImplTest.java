@@ -0,0 +1,146 @@
+package com.trading.journal.entry.entries.impl;
+
+import com.trading.journal.entry.entries.CalculateEntry;
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryDirection;
+import com.trading.journal.entry.entries.EntryRepository;
+import com.trading.journal.entry.entries.EntryType;
+import com.trading.journal.entry.journal.Journal;
+import com.trading.journal.entry.journal.JournalService;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class EntryRecalculationServiceImplTest {
+
+    private static final String JOURNAL_ID = "1";
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2022, 9, 1, 10, 0, 0);
+
+    @Mock
+    EntryRepository repository;
+
+    @Mock
+    JournalService journalService;
+
+    @InjectMocks
+    EntryRecalculationServiceImpl entryRecalculationService;
+
+    @DisplayName("Entries from the date are replayed in order with the balance before it and only the changed ones are written")
+    @Test
+    void recalculateFrom() {
+        when(journalService.load(JOURNAL_ID)).thenReturn(Journal.builder().startBalance(BigDecimal.valueOf(1000)).build());
+        when(repository.aggregate(any(Aggregation.class), eq(Entry.class)))
+                .thenReturn(List.of(Entry.builder().netResult(BigDecimal.valueOf(100)).build()));
+
+        Entry staleDeposit = deposit("1", BigDecimal.valueOf(50));
+        new CalculateEntry(staleDeposit, BigDecimal.valueOf(1000)).calculate();
+        Entry openTrade = trade("2", null);
+        new CalculateEntry(openTrade, BigDecimal.valueOf(1150)).calculate();
+        Entry currentTrade = trade("3", BigDecimal.valueOf(110));
+        new CalculateEntry(currentTrade, BigDecimal.valueOf(1150)).calculate();
+        when(repository.stream(any(Query.class))).thenReturn(Stream.of(staleDeposit, openTrade, currentTrade));
+        when(repository.bulkUpdate(anyList())).thenAnswer(invocation -> invocation.getArgument(0, List.class).size());
+
+        long changed = entryRecalculationService.recalculateFrom(JOURNAL_ID, FROM);
+
+        assertThat(changed).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Pair<Query, UpdateDefinition>>> updates = ArgumentCaptor.forClass(List.class);
+        verify(repository).bulkUpdate(updates.capture());
+        assertThat(staleDeposit.getAccountBalance()).isEqualByComparingTo(BigDecimal.valueOf(1150));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(repository).stream(query.capture());
+        assertThat(query.getValue().getSortObject()).isEqualTo(new Document("date", 1).append("_id", 1));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("journalId", JOURNAL_ID).append("date", new Document("$gte", FROM)));
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(repository).aggregate(aggregation.capture(), eq(Entry.class));
+        assertThat(aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0)).isEqualTo(new Document("$match",
+                new Document("journalId", JOURNAL_ID).append("date", new Document("$lt", FROM)).append("netResult", new Document("$ne", null))));
+    }
+
+    @DisplayName("Changed entries are written in chunks of five hundred")
+    @Test
+    void chunks() {
+        when(journalService.load(JOURNAL_ID)).thenReturn(Journal.builder().startBalance(BigDecimal.valueOf(1000)).build());
+        when(repository.aggregate(any(Aggregation.class), eq(Entry.class))).thenReturn(emptyList());
+        when(repository.stream(any(Query.class)))
+                .thenReturn(IntStream.range(0, 1200).mapToObj(index -> deposit(String.valueOf(index), BigDecimal.ONE)));
+        List<Integer> chunks = new ArrayList<>();
+        when(repository.bulkUpdate(anyList())).thenAnswer(invocation -> {
+            int size = invocation.getArgument(0, List.class).size();
+            chunks.add(size);
+            return size;
+        });
+
+        long changed = entryRecalculationService.recalculateFrom(JOURNAL_ID, FROM);
+
+        assertThat(changed).isEqualTo(1200);
+        assertThat(chunks).containsExactly(500, 500, 200);
+    }
+
+    @DisplayName("Nothing is written when every entry is up to date")
+    @Test
+    void upToDate() {
+        when(journalService.load(JOURNAL_ID)).thenReturn(Journal.builder().startBalance(BigDecimal.valueOf(1000)).build());
+        when(repository.aggregate(any(Aggregation.class), eq(Entry.class))).thenReturn(emptyList());
+        Entry deposit = deposit("1", BigDecimal.TEN);
+        new CalculateEntry(deposit, BigDecimal.valueOf(1000)).calculate();
+        when(repository.stream(any(Query.class))).thenReturn(Stream.of(deposit));
+
+        long changed = entryRecalculationService.recalculateFrom(JOURNAL_ID, FROM);
+
+        assertThat(changed).isZero();
+        verify(repository, never()).bulkUpdate(anyList());
+    }
+
+    @DisplayName("Entries after a date are counted up to one")
+    @Test
+    void hasEntriesAfter() {
+        when(repository.count(any(Query.class))).thenReturn(1L);
+
+        assertThat(entryRecalculationService.hasEntriesAfter(JOURNAL_ID, FROM)).isTrue();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(repository).count(query.capture());
+        assertThat(query.getValue().getLimit()).isEqualTo(1);
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("journalId", JOURNAL_ID).append("date", new Document("$gt", FROM)));
+    }
+
+    private static Entry deposit(String id, BigDecimal price) {
+        return Entry.builder().id(id).journalId(JOURNAL_ID).type(EntryType.DEPOSIT).date(FROM).price(price).build();
+    }
+
+    private static Entry trade(String id, BigDecimal exitPrice) {
+        return Entry.builder().id(id).journalId(JOURNAL_ID).type(EntryType.TRADE).date(FROM.plusHours(1))
+                .direction(EntryDirection.LONG).price(BigDecimal.valueOf(100)).size(BigDecimal.ONE).exitPrice(exitPrice).build();
+    }
+}
@@ -4,9 +4,12 @@ import com.trading.journal.entry.ApplicationException;
 import com.trading.journal.entry.balance.Balance;
 import com.trading.journal.entry.balance.BalanceService;
 import com.trading.journal.entry.entries.*;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupService;
 import com.trading.journal.entry.journal.Journal;
 import com.trading.journal.entry.journal.JournalService;
+import com.trading.journal.entry.queries.ConcurrentPageQuery;
 import com.trading.journal.entry.strategy.Strategy;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,8 +20,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -28,6 +34,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -51,6 +58,15 @@ class EntryServiceImplTest {
     @Mock
     BalanceService balanceService;
 
+    @Mock
+    ConcurrentPageQuery concurrentPageQuery;
+
+    @Mock
+    DailyRollupService dailyRollupService;
+
+    @Mock
+    EntryRecalculationService entryRecalculationService;
+
     @InjectMocks
     EntryServiceImpl entryService;
 
@@ -81,10 +97,64 @@ class EntryServiceImplTest {
                 )
                 .addCriteria(Criteria.where("netResult").exists(true));
         Page<Entry> page = new PageImpl<>(singletonList(Entry.builder().build()), pageable, 1L);
-        when(repository.findAll(pageable, query)).thenReturn(page);
+        when(concurrentPageQuery.findAll(repository, pageable, query)).thenReturn(page);
 
-        Page<Entry> response = entryService.getAll(entriesQuery);
+        Slice<Entry> response = entryService.getAll(entriesQuery);
         assertThat(response.get()).isNotEmpty();
+        assertThat(response).isInstanceOf(Page.class);
+    }
+
+    @DisplayName("Get entries without the total does not count them")
+    @Test
+    void allWithoutTotal() {
+        PageRequest pageable = PageRequest.of(0, 2);
+        EntriesQuery entriesQuery = EntriesQuery.builder().journalId(JOURNAL_ID).pageable(pageable).countTotal(false).build();
+        when(repository.findSlice(eq(pageable), any(Query.class))).thenReturn(new SliceImpl<>(singletonList(Entry.builder().build()), pageable, true));
+
+        Slice<Entry> response = entryService.getAll(entriesQuery);
+
+        assertThat(response.hasNext()).isTrue();
+        assertThat(response).isNotInstanceOf(Page.class);
+        verify(concurrentPageQuery, never()).findAll(any(), any(), any());
+    }
+
+    @DisplayName("Get entries by cursor with more entries than the page size has a next page")
+    @Test
+    void allByCursorHasNext() {
+        EntriesQuery entriesQuery = EntriesQuery.builder().journalId(JOURNAL_ID).pageable(PageRequest.of(0, 2)).build();
+        when(repository.find(any(Query.class))).thenReturn(asList(
+                Entry.builder().id("1").build(), Entry.builder().id("2").build(), Entry.builder().id("3").build()));
+
+        Slice<Entry> response = entryService.getAllByCursor(entriesQuery);
+
+        assertThat(response.hasNext()).isTrue();
+        assertThat(response.getContent()).extracting(Entry::getId).containsExactly("1", "2");
+        verify(repository, never()).findAll(any(Pageable.class), any(Query.class));
+    }
+
+    @DisplayName("Get entries by cursor on the last page has no next page")
+    @Test
+    void allByCursorLastPage() {
+        EntriesQuery entriesQuery = EntriesQuery.builder().journalId(JOURNAL_ID).pageable(PageRequest.of(0, 2)).build();
+        when(repository.find(any(Query.class))).thenReturn(singletonList(Entry.builder().id("1").build()));
+
+        Slice<Entry> response = entryService.getAllByCursor(entriesQuery);
+
+        assertThat(response.hasNext()).isFalse();
+        assertThat(response.getContent()).hasSize(1);
+    }
+
+    @DisplayName("Stream entries with the export query")
+    @Test
+    void stream() {
+        EntriesQuery entriesQuery = EntriesQuery.builder().journalId(JOURNAL_ID).symbol("MSFT").build();
+        when(repository.stream(any(Query.class))).thenReturn(Stream.of(Entry.builder().id("1").build()));
+
+        try (Stream<Entry> entries = entryService.stream(entriesQuery)) {
+            assertThat(entries).extracting(Entry::getId).containsExactly("1");
+        }
+
+        verify(repository).stream(entriesQuery.buildExportQuery());
     }
 
     @DisplayName("Save a TRADE entry")
@@ -131,7 +201,8 @@ class EntryServiceImplTest {
         Entry entry = entryService.save(toSave);
         assertThat(entry).isNotNull();
 
-        verify(balanceService).calculateCurrentBalance(anyString());
+        verify(balanceService).applyEntryChange(JOURNAL_ID, null, calculated);
+        verify(dailyRollupService).applyEntryChange(null, calculated);
     }
 
     @DisplayName("Save a TRADE entry with strategies")
@@ -181,7 +252,7 @@ class EntryServiceImplTest {
         assertThat(entry).isNotNull();
         assertThat(entry.getStrategies()).extracting(Strategy::getName).containsExactlyInAnyOrder("Strategy 1", "Strategy 2");
 
-        verify(balanceService).calculateCurrentBalance(anyString());
+        verify(balanceService).applyEntryChange(JOURNAL_ID, null, calculated);
     }
 
     @DisplayName("Save a TRADE entry and other entries need balance")
@@ -259,7 +330,7 @@ class EntryServiceImplTest {
         Entry entry = entryService.save(toSave);
         assertThat(entry).isNotNull();
 
-        verify(balanceService).calculateCurrentBalance(anyString());
+        verify(balanceService).applyEntryChange(JOURNAL_ID, null, calculated);
     }
 
     @DisplayName("Create a WITHDRAWAL entry and other entries need balance")
@@ -321,7 +392,7 @@ class EntryServiceImplTest {
         Entry entry = entryService.save(toSave);
         assertThat(entry).isNotNull();
 
-        verify(balanceService).calculateCurrentBalance(anyString());
+        verify(balanceService).applyEntryChange(JOURNAL_ID, null, calculated);
     }
 
     @DisplayName("Create a TAXES entry and other entries need balance")
@@ -383,7 +454,7 @@ class EntryServiceImplTest {
         Entry entry = entryService.save(toSave);
         assertThat(entry).isNotNull();
 
-        verify(balanceService).calculateCurrentBalance(anyString());
+        verify(balanceService).applyEntryChange(JOURNAL_ID, null, calculated);
     }
 
     @DisplayName("Create a DEPOSIT entry and other entries need balance")
@@ -436,7 +507,8 @@ class EntryServiceImplTest {
 
         verify(repository).delete(entry);
 
-        verify(balanceService).calculateCurrentBalance(anyString());
+        verify(balanceService).applyEntryChange(JOURNAL_ID, entry, null);
+        verify(dailyRollupService).applyEntryChange(entry, null);
     }
 
     @DisplayName("Delete a entry and other entries need balance")
@@ -493,6 +565,7 @@ class EntryServiceImplTest {
         verify(repository).delete(entry);
 
         verify(balanceService, never()).calculateCurrentBalance(anyString());
+        verify(balanceService).applyEntryChange(null, entry, null);
     }
 
     @DisplayName("Save a not finished entry, do not balance other entries")
@@ -532,6 +605,123 @@ class EntryServiceImplTest {
         assertThat(entry).isNotNull();
 
         verify(balanceService, never()).calculateCurrentBalance(anyString());
+        verify(balanceService).applyEntryChange(JOURNAL_ID, null, calculated);
+    }
+
+    @DisplayName("Save an existing entry apply the change from the previous version to the balance")
+    @Test
+    void saveExisting() {
+        String entryId = UUID.randomUUID().toString();
+        Entry previous = Entry.builder()
+                .id(entryId)
+                .journalId(JOURNAL_ID)
+                .date(LocalDateTime.of(2022, 9, 8, 15, 31, 23))
+                .type(EntryType.TRADE)
+                .direction(EntryDirection.LONG)
+                .price(BigDecimal.valueOf(200))
+                .size(BigDecimal.valueOf(2))
+                .build();
+
+        Entry toSave = Entry.builder()
+                .id(entryId)
+                .journalId(JOURNAL_ID)
+                .date(LocalDateTime.of(2022, 9, 8, 15, 31, 23))
+                .type(EntryType.TRADE)
+                .direction(EntryDirection.LONG)
+                .price(BigDecimal.valueOf(200))
+                .size(BigDecimal.valueOf(2))
+                .exitPrice(BigDecimal.valueOf(240))
+                .build();
+
+        when(repository.getById(entryId)).thenReturn(Optional.of(previous), Optional.of(toSave));
+        when(balanceService.getCurrentBalance(JOURNAL_ID)).thenReturn(Balance.builder().accountBalance(BigDecimal.valueOf(1000)).build());
+        when(repository.updateExcept(any(Entry.class), eq("images"))).thenReturn(1L);
+
+        Entry entry = entryService.save(toSave);
+        assertThat(entry.getNetResult()).isEqualTo(BigDecimal.valueOf(80.00).setScale(2, RoundingMode.HALF_EVEN));
+        verify(repository).updateExcept(toSave, "images");
+        verify(repository, never()).save(any(Entry.class));
+
+        verify(balanceService).applyEntryChange(JOURNAL_ID, previous, entry);
+        verify(dailyRollupService).applyEntryChange(previous, entry);
+        verify(balanceService, never()).calculateCurrentBalance(anyString());
+        verify(entryRecalculationService).recalculateFrom(JOURNAL_ID, LocalDateTime.of(2022, 9, 8, 15, 31, 23));
+    }
+
+    @DisplayName("Save an existing entry moved to a later date recalculates from its previous date")
+    @Test
+    void saveExistingMoved() {
+        String entryId = UUID.randomUUID().toString();
+        Entry previous = Entry.builder().id(entryId).journalId(JOURNAL_ID).date(LocalDateTime.of(2022, 9, 8, 15, 31, 23))
+                .type(EntryType.DEPOSIT).price(BigDecimal.TEN).build();
+        Entry toSave = Entry.builder().id(entryId).journalId(JOURNAL_ID).date(LocalDateTime.of(2022, 9, 10, 15, 31, 23))
+                .type(EntryType.DEPOSIT).price(BigDecimal.TEN).build();
+
+        when(repository.getById(entryId)).thenReturn(Optional.of(previous), Optional.of(toSave));
+        when(balanceService.getCurrentBalance(JOURNAL_ID)).thenReturn(Balance.builder().accountBalance(BigDecimal.valueOf(1000)).build());
+        when(repository.updateExcept(any(Entry.class), eq("images"))).thenReturn(1L);
+
+        entryService.save(toSave);
+
+        verify(entryRecalculationService).recalculateFrom(JOURNAL_ID, LocalDateTime.of(2022, 9, 8, 15, 31, 23));
+    }
+
+    @DisplayName("Save an existing entry deleted while it was saved")
+    @Test
+    void saveExistingDeleted() {
+        String entryId = UUID.randomUUID().toString();
+        Entry previous = Entry.builder().id(entryId).journalId(JOURNAL_ID).date(LocalDateTime.of(2022, 9, 8, 15, 31, 23))
+                .type(EntryType.DEPOSIT).price(BigDecimal.TEN).build();
+        Entry toSave = Entry.builder().id(entryId).journalId(JOURNAL_ID).date(LocalDateTime.of(2022, 9, 8, 15, 31, 23))
+                .type(EntryType.DEPOSIT).price(BigDecimal.ONE).build();
+
+        when(repository.getById(entryId)).thenReturn(Optional.of(previous));
+        when(balanceService.getCurrentBalance(JOURNAL_ID)).thenReturn(Balance.builder().accountBalance(BigDecimal.valueOf(1000)).build());
+        when(repository.updateExcept(any(Entry.class), eq("images"))).thenReturn(0L);
+
+        ApplicationException exception = assertThrows(ApplicationException.class, () -> entryService.save(toSave));
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(exception.getStatusText()).isEqualTo("Entry not found");
+
+        verify(balanceService, never()).applyEntryChange(anyString(), any(), any());
+        verify(dailyRollupService, never()).applyEntryChange(any(), any());
+    }
+
+    @DisplayName("Save a new entry recalculates it with the entries after it only when it is in the past")
+    @Test
+    void saveInThePast() {
+        LocalDateTime date = LocalDateTime.of(2022, 9, 8, 15, 31, 23);
+        Entry latest = Entry.builder().journalId(JOURNAL_ID).date(date).type(EntryType.DEPOSIT).price(BigDecimal.TEN).build();
+        Entry past = Entry.builder().journalId(JOURNAL_ID).date(date.minusDays(1)).type(EntryType.DEPOSIT).price(BigDecimal.TEN).build();
+
+        when(balanceService.getCurrentBalance(JOURNAL_ID)).thenReturn(Balance.builder().accountBalance(BigDecimal.valueOf(1000)).build());
+        when(repository.save(latest)).thenReturn(Entry.builder().id("1").journalId(JOURNAL_ID).date(date).build());
+        when(repository.save(past)).thenReturn(Entry.builder().id("2").journalId(JOURNAL_ID).date(date.minusDays(1)).build());
+        when(entryRecalculationService.hasEntriesAfter(JOURNAL_ID, date)).thenReturn(false);
+        when(entryRecalculationService.hasEntriesAfter(JOURNAL_ID, date.minusDays(1))).thenReturn(true);
+        Entry recalculated = Entry.builder().id("2").journalId(JOURNAL_ID).date(date.minusDays(1)).accountBalance(BigDecimal.valueOf(1010)).build();
+        when(repository.getById("2")).thenReturn(Optional.of(recalculated));
+
+        entryService.save(latest);
+        verify(entryRecalculationService, never()).recalculateFrom(anyString(), any());
+
+        Entry saved = entryService.save(past);
+        assertThat(saved).isEqualTo(recalculated);
+        verify(entryRecalculationService).recalculateFrom(JOURNAL_ID, date.minusDays(1));
+    }
+
+    @DisplayName("Delete an entry recalculates the entries after it")
+    @Test
+    void deleteInThePast() {
+        LocalDateTime date = LocalDateTime.of(2022, 9, 8, 15, 31, 23);
+        Entry entry = Entry.builder().id("1").journalId(JOURNAL_ID).date(date).type(EntryType.DEPOSIT).price(BigDecimal.TEN).build();
+        when(repository.getById("1")).thenReturn(Optional.of(entry));
+        when(entryRecalculationService.hasEntriesAfter(JOURNAL_ID, date)).thenReturn(true);
+
+        entryService.delete("1");
+
+        verify(repository).delete(entry);
+        verify(entryRecalculationService).recalculateFrom(JOURNAL_ID, date);
     }
 
     @DisplayName("Get a entry by id")
@@ -599,4 +789,28 @@ class EntryServiceImplTest {
         Long count = entryService.countByStrategy(strategyId);
         assertThat(count).isEqualTo(1L);
     }
-}
\ No newline at end of file
+
+    @DisplayName("Update the status of an image sets only its status and tells when the entry no longer has the image")
+    @Test
+    void updateImageStatus() {
+        Query query = new Query(Criteria.where("_id").is("1").and("images.imageId").is("image"));
+        Update update = new Update().set("images.$.status", ImageStatus.READY);
+        when(repository.update(query, update)).thenReturn(1L, 0L);
+
+        assertThat(entryService.updateImageStatus("1", "image", ImageStatus.READY)).isTrue();
+        assertThat(entryService.updateImageStatus("1", "image", ImageStatus.READY)).isFalse();
+    }
+
+    @DisplayName("Add and remove images push and pull them, removing the images when the last one is removed")
+    @Test
+    void addAndRemoveImage() {
+        EntryImage image = new EntryImage("image", "image-1", "image.jpg", ImageStatus.PROCESSING, null);
+
+        entryService.addImage("1", image);
+        verify(repository).update(new Query(Criteria.where("_id").is("1")), new Update().push("images", image));
+
+        entryService.removeImage("1", "image");
+        verify(repository).update(new Query(Criteria.where("_id").is("1")), new Update().pull("images", new Document("imageId", "image")));
+        verify(repository).update(new Query(Criteria.where("_id").is("1").and("images").size(0)), new Update().unset("images"));
+    }
+}
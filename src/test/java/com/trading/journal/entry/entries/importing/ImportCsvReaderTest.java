@@ -0,0 +1,73 @@
+package com.trading.journal.entry.entries.importing;
+
+import com.trading.journal.entry.ApplicationException;
+import com.trading.journal.entry.entries.EntryDirection;
+import com.trading.journal.entry.entries.EntryType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportCsvReaderTest {
+
+    @DisplayName("Columns are read by the header name and the ones of the export that are not imported are ignored")
+    @Test
+    void read() {
+        String csv = """
+                id,date,type,symbol,direction,price,size,exitPrice,exitDate,netResult,notes\r
+                1,2022-09-01 17:35:59,TRADE,MSFT,LONG,100.50,10,110,2022-09-02 10:00:00,95.00,\r
+                2,2022-09-03 08:00:00,DEPOSIT,,,1000,,,,,"first, ""big"" deposit
+                of the year"\r
+                """;
+
+        List<ImportedEntry> entries = ImportCsvReader.read(input(csv));
+
+        assertThat(entries).hasSize(2);
+        ImportedEntry trade = entries.get(0);
+        assertThat(trade.getType()).isEqualTo(EntryType.TRADE);
+        assertThat(trade.getDate()).isEqualTo(LocalDateTime.of(2022, 9, 1, 17, 35, 59));
+        assertThat(trade.getSymbol()).isEqualTo("MSFT");
+        assertThat(trade.getDirection()).isEqualTo(EntryDirection.LONG);
+        assertThat(trade.getPrice()).isEqualTo(new BigDecimal("100.50"));
+        assertThat(trade.getExitDate()).isEqualTo(LocalDateTime.of(2022, 9, 2, 10, 0, 0));
+        assertThat(trade.getNotes()).isNull();
+        ImportedEntry deposit = entries.get(1);
+        assertThat(deposit.getType()).isEqualTo(EntryType.DEPOSIT);
+        assertThat(deposit.getSymbol()).isNull();
+        assertThat(deposit.getPrice()).isEqualTo(new BigDecimal("1000"));
+        assertThat(deposit.getNotes()).isEqualTo("first, \"big\" deposit\nof the year");
+    }
+
+    @DisplayName("Blank lines are skipped and a file with only the header has no entries")
+    @Test
+    void blank() {
+        assertThat(ImportCsvReader.read(input("type,price\n\nDEPOSIT,10\n\n"))).hasSize(1);
+        assertThat(ImportCsvReader.read(input("type,price\n"))).isEmpty();
+    }
+
+    @DisplayName("An invalid value is reported with its line and an empty file has no header")
+    @Test
+    void invalid() {
+        assertThatThrownBy(() -> ImportCsvReader.read(input("type,price\nDEPOSIT,10\nDEPOSIT,ten\n")))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Line 3: invalid price 'ten'");
+        assertThatThrownBy(() -> ImportCsvReader.read(input("type,date\nBOND,2022-01-01 00:00:00\n")))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Line 2: invalid type 'BOND'");
+        assertThatThrownBy(() -> ImportCsvReader.read(input("")))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("The file has no header");
+    }
+
+    private static InputStream input(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
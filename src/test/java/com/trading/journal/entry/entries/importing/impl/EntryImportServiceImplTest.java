@@ -0,0 +1,165 @@
+package com.trading.journal.entry.entries.importing.impl;
+
+import com.trading.journal.entry.ApplicationException;
+import com.trading.journal.entry.balance.Balance;
+import com.trading.journal.entry.balance.BalanceService;
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryDirection;
+import com.trading.journal.entry.entries.EntryRecalculationService;
+import com.trading.journal.entry.entries.EntryRepository;
+import com.trading.journal.entry.entries.EntryType;
+import com.trading.journal.entry.entries.importing.ImportResult;
+import com.trading.journal.entry.entries.importing.ImportedEntry;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class EntryImportServiceImplTest {
+
+    @Mock
+    EntryRepository repository;
+
+    @Mock
+    BalanceService balanceService;
+
+    @Mock
+    DailyRollupService dailyRollupService;
+
+    @Mock
+    EntryRecalculationService entryRecalculationService;
+
+    EntryImportServiceImpl entryImportService;
+
+    @BeforeEach
+    void setUp() {
+        entryImportService = new EntryImportServiceImpl(repository, balanceService, dailyRollupService, entryRecalculationService,
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @DisplayName("Entries are calculated in date order with the running balance from the balance before the earliest of them, "
+            + "then the journal and the balance are calculated again once from that date")
+    @Test
+    void importEntries() {
+        when(entryRecalculationService.balanceBefore("1", LocalDateTime.of(2022, 1, 1, 10, 0, 0))).thenReturn(BigDecimal.valueOf(10000));
+        when(repository.bulkInsert(anyList())).thenAnswer(invocation -> invocation.getArgument(0, List.class).size());
+        Balance balance = Balance.builder().accountBalance(BigDecimal.valueOf(11100)).build();
+        when(balanceService.calculateCurrentBalance("1")).thenReturn(balance);
+
+        ImportedEntry trade = ImportedEntry.builder().type(EntryType.TRADE).date(LocalDateTime.of(2022, 1, 2, 10, 0, 0))
+                .symbol("MSFT").direction(EntryDirection.LONG).price(BigDecimal.valueOf(100)).size(BigDecimal.TEN)
+                .exitPrice(BigDecimal.valueOf(110)).exitDate(LocalDateTime.of(2022, 1, 2, 11, 0, 0)).build();
+        ImportedEntry deposit = ImportedEntry.builder().type(EntryType.DEPOSIT).date(LocalDateTime.of(2022, 1, 1, 10, 0, 0))
+                .price(BigDecimal.valueOf(1000)).build();
+
+        ImportResult result = entryImportService.importEntries("1", List.of(trade, deposit));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getBalance()).isEqualTo(balance);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Entry>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(repository).bulkInsert(inserted.capture());
+        List<Entry> entries = inserted.getValue();
+        assertThat(entries).extracting(Entry::getType).containsExactly(EntryType.DEPOSIT, EntryType.TRADE);
+        assertThat(entries).extracting(Entry::getJournalId).containsOnly("1");
+        assertThat(entries.get(0).getAccountBalance()).isEqualByComparingTo(BigDecimal.valueOf(11000));
+        assertThat(entries.get(1).getNetResult()).isEqualByComparingTo(BigDecimal.valueOf(100));
+        assertThat(entries.get(1).getAccountBalance()).isEqualByComparingTo(BigDecimal.valueOf(11100));
+
+        verify(dailyRollupService).applyNewEntries(entries);
+        verify(entryRecalculationService).recalculateFrom("1", LocalDateTime.of(2022, 1, 1, 10, 0, 0));
+        verify(balanceService).calculateCurrentBalance("1");
+        verify(balanceService, never()).getCurrentBalance(anyString());
+    }
+
+    @DisplayName("Entries are written in chunks of a thousand")
+    @Test
+    void chunks() {
+        when(entryRecalculationService.balanceBefore(anyString(), any())).thenReturn(BigDecimal.ZERO);
+        List<Integer> chunks = new ArrayList<>();
+        when(repository.bulkInsert(anyList())).thenAnswer(invocation -> {
+            int size = invocation.getArgument(0, List.class).size();
+            chunks.add(size);
+            return size;
+        });
+        List<ImportedEntry> deposits = IntStream.range(0, 2500)
+                .mapToObj(index -> ImportedEntry.builder().type(EntryType.DEPOSIT)
+                        .date(LocalDateTime.of(2022, 1, 1, 0, 0, 0).plusMinutes(index))
+                        .price(BigDecimal.ONE).build())
+                .toList();
+
+        ImportResult result = entryImportService.importEntries("1", deposits);
+
+        assertThat(result.getImported()).isEqualTo(2500);
+        assertThat(chunks).containsExactly(1000, 1000, 500);
+        verify(balanceService).calculateCurrentBalance("1");
+    }
+
+    @DisplayName("Invalid entries are reported with their position and nothing is written")
+    @Test
+    void invalid() {
+        ImportedEntry withoutType = ImportedEntry.builder().price(BigDecimal.ONE).build();
+        ImportedEntry openTrade = ImportedEntry.builder().type(EntryType.TRADE).date(LocalDateTime.of(2022, 1, 1, 0, 0, 0))
+                .symbol("MSFT").direction(EntryDirection.LONG).price(BigDecimal.ONE).size(BigDecimal.ONE).build();
+        ImportedEntry withoutExitPrice = ImportedEntry.builder().type(EntryType.TRADE).date(LocalDateTime.of(2022, 1, 1, 0, 0, 0))
+                .symbol("MSFT").direction(EntryDirection.LONG).price(BigDecimal.ONE).size(BigDecimal.ONE)
+                .exitDate(LocalDateTime.of(2022, 1, 2, 0, 0, 0)).build();
+
+        assertThatThrownBy(() -> entryImportService.importEntries("1", List.of(withoutType, openTrade, withoutExitPrice)))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Entry 1: Entry type is required")
+                .hasMessageContaining("Entry 3: Exit price is required")
+                .hasMessageNotContaining("Entry 2");
+
+        verify(repository, never()).bulkInsert(anyList());
+        verify(entryRecalculationService, never()).recalculateFrom(anyString(), any());
+        verify(balanceService, never()).calculateCurrentBalance(anyString());
+    }
+
+    @DisplayName("Only the first twenty errors are reported")
+    @Test
+    void tooManyErrors() {
+        List<ImportedEntry> entries = IntStream.range(0, 25).mapToObj(index -> ImportedEntry.builder().build()).toList();
+
+        assertThatThrownBy(() -> entryImportService.importEntries("1", entries))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Entry 20: Entry type is required")
+                .hasMessageNotContaining("Entry 21:")
+                .hasMessageEndingWith("and 5 more");
+    }
+
+    @DisplayName("Importing nothing or more than ten thousand entries is not allowed")
+    @Test
+    void size() {
+        List<ImportedEntry> tooMany = IntStream.range(0, 10_001).mapToObj(index -> ImportedEntry.builder().build()).toList();
+
+        assertThatThrownBy(() -> entryImportService.importEntries("1", emptyList()))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("There are no entries to import");
+        assertThatThrownBy(() -> entryImportService.importEntries("1", tooMany))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("At most 10000 entries can be imported at once");
+        verifyNoInteractions(repository, balanceService);
+    }
+}
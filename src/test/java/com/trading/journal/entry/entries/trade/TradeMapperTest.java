@@ -258,7 +258,7 @@ class TradeMapperTest {
                 .costs(BigDecimal.valueOf(1.25))
                 .notes("some notes")
                 .strategies(singletonList(Strategy.builder().color("red").build()))
-                .images(List.of(new EntryImage("1", "image-1", "1.jpg"), new EntryImage("2", "image-2", "2.jpg")))
+                .images(List.of(new EntryImage("1", "image-1", "1.jpg", ImageStatus.READY, null), new EntryImage("2", "image-2", "2.jpg", ImageStatus.READY, null)))
                 .build();
 
         Trade trade = Trade.builder()
@@ -293,7 +293,7 @@ class TradeMapperTest {
         assertThat(entry.getCosts()).isEqualTo(BigDecimal.valueOf(1.25));
         assertThat(entry.getNotes()).isEqualTo("some notes");
         assertThat(entry.getStrategies()).extracting(Strategy::getId).containsExactlyInAnyOrder("ST1", "ST2");
-        assertThat(entry.getImages()).containsExactly(new EntryImage("1", "image-1", "1.jpg"), new EntryImage("2", "image-2", "2.jpg"));
+        assertThat(entry.getImages()).containsExactly(new EntryImage("1", "image-1", "1.jpg", ImageStatus.READY, null), new EntryImage("2", "image-2", "2.jpg", ImageStatus.READY, null));
         assertThat(entry.getExitDate()).isNull();
         assertThat(entry.getExitPrice()).isNull();
         assertThat(entry.getAccountRisked()).isNull();
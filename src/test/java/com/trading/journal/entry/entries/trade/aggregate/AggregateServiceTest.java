@@ -0,0 +1,223 @@
+package com.trading.journal.entry.entries.trade.aggregate;
+
+import com.trading.journal.entry.entries.EntryRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class AggregateServiceTest {
+
+    @Mock
+    EntryRepository repository;
+
+    @Mock
+    DailyRollupRepository dailyRollupRepository;
+
+    @Mock
+    TradeStatsRepository tradeStatsRepository;
+
+    @InjectMocks
+    AggregateService aggregateService;
+
+    @DisplayName("Aggregate period binds the journal and the page as values and returns the groups nested in their period")
+    @Test
+    void aggregatePeriod() {
+        PeriodAggregatedQueryResult result = new PeriodAggregatedQueryResult(List.of(
+                new PeriodAggregated("2022-01", List.of(new PeriodItem(BigDecimal.TEN, 2, "2022-01-02"), new PeriodItem(BigDecimal.ONE, 1, "2022-01-01"))),
+                new PeriodAggregated("2021-12", List.of(new PeriodItem(BigDecimal.ONE, 1, "2021-12-31")))
+        ), 2L);
+        when(dailyRollupRepository.aggregate(any(Aggregation.class), eq(PeriodAggregatedQueryResult.class))).thenReturn(List.of(result));
+
+        String journalId = "1' } }, { $match: {";
+        PeriodAggregatedResult periods = aggregateService.aggregatePeriod(journalId, new AggregateTrade(AggregateType.DAY, 2L, 10L));
+
+        assertThat(periods.getTotal()).isEqualTo(2L);
+        assertThat(periods.getItems()).extracting(PeriodAggregated::getGroup).containsExactly("2022-01", "2021-12");
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(dailyRollupRepository).aggregate(aggregation.capture(), eq(PeriodAggregatedQueryResult.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertThat(pipeline.get(0)).isEqualTo(new Document("$match", new Document("journalId", journalId)));
+        assertThat(pipeline.get(2)).isEqualTo(Document.parse("{ $group: { _id: { " +
+                "period: { $dateToString: { format: '%Y-%m', date: '$date' } }, " +
+                "group: { $dateToString: { format: '%Y-%m-%d', date: '$date' } } }, " +
+                "result: { $sum: '$result' }, count: { $sum: '$count' } } }"));
+        assertThat(pipeline.get(3)).isEqualTo(new Document("$sort", new Document("_id.group", -1)));
+        assertThat(pipeline.get(4)).isEqualTo(Document.parse("{ $group: { _id: '$_id.period', " +
+                "items: { $push: { group: '$_id.group', result: { $round: ['$result', 2] }, count: '$count' } } } }"));
+        assertThat(pipeline.get(5)).isEqualTo(new Document("$sort", new Document("_id", -1)));
+        Document facet = pipeline.get(7).get("$facet", Document.class);
+        assertThat(facet.getList("result", Document.class)).containsExactly(new Document("$skip", 20L), new Document("$limit", 10L));
+        assertThat(facet.getList("totalCount", Document.class)).containsExactly(new Document("$count", "count"));
+    }
+
+    @DisplayName("Weeks are nested in the month of their Wednesday and months in their year")
+    @Test
+    void aggregatePeriodOuterGroups() {
+        when(dailyRollupRepository.aggregate(any(Aggregation.class), eq(PeriodAggregatedQueryResult.class))).thenReturn(emptyList());
+
+        aggregateService.aggregatePeriod("1", new AggregateTrade(AggregateType.WEEK, 0L, 10L));
+        aggregateService.aggregatePeriod("1", new AggregateTrade(AggregateType.MONTH, 0L, 10L));
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(dailyRollupRepository, times(2)).aggregate(aggregation.capture(), eq(PeriodAggregatedQueryResult.class));
+
+        Document week = aggregation.getAllValues().get(0).toPipeline(Aggregation.DEFAULT_CONTEXT).get(2)
+                .get("$group", Document.class).get("_id", Document.class);
+        assertThat(week.getEmbedded(List.of("group", "$dateToString", "format"), String.class)).isEqualTo("%Y-%U");
+        assertThat(week.getEmbedded(List.of("period", "$dateToString", "format"), String.class)).isEqualTo("%Y-%m");
+        assertThat(week.getEmbedded(List.of("period", "$dateToString", "date"), Document.class)).containsKey("$min");
+
+        Document month = aggregation.getAllValues().get(1).toPipeline(Aggregation.DEFAULT_CONTEXT).get(2)
+                .get("$group", Document.class).get("_id", Document.class);
+        assertThat(month.getEmbedded(List.of("group", "$dateToString", "format"), String.class)).isEqualTo("%Y-%m");
+        assertThat(month.getEmbedded(List.of("period", "$dateToString", "format"), String.class)).isEqualTo("%Y");
+        assertThat(month.getEmbedded(List.of("period", "$dateToString", "date"), String.class)).isEqualTo("$date");
+    }
+
+    @DisplayName("Aggregate period without rollups is empty")
+    @Test
+    void aggregatePeriodEmpty() {
+        when(dailyRollupRepository.aggregate(any(Aggregation.class), eq(PeriodAggregatedQueryResult.class))).thenReturn(emptyList());
+
+        PeriodAggregatedResult periods = aggregateService.aggregatePeriod("1", new AggregateTrade(AggregateType.DAY, 0L, 10L));
+
+        assertThat(periods.getItems()).isEmpty();
+        assertThat(periods.getTotal()).isZero();
+    }
+
+    @DisplayName("Aggregate period of a journal without rollups yet groups its trades with the same stages")
+    @Test
+    void aggregatePeriodFromTrades() {
+        PeriodAggregatedQueryResult result = new PeriodAggregatedQueryResult(List.of(
+                new PeriodAggregated("2022-01", List.of(new PeriodItem(BigDecimal.TEN, 2, "2022-01-02")))
+        ), 1L);
+        when(dailyRollupRepository.aggregate(any(Aggregation.class), eq(PeriodAggregatedQueryResult.class))).thenReturn(emptyList());
+        when(repository.aggregate(any(Aggregation.class), eq(PeriodAggregatedQueryResult.class))).thenReturn(List.of(result));
+
+        PeriodAggregatedResult periods = aggregateService.aggregatePeriod("1", new AggregateTrade(AggregateType.DAY, 0L, 10L));
+
+        assertThat(periods.getTotal()).isEqualTo(1L);
+        assertThat(periods.getItems()).extracting(PeriodAggregated::getGroup).containsExactly("2022-01");
+
+        ArgumentCaptor<Aggregation> rollups = ArgumentCaptor.forClass(Aggregation.class);
+        verify(dailyRollupRepository).aggregate(rollups.capture(), eq(PeriodAggregatedQueryResult.class));
+        ArgumentCaptor<Aggregation> trades = ArgumentCaptor.forClass(Aggregation.class);
+        verify(repository).aggregate(trades.capture(), eq(PeriodAggregatedQueryResult.class));
+        List<Document> pipeline = trades.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(pipeline.get(0)).isEqualTo(new Document("$match", new Document("journalId", "1").append("type", "TRADE")));
+        assertThat(pipeline.get(1)).isEqualTo(Document.parse("{ $addFields: { result: { $ifNull: ['$netResult', 0] }, count: 1 } }"));
+        assertThat(pipeline.subList(2, pipeline.size()))
+                .isEqualTo(rollups.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).subList(2, pipeline.size()));
+    }
+
+    @DisplayName("Aggregate period of a journal with rollups does not read its trades")
+    @Test
+    void aggregatePeriodNoFallback() {
+        PeriodAggregatedQueryResult result = new PeriodAggregatedQueryResult(List.of(
+                new PeriodAggregated("2022-01", List.of(new PeriodItem(BigDecimal.TEN, 2, "2022-01-02")))
+        ), 1L);
+        when(dailyRollupRepository.aggregate(any(Aggregation.class), eq(PeriodAggregatedQueryResult.class))).thenReturn(List.of(result));
+
+        aggregateService.aggregatePeriod("1", new AggregateTrade(AggregateType.DAY, 0L, 10L));
+
+        verify(repository, never()).aggregate(any(Aggregation.class), eq(PeriodAggregatedQueryResult.class));
+    }
+
+    @DisplayName("Statistics of the whole journal come from its stats document")
+    @Test
+    void statistics() {
+        TradeStats stats = new TradeStats("1", "1", BigDecimal.valueOf(150), 6, 3, 2, BigDecimal.valueOf(300), BigDecimal.valueOf(-150));
+        when(tradeStatsRepository.getById("1")).thenReturn(Optional.of(stats));
+
+        TradeStatistics statistics = aggregateService.statistics("1", null, null);
+
+        assertThat(statistics.getTrades()).isEqualTo(6);
+        assertThat(statistics.getClosed()).isEqualTo(5);
+        assertThat(statistics.getNetResult()).isEqualTo(new BigDecimal("150.00"));
+        assertThat(statistics.getWinRate()).isEqualTo(new BigDecimal("60.00"));
+        assertThat(statistics.getAverageWin()).isEqualTo(new BigDecimal("100.00"));
+        assertThat(statistics.getAverageLoss()).isEqualTo(new BigDecimal("-75.00"));
+        assertThat(statistics.getExpectancy()).isEqualTo(new BigDecimal("30.00"));
+        assertThat(statistics.getProfitFactor()).isEqualTo(new BigDecimal("2.00"));
+        verify(dailyRollupRepository, never()).aggregate(any(Aggregation.class), eq(TradeStats.class));
+    }
+
+    @DisplayName("Statistics of a journal without closed trades have no averages nor ratios")
+    @Test
+    void statisticsEmpty() {
+        when(tradeStatsRepository.getById("1")).thenReturn(Optional.empty());
+
+        TradeStatistics statistics = aggregateService.statistics("1", null, null);
+
+        assertThat(statistics.getTrades()).isZero();
+        assertThat(statistics.getNetResult()).isEqualTo(new BigDecimal("0.00"));
+        assertThat(statistics.getWinRate()).isNull();
+        assertThat(statistics.getAverageWin()).isNull();
+        assertThat(statistics.getAverageLoss()).isNull();
+        assertThat(statistics.getExpectancy()).isNull();
+        assertThat(statistics.getProfitFactor()).isNull();
+    }
+
+    @DisplayName("Statistics of a date range are summed from the daily rollups of the days in it")
+    @Test
+    void statisticsRange() {
+        TradeStats stats = new TradeStats(null, null, BigDecimal.valueOf(100), 2, 2, 0, BigDecimal.valueOf(100), BigDecimal.ZERO);
+        when(dailyRollupRepository.aggregate(any(Aggregation.class), eq(TradeStats.class))).thenReturn(List.of(stats));
+
+        TradeStatistics statistics = aggregateService.statistics("1", LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 31));
+
+        assertThat(statistics.getWinRate()).isEqualTo(new BigDecimal("100.00"));
+        assertThat(statistics.getProfitFactor()).isNull();
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(dailyRollupRepository).aggregate(aggregation.capture(), eq(TradeStats.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(pipeline.get(0)).isEqualTo(new Document("$match", new Document("journalId", "1")
+                .append("$and", List.of(new Document("day", new Document("$gte", "2022-01-01").append("$lte", "2022-01-31"))))));
+        assertThat(pipeline.get(1).get("$group", Document.class).get("_id")).isNull();
+        verify(tradeStatsRepository, never()).getById(any());
+    }
+
+    @DisplayName("Aggregate trades matches the date range and pushes the trades of each day")
+    @Test
+    void aggregateTrades() {
+        when(repository.aggregate(any(Aggregation.class), eq(TradesAggregated.class))).thenReturn(emptyList());
+
+        aggregateService.aggregateTrades("1", new AggregateTrade("2022-01-01 00:00:00", "2022-01-31 23:59:59"));
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(repository).aggregate(aggregation.capture(), eq(TradesAggregated.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertThat(pipeline.get(1)).isEqualTo(new Document("$match", new Document("date",
+                new Document("$gte", LocalDateTime.of(2022, 1, 1, 0, 0, 0)).append("$lte", LocalDateTime.of(2022, 1, 31, 23, 59, 59)))));
+        assertThat(pipeline.get(2)).isEqualTo(Document.parse("{ $group: { _id: { $dateToString: { format: '%Y-%m-%d', date: '$date'} }, " +
+                "items: { $push: {'tradeId':{ $convert: { input: '$_id', to: 'string' } }, 'symbol' : '$symbol', " +
+                "order: { $dateToString: { format: '%Y-%m-%d %H:%M:%S', date: '$date'} } , " +
+                "'date':'$date', 'exitDate':'$exitDate', 'netResult':'$netResult'} } } }"));
+    }
+}
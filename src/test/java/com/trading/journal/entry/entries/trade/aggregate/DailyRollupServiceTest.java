@@ -0,0 +1,278 @@
+package com.trading.journal.entry.entries.trade.aggregate;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.entries.EntryType;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class DailyRollupServiceTest {
+
+    private static final String JOURNAL_ID = "journal";
+
+    @Mock
+    DailyRollupRepository repository;
+
+    @Mock
+    TradeStatsRepository tradeStatsRepository;
+
+    @Mock
+    MongoOperations mongoOperations;
+
+    @Mock
+    IndexOperations indexOperations;
+
+    @InjectMocks
+    DailyRollupService dailyRollupService;
+
+    @DisplayName("A new winning trade is added to its day")
+    @Test
+    void newTrade() {
+        dailyRollupService.applyEntryChange(null, trade(LocalDateTime.of(2022, 1, 1, 12, 0), BigDecimal.valueOf(100)));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(repository).upsert(eq(byId("journal:2022-01-01")), update.capture());
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc.get("result")).isEqualTo(BigDecimal.valueOf(100));
+        assertThat(inc.get("count")).isEqualTo(1L);
+        assertThat(inc.get("wins")).isEqualTo(1L);
+        assertThat(inc.get("losses")).isEqualTo(0L);
+        assertThat(inc.get("grossProfit")).isEqualTo(BigDecimal.valueOf(100));
+        assertThat(inc.get("grossLoss")).isEqualTo(BigDecimal.ZERO);
+        Document setOnInsert = update.getValue().getUpdateObject().get("$setOnInsert", Document.class);
+        assertThat(setOnInsert.get("journalId")).isEqualTo(JOURNAL_ID);
+        assertThat(setOnInsert.get("day")).isEqualTo("2022-01-01");
+        verify(repository, never()).delete(any(Query.class));
+
+        ArgumentCaptor<Update> stats = ArgumentCaptor.forClass(Update.class);
+        verify(tradeStatsRepository).upsert(eq(byId(JOURNAL_ID)), stats.capture());
+        assertThat(stats.getValue().getUpdateObject().get("$inc")).isEqualTo(inc);
+        assertThat(stats.getValue().getUpdateObject().get("$setOnInsert", Document.class)).isEqualTo(new Document("journalId", JOURNAL_ID));
+    }
+
+    @DisplayName("Closing an open trade on the same day only changes the result and the wins or losses of the day")
+    @Test
+    void closeTrade() {
+        Entry open = trade(LocalDateTime.of(2022, 1, 1, 12, 0), null);
+        Entry closed = trade(LocalDateTime.of(2022, 1, 1, 12, 0), BigDecimal.valueOf(-50));
+
+        dailyRollupService.applyEntryChange(open, closed);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(repository).upsert(eq(byId("journal:2022-01-01")), update.capture());
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc.get("result")).isEqualTo(BigDecimal.valueOf(-50));
+        assertThat(inc.get("count")).isEqualTo(0L);
+        assertThat(inc.get("wins")).isEqualTo(0L);
+        assertThat(inc.get("losses")).isEqualTo(1L);
+        assertThat(inc.get("grossProfit")).isEqualTo(BigDecimal.ZERO);
+        assertThat(inc.get("grossLoss")).isEqualTo(BigDecimal.valueOf(-50));
+        verify(repository, never()).delete(any(Query.class));
+        verify(tradeStatsRepository).upsert(eq(byId(JOURNAL_ID)), any(Update.class));
+    }
+
+    @DisplayName("Saving a trade without changing the date or the result does not touch the rollups")
+    @Test
+    void unchangedTrade() {
+        Entry previous = trade(LocalDateTime.of(2022, 1, 1, 12, 0), BigDecimal.valueOf(100));
+        Entry current = trade(LocalDateTime.of(2022, 1, 1, 12, 0), BigDecimal.valueOf(100));
+
+        dailyRollupService.applyEntryChange(previous, current);
+
+        verify(repository, never()).upsert(any(), any());
+        verify(tradeStatsRepository, never()).upsert(any(), any());
+    }
+
+    @DisplayName("Moving a trade to another day removes it from the old day and adds it to the new one, without changing the journal stats")
+    @Test
+    void moveTrade() {
+        Entry previous = trade(LocalDateTime.of(2022, 1, 1, 12, 0), BigDecimal.valueOf(100));
+        Entry current = trade(LocalDateTime.of(2022, 1, 2, 12, 0), BigDecimal.valueOf(100));
+
+        dailyRollupService.applyEntryChange(previous, current);
+
+        verify(repository).upsert(eq(byId("journal:2022-01-01")), any(Update.class));
+        verify(repository).upsert(eq(byId("journal:2022-01-02")), any(Update.class));
+        verify(repository).delete(any(Query.class));
+        verify(tradeStatsRepository, never()).upsert(any(), any());
+    }
+
+    @DisplayName("Deleting a trade removes it from the day and removes the day when it has no more trades")
+    @Test
+    void deleteTrade() {
+        dailyRollupService.applyEntryChange(trade(LocalDateTime.of(2022, 1, 1, 12, 0), BigDecimal.valueOf(100)), null);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(repository).upsert(eq(byId("journal:2022-01-01")), update.capture());
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc.get("result")).isEqualTo(BigDecimal.valueOf(-100));
+        assertThat(inc.get("count")).isEqualTo(-1L);
+        assertThat(inc.get("wins")).isEqualTo(-1L);
+
+        ArgumentCaptor<Query> delete = ArgumentCaptor.forClass(Query.class);
+        verify(repository).delete(delete.capture());
+        assertThat(delete.getValue().getQueryObject())
+                .isEqualTo(new Document("_id", "journal:2022-01-01").append("count", new Document("$lte", 0)));
+
+        verify(tradeStatsRepository).upsert(eq(byId(JOURNAL_ID)), any(Update.class));
+        verify(tradeStatsRepository).delete(new Query(Criteria.where("_id").is(JOURNAL_ID).and("count").lte(0)));
+    }
+
+    @DisplayName("New entries are summed by day and the journal stats are written once")
+    @Test
+    void newEntries() {
+        dailyRollupService.applyNewEntries(List.of(
+                trade(LocalDateTime.of(2022, 1, 1, 10, 0), BigDecimal.valueOf(100)),
+                trade(LocalDateTime.of(2022, 1, 1, 12, 0), BigDecimal.valueOf(-40)),
+                trade(LocalDateTime.of(2022, 1, 2, 12, 0), BigDecimal.valueOf(10)),
+                Entry.builder().journalId(JOURNAL_ID).type(EntryType.DEPOSIT).netResult(BigDecimal.TEN).date(LocalDateTime.of(2022, 1, 3, 12, 0)).build()
+        ));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(repository).upsert(eq(byId("journal:2022-01-01")), update.capture());
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc.get("result")).isEqualTo(BigDecimal.valueOf(60));
+        assertThat(inc.get("count")).isEqualTo(2L);
+        assertThat(inc.get("wins")).isEqualTo(1L);
+        assertThat(inc.get("losses")).isEqualTo(1L);
+        verify(repository).upsert(eq(byId("journal:2022-01-02")), any(Update.class));
+        verify(repository, times(2)).upsert(any(), any());
+
+        ArgumentCaptor<Update> stats = ArgumentCaptor.forClass(Update.class);
+        verify(tradeStatsRepository).upsert(eq(byId(JOURNAL_ID)), stats.capture());
+        Document statsInc = stats.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(statsInc.get("count")).isEqualTo(3L);
+        assertThat(statsInc.get("grossProfit")).isEqualTo(BigDecimal.valueOf(110));
+        assertThat(statsInc.get("grossLoss")).isEqualTo(BigDecimal.valueOf(-40));
+    }
+
+    @DisplayName("Trades closed at once change each day only once with the results and keep the count")
+    @Test
+    void entryChanges() {
+        LocalDateTime morning = LocalDateTime.of(2022, 1, 1, 10, 0);
+        LocalDateTime noon = LocalDateTime.of(2022, 1, 1, 12, 0);
+        dailyRollupService.applyEntryChanges(
+                List.of(trade(morning, null), trade(noon, null)),
+                List.of(trade(morning, BigDecimal.valueOf(30)), trade(noon, BigDecimal.valueOf(-10))));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(repository).upsert(eq(byId("journal:2022-01-01")), update.capture());
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc.get("result")).isEqualTo(BigDecimal.valueOf(20));
+        assertThat(inc.get("count")).isEqualTo(0L);
+        assertThat(inc.get("wins")).isEqualTo(1L);
+        assertThat(inc.get("losses")).isEqualTo(1L);
+        verify(repository, times(1)).upsert(any(), any());
+        verify(tradeStatsRepository, times(1)).upsert(eq(byId(JOURNAL_ID)), any(Update.class));
+    }
+
+    @DisplayName("Entries that are not trades are not rolled up")
+    @Test
+    void notTrade() {
+        Entry deposit = Entry.builder().journalId(JOURNAL_ID).type(EntryType.DEPOSIT).netResult(BigDecimal.TEN)
+                .date(LocalDateTime.of(2022, 1, 1, 12, 0)).build();
+
+        dailyRollupService.applyEntryChange(null, deposit);
+
+        verify(repository, never()).upsert(any(), any());
+    }
+
+    @DisplayName("Rebuild the tenancy rollups from its entries and the stats from the rollups, each into a temporary collection renamed over the live one")
+    @Test
+    void rebuild() {
+        MongoCollection<Document> rollups = mockCollection("One_daily_rollups_rebuild");
+        MongoCollection<Document> stats = mockCollection("One_trade_stats_rebuild");
+        rebuildMocks();
+        when(mongoOperations.collectionExists(anyString())).thenReturn(true);
+        when(mongoOperations.getCollection("One_daily_rollups_rebuild")).thenReturn(rollups);
+        when(mongoOperations.getCollection("One_trade_stats_rebuild")).thenReturn(stats);
+
+        dailyRollupService.rebuild("One_entries");
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoOperations).aggregate(aggregation.capture(), eq("One_entries"), eq(Document.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(pipeline.get(0)).isEqualTo(new Document("$match", new Document("type", "TRADE")));
+        assertThat(pipeline.get(pipeline.size() - 1).get("$out")).isEqualTo("One_daily_rollups_rebuild");
+        verify(mongoOperations).dropCollection("One_daily_rollups_rebuild");
+        verify(mongoOperations).indexOps("One_daily_rollups_rebuild");
+
+        ArgumentCaptor<RenameCollectionOptions> options = ArgumentCaptor.forClass(RenameCollectionOptions.class);
+        verify(rollups).renameCollection(eq(new MongoNamespace("journal", "One_daily_rollups")), options.capture());
+        assertThat(options.getValue().isDropTarget()).isTrue();
+
+        verify(mongoOperations).aggregate(aggregation.capture(), eq("One_daily_rollups"), eq(Document.class));
+        List<Document> statsPipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(statsPipeline.get(0).get("$group", Document.class).get("_id")).isEqualTo("$journalId");
+        assertThat(statsPipeline.get(statsPipeline.size() - 1).get("$out")).isEqualTo("One_trade_stats_rebuild");
+        verify(stats).renameCollection(eq(new MongoNamespace("journal", "One_trade_stats")), any(RenameCollectionOptions.class));
+        verify(mongoOperations, never()).dropCollection("One_daily_rollups");
+    }
+
+    @DisplayName("Rebuild without trades leaves no rollups")
+    @Test
+    void rebuildEmpty() {
+        rebuildMocks();
+        when(mongoOperations.collectionExists(anyString())).thenReturn(false);
+
+        dailyRollupService.rebuild("One_entries");
+
+        verify(mongoOperations).dropCollection("One_daily_rollups");
+        verify(mongoOperations).dropCollection("One_trade_stats");
+        verify(mongoOperations, never()).getCollection(anyString());
+    }
+
+    private void rebuildMocks() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(emptyList()).getSimpleTypeHolder());
+        when(mongoOperations.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoOperations.getCollectionName(DailyRollup.class)).thenReturn("daily_rollups");
+        when(mongoOperations.getCollectionName(TradeStats.class)).thenReturn("trade_stats");
+        when(mongoOperations.indexOps(anyString())).thenReturn(indexOperations);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCollection<Document> mockCollection(String name) {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        when(collection.getNamespace()).thenReturn(new MongoNamespace("journal", name));
+        return collection;
+    }
+
+    private static Entry trade(LocalDateTime date, BigDecimal netResult) {
+        return Entry.builder().journalId(JOURNAL_ID).type(EntryType.TRADE).date(date).netResult(netResult).build();
+    }
+
+    private static Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+}
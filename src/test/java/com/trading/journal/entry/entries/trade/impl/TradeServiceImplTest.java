@@ -1,25 +1,57 @@
 package com.trading.journal.entry.entries.trade.impl;
 
+import com.trading.journal.entry.ApplicationException;
+import com.trading.journal.entry.balance.Balance;
+import com.trading.journal.entry.balance.BalanceService;
 import com.trading.journal.entry.entries.*;
 import com.trading.journal.entry.entries.trade.CloseTrade;
+import com.trading.journal.entry.entries.trade.CloseTrades;
+import com.trading.journal.entry.entries.trade.ClosingTrade;
 import com.trading.journal.entry.entries.trade.Symbol;
 import com.trading.journal.entry.entries.trade.Trade;
+import com.trading.journal.entry.entries.trade.TradeMapper;
+import com.trading.journal.entry.balance.impl.BalanceServiceImpl;
+import com.trading.journal.entry.entries.impl.EntryServiceImpl;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupRepository;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupService;
+import com.trading.journal.entry.entries.trade.aggregate.TradeStatsRepository;
+import com.trading.journal.entry.journal.Journal;
+import com.trading.journal.entry.journal.JournalRepository;
+import com.trading.journal.entry.journal.impl.JournalCache;
+import com.trading.journal.entry.journal.impl.JournalServiceImpl;
+import com.trading.journal.entry.queries.ConcurrentPageQuery;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -33,6 +65,15 @@ class TradeServiceImplTest {
     @Mock
     EntryRepository repository;
 
+    @Mock
+    BalanceService balanceService;
+
+    @Mock
+    DailyRollupService dailyRollupService;
+
+    @Mock
+    EntryRecalculationService entryRecalculationService;
+
     @InjectMocks
     TradeServiceImpl tradeService;
 
@@ -172,6 +213,155 @@ class TradeServiceImplTest {
         assertThat(entryCreated).isNotNull();
     }
 
+    @DisplayName("Close a trade reads the journal once and writes its balance once")
+    @Test
+    void closeJournalReads() {
+        JournalRepository journalRepository = mock(JournalRepository.class);
+        JournalServiceImpl journalService = new JournalServiceImpl(journalRepository, repository, mock(DailyRollupRepository.class),
+                mock(TradeStatsRepository.class), new JournalCache(new SimpleMeterRegistry(), Duration.ofMinutes(1)));
+        EntryServiceImpl entries = new EntryServiceImpl(repository, new BalanceServiceImpl(repository, journalService),
+                mock(ConcurrentPageQuery.class), dailyRollupService, entryRecalculationService);
+        TradeServiceImpl service = new TradeServiceImpl(entries, repository, balanceService, dailyRollupService, entryRecalculationService);
+
+        Entry open = openTrade("1", "MSFT");
+        when(repository.getById("1")).thenReturn(Optional.of(open));
+        when(repository.updateExcept(any(Entry.class), eq("images"))).thenReturn(1L);
+        when(journalRepository.getById(JOURNAL_ID)).thenReturn(Optional.of(Journal.builder().id(JOURNAL_ID).name("journal")
+                .startBalance(BigDecimal.valueOf(1000)).version(1L)
+                .currentBalance(Balance.builder().accountBalance(BigDecimal.valueOf(1000)).available(BigDecimal.valueOf(900))
+                        .openedPositions(BigDecimal.valueOf(100)).build())
+                .build()));
+        when(journalRepository.update(any(), any())).thenReturn(1L);
+
+        service.close("1", new CloseTrade(BigDecimal.valueOf(110), LocalDateTime.of(2022, 9, 22, 10, 0, 0)));
+
+        verify(journalRepository).getById(JOURNAL_ID);
+        verify(journalRepository).update(any(), any());
+        verifyNoMoreInteractions(journalRepository);
+    }
+
+    @DisplayName("Close many trades with one query and one bulk write, in the order of their exit date with the running balance")
+    @Test
+    void closeAll() {
+        Entry msft = openTrade("1", "MSFT");
+        Entry aapl = openTrade("2", "AAPL");
+        when(repository.find(any(Query.class))).thenReturn(List.of(msft, aapl));
+        when(balanceService.getCurrentBalance(JOURNAL_ID)).thenReturn(Balance.builder().accountBalance(BigDecimal.valueOf(1000)).build());
+        when(repository.bulkUpdate(anyList())).thenReturn(2);
+
+        CloseTrades trades = new CloseTrades(List.of(
+                new ClosingTrade("1", BigDecimal.valueOf(110), LocalDateTime.of(2022, 9, 22, 10, 0, 0)),
+                new ClosingTrade("2", BigDecimal.valueOf(95), LocalDateTime.of(2022, 9, 21, 10, 0, 0))
+        ));
+        List<Entry> closed = tradeService.closeAll(JOURNAL_ID, trades);
+
+        assertThat(closed).extracting(Entry::getId).containsExactly("2", "1");
+        assertThat(closed.get(0).getNetResult()).isEqualByComparingTo(BigDecimal.valueOf(-5));
+        assertThat(closed.get(0).getAccountBalance()).isEqualByComparingTo(BigDecimal.valueOf(995));
+        assertThat(closed.get(1).getNetResult()).isEqualByComparingTo(BigDecimal.valueOf(10));
+        assertThat(closed.get(1).getAccountBalance()).isEqualByComparingTo(BigDecimal.valueOf(1005));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(repository).find(query.capture());
+        assertThat(query.getValue().getQueryObject().get("_id", Document.class).getList("$in", String.class)).containsExactly("1", "2");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Pair<Query, UpdateDefinition>>> updates = ArgumentCaptor.forClass(List.class);
+        verify(repository).bulkUpdate(updates.capture());
+        assertThat(updates.getValue()).hasSize(2);
+        Pair<Query, UpdateDefinition> aaplUpdate = updates.getValue().get(0);
+        assertThat(aaplUpdate.getFirst().getQueryObject()).isEqualTo(new Document("_id", "2").append("netResult", new Document("$exists", false)));
+        Document set = aaplUpdate.getSecond().getUpdateObject().get("$set", Document.class);
+        assertThat(set.keySet()).containsExactlyInAnyOrder("exitPrice", "exitDate", "accountRisked", "plannedRR",
+                "grossResult", "netResult", "accountChange", "accountBalance");
+        assertThat(set.get("exitDate")).isEqualTo(LocalDateTime.of(2022, 9, 21, 10, 0, 0));
+        assertThat((BigDecimal) set.get("accountBalance")).isEqualByComparingTo(BigDecimal.valueOf(995));
+        verify(balanceService).applyEntryChanges(JOURNAL_ID, List.of(aapl, msft), closed);
+        verify(dailyRollupService).applyEntryChanges(List.of(aapl, msft), closed);
+        verify(entryRecalculationService).recalculateFrom(JOURNAL_ID, LocalDateTime.of(2022, 9, 20, 15, 30, 50));
+        verify(entryService, never()).save(any());
+    }
+
+    @DisplayName("Close many trades calculates again the entries after the earliest trade once and returns the trades recalculated")
+    @Test
+    void closeAllRecalculated() {
+        Entry msft = openTrade("1", "MSFT");
+        Entry aapl = openTrade("2", "AAPL", LocalDateTime.of(2022, 9, 19, 10, 0, 0));
+        when(balanceService.getCurrentBalance(JOURNAL_ID)).thenReturn(Balance.builder().accountBalance(BigDecimal.valueOf(1000)).build());
+        when(repository.bulkUpdate(anyList())).thenReturn(2);
+        when(entryRecalculationService.recalculateFrom(JOURNAL_ID, aapl.getDate())).thenReturn(3L);
+        Entry msftRecalculated = openTrade("1", "MSFT");
+        msftRecalculated.setAccountBalance(BigDecimal.valueOf(1020));
+        Entry aaplRecalculated = openTrade("2", "AAPL");
+        aaplRecalculated.setAccountBalance(BigDecimal.valueOf(1010));
+        when(repository.find(any(Query.class))).thenReturn(List.of(msft, aapl), List.of(msftRecalculated, aaplRecalculated));
+
+        CloseTrades trades = new CloseTrades(List.of(
+                new ClosingTrade("1", BigDecimal.valueOf(110), LocalDateTime.of(2022, 9, 22, 10, 0, 0)),
+                new ClosingTrade("2", BigDecimal.valueOf(95), LocalDateTime.of(2022, 9, 21, 10, 0, 0))
+        ));
+        List<Entry> closed = tradeService.closeAll(JOURNAL_ID, trades);
+
+        assertThat(closed).containsExactly(aaplRecalculated, msftRecalculated);
+        verify(entryRecalculationService).recalculateFrom(JOURNAL_ID, aapl.getDate());
+    }
+
+    @DisplayName("Close many trades fails without writing when a trade is missing, already closed or repeated")
+    @Test
+    void closeAllInvalid() {
+        Entry closedTrade = openTrade("2", "AAPL");
+        closedTrade.setNetResult(BigDecimal.TEN);
+        when(repository.find(any(Query.class))).thenReturn(List.of(openTrade("1", "MSFT"), closedTrade));
+        LocalDateTime exitDate = LocalDateTime.of(2022, 9, 22, 10, 0, 0);
+
+        CloseTrades missing = new CloseTrades(List.of(new ClosingTrade("1", BigDecimal.TEN, exitDate), new ClosingTrade("3", BigDecimal.TEN, exitDate)));
+        assertThatThrownBy(() -> tradeService.closeAll(JOURNAL_ID, missing))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Trades not found: 3");
+
+        CloseTrades closed = new CloseTrades(List.of(new ClosingTrade("1", BigDecimal.TEN, exitDate), new ClosingTrade("2", BigDecimal.TEN, exitDate)));
+        assertThatThrownBy(() -> tradeService.closeAll(JOURNAL_ID, closed))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Trades already closed: 2");
+
+        CloseTrades repeated = new CloseTrades(List.of(new ClosingTrade("1", BigDecimal.TEN, exitDate), new ClosingTrade("1", BigDecimal.ONE, exitDate)));
+        assertThatThrownBy(() -> tradeService.closeAll(JOURNAL_ID, repeated))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("A trade can be closed only once in the same request");
+
+        verify(repository, never()).bulkUpdate(anyList());
+    }
+
+    @DisplayName("Close many trades when another request closed one of them first changes the balance only with the trades closed here")
+    @Test
+    void closeAllConflict() {
+        Entry msft = openTrade("1", "MSFT");
+        Entry aapl = openTrade("2", "AAPL");
+        Entry aaplClosedByOther = openTrade("2", "AAPL");
+        aaplClosedByOther.setNetResult(BigDecimal.ONE);
+        when(balanceService.getCurrentBalance(JOURNAL_ID)).thenReturn(Balance.builder().accountBalance(BigDecimal.valueOf(1000)).build());
+        when(repository.bulkUpdate(anyList())).thenReturn(1);
+        CloseTrades trades = new CloseTrades(List.of(
+                new ClosingTrade("1", BigDecimal.valueOf(110), LocalDateTime.of(2022, 9, 22, 10, 0, 0)),
+                new ClosingTrade("2", BigDecimal.valueOf(95), LocalDateTime.of(2022, 9, 21, 10, 0, 0))
+        ));
+        Entry msftClosed = TradeMapper.INSTANCE.toEntryFromClose(msft, new CloseTrade(BigDecimal.valueOf(110), LocalDateTime.of(2022, 9, 22, 10, 0, 0)));
+        msftClosed.setNetResult(BigDecimal.TEN);
+        msftClosed.setAccountBalance(BigDecimal.valueOf(1005));
+        when(repository.find(any(Query.class))).thenReturn(List.of(msft, aapl), List.of(msftClosed, aaplClosedByOther));
+
+        assertThatThrownBy(() -> tradeService.closeAll(JOURNAL_ID, trades))
+                .isInstanceOf(ApplicationException.class)
+                .hasMessageContaining("Trades closed by another request: 2")
+                .extracting("statusCode").isEqualTo(HttpStatus.CONFLICT);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Entry>> current = ArgumentCaptor.forClass(List.class);
+        verify(balanceService).applyEntryChanges(eq(JOURNAL_ID), eq(List.of(msft)), current.capture());
+        assertThat(current.getValue()).extracting(Entry::getId).containsExactly("1");
+        verify(dailyRollupService).applyEntryChanges(List.of(msft), current.getValue());
+        verify(entryRecalculationService).recalculateFrom(JOURNAL_ID, msft.getDate());
+    }
+
     @DisplayName("Count open trades")
     @Test
     void countOpen() {
@@ -194,4 +384,21 @@ class TradeServiceImplTest {
         List<Symbol> symbols = tradeService.symbols(JOURNAL_ID);
         assertThat(symbols).extracting(Symbol::getName).containsExactly("A", "b");
     }
-}
\ No newline at end of file
+
+    private static Entry openTrade(String id, String symbol) {
+        return openTrade(id, symbol, LocalDateTime.of(2022, 9, 20, 15, 30, 50));
+    }
+
+    private static Entry openTrade(String id, String symbol, LocalDateTime date) {
+        return Entry.builder()
+                .journalId(JOURNAL_ID)
+                .id(id)
+                .type(EntryType.TRADE)
+                .date(date)
+                .price(BigDecimal.valueOf(100))
+                .symbol(symbol)
+                .direction(EntryDirection.LONG)
+                .size(BigDecimal.ONE)
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.trading.journal.entry.journal.impl;
+
+import com.allanweber.jwttoken.data.AccessTokenInfo;
+import com.trading.journal.entry.balance.Balance;
+import com.trading.journal.entry.journal.Journal;
+import com.trading.journal.entry.queries.TokenRequestScope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalCacheTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void clear() {
+        TokenRequestScope.clear();
+    }
+
+    @DisplayName("Cached journal is returned and hits and misses are counted")
+    @Test
+    void get() {
+        JournalCache cache = new JournalCache(meterRegistry, Duration.ofMinutes(1));
+
+        assertThat(cache.get("1", loader("journal")).getName()).isEqualTo("journal");
+        assertThat(cache.get("1", loader("other")).getName()).isEqualTo("journal");
+        assertThat(cache.get("1", loader("other")).getName()).isEqualTo("journal");
+
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("journal.cache").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("journal.cache").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("Changes to a returned journal do not reach the cache")
+    @Test
+    void copy() {
+        JournalCache cache = new JournalCache(meterRegistry, Duration.ofMinutes(1));
+        Journal loaded = cache.get("1", loader("journal"));
+        loaded.setCurrentBalance(Balance.builder().accountBalance(BigDecimal.TEN).build());
+
+        Journal cached = cache.get("1", loader("journal"));
+        cached.setCurrentBalance(Balance.builder().accountBalance(BigDecimal.ONE).build());
+
+        assertThat(cache.get("1", loader("journal")).getCurrentBalance()).isNull();
+        assertThat(loads).hasValue(1);
+    }
+
+    @DisplayName("Cached journal is not returned after the ttl")
+    @Test
+    void expired() {
+        JournalCache cache = new JournalCache(meterRegistry, Duration.ZERO);
+        cache.get("1", loader("journal"));
+
+        assertThat(cache.get("1", loader("other")).getName()).isEqualTo("other");
+    }
+
+    @DisplayName("Cached journal is not returned after evicted")
+    @Test
+    void evict() {
+        JournalCache cache = new JournalCache(meterRegistry, Duration.ofMinutes(1));
+        cache.get("1", loader("journal"));
+        cache.evict("1");
+
+        assertThat(cache.get("1", loader("other")).getName()).isEqualTo("other");
+    }
+
+    @DisplayName("Journal loaded while it was evicted is not cached, it may have been read before the write that evicted it")
+    @Test
+    void evictedWhileLoading() {
+        JournalCache cache = new JournalCache(meterRegistry, Duration.ofMinutes(1));
+
+        Journal stale = cache.get("1", () -> {
+            Journal journal = loader("stale").get();
+            cache.evict("1");
+            return journal;
+        });
+
+        assertThat(stale.getName()).isEqualTo("stale");
+        assertThat(cache.get("1", loader("written")).getName()).isEqualTo("written");
+        assertThat(cache.get("1", loader("other")).getName()).isEqualTo("written");
+    }
+
+    @DisplayName("Journal loaded while another journal was evicted is cached")
+    @Test
+    void evictedOtherWhileLoading() {
+        JournalCache cache = new JournalCache(meterRegistry, Duration.ofMinutes(1));
+
+        cache.get("1", () -> {
+            Journal journal = loader("journal").get();
+            cache.evict("2");
+            return journal;
+        });
+
+        assertThat(cache.get("1", loader("other")).getName()).isEqualTo("journal");
+        assertThat(loads).hasValue(1);
+    }
+
+    @DisplayName("Journal written is cached without loading it, unless a later version of it is cached")
+    @Test
+    void update() {
+        JournalCache cache = new JournalCache(meterRegistry, Duration.ofMinutes(1));
+        cache.get("1", () -> Journal.builder().id("1").name("journal").version(1L).build());
+
+        cache.update("1", Journal.builder().id("1").name("written").version(3L).build());
+        cache.update("1", Journal.builder().id("1").name("older").version(2L).build());
+
+        assertThat(cache.get("1", loader("other")).getName()).isEqualTo("written");
+        assertThat(loads).hasValue(0);
+    }
+
+    @DisplayName("Journal loaded while it was written is not cached over the written one")
+    @Test
+    void updatedWhileLoading() {
+        JournalCache cache = new JournalCache(meterRegistry, Duration.ofMinutes(1));
+
+        cache.get("1", () -> {
+            Journal journal = loader("stale").get();
+            cache.update("1", Journal.builder().id("1").name("written").version(2L).build());
+            return journal;
+        });
+
+        assertThat(cache.get("1", loader("other")).getName()).isEqualTo("written");
+    }
+
+    @DisplayName("Same journal id of another tenancy is not returned")
+    @Test
+    void tenancy() {
+        JournalCache cache = new JournalCache(meterRegistry, Duration.ofMinutes(1));
+        TokenRequestScope.set(new AccessTokenInfo("user", 1L, "tenancy one", Collections.emptyList()));
+        cache.get("1", loader("journal"));
+
+        TokenRequestScope.set(new AccessTokenInfo("user", 2L, "tenancy two", Collections.emptyList()));
+
+        assertThat(cache.get("1", loader("other")).getName()).isEqualTo("other");
+    }
+
+    private Supplier<Journal> loader(String name) {
+        return () -> {
+            loads.incrementAndGet();
+            return Journal.builder().id("1").name(name).build();
+        };
+    }
+}
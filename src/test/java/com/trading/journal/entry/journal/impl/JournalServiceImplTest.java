@@ -3,22 +3,30 @@ package com.trading.journal.entry.journal.impl;
 import com.trading.journal.entry.ApplicationException;
 import com.trading.journal.entry.balance.Balance;
 import com.trading.journal.entry.entries.EntryRepository;
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupRepository;
+import com.trading.journal.entry.entries.trade.aggregate.TradeStatsRepository;
 import com.trading.journal.entry.journal.Currency;
 import com.trading.journal.entry.journal.Journal;
 import com.trading.journal.entry.journal.JournalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +34,7 @@ import java.util.Optional;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
@@ -37,9 +46,18 @@ class JournalServiceImplTest {
     @Mock
     EntryRepository entryRepository;
 
+    @Mock
+    DailyRollupRepository dailyRollupRepository;
+
+    @Mock
+    TradeStatsRepository tradeStatsRepository;
+
     @Mock
     MongoOperations mongoOperations;
 
+    @Spy
+    JournalCache journalCache = new JournalCache(new SimpleMeterRegistry(), Duration.ofMinutes(1));
+
     @InjectMocks
     JournalServiceImpl journalService;
 
@@ -61,6 +79,34 @@ class JournalServiceImplTest {
         assertThat(journal).isNotNull();
     }
 
+    @DisplayName("Get a journal by id twice reads the database only once")
+    @Test
+    void geByIdCached() {
+        Journal mockJournal = buildJournal("1", "journal", 1);
+        when(journalRepository.getById("1")).thenReturn(Optional.of(mockJournal));
+
+        Journal first = journalService.get("1");
+        Journal second = journalService.get("1");
+
+        assertThat(first.getName()).isEqualTo("journal");
+        assertThat(second.getName()).isEqualTo("journal");
+        verify(journalRepository).getById("1");
+    }
+
+    @DisplayName("Get a journal by id after a balance update reads the database again")
+    @Test
+    void geByIdAfterUpdate() {
+        Journal mockJournal = buildJournal("1", "journal", 1);
+        when(journalRepository.getById("1")).thenReturn(Optional.of(mockJournal));
+        when(journalRepository.update(any(), any())).thenReturn(1L);
+
+        journalService.get("1");
+        journalService.updateBalance("1", Balance.builder().accountBalance(BigDecimal.ONE).build());
+        journalService.get("1");
+
+        verify(journalRepository, times(2)).getById("1");
+    }
+
     @DisplayName("Get a journal by id does not exist")
     @Test
     void geByIdNotExist() {
@@ -75,10 +121,93 @@ class JournalServiceImplTest {
     @DisplayName("Save a journal")
     @Test
     void save() {
-        Journal mockJournal = buildJournal("1", "journal", 1);
+        Journal mockJournal = buildJournal(null, "journal", 1);
         when(journalRepository.save(mockJournal)).thenReturn(mockJournal);
         Journal journal = journalService.save(mockJournal);
         assertThat(journal).isNotNull();
+        assertThat(journal.getCurrentBalance()).isNotNull();
+    }
+
+    @DisplayName("Update a journal writes only its editable fields, keeping the current balance and its version")
+    @Test
+    void update() {
+        Journal toUpdate = buildJournal("1", "renamed", 1);
+        Journal stored = buildJournal("1", "renamed", 1);
+        when(journalRepository.update(any(), any())).thenReturn(1L);
+        when(journalRepository.getById("1")).thenReturn(Optional.of(stored));
+
+        Journal journal = journalService.save(toUpdate);
+
+        assertThat(journal).isSameAs(stored);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(journalRepository).update(eq(new Query(Criteria.where("_id").is("1").and("startBalance").is(BigDecimal.valueOf(1.0)))), update.capture());
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set).containsOnlyKeys("name", "startJournal", "startBalance", "currency");
+        assertThat(update.getValue().getUpdateObject()).containsOnlyKeys("$set");
+        verify(journalRepository, never()).save(any());
+    }
+
+    @DisplayName("Update a journal twice with the same values, the second update matches it without changing it")
+    @Test
+    void updateUnchanged() {
+        Journal stored = buildJournal("1", "journal", 1);
+        when(journalRepository.getById("1")).thenReturn(Optional.of(stored));
+        when(journalRepository.update(any(), any())).thenReturn(1L);
+
+        journalService.save(buildJournal("1", "journal", 1));
+        Journal journal = journalService.save(buildJournal("1", "journal", 1));
+
+        assertThat(journal).isSameAs(stored);
+        verify(journalRepository, times(2)).update(any(), any(Update.class));
+    }
+
+    @DisplayName("Update the start balance of a journal moves its current balance by the difference over the version it was read from")
+    @Test
+    void updateStartBalance() {
+        Journal stored = Journal.builder().id("1").name("journal").currency(Currency.DOLLAR).startJournal(LocalDateTime.now())
+                .startBalance(BigDecimal.valueOf(100)).version(4L)
+                .currentBalance(Balance.builder()
+                        .accountBalance(new BigDecimal("150.00")).available(new BigDecimal("120.00"))
+                        .closedPositions(new BigDecimal("50.00")).openedPositions(new BigDecimal("30.00"))
+                        .deposits(BigDecimal.ZERO).withdrawals(BigDecimal.ZERO).taxes(BigDecimal.ZERO)
+                        .build())
+                .build();
+        when(journalRepository.getById("1")).thenReturn(Optional.of(stored));
+        when(journalRepository.update(any(), any())).thenReturn(1L);
+        Journal toUpdate = Journal.builder().id("1").name("journal").currency(Currency.DOLLAR).startJournal(LocalDateTime.now())
+                .startBalance(BigDecimal.valueOf(130)).build();
+
+        journalService.save(toUpdate);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(journalRepository).update(eq(new Query(Criteria.where("_id").is("1").and("version").is(4L))), update.capture());
+        Balance balance = (Balance) update.getValue().getUpdateObject().get("$set", Document.class).get("currentBalance");
+        assertThat(balance.getAccountBalance()).isEqualByComparingTo("180.00");
+        assertThat(balance.getAvailable()).isEqualByComparingTo("150.00");
+        assertThat(balance.getClosedPositions()).isEqualByComparingTo("50.00");
+        assertThat(balance.getOpenedPositions()).isEqualByComparingTo("30.00");
+    }
+
+    @DisplayName("Update a journal whose start balance was changed by another request in between")
+    @Test
+    void updateStartBalanceConflict() {
+        when(journalRepository.getById("1")).thenReturn(Optional.of(buildJournal("1", "journal", 1)));
+        when(journalRepository.update(any(), any())).thenReturn(0L);
+
+        ApplicationException exception = assertThrows(ApplicationException.class, () -> journalService.save(buildJournal("1", "journal", 2)));
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @DisplayName("Update a journal that does not exist")
+    @Test
+    void updateNotFound() {
+        when(journalRepository.getById("1")).thenReturn(Optional.empty());
+
+        ApplicationException exception = assertThrows(ApplicationException.class, () -> journalService.save(buildJournal("1", "journal", 1)));
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        verify(journalRepository, never()).update(any(), any());
     }
 
     @DisplayName("Save a journal with same name throw an exception")
@@ -109,6 +238,10 @@ class JournalServiceImplTest {
         journalService.delete("123");
 
         verify(entryRepository).drop();
+        verify(dailyRollupRepository).delete(query);
+        verify(dailyRollupRepository).drop();
+        verify(tradeStatsRepository).delete(query);
+        verify(tradeStatsRepository).drop();
         verify(journalRepository).drop();
     }
 
@@ -125,6 +258,8 @@ class JournalServiceImplTest {
         journalService.delete("123");
 
         verify(entryRepository, never()).drop();
+        verify(dailyRollupRepository, never()).drop();
+        verify(tradeStatsRepository, never()).drop();
         verify(journalRepository, never()).drop();
     }
 
@@ -148,9 +283,6 @@ class JournalServiceImplTest {
     @DisplayName("Update balance")
     @Test
     void updateBalance() {
-        Journal saved = buildJournal("123", "saved", 100);
-        when(journalRepository.getById("123")).thenReturn(Optional.of(saved));
-
         Balance balance = Balance.builder()
                 .accountBalance(BigDecimal.ZERO)
                 .closedPositions(BigDecimal.ZERO)
@@ -159,29 +291,23 @@ class JournalServiceImplTest {
                 .taxes(BigDecimal.ZERO)
                 .build();
 
-        Journal toSave = Journal.builder()
-                .id(saved.getId())
-                .name(saved.getName())
-                .startBalance(saved.getStartBalance())
-                .currentBalance(balance)
-                .lastBalance(LocalDateTime.now())
-                .build();
-
-        when(journalRepository.save(argThat(journal ->
-                        journal.getId().equals(saved.getId()) &&
-                                journal.getName().equals(saved.getName()) &&
-                                journal.getStartBalance().equals(saved.getStartBalance()) &&
-                                journal.getCurrentBalance().equals(balance)
-                )
-        )).thenReturn(toSave);
+        Query query = new Query(Criteria.where("_id").is("123"));
+        when(journalRepository.update(eq(query), any())).thenReturn(1L);
 
         journalService.updateBalance("123", balance);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(journalRepository).update(eq(query), update.capture());
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class).get("currentBalance")).isEqualTo(balance);
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class).get("version")).isEqualTo(1);
+        verify(journalRepository, never()).getById(any());
+        verify(journalRepository, never()).save(any());
     }
 
     @DisplayName("Update balance journal id not found return exception")
     @Test
     void updateBalanceJournalNotFound() {
-        when(journalRepository.getById("123")).thenReturn(Optional.empty());
+        when(journalRepository.update(any(), any())).thenReturn(0L);
 
         Balance balance = Balance.builder()
                 .accountBalance(BigDecimal.ZERO)
@@ -199,6 +325,68 @@ class JournalServiceImplTest {
         verify(journalRepository, never()).save(any());
     }
 
+    @DisplayName("Change balance writes the changed balance only over the version it was read from")
+    @Test
+    void changeBalance() {
+        Journal journal = Journal.builder().id("123").name("journal").startBalance(BigDecimal.valueOf(100)).version(3L)
+                .currentBalance(Balance.builder().accountBalance(BigDecimal.ZERO).build())
+                .build();
+        when(journalRepository.getById("123")).thenReturn(Optional.of(journal));
+
+        Query query = new Query(Criteria.where("_id").is("123").and("version").is(3L));
+        when(journalRepository.update(eq(query), any())).thenReturn(1L);
+
+        Balance changed = journalService.changeBalance("123", balance -> Balance.builder().accountBalance(BigDecimal.TEN).build());
+
+        assertThat(changed.getAccountBalance()).isEqualTo(BigDecimal.TEN);
+        verify(journalRepository).update(eq(query), any());
+        verify(journalRepository, never()).save(any());
+    }
+
+    @DisplayName("Change balance reads the journal again when another update happened in between")
+    @Test
+    void changeBalanceRetry() {
+        Journal first = Journal.builder().id("123").name("journal").version(1L)
+                .currentBalance(Balance.builder().accountBalance(BigDecimal.ZERO).build())
+                .build();
+        Journal second = Journal.builder().id("123").name("journal").version(2L)
+                .currentBalance(Balance.builder().accountBalance(BigDecimal.ONE).build())
+                .build();
+        when(journalRepository.getById("123")).thenReturn(Optional.of(first), Optional.of(second));
+        when(journalRepository.update(any(), any())).thenReturn(0L, 1L);
+
+        Balance changed = journalService.changeBalance("123", balance -> Balance.builder().accountBalance(balance.getAccountBalance().add(BigDecimal.TEN)).build());
+
+        assertThat(changed.getAccountBalance()).isEqualTo(BigDecimal.valueOf(11));
+        verify(journalRepository, times(2)).getById("123");
+        verify(journalRepository).update(eq(new Query(Criteria.where("_id").is("123").and("version").is(2L))), any());
+    }
+
+    @DisplayName("Change balance gives up with a conflict after too many concurrent updates")
+    @Test
+    void changeBalanceConflict() {
+        when(journalRepository.getById("123")).thenReturn(Optional.of(buildJournal("123", "journal", 100)));
+        when(journalRepository.update(any(), any())).thenReturn(0L);
+
+        ApplicationException exception = assertThrows(ApplicationException.class, () -> journalService.changeBalance("123", balance -> balance));
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        verify(journalRepository, times(5)).update(any(), any());
+    }
+
+    @DisplayName("Change balance on a journal without balance starts from the start balance")
+    @Test
+    void changeBalanceWithoutBalance() {
+        Journal journal = Journal.builder().id("123").name("journal").startBalance(BigDecimal.valueOf(100)).build();
+        when(journalRepository.getById("123")).thenReturn(Optional.of(journal));
+        when(journalRepository.update(any(), any())).thenReturn(1L);
+
+        Balance changed = journalService.changeBalance("123", balance -> balance);
+
+        assertThat(changed.getAccountBalance()).isEqualTo(BigDecimal.valueOf(100).setScale(2, RoundingMode.HALF_EVEN));
+        assertThat(changed.getAvailable()).isEqualTo(BigDecimal.valueOf(100).setScale(2, RoundingMode.HALF_EVEN));
+    }
+
     private static Journal buildJournal(String id, String name, double balance) {
         return Journal.builder()
                 .id(id)
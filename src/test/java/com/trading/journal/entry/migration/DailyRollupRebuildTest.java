@@ -0,0 +1,78 @@
+package com.trading.journal.entry.migration;
+
+import com.trading.journal.entry.entries.trade.aggregate.DailyRollupService;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class DailyRollupRebuildTest {
+
+    @Mock
+    DailyRollupService dailyRollupService;
+
+    @Mock
+    MongoOperations mongoOperations;
+
+    @DisplayName("Backfill the tenancy entries collections not backfilled yet and save their progress")
+    @Test
+    void backfill() {
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of("One_entries", "Two_entries", "One_journals", "migrations"));
+        when(mongoOperations.findById("daily-rollups:Two_entries", Document.class, "migrations")).thenReturn(new Document("finished", true));
+
+        new DailyRollupRebuild(dailyRollupService, mongoOperations, false).afterSingletonsInstantiated();
+
+        verify(dailyRollupService).rebuild("One_entries");
+        verify(dailyRollupService, never()).rebuild("Two_entries");
+        verify(dailyRollupService, never()).rebuild("One_journals");
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoOperations).upsert(eq(new Query(Criteria.where("_id").is("daily-rollups:One_entries"))), update.capture(), eq("migrations"));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class).getBoolean("finished")).isTrue();
+    }
+
+    @DisplayName("Rebuild existing rebuilds the tenancies already backfilled as well")
+    @Test
+    void rebuildExisting() {
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of("One_entries", "Two_entries"));
+        when(mongoOperations.findById(anyString(), eq(Document.class), eq("migrations"))).thenReturn(new Document("finished", true));
+
+        new DailyRollupRebuild(dailyRollupService, mongoOperations, true).rebuild();
+
+        verify(dailyRollupService).rebuild("One_entries");
+        verify(dailyRollupService).rebuild("Two_entries");
+    }
+
+    @DisplayName("A failing tenancy does not stop the others, it is not saved as backfilled and the application does not start")
+    @Test
+    void failure() {
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of("One_entries", "Two_entries"));
+        doThrow(new DataAccessResourceFailureException("down")).when(dailyRollupService).rebuild("One_entries");
+
+        DailyRollupRebuild rebuild = new DailyRollupRebuild(dailyRollupService, mongoOperations, false);
+        assertThatThrownBy(rebuild::afterSingletonsInstantiated)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Daily rollups of [One_entries] could not be rebuilt");
+
+        verify(dailyRollupService).rebuild("Two_entries");
+        verify(mongoOperations).upsert(eq(new Query(Criteria.where("_id").is("daily-rollups:Two_entries"))), any(Update.class), eq("migrations"));
+        verify(mongoOperations, never()).upsert(eq(new Query(Criteria.where("_id").is("daily-rollups:One_entries"))), any(Update.class), eq("migrations"));
+    }
+}
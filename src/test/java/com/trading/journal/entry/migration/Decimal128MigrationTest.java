@@ -0,0 +1,152 @@
+package com.trading.journal.entry.migration;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class Decimal128MigrationTest {
+
+    @Mock
+    MongoOperations mongoOperations;
+
+    @Mock
+    BulkOperations bulkOperations;
+
+    @InjectMocks
+    Decimal128Migration migration;
+
+    @DisplayName("Migrate string money values of tenancy entries and journals collections only")
+    @Test
+    void migrate() {
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of("Tenancy_entries", "Tenancy_journals", "Tenancy_strategies", "migrations"));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), anyString())).thenReturn(emptyList());
+
+        migration.migrate();
+
+        verify(mongoOperations).find(any(Query.class), eq(Document.class), eq("Tenancy_entries"));
+        verify(mongoOperations).find(any(Query.class), eq(Document.class), eq("Tenancy_journals"));
+        verify(mongoOperations, never()).find(any(Query.class), eq(Document.class), eq("Tenancy_strategies"));
+        verify(mongoOperations, never()).find(any(Query.class), eq(Document.class), eq("migrations"));
+    }
+
+    @DisplayName("Convert only string values and only if they were not changed in the meantime")
+    @Test
+    void convert() {
+        ObjectId id = new ObjectId();
+        Document document = new Document("_id", id)
+                .append("price", "10.50")
+                .append("netResult", new Decimal128(BigDecimal.ONE));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq("Tenancy_entries"))).thenReturn(List.of(document));
+        when(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, "Tenancy_entries")).thenReturn(bulkOperations);
+
+        long migrated = migration.migrate("Tenancy_entries", List.of("price", "netResult"));
+
+        assertThat(migrated).isEqualTo(1);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations).updateOne(query.capture(), eq(new Update().set("price", new Decimal128(new BigDecimal("10.50")))));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", id).append("price", "10.50"));
+        verify(bulkOperations).execute();
+
+        ArgumentCaptor<Update> progress = ArgumentCaptor.forClass(Update.class);
+        verify(mongoOperations).upsert(eq(new Query(Criteria.where("_id").is("decimal128:Tenancy_entries"))), progress.capture(), eq("migrations"));
+        assertThat(progress.getValue().getUpdateObject().get("$set", Document.class).get("lastId")).isEqualTo(id);
+        assertThat(progress.getValue().getUpdateObject().get("$set", Document.class).get("finished")).isEqualTo(true);
+    }
+
+    @DisplayName("Convert nested balance values of journals")
+    @Test
+    void convertNested() {
+        ObjectId id = new ObjectId();
+        Document document = new Document("_id", id).append("currentBalance", new Document("accountBalance", "100.00"));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq("Tenancy_journals"))).thenReturn(List.of(document));
+        when(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, "Tenancy_journals")).thenReturn(bulkOperations);
+
+        migration.migrate("Tenancy_journals", List.of("startBalance", "currentBalance.accountBalance"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations).updateOne(query.capture(), eq(new Update().set("currentBalance.accountBalance", new Decimal128(new BigDecimal("100.00")))));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", id).append("currentBalance.accountBalance", "100.00"));
+    }
+
+    @DisplayName("Nothing to convert does not execute the bulk")
+    @Test
+    void nothingToConvert() {
+        Document document = new Document("_id", new ObjectId()).append("price", new Decimal128(BigDecimal.ONE));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq("Tenancy_entries"))).thenReturn(List.of(document));
+        when(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, "Tenancy_entries")).thenReturn(bulkOperations);
+
+        long migrated = migration.migrate("Tenancy_entries", List.of("price"));
+
+        assertThat(migrated).isZero();
+        verify(bulkOperations, never()).execute();
+    }
+
+    @DisplayName("Finished collection is not read again")
+    @Test
+    void finished() {
+        when(mongoOperations.findById("decimal128:Tenancy_entries", Document.class, "migrations"))
+                .thenReturn(new Document("_id", "decimal128:Tenancy_entries").append("finished", true));
+
+        long migrated = migration.migrate("Tenancy_entries", List.of("price"));
+
+        assertThat(migrated).isZero();
+        verify(mongoOperations, never()).find(any(Query.class), eq(Document.class), anyString());
+    }
+
+    @DisplayName("Resume from the last migrated id")
+    @Test
+    void resume() {
+        ObjectId lastId = new ObjectId();
+        when(mongoOperations.findById("decimal128:Tenancy_entries", Document.class, "migrations"))
+                .thenReturn(new Document("_id", "decimal128:Tenancy_entries").append("lastId", lastId).append("finished", false));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), anyString())).thenReturn(emptyList());
+        when(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, "Tenancy_entries")).thenReturn(bulkOperations);
+
+        migration.migrate("Tenancy_entries", List.of("price"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(query.capture(), eq(Document.class), eq("Tenancy_entries"));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", new Document("$gt", lastId)));
+    }
+
+    @DisplayName("A failing collection does not stop the others, the application does not start with strings left")
+    @Test
+    void failure() {
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of("One_entries", "Two_entries"));
+        when(mongoOperations.find(any(Query.class), eq(Document.class), anyString()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(emptyList());
+
+        assertThatThrownBy(() -> migration.afterSingletonsInstantiated())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("still hold money values as strings");
+
+        verify(mongoOperations, times(2)).find(any(Query.class), eq(Document.class), anyString());
+    }
+}
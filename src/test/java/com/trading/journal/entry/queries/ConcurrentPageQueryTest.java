@@ -0,0 +1,167 @@
+package com.trading.journal.entry.queries;
+
+import com.allanweber.jwttoken.data.AccessTokenInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import tooling.EntryForTest;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class ConcurrentPageQueryTest {
+
+    private static final AccessTokenInfo TENANCY = new AccessTokenInfo("user", 1L, "Test-Tenancy", singletonList("ROLE_USER"));
+
+    @Mock
+    WithFilterPageableRepository<EntryForTest, String> repository;
+
+    SimpleMeterRegistry meterRegistry;
+
+    ConcurrentPageQuery concurrentPageQuery;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        concurrentPageQuery = new ConcurrentPageQuery(meterRegistry, 2, 10);
+        TokenRequestScope.set(TENANCY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        concurrentPageQuery.destroy();
+        TokenRequestScope.clear();
+    }
+
+    @DisplayName("Page content comes from the find and the total from the count, without the pagination on the count")
+    @Test
+    void findAll() {
+        PageRequest pageable = PageRequest.of(1, 2);
+        Query query = new Query(Criteria.where("journalId").is("123"));
+        when(repository.count(any(Query.class))).thenReturn(7L);
+        when(repository.find(any(Query.class))).thenReturn(asList(new EntryForTest(), new EntryForTest(), new EntryForTest()));
+
+        Page<EntryForTest> page = concurrentPageQuery.findAll(repository, pageable, query);
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(7L);
+        assertThat(page.getTotalPages()).isEqualTo(4);
+
+        ArgumentCaptor<Query> count = ArgumentCaptor.forClass(Query.class);
+        verify(repository).count(count.capture());
+        assertThat(count.getValue().getSkip()).isZero();
+        assertThat(count.getValue().isLimited()).isFalse();
+        assertThat(count.getValue().getQueryObject()).isEqualTo(query.getQueryObject());
+
+        ArgumentCaptor<Query> find = ArgumentCaptor.forClass(Query.class);
+        verify(repository).find(find.capture());
+        assertThat(find.getValue().getSkip()).isEqualTo(2L);
+        assertThat(find.getValue().getLimit()).isEqualTo(3);
+        assertThat(query.getSkip()).isZero();
+
+        assertThat(meterRegistry.get("repository.page.query").tag("phase", "count").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("repository.page.query").tag("phase", "find").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("repository.page.query").tag("phase", "page").timer().count()).isEqualTo(1);
+    }
+
+    @DisplayName("The count runs with the tenancy of the request, even on a pool thread created by another tenancy")
+    @Test
+    void tenancyPropagation() {
+        AccessTokenInfo other = new AccessTokenInfo("other", 2L, "Other-Tenancy", singletonList("ROLE_USER"));
+        AtomicReference<AccessTokenInfo> countTenancy = new AtomicReference<>();
+        when(repository.count(any(Query.class))).thenAnswer(invocation -> {
+            countTenancy.set(TokenRequestScope.get());
+            return 1L;
+        });
+        when(repository.find(any(Query.class))).thenReturn(asList(new EntryForTest(), new EntryForTest()));
+
+        concurrentPageQuery.findAll(repository, PageRequest.of(1, 1), new Query());
+        assertThat(countTenancy.get()).isEqualTo(TENANCY);
+
+        TokenRequestScope.set(other);
+        concurrentPageQuery.findAll(repository, PageRequest.of(1, 1), new Query());
+        assertThat(countTenancy.get()).isEqualTo(other);
+        assertThat(TokenRequestScope.get()).isEqualTo(other);
+    }
+
+    @DisplayName("A count failure is thrown as it is, not wrapped by the concurrent execution")
+    @Test
+    void countFailure() {
+        when(repository.count(any(Query.class))).thenThrow(new DataAccessResourceFailureException("timeout"));
+        when(repository.find(any(Query.class))).thenReturn(asList(new EntryForTest(), new EntryForTest()));
+
+        assertThatThrownBy(() -> concurrentPageQuery.findAll(repository, PageRequest.of(1, 1), new Query()))
+                .isInstanceOf(DataAccessResourceFailureException.class)
+                .hasMessage("timeout");
+    }
+
+    @DisplayName("First page with nothing after it takes the total from the content, without a count")
+    @Test
+    void firstPageLast() {
+        when(repository.find(any(Query.class))).thenReturn(asList(new EntryForTest(), new EntryForTest()));
+
+        Page<EntryForTest> page = concurrentPageQuery.findAll(repository, PageRequest.of(0, 2), new Query());
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(2L);
+        verify(repository, never()).count(any(Query.class));
+    }
+
+    @DisplayName("First page with a next page counts after the find, the extra entry read is not in the content")
+    @Test
+    void firstPageWithNext() {
+        when(repository.count(any(Query.class))).thenReturn(5L);
+        when(repository.find(any(Query.class))).thenReturn(asList(new EntryForTest(), new EntryForTest(), new EntryForTest()));
+
+        Page<EntryForTest> page = concurrentPageQuery.findAll(repository, PageRequest.of(0, 2), new Query());
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(5L);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @DisplayName("Last page after the first one takes the total from its offset and content, not from the count")
+    @Test
+    void laterPageLast() {
+        when(repository.count(any(Query.class))).thenReturn(99L);
+        when(repository.find(any(Query.class))).thenReturn(singletonList(new EntryForTest()));
+
+        Page<EntryForTest> page = concurrentPageQuery.findAll(repository, PageRequest.of(2, 2), new Query());
+
+        assertThat(page.getTotalElements()).isEqualTo(5L);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @DisplayName("Empty page after the first one may be past the end, the total comes from the count")
+    @Test
+    void laterPageEmpty() {
+        when(repository.count(any(Query.class))).thenReturn(3L);
+        when(repository.find(any(Query.class))).thenReturn(emptyList());
+
+        Page<EntryForTest> page = concurrentPageQuery.findAll(repository, PageRequest.of(5, 2), new Query());
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(3L);
+    }
+}
@@ -0,0 +1,38 @@
+package com.trading.journal.entry.queries;
+
+import com.allanweber.jwttoken.data.AccessTokenInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRequestScopeTest {
+
+    @AfterEach
+    void clear() {
+        TokenRequestScope.clear();
+    }
+
+    @DisplayName("Streaming body is written with the tenancy of the request that created it, then the previous one is put back")
+    @Test
+    void streaming() throws IOException {
+        AccessTokenInfo request = new AccessTokenInfo("user", 1L, "request", Collections.emptyList());
+        AccessTokenInfo other = new AccessTokenInfo("user", 2L, "other", Collections.emptyList());
+        AtomicReference<AccessTokenInfo> written = new AtomicReference<>();
+        TokenRequestScope.set(request);
+        StreamingResponseBody body = TokenRequestScope.streaming(output -> written.set(TokenRequestScope.get()));
+
+        TokenRequestScope.set(other);
+        body.writeTo(new ByteArrayOutputStream());
+
+        assertThat(written.get()).isEqualTo(request);
+        assertThat(TokenRequestScope.get()).isEqualTo(other);
+    }
+}
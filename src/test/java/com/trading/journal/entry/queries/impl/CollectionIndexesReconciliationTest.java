@@ -0,0 +1,54 @@
+package com.trading.journal.entry.queries.impl;
+
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.journal.Journal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Set;
+
+import static java.util.Collections.emptyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class CollectionIndexesReconciliationTest {
+
+    @Mock
+    MongoOperations mongoOperations;
+
+    @Mock
+    IndexOperations indexOperations;
+
+    @InjectMocks
+    CollectionIndexesReconciliation reconciliation;
+
+    @DisplayName("Create the indexes on the existing tenancy collections of the mapped entities")
+    @Test
+    void reconcile() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(emptyList()).getSimpleTypeHolder());
+        mappingContext.setInitialEntitySet(Set.of(Entry.class, Journal.class));
+        mappingContext.afterPropertiesSet();
+        when(mongoOperations.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of("One_entries", "Two_entries", "One_journals", "migrations"));
+        when(mongoOperations.indexOps(anyString())).thenReturn(indexOperations);
+
+        reconciliation.reconcile();
+
+        verify(mongoOperations).indexOps("One_entries");
+        verify(mongoOperations).indexOps("Two_entries");
+        verify(mongoOperations).indexOps("One_journals");
+        verify(mongoOperations, never()).indexOps("migrations");
+    }
+}
@@ -0,0 +1,117 @@
+package com.trading.journal.entry.queries.impl;
+
+import com.trading.journal.entry.entries.Entry;
+import com.trading.journal.entry.journal.Journal;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import tooling.EntryForTest;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class CollectionIndexesTest {
+
+    @Mock
+    MongoOperations mongoOperations;
+
+    @Mock
+    IndexOperations indexOperations;
+
+    CollectionIndexes collectionIndexes;
+
+    @BeforeEach
+    void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(emptyList()).getSimpleTypeHolder());
+        mappingContext.setInitialEntitySet(Set.of(Entry.class, Journal.class));
+        mappingContext.afterPropertiesSet();
+        when(mongoOperations.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoOperations.indexOps(anyString())).thenReturn(indexOperations);
+        collectionIndexes = new CollectionIndexes(mongoOperations);
+    }
+
+    @DisplayName("Create the declared entry indexes on the tenancy collection")
+    @Test
+    void ensure() {
+        collectionIndexes.ensure("Tenancy_entries", Entry.class);
+
+        ArgumentCaptor<IndexDefinition> indexes = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(mongoOperations).indexOps("Tenancy_entries");
+        verify(indexOperations, times(5)).ensureIndex(indexes.capture());
+        assertThat(indexes.getAllValues()).extracting(index -> index.getIndexKeys())
+                .contains(new Document("journalId", 1).append("date", -1),
+                        new Document("journalId", 1).append("type", 1).append("date", -1),
+                        new Document("strategies._id", 1));
+    }
+
+    @DisplayName("Create the indexes only the first time the collection is used")
+    @Test
+    void ensureOnce() {
+        collectionIndexes.ensure("Tenancy_journals", Journal.class);
+        collectionIndexes.ensure("Tenancy_journals", Journal.class);
+
+        verify(indexOperations, times(1)).ensureIndex(any());
+    }
+
+    @DisplayName("Create the indexes again after the collection is forgotten")
+    @Test
+    void forget() {
+        collectionIndexes.ensure("Tenancy_journals", Journal.class);
+        collectionIndexes.forget("Tenancy_journals");
+        collectionIndexes.ensure("Tenancy_journals", Journal.class);
+
+        verify(indexOperations, times(2)).ensureIndex(any());
+    }
+
+    @DisplayName("Create the indexes again once the recheck interval passed, the collection may have been dropped by another node")
+    @Test
+    void recheck() {
+        collectionIndexes = new CollectionIndexes(mongoOperations, Duration.ZERO);
+
+        collectionIndexes.ensure("Tenancy_journals", Journal.class);
+        collectionIndexes.ensure("Tenancy_journals", Journal.class);
+
+        verify(indexOperations, times(2)).ensureIndex(any());
+    }
+
+    @DisplayName("Failing to create the indexes tries again on the next use")
+    @Test
+    void failure() {
+        when(indexOperations.ensureIndex(any())).thenThrow(new DataAccessResourceFailureException("down")).thenReturn("name");
+
+        collectionIndexes.ensure("Tenancy_journals", Journal.class);
+        collectionIndexes.ensure("Tenancy_journals", Journal.class);
+        collectionIndexes.ensure("Tenancy_journals", Journal.class);
+
+        verify(indexOperations, times(2)).ensureIndex(any());
+    }
+
+    @DisplayName("Entity without declared indexes does not touch the collection")
+    @Test
+    void noIndexes() {
+        collectionIndexes.ensure("Tenancy_tests", EntryForTest.class);
+
+        verify(mongoOperations, never()).indexOps(anyString());
+    }
+}
@@ -0,0 +1,41 @@
+package com.trading.journal.entry.queries.impl;
+
+import com.allanweber.jwttoken.data.AccessTokenInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
+import tooling.EntryForTest;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CollectionNameCacheTest {
+
+    @DisplayName("Collection name is built once per tenancy and entity type")
+    @Test
+    void cached() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CollectionNameCache cache = new CollectionNameCache(meterRegistry);
+        MongoEntityInformation<?, ?> entries = metadata(EntryForTest.class, "entries");
+        MongoEntityInformation<?, ?> journals = metadata(String.class, "journals");
+        AccessTokenInfo tenancy = new AccessTokenInfo("subject", 1L, "My Tenancy", emptyList());
+        AccessTokenInfo other = new AccessTokenInfo("other", 2L, "Other-Tenancy", emptyList());
+
+        assertThat(cache.get(tenancy, entries)).isEqualTo("MyTenancy_entries");
+        assertThat(cache.get(tenancy, entries)).isEqualTo("MyTenancy_entries");
+        assertThat(cache.get(tenancy, journals)).isEqualTo("MyTenancy_journals");
+        assertThat(cache.get(other, entries)).isEqualTo("OtherTenancy_entries");
+
+        verify(entries, times(2)).getCollectionName();
+        assertThat(meterRegistry.get("collection.names.cache.size").gauge().value()).isEqualTo(3);
+    }
+
+    private static MongoEntityInformation<?, ?> metadata(Class<?> type, String collection) {
+        MongoEntityInformation<?, ?> metadata = mock(MongoEntityInformation.class);
+        doReturn(type).when(metadata).getJavaType();
+        when(metadata.getCollectionName()).thenReturn(collection);
+        return metadata;
+    }
+}
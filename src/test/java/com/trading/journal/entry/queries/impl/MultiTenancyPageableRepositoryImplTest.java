@@ -1,7 +1,9 @@
 package com.trading.journal.entry.queries.impl;
 
 import com.allanweber.jwttoken.data.AccessTokenInfo;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
 import com.trading.journal.entry.queries.TokenRequestScope;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
@@ -11,25 +13,42 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
+import org.springframework.data.util.Pair;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import tooling.EntryForTest;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -44,6 +63,9 @@ class MultiTenancyPageableRepositoryImplTest {
     @Mock
     MongoOperations mongoOperations;
 
+    @Mock
+    IndexOperations indexOperations;
+
     MultiTenancyPageableRepositoryImpl<EntryForTest, String> repository;
 
     @BeforeAll
@@ -56,6 +78,10 @@ class MultiTenancyPageableRepositoryImplTest {
     public void setUpMetadata() {
         when(metadata.getCollectionName()).thenReturn("entries");
         when(metadata.getJavaType()).thenReturn(EntryForTest.class);
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(emptyList()).getSimpleTypeHolder());
+        when(mongoOperations.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoOperations.indexOps(collection)).thenReturn(indexOperations);
         repository = new MultiTenancyPageableRepositoryImpl<>(metadata, mongoOperations);
     }
 
@@ -70,6 +96,74 @@ class MultiTenancyPageableRepositoryImplTest {
         assertThat(all.get()).isNotEmpty();
     }
 
+    @DisplayName("Find all counts the total only when the page content does not tell it")
+    @Test
+    void findAllCountWhenPageIsFull() {
+        PageRequest pageable = PageRequest.of(0, 2);
+        when(mongoOperations.count(any(), eq(EntryForTest.class), eq(collection))).thenReturn(5L);
+        when(mongoOperations.find(any(), eq(EntryForTest.class), eq(collection))).thenReturn(asList(new EntryForTest(), new EntryForTest()));
+
+        Page<EntryForTest> all = repository.findAll(pageable, new Query());
+
+        assertThat(all.getTotalElements()).isEqualTo(5L);
+        ArgumentCaptor<Query> count = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).count(count.capture(), eq(EntryForTest.class), eq(collection));
+        assertThat(count.getValue().getSkip()).isNotPositive();
+        assertThat(count.getValue().isLimited()).isFalse();
+    }
+
+    @DisplayName("Find all does not count when the first page is not full")
+    @Test
+    void findAllSkipCount() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        when(mongoOperations.find(any(), eq(EntryForTest.class), eq(collection))).thenReturn(asList(new EntryForTest(), new EntryForTest()));
+
+        Page<EntryForTest> all = repository.findAll(pageable, new Query());
+
+        assertThat(all.getTotalElements()).isEqualTo(2L);
+        verify(mongoOperations, never()).count(any(), eq(EntryForTest.class), eq(collection));
+    }
+
+    @DisplayName("Find slice reads one more item than the page size to know if there is a next page, without counting")
+    @Test
+    void findSlice() {
+        PageRequest pageable = PageRequest.of(1, 2);
+        when(mongoOperations.find(any(), eq(EntryForTest.class), eq(collection))).thenReturn(asList(new EntryForTest(), new EntryForTest(), new EntryForTest()));
+
+        Slice<EntryForTest> slice = repository.findSlice(pageable, new Query());
+
+        assertThat(slice.getContent()).hasSize(2);
+        assertThat(slice.hasNext()).isTrue();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(query.capture(), eq(EntryForTest.class), eq(collection));
+        assertThat(query.getValue().getSkip()).isEqualTo(2L);
+        assertThat(query.getValue().getLimit()).isEqualTo(3);
+        verify(mongoOperations, never()).count(any(), eq(EntryForTest.class), eq(collection));
+    }
+
+    @DisplayName("Find slice on the last page has no next page")
+    @Test
+    void findSliceLastPage() {
+        PageRequest pageable = PageRequest.of(1, 2);
+        when(mongoOperations.find(any(), eq(EntryForTest.class), eq(collection))).thenReturn(singletonList(new EntryForTest()));
+
+        Slice<EntryForTest> slice = repository.findSlice(pageable, new Query());
+
+        assertThat(slice.getContent()).hasSize(1);
+        assertThat(slice.hasNext()).isFalse();
+    }
+
+    @DisplayName("Upsert")
+    @Test
+    void upsert() {
+        Query query = new Query();
+        Update update = new Update().inc("count", 1);
+
+        repository.upsert(query, update);
+
+        verify(mongoOperations).upsert(query, update, EntryForTest.class, collection);
+    }
+
     @DisplayName("Find all")
     @Test
     void findAllSimple() {
@@ -130,16 +224,91 @@ class MultiTenancyPageableRepositoryImplTest {
     void drop() {
         repository.drop();
         verify(mongoOperations).dropCollection(collection);
+        verify(mongoOperations, never()).indexOps(any(String.class));
     }
 
     @DisplayName("Count by query")
     @Test
     void count() {
-        when(mongoOperations.count(any(), eq(collection))).thenReturn(1L);
+        when(mongoOperations.count(any(), eq(EntryForTest.class), eq(collection))).thenReturn(1L);
         long count = repository.count(new Query());
         assertThat(count).isEqualTo(1L);
     }
 
+    @DisplayName("Stream a query from the tenancy collection")
+    @Test
+    void stream() {
+        Query query = new Query(Criteria.where("journalId").is("123"));
+        when(mongoOperations.stream(query, EntryForTest.class, collection)).thenReturn(Stream.of(new EntryForTest(), new EntryForTest()));
+
+        try (Stream<EntryForTest> stream = repository.stream(query)) {
+            assertThat(stream).hasSize(2);
+        }
+    }
+
+    @DisplayName("Bulk insert into the tenancy collection")
+    @Test
+    void bulkInsert() {
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        List<EntryForTest> data = asList(new EntryForTest(), new EntryForTest());
+        when(mongoOperations.bulkOps(BulkOperations.BulkMode.ORDERED, EntryForTest.class, collection)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(data)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(2, 0, 0, 0, emptyList(), emptyList()));
+
+        int inserted = repository.bulkInsert(data);
+
+        assertThat(inserted).isEqualTo(2);
+        verify(bulkOperations).insert(data);
+    }
+
+    @DisplayName("Update returns the matched count, also when the update changed nothing")
+    @Test
+    void updateUnchanged() {
+        Query query = new Query(Criteria.where("_id").is("1"));
+        Update update = new Update().set("a", 1);
+        when(mongoOperations.updateFirst(query, update, collection)).thenReturn(UpdateResult.acknowledged(1, 0L, null));
+
+        assertThat(repository.update(query, update)).isEqualTo(1);
+    }
+
+    @DisplayName("Update every field by id except the excluded ones, removing the fields without value")
+    @Test
+    void updateExcept() {
+        EntryForTest entry = new EntryForTest();
+        ReflectionTestUtils.setField(entry, "id", "1");
+        ReflectionTestUtils.setField(entry, "symbol", "MSFT");
+        ReflectionTestUtils.setField(entry, "price", 10.5);
+        when(metadata.getRequiredId(entry)).thenReturn("1");
+        when(mongoOperations.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(collection))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        long matched = repository.updateExcept(entry, "date");
+
+        assertThat(matched).isEqualTo(1);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoOperations).updateFirst(query.capture(), update.capture(), eq(collection));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", "1"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set).containsEntry("symbol", "MSFT").containsEntry("price", 10.5).doesNotContainKeys("_id", "date");
+        assertThat(update.getValue().getUpdateObject().get("$unset", Document.class).keySet())
+                .containsExactlyInAnyOrder("direction", "someInteger", "someDecimal");
+    }
+
+    @DisplayName("Bulk update into the tenancy collection")
+    @Test
+    void bulkUpdate() {
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        List<Pair<Query, UpdateDefinition>> updates = singletonList(Pair.of(new Query(Criteria.where("_id").is("1")), new Update().set("a", 1)));
+        when(mongoOperations.bulkOps(BulkOperations.BulkMode.ORDERED, EntryForTest.class, collection)).thenReturn(bulkOperations);
+        when(bulkOperations.updateOne(updates)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, emptyList(), emptyList()));
+
+        int updated = repository.bulkUpdate(updates);
+
+        assertThat(updated).isEqualTo(1);
+        verify(bulkOperations).updateOne(updates);
+    }
+
     @DisplayName("Find distinct")
     @Test
     void distinctQuery() {
@@ -163,6 +332,21 @@ class MultiTenancyPageableRepositoryImplTest {
         assertThat(list).hasSize(2);
     }
 
+    @DisplayName("Aggregation as a stream on the tenancy collection")
+    @Test
+    void aggregationStream() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.project("a")
+        );
+
+        when(mongoOperations.aggregateStream(aggregation, collection, Aggregated.class))
+                .thenReturn(Stream.of(new Aggregated("1", "2"), new Aggregated("1", "2")));
+
+        try (Stream<Aggregated> stream = repository.aggregateStream(aggregation, Aggregated.class)) {
+            assertThat(stream).hasSize(2);
+        }
+    }
+
     @NoArgsConstructor
     @AllArgsConstructor
     public static class Aggregated {
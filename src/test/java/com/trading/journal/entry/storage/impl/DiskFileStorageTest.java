@@ -0,0 +1,129 @@
+package com.trading.journal.entry.storage.impl;
+
+import com.trading.journal.entry.configuration.properties.StorageProperties;
+import com.trading.journal.entry.storage.StoredFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiskFileStorageTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 13, 10, 26, 10, 0, 0, 0, 13, 'I', 'H', 'D', 'R', 1, 2, 3};
+
+    @TempDir
+    Path directory;
+
+    DiskFileStorage fileStorage;
+
+    @BeforeEach
+    void setUp() {
+        StorageProperties properties = new StorageProperties();
+        properties.setDirectory(directory.toString());
+        fileStorage = new DiskFileStorage(properties);
+    }
+
+    @DisplayName("Create the tenancy folder")
+    @Test
+    void createFolder() {
+        assertThat(fileStorage.folderExists("tenancy")).isFalse();
+
+        fileStorage.createFolder("tenancy");
+
+        assertThat(fileStorage.folderExists("tenancy")).isTrue();
+        assertThat(directory.resolve("tenancy")).isDirectory();
+    }
+
+    @DisplayName("Upload a file stores it under the tenancy, the entry shard and the entry, without temporary files left")
+    @Test
+    void uploadFile() throws IOException {
+        String entryId = UUID.randomUUID().toString();
+        String storedName = "%s.jpg".formatted(UUID.randomUUID().toString());
+
+        fileStorage.uploadFile("tenancy", entryId, storedName, PNG);
+
+        String shard = "%02x".formatted(Math.floorMod(entryId.hashCode(), 256));
+        Path entryFolder = directory.resolve("tenancy").resolve(shard).resolve(entryId);
+        assertThat(entryFolder.resolve(storedName)).hasBinaryContent(PNG);
+        try (Stream<Path> files = Files.list(entryFolder)) {
+            assertThat(files).containsExactly(entryFolder.resolve(storedName));
+        }
+    }
+
+    @DisplayName("Upload a file with the name of a stored one replaces it")
+    @Test
+    void uploadFileReplace() {
+        String entryId = UUID.randomUUID().toString();
+        fileStorage.uploadFile("tenancy", entryId, "1.jpg", PNG);
+
+        fileStorage.uploadFile("tenancy", entryId, "1.jpg", "replaced".getBytes());
+
+        assertThat(fileStorage.getFile("tenancy", entryId, "1.jpg"))
+                .contains(Base64.getEncoder().encodeToString("replaced".getBytes()));
+    }
+
+    @DisplayName("Read a file to stream, with its content type from the content, its length and last modified")
+    @Test
+    void readFile() throws IOException {
+        String entryId = UUID.randomUUID().toString();
+        fileStorage.uploadFile("tenancy", entryId, "1.jpg", PNG);
+
+        Optional<StoredFile> file = fileStorage.readFile("tenancy", entryId, "1.jpg");
+
+        assertThat(file).isPresent();
+        assertThat(file.get().getFilename()).isEqualTo("1.jpg");
+        assertThat(file.get().getMediaType()).isEqualTo("image/png");
+        assertThat(file.get().contentLength()).isEqualTo(PNG.length);
+        assertThat(file.get().lastModified()).isPositive();
+        try (InputStream inputStream = file.get().getInputStream()) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(PNG);
+        }
+        try (InputStream inputStream = file.get().getInputStream()) {
+            assertThat(inputStream.skip(16)).isEqualTo(16);
+            assertThat(inputStream.readAllBytes()).isEqualTo(Arrays.copyOfRange(PNG, 16, PNG.length));
+        }
+    }
+
+    @DisplayName("Read a file that is not stored")
+    @Test
+    void readFileNotFound() {
+        assertThat(fileStorage.readFile("tenancy", UUID.randomUUID().toString(), "1.jpg")).isEmpty();
+        assertThat(fileStorage.getFile("tenancy", UUID.randomUUID().toString(), "1.jpg")).isEmpty();
+    }
+
+    @DisplayName("Delete a file")
+    @Test
+    void deleteFile() {
+        String entryId = UUID.randomUUID().toString();
+        fileStorage.uploadFile("tenancy", entryId, "1.jpg", PNG);
+
+        fileStorage.deleteFile("tenancy", entryId, "1.jpg");
+        fileStorage.deleteFile("tenancy", entryId, "2.jpg");
+
+        assertThat(fileStorage.readFile("tenancy", entryId, "1.jpg")).isEmpty();
+    }
+
+    @DisplayName("Paths out of the storage directory are refused")
+    @Test
+    void outOfDirectory() {
+        assertThatThrownBy(() -> fileStorage.readFile("tenancy", "../../..", "1.jpg"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid file path");
+        assertThatThrownBy(() -> fileStorage.createFolder(".."))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid file path");
+    }
+}
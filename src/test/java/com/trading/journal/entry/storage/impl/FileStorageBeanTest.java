@@ -5,6 +5,8 @@ import com.trading.journal.entry.configuration.properties.StorageProperties;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.ConfigurationPropertiesAutoConfiguration;
 import org.springframework.boot.autoconfigure.logging.ConditionEvaluationReportLoggingListener;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -16,7 +18,8 @@ class FileStorageBeanTest {
 
     private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
             .withInitializer(new ConditionEvaluationReportLoggingListener())
-            .withUserConfiguration(S3FileStorage.class, LocalFileStorage.class, AmazonS3Client.class, StorageProperties.class);
+            .withConfiguration(AutoConfigurations.of(ConfigurationPropertiesAutoConfiguration.class))
+            .withUserConfiguration(S3FileStorage.class, LocalFileStorage.class, DiskFileStorage.class, AmazonS3Client.class, StorageProperties.class);
 
     @Test
     @DisplayName("Application properties has s3 option")
@@ -26,6 +29,19 @@ class FileStorageBeanTest {
                 .run(context -> {
                     assertThat(context).hasSingleBean(S3FileStorage.class);
                     assertThat(context).doesNotHaveBean(LocalFileStorage.class);
+                    assertThat(context).doesNotHaveBean(DiskFileStorage.class);
+                });
+    }
+
+    @Test
+    @DisplayName("Application properties has disk option")
+    void isDisk() {
+        contextRunner
+                .withPropertyValues("journal.entries.storage.option:disk", "journal.entries.storage.directory:target/storage")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(DiskFileStorage.class);
+                    assertThat(context).doesNotHaveBean(S3FileStorage.class);
+                    assertThat(context).doesNotHaveBean(LocalFileStorage.class);
                 });
     }
 
@@ -37,6 +53,7 @@ class FileStorageBeanTest {
                 .run(context -> {
                     assertThat(context).hasSingleBean(LocalFileStorage.class);
                     assertThat(context).doesNotHaveBean(S3FileStorage.class);
+                    assertThat(context).doesNotHaveBean(DiskFileStorage.class);
 
                 });
     }
@@ -48,6 +65,7 @@ class FileStorageBeanTest {
                 .run(context -> {
                     assertThat(context).hasSingleBean(LocalFileStorage.class);
                     assertThat(context).doesNotHaveBean(S3FileStorage.class);
+                    assertThat(context).doesNotHaveBean(DiskFileStorage.class);
                 });
     }
 }
\ No newline at end of file
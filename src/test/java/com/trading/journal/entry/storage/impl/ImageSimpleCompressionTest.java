@@ -0,0 +1,130 @@
+package com.trading.journal.entry.storage.impl;
+
+import com.trading.journal.entry.storage.ImageVariant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageSimpleCompressionTest {
+
+    private static final int MAX_SIZE = 500 * 1024;
+
+    private final ImageSimpleCompression imageCompression = new ImageSimpleCompression();
+
+    @DisplayName("Images up to 500 kb are kept as they are")
+    @Test
+    void smallImage() throws IOException {
+        byte[] image = png(200, 100, BufferedImage.TYPE_INT_RGB);
+
+        assertThat(image.length).isLessThanOrEqualTo(MAX_SIZE);
+        assertThat(imageCompression.compressImage(image)).isSameAs(image);
+    }
+
+    @DisplayName("Larger images are compressed to a JPEG up to 500 kb with the same dimensions")
+    @Test
+    void largeImage() throws IOException {
+        byte[] image = png(1280, 720, BufferedImage.TYPE_INT_RGB);
+        assertThat(image.length).isGreaterThan(MAX_SIZE);
+
+        byte[] compressed = imageCompression.compressImage(image);
+
+        assertThat(compressed.length).isLessThanOrEqualTo(MAX_SIZE);
+        assertThat(format(compressed)).isEqualToIgnoringCase("jpeg");
+        assertDimensions(compressed, 1280, 720);
+    }
+
+    @DisplayName("The alpha channel is removed before the image is compressed")
+    @Test
+    void alphaImage() throws IOException {
+        byte[] image = png(1280, 720, BufferedImage.TYPE_INT_ARGB);
+        assertThat(image.length).isGreaterThan(MAX_SIZE);
+
+        byte[] compressed = imageCompression.compressImage(image);
+
+        assertThat(compressed.length).isLessThanOrEqualTo(MAX_SIZE);
+        assertThat(format(compressed)).isEqualToIgnoringCase("jpeg");
+    }
+
+    @DisplayName("Variants are scaled down to fit their size keeping the proportion, the original is compressed")
+    @Test
+    void variants() throws IOException {
+        byte[] image = png(1920, 1080, BufferedImage.TYPE_INT_RGB);
+
+        Map<ImageVariant, byte[]> variants = imageCompression.compressVariants(image);
+
+        assertThat(variants).containsOnlyKeys(ImageVariant.values());
+        assertThat(variants.get(ImageVariant.ORIGINAL).length).isLessThanOrEqualTo(MAX_SIZE);
+        assertDimensions(variants.get(ImageVariant.ORIGINAL), 1920, 1080);
+        assertDimensions(variants.get(ImageVariant.MEDIUM), 1280, 720);
+        assertDimensions(variants.get(ImageVariant.THUMBNAIL), 320, 180);
+        assertThat(format(variants.get(ImageVariant.THUMBNAIL))).isEqualToIgnoringCase("jpeg");
+        assertThat(variants.get(ImageVariant.THUMBNAIL).length).isLessThan(variants.get(ImageVariant.MEDIUM).length);
+    }
+
+    @DisplayName("Small images keep their original and are not scaled up on the variants")
+    @Test
+    void smallImageVariants() throws IOException {
+        byte[] image = png(200, 400, BufferedImage.TYPE_INT_RGB);
+
+        Map<ImageVariant, byte[]> variants = imageCompression.compressVariants(image);
+
+        assertThat(variants.get(ImageVariant.ORIGINAL)).isSameAs(image);
+        assertDimensions(variants.get(ImageVariant.MEDIUM), 200, 400);
+        assertDimensions(variants.get(ImageVariant.THUMBNAIL), 160, 320);
+    }
+
+    @DisplayName("Content that is not an image fails")
+    @Test
+    void notAnImage() {
+        byte[] content = new byte[MAX_SIZE + 1];
+
+        assertThatThrownBy(() -> imageCompression.compressImage(content))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Image format not supported");
+    }
+
+    /**
+     * A gradient with seeded noise, so the PNG does not compress to nothing
+     */
+    private static byte[] png(int width, int height, int type) throws IOException {
+        BufferedImage bufferedImage = new BufferedImage(width, height, type);
+        Random random = new Random(width * 31L + height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = x * 255 / width;
+                int green = y * 255 / height;
+                int blue = random.nextInt(256);
+                bufferedImage.setRGB(x, y, 0xFF << 24 | red << 16 | green << 8 | blue);
+            }
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(bufferedImage, "png", outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static void assertDimensions(byte[] image, int width, int height) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(image));
+        assertThat(decoded.getWidth()).isEqualTo(width);
+        assertThat(decoded.getHeight()).isEqualTo(height);
+    }
+
+    private static String format(byte[] image) throws IOException {
+        try (ImageInputStream inputStream = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(inputStream);
+            return readers.next().getFormatName();
+        }
+    }
+}
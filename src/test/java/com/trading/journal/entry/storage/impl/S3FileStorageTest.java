@@ -3,6 +3,7 @@ package com.trading.journal.entry.storage.impl;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.*;
 import com.trading.journal.entry.configuration.properties.StorageProperties;
+import com.trading.journal.entry.storage.StoredFile;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,12 +12,14 @@ import org.mockito.Mock;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
 class S3FileStorageTest {
@@ -68,7 +71,7 @@ class S3FileStorageTest {
         byte[] file = "an file sample".getBytes();
 
         ObjectMetadata metadata = new ObjectMetadata();
-        metadata.setContentType("image/jpg");
+        metadata.setContentType("image/jpeg");
         metadata.setContentLength(file.length);
 
         String fileName = "%s/%s".formatted(folder, storedName);
@@ -95,6 +98,51 @@ class S3FileStorageTest {
         assertThat(file.get()).isEqualTo("https://cdn.trading-jounal.com/%s/%s/%s".formatted(rootFolder, folder, storedName));
     }
 
+    @DisplayName("Read a file to stream, the content is only downloaded when it is opened")
+    @Test
+    void readFile() throws IOException {
+        String rootFolder = "rootFolder";
+        String folder = UUID.randomUUID().toString();
+        String storedName = "%s.jpg".formatted(UUID.randomUUID().toString());
+        String fileName = "%s/%s".formatted(folder, storedName);
+        byte[] content = "an file sample".getBytes();
+
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType("image/png");
+        metadata.setContentLength(content.length);
+        metadata.setLastModified(new Date(1_000L));
+        when(client.getObjectMetadata(rootFolder, fileName)).thenReturn(metadata);
+        S3Object object = new S3Object();
+        object.setObjectContent(new ByteArrayInputStream(content));
+        when(client.getObject(rootFolder, fileName)).thenReturn(object);
+
+        Optional<StoredFile> file = fileStorage.readFile(rootFolder, folder, storedName);
+
+        assertThat(file).isPresent();
+        assertThat(file.get().getFilename()).isEqualTo(storedName);
+        assertThat(file.get().getMediaType()).isEqualTo("image/png");
+        assertThat(file.get().contentLength()).isEqualTo(content.length);
+        assertThat(file.get().lastModified()).isEqualTo(1_000L);
+        verify(client, never()).getObject(rootFolder, fileName);
+        try (InputStream inputStream = file.get().getInputStream()) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @DisplayName("Read a file that is not on the bucket")
+    @Test
+    void readFileNotFound() {
+        String rootFolder = "rootFolder";
+        String folder = UUID.randomUUID().toString();
+        String storedName = "%s.jpg".formatted(UUID.randomUUID().toString());
+
+        AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+        notFound.setStatusCode(404);
+        when(client.getObjectMetadata(rootFolder, "%s/%s".formatted(folder, storedName))).thenThrow(notFound);
+
+        assertThat(fileStorage.readFile(rootFolder, folder, storedName)).isEmpty();
+    }
+
     @DisplayName("Delete a file")
     @Test
     void deleteFile() {